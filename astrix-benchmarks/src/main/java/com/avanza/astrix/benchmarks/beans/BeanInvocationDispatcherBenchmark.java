@@ -0,0 +1,158 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.benchmarks.beans;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.avanza.astrix.beans.config.AstrixConfig;
+import com.avanza.astrix.beans.core.AstrixBeanKey;
+import com.avanza.astrix.beans.core.AstrixSettings;
+import com.avanza.astrix.beans.core.BeanInvocationDispatcher;
+import com.avanza.astrix.beans.core.BeanProxy;
+import com.avanza.astrix.beans.core.GeneratedProxyFactory;
+import com.avanza.astrix.beans.core.ReactiveTypeConverterImpl;
+import com.avanza.astrix.beans.ft.BeanFaultToleranceFactory;
+import com.avanza.astrix.context.AstrixApplicationContext;
+import com.avanza.astrix.context.TestAstrixConfigurer;
+import com.avanza.astrix.context.mbeans.MBeanExporter;
+import com.avanza.astrix.context.metrics.Metrics;
+import com.avanza.astrix.context.metrics.ServiceBeanMetricsProxyFactory;
+
+import rx.Observable;
+/**
+ * Measures the overhead of {@link BeanInvocationDispatcher}, i.e. the dispatcher that applies
+ * the {@link BeanProxy}'s (fault tolerance, metrics etc) around each invocation on an Astrix bean. <p>
+ * 
+ * Each bean is decorated by the fault tolerance and metrics proxies, in the same order as a service bean, each 
+ * enabled according to the "faultTolerance" and "beanMetrics" parameters. The "target" parameter controls whether 
+ * the bean is bound to a plain object or to a JDK dynamic proxy (as a remoting proxy), and "invokeProxyHandlerDirectly" 
+ * whether invocations on a proxy target are dispatched directly to its InvocationHandler. The "beanProxy" parameter 
+ * controls whether the bean itself is a generated proxy class, see {@link GeneratedProxyFactory}, or a JDK dynamic proxy.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanInvocationDispatcherBenchmark {
+	
+	@Param({"true", "false"})
+	public boolean faultTolerance;
+	
+	@Param({"true", "false"})
+	public boolean beanMetrics;
+	
+	@Param({"object", "proxy"})
+	public String target;
+	
+	@Param({"true", "false"})
+	public boolean invokeProxyHandlerDirectly;
+	
+	@Param({"generated", "jdk"})
+	public String beanProxy;
+	
+	private AstrixApplicationContext context;
+	private BeanInvocationDispatcher dispatcher;
+	private Ping ping;
+	
+	@Setup
+	public void setup() {
+		TestAstrixConfigurer configurer = new TestAstrixConfigurer();
+		configurer.enableFaultTolerance(faultTolerance);
+		configurer.set(AstrixSettings.ENABLE_BEAN_METRICS, beanMetrics);
+		this.context = (AstrixApplicationContext) configurer.configure();
+		AstrixBeanKey<Ping> beanKey = AstrixBeanKey.create(Ping.class);
+		BeanProxy faultToleranceProxy = context.getInstance(BeanFaultToleranceFactory.class).createFaultToleranceProxy(beanKey);
+		BeanProxy metricsProxy = new ServiceBeanMetricsProxyFactory(context.getInstance(Metrics.class), 
+																	context.getInstance(AstrixConfig.class), 
+																	context.getInstance(MBeanExporter.class)).create(beanKey);
+		List<BeanProxy> proxies = Arrays.asList(faultToleranceProxy, metricsProxy);
+		Ping targetBean = new PingImpl();
+		if ("proxy".equals(target)) {
+			targetBean = (Ping) Proxy.newProxyInstance(Ping.class.getClassLoader(), new Class<?>[] {Ping.class}, new ForwardingInvocationHandler(targetBean));
+		}
+		this.dispatcher = new BeanInvocationDispatcher(proxies, new ReactiveTypeConverterImpl(Collections.emptyList()), targetBean, invokeProxyHandlerDirectly);
+		if ("generated".equals(beanProxy)) {
+			this.ping = (Ping) GeneratedProxyFactory.newProxyInstance(dispatcher::getInvocation, Ping.class);
+		} else {
+			this.ping = (Ping) Proxy.newProxyInstance(Ping.class.getClassLoader(), new Class<?>[] {Ping.class}, dispatcher);
+		}
+	}
+	
+	@TearDown
+	public void tearDown() {
+		this.dispatcher.close();
+		this.context.destroy();
+	}
+	
+	@Benchmark
+	public String synchronousInvocation() {
+		return ping.ping("ping");
+	}
+	
+	@Benchmark
+	public String reactiveInvocation() {
+		return ping.observePing("ping").toBlocking().first();
+	}
+	
+	public interface Ping {
+		String ping(String msg);
+		Observable<String> observePing(String msg);
+	}
+	
+	public static class PingImpl implements Ping {
+		@Override
+		public String ping(String msg) {
+			return msg;
+		}
+		@Override
+		public Observable<String> observePing(String msg) {
+			return Observable.just(msg);
+		}
+	}
+	
+	private static class ForwardingInvocationHandler implements InvocationHandler {
+		private final Object target;
+		public ForwardingInvocationHandler(Object target) {
+			this.target = target;
+		}
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			return method.invoke(target, args);
+		}
+	}
+
+}
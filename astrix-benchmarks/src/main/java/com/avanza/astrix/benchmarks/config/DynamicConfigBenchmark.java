@@ -0,0 +1,85 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.benchmarks.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.avanza.astrix.config.DynamicBooleanProperty;
+import com.avanza.astrix.config.DynamicConfig;
+import com.avanza.astrix.config.DynamicIntProperty;
+import com.avanza.astrix.config.MapConfigSource;
+/**
+ * Compares looking up a property in {@link DynamicConfig} on each read with reading a property
+ * instance that is resolved once. <p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DynamicConfigBenchmark {
+	
+	private static final String ENABLED = "com.avanza.astrix.benchmark.enabled";
+	private static final String POOL_SIZE = "com.avanza.astrix.benchmark.poolSize";
+	
+	private DynamicConfig config;
+	private DynamicBooleanProperty enabled;
+	private DynamicIntProperty poolSize;
+	
+	@Setup
+	public void setup() {
+		MapConfigSource first = new MapConfigSource();
+		MapConfigSource second = new MapConfigSource();
+		second.set(ENABLED, "true");
+		second.set(POOL_SIZE, "10");
+		this.config = DynamicConfig.create(first, second);
+		this.enabled = config.getBooleanProperty(ENABLED, false);
+		this.poolSize = config.getIntProperty(POOL_SIZE, 1);
+	}
+	
+	@Benchmark
+	public boolean booleanPropertyLookup() {
+		return config.getBooleanProperty(ENABLED, false).get();
+	}
+	
+	@Benchmark
+	public int intPropertyLookup() {
+		return config.getIntProperty(POOL_SIZE, 1).get();
+	}
+	
+	@Benchmark
+	public boolean resolvedBooleanProperty() {
+		return enabled.get();
+	}
+	
+	@Benchmark
+	public int resolvedIntProperty() {
+		return poolSize.get();
+	}
+
+}
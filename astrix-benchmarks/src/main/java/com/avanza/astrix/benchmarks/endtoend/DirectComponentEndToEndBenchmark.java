@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.benchmarks.endtoend;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.avanza.astrix.beans.core.AstrixSettings;
+import com.avanza.astrix.beans.service.DirectComponent;
+import com.avanza.astrix.context.AstrixContext;
+import com.avanza.astrix.context.TestAstrixConfigurer;
+/**
+ * Measures an invocation on an Astrix service bean bound using the {@link DirectComponent}, i.e. 
+ * the full client side bean invocation path (bean proxies, metrics, fault tolerance) without 
+ * any remoting involved. <p>
+ * 
+ * Reports throughput and latency percentiles, run with "-prof gc" to include allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DirectComponentEndToEndBenchmark {
+	
+	@Param({"true", "false"})
+	public boolean beanMetrics;
+	
+	@Param({"true", "false"})
+	public boolean faultTolerance;
+	
+	private AstrixContext context;
+	private Ping ping;
+	private PingAsync pingAsync;
+	
+	@Setup
+	public void setup() throws Exception {
+		TestAstrixConfigurer configurer = new TestAstrixConfigurer();
+		configurer.registerApiProvider(ConfigDiscoveredPingApi.class);
+		configurer.enableFaultTolerance(faultTolerance);
+		configurer.set(AstrixSettings.ENABLE_BEAN_METRICS, beanMetrics);
+		configurer.set(ConfigDiscoveredPingApi.PING_URI, DirectComponent.registerAndGetUri(Ping.class, new PingImpl()));
+		this.context = configurer.configure();
+		this.ping = context.waitForBean(Ping.class, 5_000);
+		this.pingAsync = context.getBean(PingAsync.class);
+	}
+	
+	@TearDown
+	public void tearDown() {
+		this.context.destroy();
+	}
+	
+	@Benchmark
+	public String synchronousInvocation() {
+		return ping.ping("ping");
+	}
+	
+	@Benchmark
+	public String reactiveInvocation() {
+		return pingAsync.ping("ping").toBlocking().first();
+	}
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.benchmarks.endtoend;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.avanza.astrix.beans.core.AstrixSettings;
+import com.avanza.astrix.beans.registry.InMemoryServiceRegistry;
+import com.avanza.astrix.context.AstrixApplicationContext;
+import com.avanza.astrix.context.AstrixContext;
+import com.avanza.astrix.context.TestAstrixConfigurer;
+import com.avanza.astrix.netty.NettyRemotingComponent;
+import com.avanza.astrix.netty.server.NettyRemotingServer;
+import com.avanza.astrix.provider.component.AstrixServiceComponentNames;
+import com.avanza.astrix.provider.core.AstrixApplication;
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodecs;
+import com.avanza.astrix.serviceunit.ServiceExporter;
+/**
+ * Measures a complete remote invocation over the netty transport on the loopback interface, including
+ * the client side bean invocation path, envelope encoding and the server side service activator. <p>
+ * 
+ * Reports throughput and latency percentiles, run with "-prof gc" to include allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NettyEndToEndBenchmark {
+	
+	@Param({"binary", "java"})
+	public String envelopeFormat;
+	
+	private final InMemoryServiceRegistry registry = new InMemoryServiceRegistry();
+	private AstrixApplicationContext serverContext;
+	private AstrixContext clientContext;
+	private Ping ping;
+	private PingAsync pingAsync;
+	
+	@Setup
+	public void setup() throws Exception {
+		this.serverContext = (AstrixApplicationContext) new TestAstrixConfigurer().setApplicationDescriptor(NettyPingApp.class)
+				.set(AstrixSettings.SERVICE_REGISTRY_URI, registry.getServiceUri())
+				.set(AstrixSettings.SERVICE_ADMINISTRATOR_COMPONENT, AstrixServiceComponentNames.DIRECT)
+				.set(NettyRemotingServer.NETTY_SERVER_BIND_PORT, 0)
+				.configure();
+		serverContext.getInstance(ServiceExporter.class).addServiceProvider(new PingImpl());
+		serverContext.startServicePublisher();
+		
+		this.clientContext = new TestAstrixConfigurer().registerApiProvider(RegistryDiscoveredPingApi.class)
+													   .set(AstrixSettings.SERVICE_REGISTRY_URI, registry.getServiceUri())
+													   .set(AstrixSettings.BEAN_BIND_ATTEMPT_INTERVAL, 10L)
+													   .set(RemotingEnvelopeCodecs.ENVELOPE_FORMAT, envelopeFormat)
+													   .configure();
+		this.ping = clientContext.waitForBean(Ping.class, 5_000);
+		this.pingAsync = clientContext.getBean(PingAsync.class);
+	}
+	
+	@TearDown
+	public void tearDown() {
+		this.clientContext.destroy();
+		this.serverContext.destroy();
+	}
+	
+	@Benchmark
+	public String synchronousInvocation() {
+		return ping.ping("ping");
+	}
+	
+	@Benchmark
+	public String reactiveInvocation() {
+		return pingAsync.ping("ping").toBlocking().first();
+	}
+	
+	@AstrixApplication(defaultServiceComponent = NettyRemotingComponent.NAME, exportsRemoteServicesFor = RegistryDiscoveredPingApi.class)
+	public static class NettyPingApp {
+	}
+
+}
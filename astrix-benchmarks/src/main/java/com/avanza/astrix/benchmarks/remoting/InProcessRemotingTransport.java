@@ -0,0 +1,75 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.benchmarks.remoting;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import com.avanza.astrix.core.remoting.RoutingKey;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
+import com.avanza.astrix.remoting.client.RemotingTransportSpi;
+import com.avanza.astrix.remoting.client.RoutedServiceInvocationRequest;
+
+import rx.Observable;
+/**
+ * Transport that replies with a canned response without leaving the calling thread, used
+ * to isolate the cost of the client side invocation path.
+ */
+public final class InProcessRemotingTransport implements RemotingTransportSpi {
+	
+	private final Observable<AstrixServiceInvocationResponse> response;
+	private final int partitionCount;
+	
+	public InProcessRemotingTransport(Object responseBody) {
+		this(responseBody, 1);
+	}
+
+	public InProcessRemotingTransport(Object responseBody, int partitionCount) {
+		AstrixServiceInvocationResponse response = new AstrixServiceInvocationResponse();
+		response.setResponseBody(responseBody);
+		this.response = Observable.just(response);
+		this.partitionCount = partitionCount;
+	}
+
+	@Override
+	public Observable<AstrixServiceInvocationResponse> submitRoutedRequest(AstrixServiceInvocationRequest request, RoutingKey routingKey) {
+		return response;
+	}
+
+	@Override
+	public Observable<List<AstrixServiceInvocationResponse>> submitRoutedRequests(Collection<RoutedServiceInvocationRequest> requests) {
+		List<AstrixServiceInvocationResponse> responses = new ArrayList<>(requests.size());
+		AstrixServiceInvocationResponse cannedResponse = response.toBlocking().first();
+		for (int i = 0; i < requests.size(); i++) {
+			responses.add(cannedResponse);
+		}
+		return Observable.just(responses);
+	}
+
+	@Override
+	public Observable<List<AstrixServiceInvocationResponse>> submitBroadcastRequest(AstrixServiceInvocationRequest request) {
+		return Observable.just(Collections.nCopies(partitionCount, response.toBlocking().first()));
+	}
+
+	@Override
+	public int partitionCount() {
+		return partitionCount;
+	}
+
+}
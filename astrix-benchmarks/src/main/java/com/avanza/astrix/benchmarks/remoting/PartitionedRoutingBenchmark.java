@@ -0,0 +1,105 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.benchmarks.remoting;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.avanza.astrix.beans.core.ReactiveTypeConverterImpl;
+import com.avanza.astrix.core.AstrixPartitionedRouting;
+import com.avanza.astrix.core.remoting.RoutingStrategy;
+import com.avanza.astrix.remoting.client.RemotingProxy;
+import com.avanza.astrix.remoting.client.RemotingTransport;
+import com.avanza.astrix.versioning.core.AstrixObjectSerializer;
+/**
+ * Measures the client side cost of a call with an {@link AstrixPartitionedRouting} argument,
+ * using a transport that replies with a canned (empty) response from each partition. <p>
+ * 
+ * The score is the cost per call. Divide by the "keys" parameter to get the cost per element. 
+ * Run with "-prof gc" to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PartitionedRoutingBenchmark {
+	
+	private static final int PARTITION_COUNT = 16;
+	
+	@Param({"10", "1000", "100000"})
+	public int keys;
+	
+	private LookupService lookupService;
+	private long[] longKeys;
+	private int[] intKeys;
+	private List<String> stringKeys;
+	
+	@Setup
+	public void setup() {
+		this.lookupService = RemotingProxy.create(LookupService.class, 
+												  LookupService.class, 
+												  RemotingTransport.create(new InProcessRemotingTransport(Collections.emptyList(), PARTITION_COUNT)), 
+												  new AstrixObjectSerializer.NoVersioningSupport(), 
+												  new RoutingStrategy.RoundRobin(), 
+												  new ReactiveTypeConverterImpl(Collections.emptyList()));
+		this.longKeys = new long[keys];
+		this.intKeys = new int[keys];
+		this.stringKeys = new ArrayList<>(keys);
+		for (int i = 0; i < keys; i++) {
+			longKeys[i] = i * 31L;
+			intKeys[i] = i * 31;
+			stringKeys.add("key-" + i);
+		}
+	}
+	
+	@Benchmark
+	public List<String> longArrayKeys() {
+		return lookupService.lookupLongs(longKeys);
+	}
+	
+	@Benchmark
+	public List<String> intArrayKeys() {
+		return lookupService.lookupInts(intKeys);
+	}
+	
+	@Benchmark
+	public List<String> stringListKeys() {
+		return lookupService.lookupStrings(stringKeys);
+	}
+	
+	public interface LookupService {
+		List<String> lookupLongs(@AstrixPartitionedRouting long[] keys);
+		List<String> lookupInts(@AstrixPartitionedRouting int[] keys);
+		List<String> lookupStrings(@AstrixPartitionedRouting List<String> keys);
+	}
+
+}
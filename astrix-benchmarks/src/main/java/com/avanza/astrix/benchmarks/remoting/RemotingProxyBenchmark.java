@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.benchmarks.remoting;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.avanza.astrix.beans.core.ReactiveTypeConverterImpl;
+import com.avanza.astrix.core.remoting.RoutingStrategy;
+import com.avanza.astrix.remoting.client.RemotingProxy;
+import com.avanza.astrix.remoting.client.RemotingTransport;
+import com.avanza.astrix.versioning.core.AstrixObjectSerializer;
+
+import rx.Observable;
+/**
+ * Measures the client side overhead of a remote call through {@link RemotingProxy}, using
+ * a transport that replies with a canned response on the calling thread. <p>
+ * 
+ * Run with "-prof gc" to see the allocation rate (gc.alloc.rate.norm is bytes allocated per call).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RemotingProxyBenchmark {
+	
+	private PingService pingService;
+	
+	@Setup
+	public void setup() {
+		this.pingService = RemotingProxy.create(PingService.class, 
+												PingService.class, 
+												RemotingTransport.create(new InProcessRemotingTransport("pong")), 
+												new AstrixObjectSerializer.NoVersioningSupport(), 
+												new RoutingStrategy.RoundRobin(), 
+												new ReactiveTypeConverterImpl(Collections.emptyList()));
+	}
+	
+	@Benchmark
+	public String noArgumentCall() {
+		return pingService.ping();
+	}
+	
+	@Benchmark
+	public String singleArgumentCall() {
+		return pingService.echo("ping");
+	}
+	
+	@Benchmark
+	public String observableCall() {
+		return pingService.observePing().toBlocking().first();
+	}
+	
+	public interface PingService {
+		String ping();
+		String echo(String msg);
+		Observable<String> observePing();
+	}
+
+}
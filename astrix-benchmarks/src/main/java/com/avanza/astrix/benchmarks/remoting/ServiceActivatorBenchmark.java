@@ -0,0 +1,125 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.benchmarks.remoting;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.avanza.astrix.beans.core.AstrixSettings;
+import com.avanza.astrix.benchmarks.versioning.PingRequest;
+import com.avanza.astrix.benchmarks.versioning.PingSerializerConfigurer;
+import com.avanza.astrix.context.AstrixApplicationContext;
+import com.avanza.astrix.context.TestAstrixConfigurer;
+import com.avanza.astrix.core.util.ReflectionUtil;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequestHeaders;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
+import com.avanza.astrix.remoting.client.ServiceMethodIds;
+import com.avanza.astrix.remoting.server.AstrixServiceActivator;
+import com.avanza.astrix.versioning.core.AstrixObjectSerializer;
+import com.avanza.astrix.versioning.core.ObjectSerializerDefinition;
+import com.avanza.astrix.versioning.core.ObjectSerializerFactory;
+/**
+ * Measures the server side of a remote invocation, i.e. the work done by the {@link AstrixServiceActivator}
+ * to dispatch an (already decoded) request to the service provider.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceActivatorBenchmark {
+	
+	@Param({"true", "false"})
+	public boolean exportedServiceMetrics;
+	
+	@Param({"none", "jackson1"})
+	public String serializer;
+	
+	/**
+	 * Whether the request identifies the method using its id, as done by clients once the server 
+	 * has acknowledged method ids, or using the full method signature (old clients).
+	 */
+	@Param({"true", "false"})
+	public boolean serviceMethodIds;
+	
+	private AstrixApplicationContext context;
+	private AstrixServiceActivator serviceActivator;
+	private AstrixServiceInvocationRequest request;
+	
+	@Setup
+	public void setup() throws Exception {
+		this.context = (AstrixApplicationContext) new TestAstrixConfigurer().set(AstrixSettings.EXPORTED_SERVICE_METRICS_ENABLED, exportedServiceMetrics)
+																	 .configure();
+		this.serviceActivator = context.getInstance(AstrixServiceActivator.class);
+		AstrixObjectSerializer objectSerializer = createSerializer();
+		this.serviceActivator.register(new PingServiceImpl(), objectSerializer, PingService.class);
+		
+		this.request = new AstrixServiceInvocationRequest();
+		request.setHeader(AstrixServiceInvocationRequestHeaders.API_VERSION, Integer.toString(objectSerializer.version()));
+		request.setHeader(AstrixServiceInvocationRequestHeaders.SERVICE_API, PingService.class.getName());
+		String methodSignature = ReflectionUtil.methodSignatureWithoutReturnType(PingService.class.getMethod("ping", PingRequest.class));
+		if (serviceMethodIds) {
+			request.setHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_ID, ServiceMethodIds.methodId(methodSignature));
+		} else {
+			request.setHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_SIGNATURE, methodSignature);
+		}
+		request.setArguments(new Object[] { objectSerializer.serialize(new PingRequest("ping", "benchmark", 1), objectSerializer.version()) });
+	}
+
+	private AstrixObjectSerializer createSerializer() {
+		if ("jackson1".equals(serializer)) {
+			return context.getInstance(ObjectSerializerFactory.class)
+						  .create(ObjectSerializerDefinition.versionedService(PingSerializerConfigurer.CURRENT_VERSION, PingSerializerConfigurer.class));
+		}
+		return new AstrixObjectSerializer.NoVersioningSupport();
+	}
+	
+	@TearDown
+	public void tearDown() {
+		this.context.destroy();
+	}
+	
+	@Benchmark
+	public AstrixServiceInvocationResponse invokeService() {
+		return serviceActivator.invokeService(request);
+	}
+	
+	public interface PingService {
+		PingRequest ping(PingRequest request);
+	}
+	
+	public static class PingServiceImpl implements PingService {
+		@Override
+		public PingRequest ping(PingRequest request) {
+			return request;
+		}
+	}
+
+}
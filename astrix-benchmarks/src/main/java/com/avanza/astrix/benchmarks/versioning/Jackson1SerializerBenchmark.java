@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.benchmarks.versioning;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.avanza.astrix.context.AstrixApplicationContext;
+import com.avanza.astrix.context.TestAstrixConfigurer;
+import com.avanza.astrix.versioning.core.AstrixObjectSerializer;
+import com.avanza.astrix.versioning.core.ObjectSerializerDefinition;
+import com.avanza.astrix.versioning.core.ObjectSerializerFactory;
+/**
+ * Measures the Jackson1 based versioned serializer, both for clients on the current
+ * version and for clients on an older version, i.e when the message must be migrated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Jackson1SerializerBenchmark {
+	
+	private AstrixApplicationContext context;
+	private AstrixObjectSerializer serializer;
+	private PingRequest request;
+	private Object currentVersionJson;
+	private Object oldVersionJson;
+	
+	@Setup
+	public void setup() {
+		this.context = (AstrixApplicationContext) new TestAstrixConfigurer().configure();
+		this.serializer = context.getInstance(ObjectSerializerFactory.class)
+								 .create(ObjectSerializerDefinition.versionedService(PingSerializerConfigurer.CURRENT_VERSION, PingSerializerConfigurer.class));
+		this.request = new PingRequest("ping", "benchmark", 3);
+		this.currentVersionJson = serializer.serialize(request, PingSerializerConfigurer.CURRENT_VERSION);
+		this.oldVersionJson = serializer.serialize(request, 1);
+	}
+	
+	@TearDown
+	public void tearDown() {
+		this.context.destroy();
+	}
+	
+	@Benchmark
+	public Object serializeCurrentVersion() {
+		return serializer.serialize(request, PingSerializerConfigurer.CURRENT_VERSION);
+	}
+	
+	@Benchmark
+	public Object serializeOldVersion() {
+		return serializer.serialize(request, 1);
+	}
+	
+	@Benchmark
+	public PingRequest deserializeCurrentVersion() {
+		return serializer.deserialize(currentVersionJson, PingRequest.class, PingSerializerConfigurer.CURRENT_VERSION);
+	}
+	
+	@Benchmark
+	public PingRequest deserializeOldVersion() {
+		return serializer.deserialize(oldVersionJson, PingRequest.class, 1);
+	}
+
+}
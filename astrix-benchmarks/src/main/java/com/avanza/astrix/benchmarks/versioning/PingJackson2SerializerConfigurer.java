@@ -0,0 +1,75 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.benchmarks.versioning;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.avanza.astrix.versioning.jackson2.AstrixJsonApiMigration;
+import com.avanza.astrix.versioning.jackson2.AstrixJsonMessageMigration;
+import com.avanza.astrix.versioning.jackson2.Jackson2ObjectSerializerConfigurer;
+import com.avanza.astrix.versioning.jackson2.JacksonObjectMapperBuilder;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+/**
+ * Jackson 2 version of {@link PingSerializerConfigurer}.
+ */
+public class PingJackson2SerializerConfigurer implements Jackson2ObjectSerializerConfigurer {
+	
+	@Override
+	public List<? extends AstrixJsonApiMigration> apiMigrations() {
+		return Arrays.asList(new PingApiMigrationV1());
+	}
+
+	@Override
+	public void configure(JacksonObjectMapperBuilder objectMapperBuilder) {
+	}
+	
+	public static class PingApiMigrationV1 implements AstrixJsonApiMigration {
+
+		@Override
+		public int fromVersion() {
+			return 1;
+		}
+
+		@Override
+		public AstrixJsonMessageMigration<?>[] getMigrations() {
+			return new AstrixJsonMessageMigration<?>[] {
+				new PingRequestV1Migration()
+			};
+		}
+		
+	}
+	
+	private static class PingRequestV1Migration implements AstrixJsonMessageMigration<PingRequest> {
+
+		@Override
+		public Class<PingRequest> getJavaType() {
+			return PingRequest.class;
+		}
+
+		@Override
+		public void upgrade(ObjectNode json) {
+			json.put("count", 1);
+		}
+
+		@Override
+		public void downgrade(ObjectNode json) {
+			json.remove("count");
+		}
+		
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.benchmarks.versioning;
+
+import java.io.Serializable;
+/**
+ * Version 2 of the PingRequest message. Version 1 lacked the "count" property.
+ */
+public class PingRequest implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private String msg;
+	private String sender;
+	private int count;
+	
+	public PingRequest() {
+	}
+
+	public PingRequest(String msg, String sender, int count) {
+		this.msg = msg;
+		this.sender = sender;
+		this.count = count;
+	}
+
+	public String getMsg() {
+		return msg;
+	}
+
+	public void setMsg(String msg) {
+		this.msg = msg;
+	}
+
+	public String getSender() {
+		return sender;
+	}
+
+	public void setSender(String sender) {
+		this.sender = sender;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public void setCount(int count) {
+		this.count = count;
+	}
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.benchmarks.versioning;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.avanza.astrix.context.AstrixApplicationContext;
+import com.avanza.astrix.context.TestAstrixConfigurer;
+import com.avanza.astrix.versioning.core.AstrixObjectSerializer;
+import com.avanza.astrix.versioning.core.AstrixObjectSerializerConfigurer;
+import com.avanza.astrix.versioning.core.ObjectSerializerDefinition;
+import com.avanza.astrix.versioning.core.ObjectSerializerFactory;
+/**
+ * Compares the Jackson 1 and Jackson 2 based versioned serializers, using the same api and migrations,
+ * for a single message and for a list of messages. Both the String form and the byte form, see 
+ * {@link AstrixObjectSerializer#supportsStreaming()}, is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerComparisonBenchmark {
+	
+	@Param({"jackson1", "jackson2"})
+	private String serializerType;
+	
+	@Param({"1", "100"})
+	private int messageCount;
+	
+	private AstrixApplicationContext context;
+	private AstrixObjectSerializer serializer;
+	private Object message;
+	private Type messageType;
+	private Object currentVersionJson;
+	private Object oldVersionJson;
+	
+	@Setup
+	public void setup() {
+		this.context = (AstrixApplicationContext) new TestAstrixConfigurer().configure();
+		Class<? extends AstrixObjectSerializerConfigurer> configurer = "jackson1".equals(serializerType) ? PingSerializerConfigurer.class : PingJackson2SerializerConfigurer.class;
+		this.serializer = context.getInstance(ObjectSerializerFactory.class)
+								 .create(ObjectSerializerDefinition.versionedService(PingSerializerConfigurer.CURRENT_VERSION, configurer));
+		if (messageCount == 1) {
+			this.message = new PingRequest("ping", "benchmark", 3);
+			this.messageType = PingRequest.class;
+		} else {
+			List<PingRequest> messages = new ArrayList<>(messageCount);
+			for (int i = 0; i < messageCount; i++) {
+				messages.add(new PingRequest("ping-" + i, "benchmark", i));
+			}
+			this.message = messages;
+			this.messageType = PingRequestList.class.getGenericSuperclass();
+		}
+		this.currentVersionJson = serializer.serialize(message, PingSerializerConfigurer.CURRENT_VERSION);
+		this.oldVersionJson = serializer.serialize(message, 1);
+	}
+	
+	@TearDown
+	public void tearDown() {
+		this.context.destroy();
+	}
+	
+	@Benchmark
+	public Object serializeCurrentVersion() {
+		return serializer.serialize(message, PingSerializerConfigurer.CURRENT_VERSION);
+	}
+	
+	@Benchmark
+	public Object serializeOldVersion() {
+		return serializer.serialize(message, 1);
+	}
+	
+	@Benchmark
+	public byte[] serializeCurrentVersionToBytes() {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+		serializer.serialize(message, PingSerializerConfigurer.CURRENT_VERSION, out);
+		return out.toByteArray();
+	}
+	
+	@Benchmark
+	public Object deserializeCurrentVersion() {
+		return serializer.deserialize(currentVersionJson, messageType, PingSerializerConfigurer.CURRENT_VERSION);
+	}
+	
+	@Benchmark
+	public Object deserializeOldVersion() {
+		return serializer.deserialize(oldVersionJson, messageType, 1);
+	}
+	
+	@SuppressWarnings("serial")
+	private static abstract class PingRequestList extends ArrayList<PingRequest> {
+	}
+
+}
@@ -48,6 +48,7 @@ final class AstrixFtProxiedFactory<T> implements StandardFactoryBean<T> {
 	public T create(AstrixBeans beans) {
 		T rawBean = target.create(beans);
 		BeanProxy ftProxy = faultToleranceProxyFactory.createFaultToleranceProxy(beanDefinition.getBeanKey());
+		// Closed when the bean is destroyed, see AstrixBeanInstance
 		BeanInvocationDispatcher beanProxyDispather = new BeanInvocationDispatcher(Arrays.asList(ftProxy), asyncTypeConverter, rawBean);
 		return ReflectionUtil.newProxy(getBeanKey().getBeanType(), beanProxyDispather);
 	}
@@ -22,6 +22,8 @@ import com.avanza.astrix.beans.service.ServiceComponentRegistry;
 import com.avanza.astrix.beans.service.ServiceDiscovery;
 import com.avanza.astrix.beans.service.ServiceDiscoveryFactoryPlugin;
 import com.avanza.astrix.beans.service.ServiceProperties;
+import com.avanza.astrix.config.DynamicPropertyListener;
+import com.avanza.astrix.config.DynamicStringProperty;
 
 /**
  * 
@@ -76,6 +78,14 @@ public class ConfigServiceDiscoveryPlugin implements ServiceDiscoveryFactoryPlug
 		public String description() {
 			return "ConfigDiscovery[" + configEntryName + "]";
 		}
+		
+		@Override
+		public ChangeListenerRegistration addChangeListener(Runnable listener) {
+			DynamicStringProperty serviceUri = config.getStringProperty(configEntryName, null);
+			DynamicPropertyListener<String> serviceUriListener = newValue -> listener.run();
+			serviceUri.addListener(serviceUriListener);
+			return () -> serviceUri.removeListener(serviceUriListener);
+		}
 
 		// A serviceUri has the format
 		// [component-name:service-provider-properties]
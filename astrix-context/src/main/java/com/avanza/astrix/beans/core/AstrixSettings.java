@@ -28,10 +28,16 @@ import com.avanza.astrix.provider.component.AstrixServiceComponentNames;
  */
 public final class AstrixSettings {
 	/**
-	 * Defines how long to wait between consecutive bind attempts when a service bean is
+	 * Defines the maximum time to wait between consecutive bind attempts when a service bean is
 	 * in UNBOUND state.
 	 */
 	public static final LongSetting BEAN_BIND_ATTEMPT_INTERVAL = LongSetting.create("StatefulAstrixBeanInstance.beanBindAttemptInterval", 10_000L);
+	
+	/**
+	 * Defines how long to wait before the first bind attempt after a service bean enters UNBOUND state. The
+	 * time between consecutive failed bind attempts is doubled up to {@link #BEAN_BIND_ATTEMPT_INTERVAL}. 
+	 */
+	public static final LongSetting BEAN_BIND_ATTEMPT_INITIAL_INTERVAL = LongSetting.create("StatefulAstrixBeanInstance.beanBindAttemptInitialInterval", 500L);
 
 	/**
 	 * Defines how long to wait between consecutive lease renewals
@@ -39,6 +45,12 @@ public final class AstrixSettings {
 	 */
 	public static final LongSetting SERVICE_LEASE_RENEW_INTERVAL = LongSetting.create("AstrixServiceLeaseManager.leaseRenewInterval", 30_000L);
 	
+	/**
+	 * The maximum number of service beans that the lease manager renews leases for, or attempts to bind, 
+	 * concurrently. Read when the AstrixContext is created.
+	 */
+	public static final IntSetting SERVICE_LEASE_MANAGER_THREADS = IntSetting.create("AstrixServiceLeaseManager.threads", 4);
+	
 	public static final BooleanSetting ENFORCE_SUBSYSTEM_BOUNDARIES = BooleanSetting.create("AstrixContext.enforceSubsystemBoundaries", true);
 	
 	public static final String SERVICE_REGISTRY_URI_PROPERTY_NAME = "AstrixServiceRegistry.serviceUri";
@@ -105,6 +117,20 @@ public final class AstrixSettings {
 	 */
 	public static final BooleanSetting EXPORTED_SERVICE_METRICS_ENABLED = BooleanSetting.create("com.avanza.astrix.exportedServiceMetricsEnabled", true);
 	
+	/**
+	 * Whether invocations on a service bean that is bound to a JDK dynamic proxy, for instance a remoting proxy, 
+	 * should be dispatched directly to the InvocationHandler of the bound proxy, thereby avoiding passing the 
+	 * invocation through a second proxy. Read each time a bean is bound.
+	 */
+	public static final BooleanSetting INVOKE_PROXY_HANDLERS_DIRECTLY = BooleanSetting.create("com.avanza.astrix.invokeProxyHandlersDirectly", true);
+	
+	/**
+	 * Whether service beans should be created using proxy classes generated at runtime, see {@link GeneratedProxyFactory},
+	 * which invoke the bound bean without dispatching on the invoked Method. If false, or if a proxy class can't be 
+	 * generated for the bean type, service beans are created using JDK dynamic proxies. Read each time a service bean is created.
+	 */
+	public static final BooleanSetting GENERATED_BEAN_PROXIES = BooleanSetting.create("com.avanza.astrix.generatedBeanProxies", true);
+	
 	
 	public static final StringSetting GIGA_SPACE_BEAN_NAME = StringSetting.create("AstrixGsComponent.gigaSpaceBeanName", null);
 	public static final StringSetting DYNAMIC_CONFIG_FACTORY = StringSetting.create("com.avanza.astrix.context.AstrixDynamicConfigFactory", null);
@@ -15,74 +15,144 @@
  */
 package com.avanza.astrix.beans.core;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.util.List;
 import java.util.Objects;
-import java.util.function.Supplier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-import com.avanza.astrix.core.function.CheckedCommand;
-import com.avanza.astrix.core.util.ReflectionUtil;
+import com.avanza.astrix.config.DynamicPropertyListener;
 
 import rx.Observable;
-
-public final class BeanInvocationDispatcher implements InvocationHandler {
+/**
+ * Applies all enabled {@link BeanProxy}'s to each invocation on a target bean. <p>
+ * 
+ * The target method of each invoked bean method is resolved once into a bound {@link MethodHandle},
+ * and the enabled BeanProxy's are linked into a chain of {@link BeanProxy.BeanInvocation}'s for each bean
+ * method, which is only relinked when a BeanProxy signals that its enabled state has changed. Hence
+ * no chain is composed per invocation. BeanProxy's that don't support such signals, see 
+ * {@link BeanProxy#supportsEnabledListener()}, are always linked into the chain and queried on each 
+ * invocation. When all BeanProxy's are disabled the chain only consists of the target bean. Call 
+ * {@link #close()} when the dispatcher is no longer used to unsubscribe from the BeanProxy's. <p>
+ * 
+ * If the target bean is a JDK dynamic proxy, for instance a remoting proxy, invocations
+ * can optionally be dispatched directly to its InvocationHandler, which avoids passing each
+ * invocation through the target proxy. <p>
+ * 
+ * @author Elias Lindholm (elilin)
+ *
+ */
+public final class BeanInvocationDispatcher implements InvocationHandler, AutoCloseable {
 	
+	private static final Object[] NO_ARGS = new Object[0];
 	private final List<BeanProxy> proxys;
 	private final ReactiveTypeConverter reactiveTypeConverter;
 	private final Object targetBean;
+	/*
+	 * The InvocationHandler of the target bean if invocations should be dispatched directly to it, otherwise null
+	 */
+	private final InvocationHandler targetInvocationHandler;
+	private final ConcurrentMap<Method, BeanMethod> beanMethods = new ConcurrentHashMap<>();
+	private final DynamicPropertyListener<Boolean> proxyEnabledListener = enabled -> updateEnabledProxies();
+	/*
+	 * Guarded by this
+	 */
+	private BeanProxy[] enabledProxies;
 	
 	public BeanInvocationDispatcher(List<BeanProxy> proxys, ReactiveTypeConverter reactiveTypeConverter, Object targetBean) {
+		this(proxys, reactiveTypeConverter, targetBean, false);
+	}
+	
+	/**
+	 * @param invokeProxyHandlerDirectly - whether invocations should be dispatched directly to the InvocationHandler
+	 * of the target bean in case its a JDK dynamic proxy
+	 */
+	public BeanInvocationDispatcher(List<BeanProxy> proxys, ReactiveTypeConverter reactiveTypeConverter, Object targetBean, boolean invokeProxyHandlerDirectly) {
 		this.proxys = Objects.requireNonNull(proxys);
 		this.reactiveTypeConverter = Objects.requireNonNull(reactiveTypeConverter);
 		this.targetBean = Objects.requireNonNull(targetBean);
+		this.targetInvocationHandler = invokeProxyHandlerDirectly && Proxy.isProxyClass(targetBean.getClass()) ? Proxy.getInvocationHandler(targetBean) : null;
+		for (BeanProxy proxy : proxys) {
+			if (proxy.supportsEnabledListener()) {
+				proxy.addEnabledListener(proxyEnabledListener);
+			}
+		}
+		updateEnabledProxies();
 	}
-
-	@Override
-	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-		if (isObservableType(method.getReturnType()) || isReactiveType(method.getReturnType())) {
-			return proxyReactiveInvocation(method, args);
+	
+	private synchronized void updateEnabledProxies() {
+		this.enabledProxies = this.proxys.stream()
+										 .filter(proxy -> !proxy.supportsEnabledListener() || proxy.isEnabled())
+										 .toArray(BeanProxy[]::new);
+		for (BeanMethod beanMethod : beanMethods.values()) {
+			beanMethod.link(enabledProxies);
 		}
-		return proxyInvocation(method, args);
 	}
 	
-	private Object proxyInvocation(final Method method, final Object[] args) throws Throwable {
-		CheckedCommand<Object> serviceInvocation = () -> ReflectionUtil.invokeMethod(method, targetBean, args);
+	@Override
+	public void close() {
 		for (BeanProxy proxy : proxys) {
-			if (proxy.isEnabled()) {
-				serviceInvocation = proxy.proxyInvocation(serviceInvocation);
+			if (proxy.supportsEnabledListener()) {
+				proxy.removeEnabledListener(proxyEnabledListener);
 			}
 		}
-		return serviceInvocation.call();
 	}
 
-	@SuppressWarnings("unchecked")
-	private Object proxyReactiveInvocation(final Method method, final Object[] args) {
-		Supplier<Observable<Object>> serviceInvocation = () -> {
-			try {
-				Object reactiveResult = ReflectionUtil.invokeMethod(method, targetBean, args);
-				if (isObservableType(method.getReturnType())) {
-					return (Observable<Object>) reactiveResult;
-				}
-				return toObservable(method.getReturnType(), reactiveResult);
-			} catch (Throwable e) {
-				return Observable.error(e);
-			}
-		};
-		for (BeanProxy proxy : proxys) {
-			if (proxy.isEnabled()) {
-				serviceInvocation = proxy.proxyReactiveInvocation(serviceInvocation);
-			}
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+		return getBeanMethod(method).dispatch(args);
+	}
+	
+	/**
+	 * Returns the invocation of the given bean method, including all enabled BeanProxy's. Invoking it 
+	 * is equivalent to {@link #invoke(Object, Method, Object[])} with the given method, but avoids 
+	 * resolving the bean method on each invocation, see {@link GeneratedProxyFactory}.
+	 * 
+	 * @param method
+	 * @return
+	 */
+	public BeanProxy.BeanInvocation getInvocation(Method method) {
+		return getBeanMethod(method)::dispatch;
+	}
+	
+	private BeanMethod getBeanMethod(Method method) {
+		BeanMethod result = beanMethods.get(method);
+		if (result != null) {
+			return result;
 		}
-		
-		if (isObservableType(method.getReturnType())) {
-			return serviceInvocation.get(); 
-//			return Observable.create((s) -> {
-//				serviceInvocation.get().subscribe(s);
-//			});
+		synchronized (this) {
+			// Linked while holding the lock, hence it can't miss an update of the enabled proxies
+			return beanMethods.computeIfAbsent(method, m -> {
+				BeanMethod beanMethod = new BeanMethod(m);
+				beanMethod.link(enabledProxies);
+				return beanMethod;
+			});
+		}
+	}
+	
+	/*
+	 * A BeanProxy that doesn't signal changes of its enabled state is linked into the chain, 
+	 * but bypassed on each invocation while disabled.
+	 */
+	private static BeanProxy.BeanInvocation link(BeanProxy proxy, BeanProxy.BeanInvocation next) {
+		BeanProxy.BeanInvocation proxied = proxy.proxyBeanInvocation(next);
+		if (proxy.supportsEnabledListener()) {
+			return proxied;
+		}
+		return args -> proxy.isEnabled() ? proxied.invoke(args) : next.invoke(args);
+	}
+	
+	private static BeanProxy.ReactiveBeanInvocation link(BeanProxy proxy, BeanProxy.ReactiveBeanInvocation next) {
+		BeanProxy.ReactiveBeanInvocation proxied = proxy.proxyReactiveBeanInvocation(next);
+		if (proxy.supportsEnabledListener()) {
+			return proxied;
 		}
-		Observable<Object> asyncResult = serviceInvocation.get();
-		return this.reactiveTypeConverter.toCustomReactiveType(method.getReturnType(), asyncResult);
+		return args -> proxy.isEnabled() ? proxied.observe(args) : next.observe(args);
 	}
 
 	private <T> Observable<Object> toObservable(Class<T> reactiveType , Object reactiveInstance) {
@@ -96,5 +166,100 @@ public final class BeanInvocationDispatcher implements InvocationHandler {
 	private boolean isObservableType(Class<?> type) {
 		return Observable.class.isAssignableFrom(type);
 	}
+	
+	/**
+	 * A method on the target bean, resolved the first time it's invoked.
+	 */
+	private final class BeanMethod {
+		private final Method method;
+		private final Class<?> returnType;
+		private final boolean observable;
+		private final boolean reactive;
+		/*
+		 * Bound to the target bean and spreading an Object[] of arguments, i.e. (Object[])Object. Only 
+		 * used, and hence only created, when not dispatching directly to the targetInvocationHandler.
+		 */
+		private final MethodHandle methodHandle;
+		/*
+		 * The chain of enabled proxies, ending with the target bean. Only one of them is used, 
+		 * depending on whether the method is reactive.
+		 */
+		private volatile BeanProxy.BeanInvocation invocation;
+		private volatile BeanProxy.ReactiveBeanInvocation reactiveInvocation;
+		
+		BeanMethod(Method method) {
+			this.method = method;
+			this.returnType = method.getReturnType();
+			this.observable = isObservableType(returnType);
+			this.reactive = observable || isReactiveType(returnType);
+			this.methodHandle = targetInvocationHandler != null ? null : unreflect(method).bindTo(targetBean)
+																						  .asSpreader(Object[].class, method.getParameterCount())
+																						  .asType(MethodType.methodType(Object.class, Object[].class));
+		}
+		
+		void link(BeanProxy[] proxies) {
+			if (reactive) {
+				BeanProxy.ReactiveBeanInvocation result = this::observe;
+				for (BeanProxy proxy : proxies) {
+					result = BeanInvocationDispatcher.link(proxy, result);
+				}
+				this.reactiveInvocation = result;
+			} else {
+				BeanProxy.BeanInvocation result = this::invoke;
+				for (BeanProxy proxy : proxies) {
+					result = BeanInvocationDispatcher.link(proxy, result);
+				}
+				this.invocation = result;
+			}
+		}
+		
+		Object dispatch(Object[] args) throws Throwable {
+			if (!reactive) {
+				return invocation.invoke(args);
+			}
+			Observable<Object> asyncResult = reactiveInvocation.observe(args);
+			if (observable) {
+				return asyncResult;
+			}
+			return reactiveTypeConverter.toCustomReactiveType(returnType, asyncResult);
+		}
+		
+		@SuppressWarnings("unchecked")
+		private Observable<Object> observe(Object[] args) {
+			try {
+				Object reactiveResult = invoke(args);
+				if (observable) {
+					return (Observable<Object>) reactiveResult;
+				}
+				return toObservable(returnType, reactiveResult);
+			} catch (Throwable e) {
+				return Observable.error(e);
+			}
+		}
+		
+		Object invoke(Object[] args) throws Throwable {
+			if (targetInvocationHandler != null) {
+				// Same arguments as passed by the target proxy
+				return targetInvocationHandler.invoke(targetBean, method, args);
+			}
+			// The proxy passes null for methods without arguments
+			return (Object) methodHandle.invokeExact(args != null ? args : NO_ARGS);
+		}
+		
+	}
+	
+	private static MethodHandle unreflect(Method method) {
+		try {
+			return MethodHandles.publicLookup().unreflect(method);
+		} catch (IllegalAccessException e) {
+			// Non public bean type
+			method.setAccessible(true);
+			try {
+				return MethodHandles.publicLookup().unreflect(method);
+			} catch (IllegalAccessException e2) {
+				throw new IllegalArgumentException("Cannot access bean method: " + method, e2);
+			}
+		}
+	}
 
 }
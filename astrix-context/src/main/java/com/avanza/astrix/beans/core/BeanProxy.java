@@ -17,6 +17,7 @@ package com.avanza.astrix.beans.core;
 
 import java.util.function.Supplier;
 
+import com.avanza.astrix.config.DynamicPropertyListener;
 import com.avanza.astrix.core.function.CheckedCommand;
 
 import rx.Observable;
@@ -45,10 +46,76 @@ public interface BeanProxy {
 	 */
 	<T> Supplier<Observable<T>> proxyReactiveInvocation(Supplier<Observable<T>> command);
 	
+	/**
+	 * Proxy a synchronous invocation that receives its arguments when invoked. Unlike 
+	 * {@link #proxyInvocation(CheckedCommand)}, the returned invocation is created once for each bean
+	 * method and reused for all invocations as long as the enabled state is unchanged, hence a BeanProxy
+	 * that can proxy an invocation without allocating per invocation should override this method. <p>
+	 * 
+	 * The default implementation delegates to {@link #proxyInvocation(CheckedCommand)} on each invocation.
+	 * 
+	 * @param invocation
+	 * @return
+	 */
+	default BeanInvocation proxyBeanInvocation(BeanInvocation invocation) {
+		return args -> proxyInvocation(() -> invocation.invoke(args)).call();
+	}
+	
+	/**
+	 * Reactive counterpart of {@link #proxyBeanInvocation(BeanInvocation)}. <p>
+	 * 
+	 * The default implementation delegates to {@link #proxyReactiveInvocation(Supplier)} on each invocation.
+	 * 
+	 * @param invocation
+	 * @return
+	 */
+	default ReactiveBeanInvocation proxyReactiveBeanInvocation(ReactiveBeanInvocation invocation) {
+		return args -> proxyReactiveInvocation(() -> invocation.observe(args)).get();
+	}
+	
 	String name();
 	
 	boolean isEnabled();
 	
+	/**
+	 * Whether this BeanProxy notifies the listeners registered using {@link #addEnabledListener(DynamicPropertyListener)}
+	 * each time the value returned by {@link #isEnabled()} might have changed. If not, {@link #isEnabled()}
+	 * is queried on each invocation. <p>
+	 * 
+	 * @return
+	 */
+	default boolean supportsEnabledListener() {
+		return false;
+	}
+	
+	/**
+	 * Registers a listener that is notified each time the value returned by {@link #isEnabled()}
+	 * might have changed. Only used if {@link #supportsEnabledListener()} returns true. <p>
+	 * 
+	 * @param listener
+	 */
+	default void addEnabledListener(DynamicPropertyListener<Boolean> listener) {
+	}
+	
+	default void removeEnabledListener(DynamicPropertyListener<Boolean> listener) {
+	}
+	
+	/**
+	 * An invocation of a bean method, possibly proxied, with the arguments passed to the bean.
+	 */
+	@FunctionalInterface
+	interface BeanInvocation {
+		Object invoke(Object[] args) throws Throwable;
+	}
+	
+	/**
+	 * A reactive invocation of a bean method, possibly proxied, with the arguments passed to the bean.
+	 */
+	@FunctionalInterface
+	interface ReactiveBeanInvocation {
+		Observable<Object> observe(Object[] args);
+	}
+	
 	public static class NoProxy implements BeanProxy {
 
 		@Override
@@ -60,6 +127,16 @@ public interface BeanProxy {
 		public <T> Supplier<Observable<T>> proxyReactiveInvocation(Supplier<Observable<T>> command) {
 			return command;
 		}
+		
+		@Override
+		public BeanInvocation proxyBeanInvocation(BeanInvocation invocation) {
+			return invocation;
+		}
+		
+		@Override
+		public ReactiveBeanInvocation proxyReactiveBeanInvocation(ReactiveBeanInvocation invocation) {
+			return invocation;
+		}
 
 		public static BeanProxy create() {
 			return new NoProxy();
@@ -74,5 +151,11 @@ public interface BeanProxy {
 		public boolean isEnabled() {
 			return false;
 		}
+		
+		@Override
+		public boolean supportsEnabledListener() {
+			// Never enabled
+			return true;
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.beans.core;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Creates proxies using concrete classes generated at runtime, as an alternative to JDK dynamic proxies. <p>
+ *
+ * Each method of a generated proxy invokes its own {@link BeanProxy.BeanInvocation}, resolved once when the
+ * proxy is created. Hence an invocation is neither dispatched on its {@link Method} nor passed through an
+ * {@link InvocationHandler}, and the JIT can inline the BeanInvocation into the proxy method. The arguments are passed
+ * the same way as a JDK dynamic proxy passes them to its InvocationHandler, i.e. as an Object[], or null for
+ * methods without arguments. Checked exceptions not declared by the invoked method are wrapped in an
+ * {@link UndeclaredThrowableException}. <p>
+ *
+ * Like a JDK dynamic proxy, the equals, hashCode and toString methods are proxied as well. A proxy
+ * can only be generated for public interfaces whose methods only use public types, see {@link #canGenerateProxy(Class...)}. <p>
+ *
+ * Each proxy class is generated once, the first time a proxy implementing a given list of interfaces is created.
+ */
+public final class GeneratedProxyFactory {
+
+	private static final AtomicInteger nextProxyClassId = new AtomicInteger(0);
+	private static final ClassValue<ConcurrentMap<List<Class<?>>, ProxyClass>> proxyClassesByFirstInterface = new ClassValue<ConcurrentMap<List<Class<?>>, ProxyClass>>() {
+		@Override
+		protected ConcurrentMap<List<Class<?>>, ProxyClass> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>();
+		}
+	};
+
+	private GeneratedProxyFactory() {
+	}
+
+	/**
+	 * Whether a proxy class can be generated for the given interfaces. If not, a JDK dynamic
+	 * proxy should be used instead.
+	 *
+	 * @param interfaces
+	 * @return
+	 */
+	public static boolean canGenerateProxy(Class<?>... interfaces) {
+		return getProxiedMethods(interfaces) != null;
+	}
+
+	/**
+	 * Creates a proxy implementing the given interfaces.
+	 *
+	 * @param invocationFactory - invoked once for each proxied method to create the BeanInvocation invoked by that method
+	 * @param interfaces
+	 * @return
+	 * @throws IllegalArgumentException if a proxy can't be generated for the given interfaces, see {@link #canGenerateProxy(Class...)}
+	 */
+	public static Object newProxyInstance(Function<Method, BeanProxy.BeanInvocation> invocationFactory, Class<?>... interfaces) {
+		List<Class<?>> proxiedInterfaces = Arrays.asList(interfaces.clone());
+		ProxyClass proxyClass = proxyClassesByFirstInterface.get(interfaces[0])
+															.computeIfAbsent(proxiedInterfaces, GeneratedProxyFactory::generateProxyClass);
+		return proxyClass.newInstance(invocationFactory);
+	}
+
+	private static ProxyClass generateProxyClass(List<Class<?>> interfaces) {
+		List<Method> methods = getProxiedMethods(interfaces.toArray(new Class<?>[interfaces.size()]));
+		if (methods == null) {
+			throw new IllegalArgumentException("Cannot generate proxy class for interfaces: " + interfaces);
+		}
+		String className = GeneratedProxyFactory.class.getPackage().getName() + "."
+									+ interfaces.get(0).getSimpleName() + "$AstrixProxy" + nextProxyClassId.incrementAndGet();
+		byte[] classFile = ProxyClassFileWriter.write(className, interfaces, methods);
+		Class<?> proxyClass = new ProxyClassLoader(interfaces).define(className, classFile);
+		try {
+			return new ProxyClass(methods, proxyClass.getConstructor(BeanProxy.BeanInvocation[].class));
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException("Generated proxy class lacks constructor: " + className, e);
+		}
+	}
+
+	/*
+	 * Returns the methods to proxy, or null if a proxy class can't be generated. Methods
+	 * with the same signature are proxied by a single method, provided that they have the
+	 * same return type and declared exceptions.
+	 */
+	private static List<Method> getProxiedMethods(Class<?>[] interfaces) {
+		List<Method> candidates = new ArrayList<>();
+		try {
+			candidates.add(Object.class.getMethod("equals", Object.class));
+			candidates.add(Object.class.getMethod("hashCode"));
+			candidates.add(Object.class.getMethod("toString"));
+		} catch (NoSuchMethodException e) {
+			throw new AssertionError(e);
+		}
+		for (Class<?> type : interfaces) {
+			if (!type.isInterface() || !Modifier.isPublic(type.getModifiers())) {
+				return null;
+			}
+			candidates.addAll(Arrays.asList(type.getMethods()));
+		}
+		Map<String, Method> methodBySignature = new LinkedHashMap<>();
+		for (Method method : candidates) {
+			if (Modifier.isStatic(method.getModifiers())) {
+				continue;
+			}
+			if (!isPublic(method.getReturnType())
+					|| !Stream.of(method.getParameterTypes()).allMatch(GeneratedProxyFactory::isPublic)
+					|| !Stream.of(method.getExceptionTypes()).allMatch(GeneratedProxyFactory::isPublic)) {
+				return null;
+			}
+			String signature = method.getName() + Arrays.toString(method.getParameterTypes());
+			Method proxied = methodBySignature.putIfAbsent(signature, method);
+			if (proxied != null && (!proxied.getReturnType().equals(method.getReturnType())
+									|| !Arrays.equals(proxied.getExceptionTypes(), method.getExceptionTypes()))) {
+				return null;
+			}
+		}
+		return new ArrayList<>(methodBySignature.values());
+	}
+
+	private static boolean isPublic(Class<?> type) {
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+		return type.isPrimitive() || Modifier.isPublic(type.getModifiers());
+	}
+
+	private static final class ProxyClass {
+
+		private final Method[] methods;
+		private final Constructor<?> constructor;
+
+		ProxyClass(List<Method> methods, Constructor<?> constructor) {
+			this.methods = methods.toArray(new Method[methods.size()]);
+			this.constructor = constructor;
+		}
+
+		Object newInstance(Function<Method, BeanProxy.BeanInvocation> invocationFactory) {
+			BeanProxy.BeanInvocation[] invocations = new BeanProxy.BeanInvocation[methods.length];
+			for (int i = 0; i < methods.length; i++) {
+				invocations[i] = Objects.requireNonNull(invocationFactory.apply(methods[i]));
+			}
+			try {
+				return constructor.newInstance((Object) invocations);
+			} catch (ReflectiveOperationException e) {
+				throw new IllegalStateException("Failed to create proxy: " + constructor.getDeclaringClass().getName(), e);
+			}
+		}
+	}
+
+	/*
+	 * Each proxy class is defined by its own class loader, which resolves the types used by the proxied interfaces
+	 * through the class loader of the first interface, and falls back to the class loaders of the other interfaces.
+	 */
+	private static final class ProxyClassLoader extends ClassLoader {
+
+		private final ClassLoader[] fallbackLoaders;
+
+		ProxyClassLoader(List<Class<?>> interfaces) {
+			super(interfaces.get(0).getClassLoader());
+			this.fallbackLoaders = Stream.concat(interfaces.stream().skip(1), Stream.of(GeneratedProxyFactory.class))
+										 .map(Class::getClassLoader)
+										 .filter(Objects::nonNull)
+										 .distinct()
+										 .toArray(ClassLoader[]::new);
+		}
+
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			for (ClassLoader loader : fallbackLoaders) {
+				try {
+					return loader.loadClass(name);
+				} catch (ClassNotFoundException e) {
+					// Try next class loader
+				}
+			}
+			throw new ClassNotFoundException(name);
+		}
+
+		Class<?> define(String name, byte[] classFile) {
+			return defineClass(name, classFile, 0, classFile.length);
+		}
+	}
+
+}
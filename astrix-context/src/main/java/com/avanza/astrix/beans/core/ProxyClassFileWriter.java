@@ -0,0 +1,470 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.beans.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the class file of a proxy class generated by {@link GeneratedProxyFactory}. <p>
+ *
+ * The generated class implements the given interfaces and holds one {@link BeanProxy.BeanInvocation} for
+ * each proxied method, passed to its only constructor. Each method boxes its arguments into an Object[],
+ * invokes its BeanInvocation and unboxes the result, i.e. the equivalent of:
+ *
+ * <pre>
+ * public final String ping(String msg) {
+ *     try {
+ *         return (String) invocations[0].invoke(new Object[] { msg });
+ *     } catch (RuntimeException | Error | &lt;declared exceptions&gt; e) {
+ *         throw e;
+ *     } catch (Throwable e) {
+ *         throw new UndeclaredThrowableException(e);
+ *     }
+ * }
+ * </pre>
+ *
+ * The class file version is 49 (java 5), which does not require a StackMapTable.
+ */
+final class ProxyClassFileWriter {
+
+	private static final int CLASS_FILE_VERSION = 49;
+	private static final int ACC_PUBLIC = 0x0001;
+	private static final int ACC_PRIVATE = 0x0002;
+	private static final int ACC_FINAL = 0x0010;
+	private static final int ACC_SUPER = 0x0020;
+	private static final int MAX_STACK = 7;
+
+	private static final String INVOCATIONS_FIELD = "invocations";
+	private static final String INVOCATION_TYPE = internalName(BeanProxy.BeanInvocation.class);
+	private static final String INVOCATIONS_DESCRIPTOR = "[" + descriptor(BeanProxy.BeanInvocation.class);
+
+	private static final Map<Class<?>, String> PRIMITIVE_DESCRIPTORS = new HashMap<>();
+	private static final Map<Class<?>, Class<?>> WRAPPERS = new HashMap<>();
+
+	static {
+		primitive(void.class, "V", Void.class);
+		primitive(boolean.class, "Z", Boolean.class);
+		primitive(byte.class, "B", Byte.class);
+		primitive(char.class, "C", Character.class);
+		primitive(short.class, "S", Short.class);
+		primitive(int.class, "I", Integer.class);
+		primitive(long.class, "J", Long.class);
+		primitive(float.class, "F", Float.class);
+		primitive(double.class, "D", Double.class);
+	}
+
+	private final ByteArrayOutputStream constantPoolBytes = new ByteArrayOutputStream();
+	private final DataOutputStream constantPool = new DataOutputStream(constantPoolBytes);
+	private final Map<String, Integer> constantIndex = new HashMap<>();
+	private int constantCount = 1;
+
+	private final String className;
+	private final List<Class<?>> interfaces;
+	private final List<Method> methods;
+
+	private ProxyClassFileWriter(String className, List<Class<?>> interfaces, List<Method> methods) {
+		this.className = internalName(className);
+		this.interfaces = interfaces;
+		this.methods = methods;
+	}
+
+	/**
+	 * @param className - the binary name of the generated class
+	 * @param interfaces - the interfaces implemented by the generated class
+	 * @param methods - the proxied methods, the method at index i invokes the BeanInvocation at index i
+	 * @return
+	 */
+	static byte[] write(String className, List<Class<?>> interfaces, List<Method> methods) {
+		try {
+			return new ProxyClassFileWriter(className, interfaces, methods).write();
+		} catch (IOException e) {
+			// Only writing to memory
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private byte[] write() throws IOException {
+		// The constant pool is complete first when all members are written
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(body);
+		out.writeShort(ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+		out.writeShort(classRef(className));
+		out.writeShort(classRef("java/lang/Object"));
+		out.writeShort(interfaces.size());
+		for (Class<?> type : interfaces) {
+			out.writeShort(classRef(internalName(type)));
+		}
+		out.writeShort(1);
+		out.writeShort(ACC_PRIVATE | ACC_FINAL);
+		out.writeShort(utf8(INVOCATIONS_FIELD));
+		out.writeShort(utf8(INVOCATIONS_DESCRIPTOR));
+		out.writeShort(0);
+		out.writeShort(methods.size() + 1);
+		writeConstructor(out);
+		for (int methodIndex = 0; methodIndex < methods.size(); methodIndex++) {
+			writeMethod(out, methodIndex, methods.get(methodIndex));
+		}
+		out.writeShort(0);
+
+		ByteArrayOutputStream classFile = new ByteArrayOutputStream();
+		DataOutputStream result = new DataOutputStream(classFile);
+		result.writeInt(0xCAFEBABE);
+		result.writeShort(0);
+		result.writeShort(CLASS_FILE_VERSION);
+		result.writeShort(constantCount);
+		constantPoolBytes.writeTo(result);
+		body.writeTo(result);
+		return classFile.toByteArray();
+	}
+
+	private void writeConstructor(DataOutputStream out) throws IOException {
+		ByteArrayOutputStream codeBytes = new ByteArrayOutputStream();
+		DataOutputStream code = new DataOutputStream(codeBytes);
+		code.writeByte(Opcodes.ALOAD_0);
+		code.writeByte(Opcodes.INVOKESPECIAL);
+		code.writeShort(methodRef("java/lang/Object", "<init>", "()V"));
+		code.writeByte(Opcodes.ALOAD_0);
+		code.writeByte(Opcodes.ALOAD_1);
+		code.writeByte(Opcodes.PUTFIELD);
+		code.writeShort(invocationsField());
+		code.writeByte(Opcodes.RETURN);
+
+		out.writeShort(ACC_PUBLIC);
+		out.writeShort(utf8("<init>"));
+		out.writeShort(utf8("(" + INVOCATIONS_DESCRIPTOR + ")V"));
+		out.writeShort(1);
+		writeCode(out, 2, 2, codeBytes.toByteArray(), new ByteArrayOutputStream(), 0);
+	}
+
+	private void writeMethod(DataOutputStream out, int methodIndex, Method method) throws IOException {
+		Class<?>[] parameterTypes = method.getParameterTypes();
+		ByteArrayOutputStream codeBytes = new ByteArrayOutputStream();
+		DataOutputStream code = new DataOutputStream(codeBytes);
+		code.writeByte(Opcodes.ALOAD_0);
+		code.writeByte(Opcodes.GETFIELD);
+		code.writeShort(invocationsField());
+		pushInt(code, methodIndex);
+		code.writeByte(Opcodes.AALOAD);
+		int slot = 1;
+		if (parameterTypes.length == 0) {
+			// Same as a JDK dynamic proxy
+			code.writeByte(Opcodes.ACONST_NULL);
+		} else {
+			pushInt(code, parameterTypes.length);
+			code.writeByte(Opcodes.ANEWARRAY);
+			code.writeShort(classRef("java/lang/Object"));
+			for (int i = 0; i < parameterTypes.length; i++) {
+				Class<?> parameterType = parameterTypes[i];
+				code.writeByte(Opcodes.DUP);
+				pushInt(code, i);
+				writeLocalVariableInstruction(code, loadOpcode(parameterType), slot);
+				if (parameterType.isPrimitive()) {
+					Class<?> wrapper = WRAPPERS.get(parameterType);
+					code.writeByte(Opcodes.INVOKESTATIC);
+					code.writeShort(methodRef(internalName(wrapper), "valueOf", "(" + descriptor(parameterType) + ")" + descriptor(wrapper)));
+				}
+				code.writeByte(Opcodes.AASTORE);
+				slot += slotSize(parameterType);
+			}
+		}
+		code.writeByte(Opcodes.INVOKEINTERFACE);
+		code.writeShort(interfaceMethodRef(INVOCATION_TYPE, "invoke", "([Ljava/lang/Object;)Ljava/lang/Object;"));
+		code.writeByte(2);
+		code.writeByte(0);
+		Class<?> returnType = method.getReturnType();
+		if (returnType == void.class) {
+			code.writeByte(Opcodes.POP);
+		} else if (returnType.isPrimitive()) {
+			Class<?> wrapper = WRAPPERS.get(returnType);
+			code.writeByte(Opcodes.CHECKCAST);
+			code.writeShort(classRef(internalName(wrapper)));
+			code.writeByte(Opcodes.INVOKEVIRTUAL);
+			code.writeShort(methodRef(internalName(wrapper), returnType.getName() + "Value", "()" + descriptor(returnType)));
+		} else if (returnType != Object.class) {
+			code.writeByte(Opcodes.CHECKCAST);
+			code.writeShort(classRef(internalName(returnType)));
+		}
+		code.writeByte(returnOpcode(returnType));
+		int tryEnd = codeBytes.size();
+
+		// Rethrow unchecked and declared exceptions
+		code.writeByte(Opcodes.ATHROW);
+		int exceptionSlot = slot;
+		int wrapHandler = codeBytes.size();
+		writeLocalVariableInstruction(code, Opcodes.ASTORE, exceptionSlot);
+		code.writeByte(Opcodes.NEW);
+		code.writeShort(classRef(internalName(UndeclaredThrowableException.class)));
+		code.writeByte(Opcodes.DUP);
+		writeLocalVariableInstruction(code, Opcodes.ALOAD, exceptionSlot);
+		code.writeByte(Opcodes.INVOKESPECIAL);
+		code.writeShort(methodRef(internalName(UndeclaredThrowableException.class), "<init>", "(Ljava/lang/Throwable;)V"));
+		code.writeByte(Opcodes.ATHROW);
+
+		ByteArrayOutputStream exceptionTable = new ByteArrayOutputStream();
+		DataOutputStream exceptionTableOut = new DataOutputStream(exceptionTable);
+		Class<?>[] exceptionTypes = method.getExceptionTypes();
+		int exceptionTableLength = 0;
+		for (Class<?> rethrown : rethrownExceptions(exceptionTypes)) {
+			writeExceptionHandler(exceptionTableOut, tryEnd, tryEnd, classRef(internalName(rethrown)));
+			exceptionTableLength++;
+		}
+		writeExceptionHandler(exceptionTableOut, tryEnd, wrapHandler, classRef("java/lang/Throwable"));
+		exceptionTableLength++;
+
+		out.writeShort(ACC_PUBLIC | ACC_FINAL);
+		out.writeShort(utf8(method.getName()));
+		out.writeShort(utf8(methodDescriptor(returnType, parameterTypes)));
+		out.writeShort(exceptionTypes.length > 0 ? 2 : 1);
+		writeCode(out, MAX_STACK, exceptionSlot + 1, codeBytes.toByteArray(), exceptionTable, exceptionTableLength);
+		if (exceptionTypes.length > 0) {
+			out.writeShort(utf8("Exceptions"));
+			out.writeInt(2 + 2 * exceptionTypes.length);
+			out.writeShort(exceptionTypes.length);
+			for (Class<?> exceptionType : exceptionTypes) {
+				out.writeShort(classRef(internalName(exceptionType)));
+			}
+		}
+	}
+
+	private static Class<?>[] rethrownExceptions(Class<?>[] declaredExceptions) {
+		Class<?>[] result = new Class<?>[declaredExceptions.length + 2];
+		result[0] = RuntimeException.class;
+		result[1] = Error.class;
+		System.arraycopy(declaredExceptions, 0, result, 2, declaredExceptions.length);
+		return result;
+	}
+
+	private void writeCode(DataOutputStream out, int maxStack, int maxLocals, byte[] code, ByteArrayOutputStream exceptionTable, int exceptionTableLength) throws IOException {
+		out.writeShort(utf8("Code"));
+		out.writeInt(2 + 2 + 4 + code.length + 2 + exceptionTable.size() + 2);
+		out.writeShort(maxStack);
+		out.writeShort(maxLocals);
+		out.writeInt(code.length);
+		out.write(code);
+		out.writeShort(exceptionTableLength);
+		exceptionTable.writeTo(out);
+		out.writeShort(0);
+	}
+
+	private static void writeExceptionHandler(DataOutputStream out, int tryEnd, int handler, int catchType) throws IOException {
+		out.writeShort(0);
+		out.writeShort(tryEnd);
+		out.writeShort(handler);
+		out.writeShort(catchType);
+	}
+
+	private static void pushInt(DataOutputStream code, int value) throws IOException {
+		if (value <= 5) {
+			code.writeByte(Opcodes.ICONST_0 + value);
+		} else if (value <= Byte.MAX_VALUE) {
+			code.writeByte(Opcodes.BIPUSH);
+			code.writeByte(value);
+		} else {
+			code.writeByte(Opcodes.SIPUSH);
+			code.writeShort(value);
+		}
+	}
+
+	private static void writeLocalVariableInstruction(DataOutputStream code, int opcode, int slot) throws IOException {
+		if (slot <= 0xFF) {
+			code.writeByte(opcode);
+			code.writeByte(slot);
+		} else {
+			code.writeByte(Opcodes.WIDE);
+			code.writeByte(opcode);
+			code.writeShort(slot);
+		}
+	}
+
+	private static int loadOpcode(Class<?> type) {
+		if (type == long.class) {
+			return Opcodes.LLOAD;
+		}
+		if (type == float.class) {
+			return Opcodes.FLOAD;
+		}
+		if (type == double.class) {
+			return Opcodes.DLOAD;
+		}
+		return type.isPrimitive() ? Opcodes.ILOAD : Opcodes.ALOAD;
+	}
+
+	private static int returnOpcode(Class<?> type) {
+		if (type == void.class) {
+			return Opcodes.RETURN;
+		}
+		if (type == long.class) {
+			return Opcodes.LRETURN;
+		}
+		if (type == float.class) {
+			return Opcodes.FRETURN;
+		}
+		if (type == double.class) {
+			return Opcodes.DRETURN;
+		}
+		return type.isPrimitive() ? Opcodes.IRETURN : Opcodes.ARETURN;
+	}
+
+	private static int slotSize(Class<?> type) {
+		return type == long.class || type == double.class ? 2 : 1;
+	}
+
+	private int invocationsField() {
+		return fieldRef(className, INVOCATIONS_FIELD, INVOCATIONS_DESCRIPTOR);
+	}
+
+	private int utf8(String value) {
+		return constant("Utf8:" + value, out -> {
+			out.writeByte(1);
+			out.writeUTF(value);
+		});
+	}
+
+	private int classRef(String internalName) {
+		int name = utf8(internalName);
+		return constant("Class:" + internalName, out -> {
+			out.writeByte(7);
+			out.writeShort(name);
+		});
+	}
+
+	private int nameAndType(String name, String descriptor) {
+		int nameIndex = utf8(name);
+		int descriptorIndex = utf8(descriptor);
+		return constant("NameAndType:" + name + ":" + descriptor, out -> {
+			out.writeByte(12);
+			out.writeShort(nameIndex);
+			out.writeShort(descriptorIndex);
+		});
+	}
+
+	private int fieldRef(String owner, String name, String descriptor) {
+		return memberRef(9, owner, name, descriptor);
+	}
+
+	private int methodRef(String owner, String name, String descriptor) {
+		return memberRef(10, owner, name, descriptor);
+	}
+
+	private int interfaceMethodRef(String owner, String name, String descriptor) {
+		return memberRef(11, owner, name, descriptor);
+	}
+
+	private int memberRef(int tag, String owner, String name, String descriptor) {
+		int ownerIndex = classRef(owner);
+		int nameAndTypeIndex = nameAndType(name, descriptor);
+		return constant(tag + ":" + owner + "." + name + ":" + descriptor, out -> {
+			out.writeByte(tag);
+			out.writeShort(ownerIndex);
+			out.writeShort(nameAndTypeIndex);
+		});
+	}
+
+	private int constant(String key, ConstantWriter writer) {
+		Integer index = constantIndex.get(key);
+		if (index != null) {
+			return index;
+		}
+		try {
+			writer.write(constantPool);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		constantIndex.put(key, constantCount);
+		return constantCount++;
+	}
+
+	@FunctionalInterface
+	private interface ConstantWriter {
+		void write(DataOutputStream out) throws IOException;
+	}
+
+	private static void primitive(Class<?> type, String descriptor, Class<?> wrapper) {
+		PRIMITIVE_DESCRIPTORS.put(type, descriptor);
+		WRAPPERS.put(type, wrapper);
+	}
+
+	private static String methodDescriptor(Class<?> returnType, Class<?>[] parameterTypes) {
+		StringBuilder result = new StringBuilder("(");
+		for (Class<?> parameterType : parameterTypes) {
+			result.append(descriptor(parameterType));
+		}
+		return result.append(")").append(descriptor(returnType)).toString();
+	}
+
+	private static String descriptor(Class<?> type) {
+		if (type.isPrimitive()) {
+			return PRIMITIVE_DESCRIPTORS.get(type);
+		}
+		if (type.isArray()) {
+			return internalName(type);
+		}
+		return "L" + internalName(type) + ";";
+	}
+
+	private static String internalName(Class<?> type) {
+		return internalName(type.getName());
+	}
+
+	private static String internalName(String binaryName) {
+		return binaryName.replace('.', '/');
+	}
+
+	private static final class Opcodes {
+		static final int ACONST_NULL = 0x01;
+		static final int ICONST_0 = 0x03;
+		static final int BIPUSH = 0x10;
+		static final int SIPUSH = 0x11;
+		static final int ILOAD = 0x15;
+		static final int LLOAD = 0x16;
+		static final int FLOAD = 0x17;
+		static final int DLOAD = 0x18;
+		static final int ALOAD = 0x19;
+		static final int ALOAD_0 = 0x2a;
+		static final int ALOAD_1 = 0x2b;
+		static final int AALOAD = 0x32;
+		static final int ASTORE = 0x3a;
+		static final int AASTORE = 0x53;
+		static final int POP = 0x57;
+		static final int DUP = 0x59;
+		static final int IRETURN = 0xac;
+		static final int LRETURN = 0xad;
+		static final int FRETURN = 0xae;
+		static final int DRETURN = 0xaf;
+		static final int ARETURN = 0xb0;
+		static final int RETURN = 0xb1;
+		static final int GETFIELD = 0xb4;
+		static final int PUTFIELD = 0xb5;
+		static final int INVOKEVIRTUAL = 0xb6;
+		static final int INVOKESPECIAL = 0xb7;
+		static final int INVOKESTATIC = 0xb8;
+		static final int INVOKEINTERFACE = 0xb9;
+		static final int NEW = 0xbb;
+		static final int ANEWARRAY = 0xbd;
+		static final int ATHROW = 0xbf;
+		static final int CHECKCAST = 0xc0;
+		static final int WIDE = 0xc4;
+	}
+
+}
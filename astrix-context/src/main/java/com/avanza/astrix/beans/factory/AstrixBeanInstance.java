@@ -15,6 +15,8 @@
  */
 package com.avanza.astrix.beans.factory;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -22,6 +24,7 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 
 import com.avanza.astrix.beans.core.AstrixBeanKey;
+import com.avanza.astrix.beans.core.BeanInvocationDispatcher;
 import com.avanza.astrix.modules.ObjectCache;
 /**
  * 
@@ -67,6 +70,13 @@ final class AstrixBeanInstance<T> {
 	@PreDestroy
 	public final void destroy() {
 		ObjectCache.destroy(get());
+		if (Proxy.isProxyClass(get().getClass())) {
+			InvocationHandler invocationHandler = Proxy.getInvocationHandler(get());
+			if (invocationHandler instanceof BeanInvocationDispatcher) {
+				// Unsubscribe from the BeanProxy's applied to the bean, see AstrixFtProxiedFactory
+				BeanInvocationDispatcher.class.cast(invocationHandler).close();
+			}
+		}
 	}
 	
 	@PostConstruct
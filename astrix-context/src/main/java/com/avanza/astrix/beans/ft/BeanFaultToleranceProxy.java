@@ -24,6 +24,7 @@ import com.avanza.astrix.beans.core.BeanProxy;
 import com.avanza.astrix.beans.core.BeanProxyNames;
 import com.avanza.astrix.config.DynamicBooleanProperty;
 import com.avanza.astrix.config.DynamicConfig;
+import com.avanza.astrix.config.DynamicPropertyListener;
 import com.avanza.astrix.core.function.CheckedCommand;
 
 import rx.Observable;
@@ -54,6 +55,17 @@ public final class BeanFaultToleranceProxy implements BeanProxy {
 		return () -> beanFaultTolerance.observe(command);
 	}
 	
+	@Override
+	public BeanInvocation proxyBeanInvocation(BeanInvocation invocation) {
+		// The command is created per invocation since the fault tolerance implementation executes a command
+		return args -> beanFaultTolerance.execute(() -> invocation.invoke(args));
+	}
+	
+	@Override
+	public ReactiveBeanInvocation proxyReactiveBeanInvocation(ReactiveBeanInvocation invocation) {
+		return args -> beanFaultTolerance.observe(() -> invocation.observe(args));
+	}
+	
 	@Override
 	public String name() {
 		return BeanProxyNames.FAULT_TOLERANCE;
@@ -64,4 +76,21 @@ public final class BeanFaultToleranceProxy implements BeanProxy {
 		return faultToleranceEnabled.get() && faultToleranceEnabledForBean.get();
 	}
 	
+	@Override
+	public boolean supportsEnabledListener() {
+		return true;
+	}
+	
+	@Override
+	public void addEnabledListener(DynamicPropertyListener<Boolean> listener) {
+		faultToleranceEnabled.addListener(listener);
+		faultToleranceEnabledForBean.addListener(listener);
+	}
+	
+	@Override
+	public void removeEnabledListener(DynamicPropertyListener<Boolean> listener) {
+		faultToleranceEnabled.removeListener(listener);
+		faultToleranceEnabledForBean.removeListener(listener);
+	}
+	
 }
@@ -19,6 +19,7 @@ import java.util.List;
 
 import com.avanza.astrix.beans.service.ServiceConsumerProperties;
 import com.avanza.astrix.core.AstrixBroadcast;
+import com.avanza.astrix.core.AstrixPartitionedRouting;
 import com.avanza.astrix.core.AstrixRouting;
 /**
  * 
@@ -29,6 +30,13 @@ public interface AstrixServiceRegistry {
 	
 	<T> AstrixServiceRegistryEntry lookup(@AstrixRouting String type, String qualifier, ServiceConsumerProperties serviceConsumerProperties);
 	
+	/**
+	 * Bulk version of {@link #lookup(String, String, ServiceConsumerProperties)}. The request is partitioned 
+	 * on the service type of each lookup key, and the result contains one entry for each service that a
+	 * provider was found for. Services without a provider are left out of the result.
+	 */
+	List<AstrixServiceRegistryEntry> lookupAll(@AstrixPartitionedRouting(routingMethod = "getServiceBeanType") List<AstrixServiceRegistryLookupKey> lookupKeys, ServiceConsumerProperties serviceConsumerProperties);
+	
 	<T> void register(AstrixServiceRegistryEntry properties, long lease);
 	
 	<T> void deregister(AstrixServiceRegistryEntry properties);
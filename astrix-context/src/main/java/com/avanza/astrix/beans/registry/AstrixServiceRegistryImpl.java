@@ -51,6 +51,18 @@ public class AstrixServiceRegistryImpl implements AstrixServiceRegistry {
 		return activeServices.get((int) (serviceCounter.incrementAndGet() % activeServices.size()));
 	}
 
+	@Override
+	public List<AstrixServiceRegistryEntry> lookupAll(List<AstrixServiceRegistryLookupKey> lookupKeys, ServiceConsumerProperties serviceConsumerProperties) {
+		List<AstrixServiceRegistryEntry> result = new ArrayList<>(lookupKeys.size());
+		for (AstrixServiceRegistryLookupKey lookupKey : lookupKeys) {
+			AstrixServiceRegistryEntry entry = lookup(lookupKey.getServiceBeanType(), lookupKey.getQualifier(), serviceConsumerProperties);
+			if (entry != null) {
+				result.add(entry);
+			}
+		}
+		return result;
+	}
+
 	private List<AstrixServiceRegistryEntry> getServiceProvidersForConsumer(List<AstrixServiceRegistryEntry> entries, ServiceConsumerProperties serviceConsumer) {
 		List<AstrixServiceRegistryEntry> activeServices = new ArrayList<>(entries.size());
 		String consumerZone = serviceConsumer.getProperty(ServiceConsumerProperties.CONSUMER_ZONE);
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.beans.registry;
+
+/**
+ * Identifies a service to lookup in a bulk lookup against the {@link AstrixServiceRegistry}. <p>
+ */
+public class AstrixServiceRegistryLookupKey {
+	
+	private String serviceBeanType;
+	private String qualifier;
+	
+	public AstrixServiceRegistryLookupKey() {
+	}
+	
+	public AstrixServiceRegistryLookupKey(String serviceBeanType, String qualifier) {
+		this.serviceBeanType = serviceBeanType;
+		this.qualifier = qualifier;
+	}
+	
+	public String getServiceBeanType() {
+		return serviceBeanType;
+	}
+	
+	public void setServiceBeanType(String serviceBeanType) {
+		this.serviceBeanType = serviceBeanType;
+	}
+	
+	public String getQualifier() {
+		return qualifier;
+	}
+	
+	public void setQualifier(String qualifier) {
+		this.qualifier = qualifier;
+	}
+	
+	@Override
+	public String toString() {
+		return serviceBeanType + "|" + qualifier;
+	}
+
+}
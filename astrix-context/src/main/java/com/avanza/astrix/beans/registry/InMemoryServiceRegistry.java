@@ -65,6 +65,11 @@ public class InMemoryServiceRegistry implements DynamicConfigSource, AstrixServi
 		return serviceRegistry.lookup(type, qualifier, consumerProperties);
 	}
 	
+	@Override
+	public List<AstrixServiceRegistryEntry> lookupAll(List<AstrixServiceRegistryLookupKey> lookupKeys, ServiceConsumerProperties consumerProperties) {
+		return serviceRegistry.lookupAll(lookupKeys, consumerProperties);
+	}
+	
 	@Override
 	public <T> void register(AstrixServiceRegistryEntry properties, long lease) {
 		serviceRegistry.register(properties, lease);
@@ -16,7 +16,10 @@
 package com.avanza.astrix.beans.registry;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 import com.avanza.astrix.beans.core.AstrixBeanKey;
@@ -45,6 +48,28 @@ public class ServiceRegistryClient {
 		return new ServiceProperties(entry.getServiceProperties());
 	}
 
+	/**
+	 * Looks up the ServiceProperties for all given beans using a single (bulk) invocation
+	 * on the service registry. Beans without a service provider are left out of the result. 
+	 */
+	public Map<AstrixBeanKey<?>, ServiceProperties> lookupAll(Collection<AstrixBeanKey<?>> beanKeys) {
+		List<AstrixServiceRegistryLookupKey> lookupKeys = new ArrayList<>(beanKeys.size());
+		Map<ServiceKey, AstrixBeanKey<?>> beanKeyByServiceKey = new HashMap<>();
+		for (AstrixBeanKey<?> beanKey : beanKeys) {
+			lookupKeys.add(new AstrixServiceRegistryLookupKey(beanKey.getBeanType().getName(), beanKey.getQualifier()));
+			beanKeyByServiceKey.put(new ServiceKey(beanKey.getBeanType().getName(), beanKey.getQualifier()), beanKey);
+		}
+		Map<AstrixBeanKey<?>, ServiceProperties> result = new HashMap<>();
+		for (AstrixServiceRegistryEntry entry : serviceRegistry.lookupAll(lookupKeys, consumerProperties)) {
+			ServiceProperties serviceProperties = new ServiceProperties(entry.getServiceProperties());
+			AstrixBeanKey<?> beanKey = beanKeyByServiceKey.get(new ServiceKey(entry.getServiceBeanType(), serviceProperties.getQualifier()));
+			if (beanKey != null) {
+				result.put(beanKey, serviceProperties);
+			}
+		}
+		return result;
+	}
+
 	public <T> List<ServiceProperties> list(AstrixBeanKey<T> beanKey) {
 		List<AstrixServiceRegistryEntry> registeresServices = serviceRegistry.listServices(beanKey.getBeanType().getName(), beanKey.getQualifier());
 		List<ServiceProperties> result = new ArrayList<>(registeresServices.size());
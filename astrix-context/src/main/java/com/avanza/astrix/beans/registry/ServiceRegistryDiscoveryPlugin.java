@@ -15,7 +15,9 @@
  */
 package com.avanza.astrix.beans.registry;
 
+import com.avanza.astrix.beans.config.AstrixConfig;
 import com.avanza.astrix.beans.core.AstrixBeanKey;
+import com.avanza.astrix.beans.core.AstrixSettings;
 import com.avanza.astrix.beans.service.ServiceDiscovery;
 import com.avanza.astrix.beans.service.ServiceDiscoveryFactoryPlugin;
 import com.avanza.astrix.beans.service.ServiceProperties;
@@ -27,9 +29,12 @@ import com.avanza.astrix.beans.service.ServiceProperties;
 public class ServiceRegistryDiscoveryPlugin implements ServiceDiscoveryFactoryPlugin<ServiceRegistryDiscoveryProperties> {
 	
 	private ServiceRegistryClientFactory serviceRegistryClientFactory;
+	private AstrixConfig config;
+	private ServiceRegistryLookupCache lookupCache;
 	
-	public ServiceRegistryDiscoveryPlugin(ServiceRegistryClientFactory serviceRegistryClientFactory) {
+	public ServiceRegistryDiscoveryPlugin(ServiceRegistryClientFactory serviceRegistryClientFactory, AstrixConfig config) {
 		this.serviceRegistryClientFactory = serviceRegistryClientFactory;
+		this.config = config;
 	}
 
 	@Override
@@ -39,7 +44,15 @@ public class ServiceRegistryDiscoveryPlugin implements ServiceDiscoveryFactoryPl
 
 	@Override
 	public ServiceDiscovery create(AstrixBeanKey<?> key, ServiceRegistryDiscoveryProperties lookupAnnotation) {
-		return new ServiceRegistryDiscovery(key, serviceRegistryClientFactory.createServiceRegistryClient());
+		return new ServiceRegistryDiscovery(key, getLookupCache());
+	}
+	
+	private synchronized ServiceRegistryLookupCache getLookupCache() {
+		if (lookupCache == null) {
+			lookupCache = new ServiceRegistryLookupCache(serviceRegistryClientFactory.createServiceRegistryClient(), 
+														 config.get(AstrixSettings.SERVICE_LEASE_RENEW_INTERVAL));
+		}
+		return lookupCache;
 	}
 	
 	private static class ServiceRegistryDiscovery implements ServiceDiscovery {
@@ -50,11 +63,11 @@ public class ServiceRegistryDiscoveryPlugin implements ServiceDiscoveryFactoryPl
 		 */
 		
 		private AstrixBeanKey<?> beanKey;
-		private ServiceRegistryClient serviceRegistryClient;
+		private ServiceRegistryLookupCache lookupCache;
 
-		public ServiceRegistryDiscovery(AstrixBeanKey<?> key, ServiceRegistryClient serviceRegistryClient) {
+		public ServiceRegistryDiscovery(AstrixBeanKey<?> key, ServiceRegistryLookupCache lookupCache) {
 			this.beanKey = key;
-			this.serviceRegistryClient = serviceRegistryClient;
+			this.lookupCache = lookupCache;
 		}
 		
 		@Override
@@ -64,7 +77,12 @@ public class ServiceRegistryDiscoveryPlugin implements ServiceDiscoveryFactoryPl
 
 		@Override
 		public ServiceProperties run() {
-			return serviceRegistryClient.lookup(beanKey);
+			return lookupCache.lookup(beanKey);
+		}
+		
+		@Override
+		public void release() {
+			lookupCache.evict(beanKey);
 		}
 		
 	}
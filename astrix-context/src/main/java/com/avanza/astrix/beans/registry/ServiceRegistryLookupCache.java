@@ -0,0 +1,139 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.beans.registry;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.avanza.astrix.beans.core.AstrixBeanKey;
+import com.avanza.astrix.beans.service.ServiceProperties;
+import com.avanza.astrix.config.DynamicLongProperty;
+/**
+ * Caches the result of service registry lookups for all beans discovered using the service registry, 
+ * which allows renewing the lease of all such beans using a single bulk lookup. <p>
+ * 
+ * A lookup for a bean with a known service provider is served from the cache as long as the cached
+ * result is younger than half the lease renew interval. When a stale result is found, all cached results 
+ * are refreshed using one invocation of {@link AstrixServiceRegistry#lookupAll}. Lookups for beans without 
+ * a known service provider always query the service registry, so that unbound beans are bound as soon
+ * as a provider is registered. <p>
+ * 
+ * If the bulk lookup fails, for instance since the service registry does not support it, then 
+ * individual lookups are used until the next refresh attempt. <p>
+ * 
+ * A bean is evicted from the cache when it's no longer leased, see {@link #evict(AstrixBeanKey)}. <p>
+ */
+final class ServiceRegistryLookupCache {
+	
+	private static final Logger log = LoggerFactory.getLogger(ServiceRegistryLookupCache.class);
+	
+	private final ServiceRegistryClient serviceRegistryClient;
+	private final DynamicLongProperty leaseRenewInterval;
+	private final ConcurrentMap<AstrixBeanKey<?>, CachedLookup> lookups = new ConcurrentHashMap<>();
+	
+	// Guarded by this
+	private long lastRefreshAttempt;
+	private boolean lastRefreshSuccessful;
+	
+	ServiceRegistryLookupCache(ServiceRegistryClient serviceRegistryClient, DynamicLongProperty leaseRenewInterval) {
+		this.serviceRegistryClient = serviceRegistryClient;
+		this.leaseRenewInterval = leaseRenewInterval;
+	}
+	
+	ServiceProperties lookup(AstrixBeanKey<?> beanKey) {
+		CachedLookup cachedLookup = lookups.get(beanKey);
+		if (cachedLookup == null || cachedLookup.serviceProperties == null) {
+			return lookupSingle(beanKey);
+		}
+		if (isFresh(cachedLookup)) {
+			return cachedLookup.serviceProperties;
+		}
+		if (refreshAll()) {
+			cachedLookup = lookups.get(beanKey);
+			if (isFresh(cachedLookup)) {
+				return cachedLookup.serviceProperties;
+			}
+		}
+		return lookupSingle(beanKey);
+	}
+
+	/**
+	 * Stops refreshing the lookup for a given bean. A subsequent lookup of the bean, for instance
+	 * by another bean using the same key, adds it to the cache again.
+	 */
+	void evict(AstrixBeanKey<?> beanKey) {
+		lookups.remove(beanKey);
+	}
+	
+	// For testing
+	int size() {
+		return lookups.size();
+	}
+
+	private ServiceProperties lookupSingle(AstrixBeanKey<?> beanKey) {
+		long lookupTime = System.currentTimeMillis();
+		ServiceProperties serviceProperties = serviceRegistryClient.lookup(beanKey);
+		lookups.put(beanKey, new CachedLookup(serviceProperties, lookupTime));
+		return serviceProperties;
+	}
+	
+	private synchronized boolean refreshAll() {
+		long now = System.currentTimeMillis();
+		if (now - lastRefreshAttempt < maxAge()) {
+			// Refreshed by another thread
+			return lastRefreshSuccessful;
+		}
+		lastRefreshAttempt = now;
+		try {
+			ArrayList<AstrixBeanKey<?>> beanKeys = new ArrayList<>(lookups.keySet());
+			Map<AstrixBeanKey<?>, ServiceProperties> result = serviceRegistryClient.lookupAll(beanKeys);
+			for (AstrixBeanKey<?> beanKey : beanKeys) {
+				// Don't add beans evicted during the bulk lookup again
+				lookups.replace(beanKey, new CachedLookup(result.get(beanKey), now));
+			}
+			log.debug("Refreshed service registry lookups using bulk lookup. lookupCount={}", beanKeys.size());
+			lastRefreshSuccessful = true;
+		} catch (Exception e) {
+			log.warn("Bulk lookup against service registry failed, using individual lookups until next refresh attempt", e);
+			lastRefreshSuccessful = false;
+		}
+		return lastRefreshSuccessful;
+	}
+	
+	private boolean isFresh(CachedLookup cachedLookup) {
+		return cachedLookup != null && System.currentTimeMillis() - cachedLookup.lookupTime < maxAge();
+	}
+	
+	private long maxAge() {
+		return leaseRenewInterval.get() / 2;
+	}
+	
+	private static final class CachedLookup {
+		private final ServiceProperties serviceProperties;
+		private final long lookupTime;
+		
+		CachedLookup(ServiceProperties serviceProperties, long lookupTime) {
+			this.serviceProperties = serviceProperties;
+			this.lookupTime = lookupTime;
+		}
+	}
+
+}
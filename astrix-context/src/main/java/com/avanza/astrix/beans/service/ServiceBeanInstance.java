@@ -20,11 +20,12 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -37,10 +38,13 @@ import com.avanza.astrix.beans.core.AstrixSettings;
 import com.avanza.astrix.beans.core.BeanInvocationDispatcher;
 import com.avanza.astrix.beans.core.BeanProxy;
 import com.avanza.astrix.beans.core.BeanProxyFilter;
+import com.avanza.astrix.beans.core.GeneratedProxyFactory;
 import com.avanza.astrix.beans.core.ReactiveTypeConverter;
 import com.avanza.astrix.config.DynamicBooleanProperty;
+import com.avanza.astrix.config.DynamicPropertyListener;
 import com.avanza.astrix.core.IllegalServiceMetadataException;
 import com.avanza.astrix.core.ServiceUnavailableException;
+import com.avanza.astrix.core.util.ReflectionUtil;
 
 /**
  * 
@@ -58,23 +62,17 @@ public class ServiceBeanInstance<T> implements StatefulAstrixBean, InvocationHan
 	private final AstrixBeanKey<T> beanKey;
 	private final ServiceComponentRegistry serviceComponents;
 	private final ServiceDefinition<T> serviceDefinition;
-	/*
-	 * Monitor used to signal state changes. (waitForBean)
-	 */
-	private final Lock boundStateLock = new ReentrantLock();
-	private final Condition boundCondition = boundStateLock.newCondition();
-	
 	
 	private final ServiceDiscovery serviceDiscovery;
 	private final DynamicBooleanProperty available;
+	private final DynamicPropertyListener<Boolean> availableListener = newValue -> updateAvailable();
+	private final DynamicBooleanProperty invokeProxyHandlersDirectly;
 	
 	/*
-	 * Guards the state of this service bean instance.
+	 * The current state of this service bean instance. All state transitions, including
+	 * changes in availability, replaces the immutable Snapshot using compareAndSet.
 	 */
-	private final Lock beanStateLock = new ReentrantLock();
-	
-	private volatile ServiceProperties currentProperties;
-	private volatile BeanState currentState;
+	private final AtomicReference<Snapshot> snapshot;
 
 	private final List<BeanProxy> beanProxies;
 	private final ReactiveTypeConverter reactiveTypeConverter;
@@ -84,15 +82,19 @@ public class ServiceBeanInstance<T> implements StatefulAstrixBean, InvocationHan
 								ServiceDiscovery serviceDiscovery, 
 								ServiceComponentRegistry serviceComponents,
 								ServiceBeanProxies beanProxies,
-								ReactiveTypeConverter reactiveTypeConverter, DynamicBooleanProperty available) {
+								ReactiveTypeConverter reactiveTypeConverter, DynamicBooleanProperty available,
+								DynamicBooleanProperty invokeProxyHandlersDirectly) {
 		this.serviceDiscovery = serviceDiscovery;
+		this.invokeProxyHandlersDirectly = invokeProxyHandlersDirectly;
 		this.reactiveTypeConverter = reactiveTypeConverter;
 		this.beanProxies = beanProxies.create(beanKey);
 		this.available = available;
 		this.serviceDefinition = Objects.requireNonNull(serviceDefinition);
 		this.beanKey = Objects.requireNonNull(beanKey);
 		this.serviceComponents = Objects.requireNonNull(serviceComponents);
-		this.currentState = new Unbound(ServiceUnavailableException.class, "No bind attempt run yet");
+		this.snapshot = new AtomicReference<>(new Snapshot(new Unbound(ServiceUnavailableException.class, "No bind attempt run yet", null, new CompletableFuture<>()), true));
+		this.available.addListener(availableListener);
+		updateAvailable();
 	}
 	
 	public static <T> ServiceBeanInstance<T> create(ServiceDefinition<T> serviceDefinition, 
@@ -106,43 +108,45 @@ public class ServiceBeanInstance<T> implements StatefulAstrixBean, InvocationHan
 				serviceBeanContext.getServiceComponents(), 
 				serviceBeanContext.getServiceBeanProxies(),
 				serviceBeanContext.getReactiveTypeConverter(),
-				beanConfiguration.get(AstrixBeanSettings.AVAILABLE));
+				beanConfiguration.get(AstrixBeanSettings.AVAILABLE),
+				serviceBeanContext.getConfig().get(AstrixSettings.INVOKE_PROXY_HANDLERS_DIRECTLY));
 	}
 	
 	public void renewLease() {
-		beanStateLock.lock();
+		BeanState currentState = getCurrentState();
+		if (currentState.isDestroyed()) {
+			return;
+		}
 		try {
 			ServiceDiscoveryResult serviceDiscoveryResult = runServiceDiscovery();
 			if (!serviceDiscoveryResult.isSuccessful()) {
 				log.warn(String.format("Failed to renew lease, service discovery failure. bean=%s astrixBeanId=%s", getBeanKey(), id), serviceDiscoveryResult.getError());
 				return;
 			}
-			if (serviceHasChanged(serviceDiscoveryResult.getResult())) {
-				bind(serviceDiscoveryResult.getResult());
+			if (serviceHasChanged(currentState, serviceDiscoveryResult.getResult())) {
+				bind(currentState, serviceDiscoveryResult.getResult());
 			} else {
 				log.debug("Service properties have not changed. No need to bind bean=" + getBeanKey());
 			}
 		} catch (Exception e) {
 			log.warn(String.format("Failed to renew lease for service bean. bean=%s astrixBeanId=%s", getBeanKey(), id), e);
-		} finally {
-			beanStateLock.unlock();
 		}
 	}
 	
-	private boolean serviceHasChanged(ServiceProperties serviceProperties) {
-		return !Objects.equals(currentProperties, serviceProperties);
+	private boolean serviceHasChanged(BeanState currentState, ServiceProperties serviceProperties) {
+		return !Objects.equals(currentState.getServiceProperties(), serviceProperties);
 	}
 	
 	public void bind() {
-		beanStateLock.lock();
+		BeanState currentState = getCurrentState();
+		if (currentState.isBound() || currentState.isDestroyed()) {
+			return;
+		}
 		try {
-			if (isBound()) {
-				return;
-			}
 			ServiceDiscoveryResult serviceDiscoveryResult = runServiceDiscovery();
 			if (!serviceDiscoveryResult.isSuccessful()) {
 				log.warn(String.format("Service discovery failure. bean=%s astrixBeanId=%s", getBeanKey(), id), serviceDiscoveryResult.getError());
-				currentState.setState(new Unbound(ServiceDiscoveryError.class, "An error occured during last service discovery attempt, see cause for details.", serviceDiscoveryResult.getError()));
+				setState(currentState, unbound(currentState, ServiceDiscoveryError.class, "An error occured during last service discovery attempt, see cause for details.", serviceDiscoveryResult.getError()));
 				return;
 				
 			}
@@ -150,14 +154,12 @@ public class ServiceBeanInstance<T> implements StatefulAstrixBean, InvocationHan
 				log.info(String.format(
 					"Did not discover a service provider using %s. bean=%s astrixBeanId=%s", 
 						serviceDiscovery.description(), getBeanKey(), id));
-				currentState.setState(new Unbound(NoServiceProviderFound.class, "Did not discover a service provider for " + getBeanKey().getBeanType().getSimpleName() + " on last service discovery attempt. discoveryStrategy=" + serviceDiscovery.description()));
+				setState(currentState, unbound(currentState, NoServiceProviderFound.class, "Did not discover a service provider for " + getBeanKey().getBeanType().getSimpleName() + " on last service discovery attempt. discoveryStrategy=" + serviceDiscovery.description(), null));
 				return;
 			}
-			bind(serviceDiscoveryResult.getResult());
+			bind(currentState, serviceDiscoveryResult.getResult());
 		} catch (Exception e) {
 			log.warn(String.format("Failed to bind service bean. bean=%s astrixBeanId=%s", getBeanKey(), id), e);
-		} finally {
-			beanStateLock.unlock();
 		}
 	}
 	
@@ -205,31 +207,106 @@ public class ServiceBeanInstance<T> implements StatefulAstrixBean, InvocationHan
 	 * Attempts to bind this bean with the latest serviceProperties, or null if serviceLookup
 	 * returned null indicating that service is not available.
 	 * 
-	 * Throws exception if bind attempt fails.
+	 * The resulting state is only published if this bean is still in the given currentState, otherwise
+	 * the outcome of the bind attempt is discarded.
 	 */
-	private void bind(ServiceProperties serviceProperties) {
-		this.currentState.bindTo(serviceProperties);
+	private void bind(BeanState currentState, ServiceProperties serviceProperties) {
+		setState(currentState, createState(currentState, serviceProperties));
 	}
 	
-	void destroy() {
-		log.info("Destroying service bean. bean={} astrixBeanId={}", getBeanKey(), id);
-		beanStateLock.lock();
+	private BeanState createState(BeanState currentState, ServiceProperties serviceProperties) {
+		if (serviceProperties == null) {
+			return unbound(currentState, NoServiceProviderFound.class, "No service provider found", null);
+		}
 		try {
-			this.currentState.releaseInstance();
-		} finally {
-			beanStateLock.unlock();
+			ServiceComponent serviceComponent = getServiceComponent(serviceProperties);
+			if (!serviceComponent.canBindType(beanKey.getBeanType())) {
+				throw new UnsupportedTargetTypeException(serviceComponent.getName(), beanKey.getBeanType());
+			}
+			BoundServiceBeanInstance<T> boundInstance = serviceComponent.bind(serviceDefinition, serviceProperties);
+			BeanInvocationDispatcher beanInvocationDispatcher = new BeanInvocationDispatcher(getBeanProxies(serviceComponent)
+																							,reactiveTypeConverter, 
+																							boundInstance.get(),
+																							invokeProxyHandlersDirectly.get());
+			return new Bound(boundInstance, beanInvocationDispatcher, serviceProperties);
+		} catch (IllegalServiceMetadataException e) {
+			return new IllegalServiceMetadataState(e.getMessage());
+		} catch (Exception e) {
+			log.warn(String.format("Failed to bind service bean: %s", getBeanKey()), e);
+			return unbound(currentState, ServiceBindError.class, "Failed to bind " + getBeanKey().getBeanType().getSimpleName() + " using serviceProperties=" + serviceProperties +  ", see cause for details.", e);
 		}
 	}
-
-	private void notifyBound() {
-		boundStateLock.lock();
-		try {
-			boundCondition.signalAll();
-		} finally {
-			boundStateLock.unlock();
+	
+	private List<BeanProxy> getBeanProxies(ServiceComponent serviceComponent) {
+		if (!(serviceComponent instanceof BeanProxyFilter)) {
+			return beanProxies;
+		}
+		BeanProxyFilter filter = BeanProxyFilter.class.cast(serviceComponent);
+		return beanProxies.stream()
+						  .filter(beanProxy -> {
+							  boolean applyBeanProxy = filter.applyBeanProxy(beanProxy);
+							  if (!applyBeanProxy) {
+								  log.info("BeanProxy is disabled by ServiceComponent. beanProxy={} componentName={} beanKey={}", 
+										  beanProxy.name(), serviceComponent.getName(), serviceDefinition.getBeanKey().toString());
+							  }
+							  return applyBeanProxy;
+						  })
+						  .collect(Collectors.toList());
+	}
+	
+	/*
+	 * Unbound states share the same boundSignal until the bean is bound, thereby
+	 * allowing threads to wait for the bean to be bound across multiple failed bind attempts.
+	 */
+	private Unbound unbound(BeanState currentState, Class<? extends ServiceUnavailableException> exceptionFactory, String message, Exception cause) {
+		return new Unbound(exceptionFactory, message, cause, currentState.nextBoundSignal());
+	}
+	
+	/**
+	 * Publishes the given newState provided that this bean is still in the expected state. Changes
+	 * in availability that occurred since the expected state was read does not prevent the transition. <p>
+	 * 
+	 * If the transition succeeds the expected state is released, otherwise the newState is released.
+	 * 
+	 * @return true if the newState was published 
+	 */
+	private boolean setState(BeanState expectedState, BeanState newState) {
+		Snapshot current;
+		do {
+			current = snapshot.get();
+			if (current.state != expectedState) {
+				log.debug("Service bean state changed during state transition, discarding new state. newState={} bean={} id={}", newState.name(), beanKey, id);
+				newState.releaseInstance();
+				return false;
+			}
+		} while (!snapshot.compareAndSet(current, current.withState(newState)));
+		expectedState.releaseInstance();
+		if (newState.isBound()) {
+			expectedState.boundSignal().complete(null);
+		}
+		if (!expectedState.getClass().equals(newState.getClass())) {
+			log.info(String.format("Service bean entering new state. newState=%s bean=%s id=%s", newState.name(), beanKey, id));
 		}
+		return true;
 	}
 	
+	private void updateAvailable() {
+		Snapshot current;
+		do {
+			current = snapshot.get();
+		} while (!snapshot.compareAndSet(current, current.withAvailable(available.get())));
+	}
+	
+	void destroy() {
+		log.info("Destroying service bean. bean={} astrixBeanId={}", getBeanKey(), id);
+		available.removeListener(availableListener);
+		BeanState currentState;
+		do {
+			currentState = getCurrentState();
+		} while (!currentState.isDestroyed() && !setState(currentState, new Destroyed(currentState.nextBoundSignal())));
+		serviceDiscovery.release();
+	}
+
 	private ServiceComponent getServiceComponent(ServiceProperties serviceProperties) {
 		String componentName = serviceProperties.getComponent();
 		if (componentName == null) {
@@ -237,27 +314,39 @@ public class ServiceBeanInstance<T> implements StatefulAstrixBean, InvocationHan
 		}
 		return serviceComponents.getComponent(componentName);
 	}
+	
 	@Override
 	public void waitUntilBound(long timeoutMillis) throws InterruptedException {
-		boundStateLock.lock();
+		BeanState currentState = getCurrentState();
+		if (currentState.isBound()) {
+			return;
+		}
 		try {
-			if (!isBound()) {
-				if (!boundCondition.await(timeoutMillis, TimeUnit.MILLISECONDS)) {
-					this.currentState.verifyBound(); // Let current state throw exception describing cause
-				}
-			}
-		} finally {
-			boundStateLock.unlock();
+			currentState.boundSignal().get(timeoutMillis, TimeUnit.MILLISECONDS);
+		} catch (ExecutionException | TimeoutException e) {
+			getCurrentState().verifyBound(); // Let current state throw exception describing cause
 		}
 	}
 	
+	/**
+	 * Registers a listener that is notified when the underlying {@link ServiceDiscovery}
+	 * signals that the service properties for this bean might have changed.
+	 */
+	ServiceDiscovery.ChangeListenerRegistration addServiceDiscoveryChangeListener(Runnable listener) {
+		return serviceDiscovery.addChangeListener(listener);
+	}
+	
 	/**
 	 * A bean is considered bound if it is in any state except Unbound.
 	 *  
 	 * @return
 	 */
 	public boolean isBound() {
-		return !this.currentState.getClass().equals(Unbound.class);
+		return getCurrentState().isBound();
+	}
+	
+	private BeanState getCurrentState() {
+		return this.snapshot.get().state;
 	}
 	
 	public AstrixBeanKey<T> getBeanKey() {
@@ -271,111 +360,192 @@ public class ServiceBeanInstance<T> implements StatefulAstrixBean, InvocationHan
 	@Override
 	public Object invoke(Object proxy, Method method, Object[] args)
 			throws Throwable {
-		if (method.getDeclaringClass().equals(StatefulAstrixBean.class)) {
+		Class<?> declaringClass = method.getDeclaringClass();
+		if (declaringClass == StatefulAstrixBean.class) {
 			try {
 				return method.invoke(this, args);
 			} catch (InvocationTargetException e) {
 				throw e.getCause();
 			}
 		}
-		if (method.getDeclaringClass().equals(Object.class)) {
+		if (declaringClass == Object.class) {
 			return method.invoke(this, args);
 		}
-		if (!this.available.get()) {
-			throw new ServiceUnavailableException("Service is explicitly set in unavailable state");
+		return this.snapshot.get().invocationHandler.invoke(proxy, method, args);
+	}
+	
+	/**
+	 * Returns an invocation of the given method on this bean, equivalent to {@link #invoke(Object, Method, Object[])}, 
+	 * used by bean proxies generated using {@link GeneratedProxyFactory}. 
+	 */
+	BeanProxy.BeanInvocation getInvocation(Method method) {
+		Class<?> declaringClass = method.getDeclaringClass();
+		if (declaringClass == StatefulAstrixBean.class || declaringClass == Object.class) {
+			return args -> ReflectionUtil.invokeMethod(method, this, args);
 		}
-		return this.currentState.invoke(proxy, method, args);
+		return new ServiceBeanMethod(method);
 	}
 	
-	private abstract class BeanState implements InvocationHandler {
+	/**
+	 * A method on this bean. The invocation of the method is resolved once for each snapshot, 
+	 * rather than on each invocation.
+	 */
+	private final class ServiceBeanMethod implements BeanProxy.BeanInvocation {
+		
+		private final Method method;
+		/*
+		 * Racy but idempotent, a ResolvedInvocation is immutable.
+		 */
+		private ResolvedInvocation resolved;
+		
+		ServiceBeanMethod(Method method) {
+			this.method = method;
+		}
 
-		protected void bindTo(ServiceProperties serviceProperties) {
-			if (serviceProperties == null) {
-				setState(new Unbound(NoServiceProviderFound.class, "No service provider found"));
-				return;
-			}
-			String providerSubsystem = serviceProperties.getProperty(ServiceProperties.SUBSYSTEM);
-			if (providerSubsystem == null) {
-				providerSubsystem = AstrixSettings.SUBSYSTEM_NAME.defaultValue();
-			}
-			try {
-				ServiceComponent serviceComponent = getServiceComponent(serviceProperties);
-				if (!serviceComponent.canBindType(beanKey.getBeanType())) {
-					throw new UnsupportedTargetTypeException(serviceComponent.getName(), beanKey.getBeanType());
-				}
-				BoundServiceBeanInstance<T> boundInstance = serviceComponent.bind(serviceDefinition, serviceProperties);
-				BeanInvocationDispatcher beanInvocationDispatcher = new BeanInvocationDispatcher(getBeanProxies(serviceComponent)
-																								,reactiveTypeConverter, 
-																								boundInstance.get());
-				setState(new Bound(boundInstance, beanInvocationDispatcher));
-				currentProperties = serviceProperties;
-			} catch (IllegalServiceMetadataException e) {
-				setState(new IllegalServiceMetadataState(e.getMessage()));
-			} catch (Exception e) {
-				log.warn(String.format("Failed to bind service bean: %s", getBeanKey()), e);
-				setState(new Unbound(ServiceBindError.class, "Failed to bind " + getBeanKey().getBeanType().getSimpleName() + " using serviceProperties=" + serviceProperties +  ", see cause for details.", e));
+		@Override
+		public Object invoke(Object[] args) throws Throwable {
+			Snapshot current = snapshot.get();
+			ResolvedInvocation resolved = this.resolved;
+			if (resolved == null || resolved.snapshot != current) {
+				resolved = new ResolvedInvocation(current, current.resolve(method));
+				this.resolved = resolved;
 			}
+			return resolved.invocation.invoke(args);
 		}
-
-		private List<BeanProxy> getBeanProxies(ServiceComponent serviceComponent) {
-			if (!(serviceComponent instanceof BeanProxyFilter)) {
-				return beanProxies;
+	}
+	
+	private final class ResolvedInvocation {
+		private final Snapshot snapshot;
+		private final BeanProxy.BeanInvocation invocation;
+		
+		ResolvedInvocation(Snapshot snapshot, BeanProxy.BeanInvocation invocation) {
+			this.snapshot = snapshot;
+			this.invocation = invocation;
+		}
+	}
+	
+	/**
+	 * Immutable snapshot of the state of this service bean instance and its availability. <p>
+	 * 
+	 * The invocationHandler is resolved when the snapshot is created to avoid evaluating the
+	 * availability of the bean on each invocation.
+	 */
+	private final class Snapshot {
+		
+		private final BeanState state;
+		private final boolean available;
+		private final InvocationHandler invocationHandler;
+		
+		Snapshot(BeanState state, boolean available) {
+			this.state = state;
+			this.available = available;
+			this.invocationHandler = available ? state : UNAVAILABLE;
+		}
+		
+		Snapshot withState(BeanState state) {
+			return new Snapshot(state, available);
+		}
+		
+		Snapshot withAvailable(boolean available) {
+			return this.available == available ? this : new Snapshot(state, available);
+		}
+		
+		BeanProxy.BeanInvocation resolve(Method method) {
+			if (!available) {
+				return args -> UNAVAILABLE.invoke(null, method, args);
 			}
-			BeanProxyFilter filter = BeanProxyFilter.class.cast(serviceComponent);
-			return beanProxies.stream()
-							  .filter(beanProxy -> {
-								  boolean applyBeanProxy = filter.applyBeanProxy(beanProxy);
-								  if (!applyBeanProxy) {
-									  log.info("BeanProxy is disabled by ServiceComponent. beanProxy={} componentName={} beanKey={}", 
-											  beanProxy.name(), serviceComponent.getName(), serviceDefinition.getBeanKey().toString());
-								  }
-								  return applyBeanProxy;
-							  })
-							  .collect(Collectors.toList());
+			return state.resolve(method);
 		}
+		
+	}
+	
+	private static final InvocationHandler UNAVAILABLE = (proxy, method, args) -> {
+		throw new ServiceUnavailableException("Service is explicitly set in unavailable state");
+	};
+	
+	private abstract class BeanState implements InvocationHandler {
 
 		protected abstract void verifyBound();
 
-		protected final void setState(BeanState newState) {
-			if (!currentState.getClass().equals(newState.getClass())) {
-				log.info(String.format("Service bean entering new state. newState=%s bean=%s id=%s", newState.name(), beanKey, id));
-			}
-			currentState = newState;
-			if (isBoundState(newState)) {
-				notifyBound();
-			}
-			releaseInstance();
+		/**
+		 * A bean is considered bound if it is in any state except Unbound or Destroyed.
+		 */
+		protected boolean isBound() {
+			return true;
 		}
-
-		private boolean isBoundState(BeanState newState) {
-			return !newState.getClass().equals(Unbound.class);
+		
+		protected boolean isDestroyed() {
+			return false;
+		}
+		
+		/**
+		 * The ServiceProperties this state is bound to, or null if not bound to a service.
+		 */
+		protected ServiceProperties getServiceProperties() {
+			return null;
+		}
+		
+		/**
+		 * Future completed when leaving this state for a bound state.
+		 */
+		protected CompletableFuture<Void> boundSignal() {
+			return BOUND;
+		}
+		
+		/**
+		 * The boundSignal to use for an unbound state succeeding this state.
+		 */
+		protected CompletableFuture<Void> nextBoundSignal() {
+			return new CompletableFuture<>();
 		}
 
 		protected abstract String name();
 		
 		protected abstract void releaseInstance();
 		
+		/**
+		 * The invocation of the given method in this state.
+		 */
+		protected BeanProxy.BeanInvocation resolve(Method method) {
+			return args -> invoke(null, method, args);
+		}
+		
 	}
 	
+	private static final CompletableFuture<Void> BOUND = CompletableFuture.completedFuture(null);
+	
 	private class Bound extends BeanState {
 
 		private final BoundServiceBeanInstance<T> serviceBeanInstance;
 		private final BeanInvocationDispatcher serviceBeanInvocationDispatcher;
+		private final ServiceProperties serviceProperties;
 		
-		public Bound(BoundServiceBeanInstance<T> bean, BeanInvocationDispatcher serviceBeanInvocationDispatcher) {
+		public Bound(BoundServiceBeanInstance<T> bean, BeanInvocationDispatcher serviceBeanInvocationDispatcher, ServiceProperties serviceProperties) {
 			this.serviceBeanInstance = bean;
 			this.serviceBeanInvocationDispatcher = serviceBeanInvocationDispatcher;
+			this.serviceProperties = serviceProperties;
 		}
 
 		@Override
 		public Object invoke(Object proxy, final Method method, final Object[] args) throws Throwable {
 			return serviceBeanInvocationDispatcher.invoke(proxy, method, args);
 		}
+		
+		@Override
+		protected BeanProxy.BeanInvocation resolve(Method method) {
+			return serviceBeanInvocationDispatcher.getInvocation(method);
+		}
 
 		@Override
 		protected void releaseInstance() {
+			serviceBeanInvocationDispatcher.close();
 			serviceBeanInstance.release();
 		}
+		
+		@Override
+		protected ServiceProperties getServiceProperties() {
+			return serviceProperties;
+		}
 
 		@Override
 		protected String name() {
@@ -392,15 +562,13 @@ public class ServiceBeanInstance<T> implements StatefulAstrixBean, InvocationHan
 		private final Class<? extends ServiceUnavailableException> exceptionFactory;
 		private final String message;
 		private final Exception discoveryFailure;
+		private final CompletableFuture<Void> boundSignal;
 		
-		public Unbound(Class<? extends ServiceUnavailableException> exceptionFactory, String message) {
-			this(exceptionFactory, message, null);
-		}
-		
-		public Unbound(Class<? extends ServiceUnavailableException> exceptionFactory, String message, Exception discoveryFailureCause) {
+		public Unbound(Class<? extends ServiceUnavailableException> exceptionFactory, String message, Exception discoveryFailureCause, CompletableFuture<Void> boundSignal) {
 			this.exceptionFactory = exceptionFactory;
 			this.discoveryFailure = discoveryFailureCause;
 			this.message = message;
+			this.boundSignal = boundSignal;
 		}
 		
 		@Override
@@ -429,15 +597,48 @@ public class ServiceBeanInstance<T> implements StatefulAstrixBean, InvocationHan
 			throw createServiceUnavailableException();
 		}
 		
+		@Override
+		protected boolean isBound() {
+			return false;
+		}
+		
+		@Override
+		protected CompletableFuture<Void> boundSignal() {
+			return boundSignal;
+		}
+		
+		@Override
+		protected CompletableFuture<Void> nextBoundSignal() {
+			return boundSignal;
+		}
+		
 		@Override
 		protected void releaseInstance() {
 		}
+		
 		@Override
 		protected String name() {
 			return "Unbound";
 		}
 	}
 	
+	private class Destroyed extends Unbound {
+		
+		public Destroyed(CompletableFuture<Void> boundSignal) {
+			super(ServiceUnavailableException.class, "Service bean is destroyed", null, boundSignal);
+		}
+		
+		@Override
+		protected boolean isDestroyed() {
+			return true;
+		}
+		
+		@Override
+		protected String name() {
+			return "Destroyed";
+		}
+	}
+	
 	private class IllegalServiceMetadataState extends BeanState {
 		
 		private String message;
@@ -467,11 +668,11 @@ public class ServiceBeanInstance<T> implements StatefulAstrixBean, InvocationHan
 	}
 
 	String getState() {
-		return this.currentState.name();
+		return getCurrentState().name();
 	}
 	
 	ServiceProperties getCurrentProperties() {
-		return currentProperties;
+		return getCurrentState().getServiceProperties();
 	}
 
 }
@@ -25,4 +25,37 @@ package com.avanza.astrix.beans.service;
 public interface ServiceDiscovery {
 	ServiceProperties run();
 	String description();
+	
+	/**
+	 * Registers a listener that should be notified when the result of {@link #run()} might have
+	 * changed, allowing a service bean to be bound immediately. <p>
+	 * 
+	 * The default implementation never notifies the listener, in which case changes are only
+	 * detected by periodically running the service discovery.
+	 * 
+	 * @param listener
+	 * @return a registration used to remove the listener when it should no longer be notified
+	 */
+	default ChangeListenerRegistration addChangeListener(Runnable listener) {
+		return ChangeListenerRegistration.NONE;
+	}
+	
+	/**
+	 * Invoked when the service bean using this discovery is no longer leased, i.e. when {@link #run()}
+	 * will not be invoked again. Allows releasing any resources held on behalf of the bean.
+	 */
+	default void release() {
+	}
+	
+	/**
+	 * A listener registered using {@link ServiceDiscovery#addChangeListener(Runnable)}.
+	 */
+	@FunctionalInterface
+	interface ChangeListenerRegistration {
+		
+		ChangeListenerRegistration NONE = () -> {};
+		
+		void remove();
+	}
+	
 }
\ No newline at end of file
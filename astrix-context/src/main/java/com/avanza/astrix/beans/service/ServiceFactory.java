@@ -19,6 +19,8 @@ import java.lang.reflect.Proxy;
 import java.util.Objects;
 
 import com.avanza.astrix.beans.core.AstrixBeanKey;
+import com.avanza.astrix.beans.core.AstrixSettings;
+import com.avanza.astrix.beans.core.GeneratedProxyFactory;
 import com.avanza.astrix.beans.factory.DynamicFactoryBean;
 
 /**
@@ -46,9 +48,15 @@ public class ServiceFactory<T> implements DynamicFactoryBean<T> {
 		serviceBeanInstance.bind();
 		serviceBeanContext.getLeaseManager().startManageLease(serviceBeanInstance);
 		serviceBeanContext.getServiceMbeanExporter().register(serviceBeanInstance);
+		Class<?>[] proxiedInterfaces = new Class[]{beanKey.getBeanType(), StatefulAstrixBean.class};
+		if (serviceBeanContext.getConfig().get(AstrixSettings.GENERATED_BEAN_PROXIES).get() 
+				&& GeneratedProxyFactory.canGenerateProxy(proxiedInterfaces)) {
+			return beanKey.getBeanType().cast(
+					GeneratedProxyFactory.newProxyInstance(serviceBeanInstance::getInvocation, proxiedInterfaces));
+		}
 		return beanKey.getBeanType().cast(
 				Proxy.newProxyInstance(beanKey.getBeanType().getClassLoader(), 
-									   new Class[]{beanKey.getBeanType(), StatefulAstrixBean.class}, 
+									   proxiedInterfaces, 
 									   serviceBeanInstance));
 	}
 	
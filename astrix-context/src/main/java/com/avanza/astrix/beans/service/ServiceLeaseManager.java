@@ -17,7 +17,12 @@ package com.avanza.astrix.beans.service;
 
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.PreDestroy;
 
@@ -27,114 +32,190 @@ import org.slf4j.LoggerFactory;
 import com.avanza.astrix.beans.config.AstrixConfig;
 import com.avanza.astrix.beans.core.AstrixSettings;
 import com.avanza.astrix.beans.util.AstrixFrameworkThread;
+import com.avanza.astrix.context.mbeans.MBeanExporter;
 /**
+ * Renews the lease of all bound service beans and attempts to bind all unbound service beans. <p>
+ * 
+ * Each service bean is scheduled individually on a bounded pool of threads, see 
+ * {@link AstrixSettings#SERVICE_LEASE_MANAGER_THREADS}. Bound beans renew their lease every 
+ * {@link AstrixSettings#SERVICE_LEASE_RENEW_INTERVAL} with some random jitter to avoid
+ * that all beans hit the service registry at the same time. Unbound beans are retried with exponential backoff,
+ * starting at {@link AstrixSettings#BEAN_BIND_ATTEMPT_INITIAL_INTERVAL} up to {@link AstrixSettings#BEAN_BIND_ATTEMPT_INTERVAL}. 
+ * A bean is renewed/bound immediately when its {@link ServiceDiscovery} signals a change. <p>
  * 
  * @author Elias Lindholm (elilin)
  *
  */
 public class ServiceLeaseManager {
 	
+	private static final int MAX_BACKOFF_EXPONENT = 20;
+	
 	private final Logger log = LoggerFactory.getLogger(ServiceLeaseManager.class);
-	private final List<ServiceBeanInstance<?>> leasedServices = new CopyOnWriteArrayList<>();
+	private final List<LeasedService> leasedServices = new CopyOnWriteArrayList<>();
 	private final AstrixConfig config;
-	private final ServiceLeaseRenewalThread leaseRenewalThread = new ServiceLeaseRenewalThread();
-	private final ServiceBindThread serviceBindThread = new ServiceBindThread();
-	private final AtomicBoolean isStarted = new AtomicBoolean(false);
+	private final ScheduledThreadPoolExecutor executor;
+	private final ServiceLeaseManagerStatistics statistics;
 	
-	public ServiceLeaseManager(AstrixConfig config) {
+	public ServiceLeaseManager(AstrixConfig config, MBeanExporter mbeanExporter) {
 		this.config = config;
+		AtomicInteger nextThreadId = new AtomicInteger(0);
+		this.executor = new ScheduledThreadPoolExecutor(config.get(AstrixSettings.SERVICE_LEASE_MANAGER_THREADS).get(), 
+														runnable -> new AstrixFrameworkThread("ServiceLeaseManager-" + nextThreadId.incrementAndGet(), runnable));
+		this.executor.setRemoveOnCancelPolicy(true);
+		this.statistics = new ServiceLeaseManagerStatistics(leasedServices::size, 
+															() -> (int) leasedServices.stream().filter(leasedService -> !leasedService.instance.isBound()).count());
+		mbeanExporter.registerMBean(statistics, "ServiceLeaseManager", "ServiceLeaseManagerStatistics");
 	}
 	
 	public <T> void startManageLease(ServiceBeanInstance<T> serviceBeanInstance) {
-		synchronized (isStarted) {
-			if (!isStarted.get()) {
-				start();
-			}
-		}
 		log.info(String.format("Start managing service bean. currentState=%s bean=%s astrixBeanId=%s", serviceBeanInstance.getState(), serviceBeanInstance.getBeanKey(), serviceBeanInstance.getBeanId()));
-		leasedServices.add(serviceBeanInstance);
+		LeasedService leasedService = new LeasedService(serviceBeanInstance);
+		leasedServices.add(leasedService);
+		leasedService.scheduleNext();
+		leasedService.changeListener = serviceBeanInstance.addServiceDiscoveryChangeListener(leasedService::runNow);
 	}
 	
-	private void start() {
-		this.leaseRenewalThread.start();
-		this.serviceBindThread.start();
-		isStarted.set(true);
-	}
-
 	@PreDestroy
 	public void destroy() {
-		this.leaseRenewalThread.interrupt();
-		this.serviceBindThread.interrupt();
-		for (ServiceBeanInstance<?> leasedService : this.leasedServices) {
+		this.executor.shutdownNow();
+		for (LeasedService leasedService : this.leasedServices) {
 			try {
-				leasedService.destroy();
+				leasedService.stop();
 			} catch (Exception e) {
-				log.warn(String.format("Failed to release service bean: %s", leasedService.getBeanKey()), e);
+				log.warn(String.format("Failed to release service bean: %s", leasedService.instance.getBeanKey()), e);
 			}
 		}
 	}
-
-	private class ServiceBindThread extends AstrixFrameworkThread {
+	
+	ServiceLeaseManagerStatistics getStatistics() {
+		return statistics;
+	}
+	
+	private long withJitter(long delayMillis) {
+		long maxJitter = delayMillis / 10;
+		return delayMillis + ThreadLocalRandom.current().nextLong(-maxJitter, maxJitter + 1);
+	}
+	
+	private class LeasedService implements Runnable {
+		
+		private final ServiceBeanInstance<?> instance;
+		private volatile ServiceDiscovery.ChangeListenerRegistration changeListener = ServiceDiscovery.ChangeListenerRegistration.NONE;
+		
+		// Guarded by this
+		private ScheduledFuture<?> nextRun;
+		private boolean running;
+		private boolean runAgain;
+		private int failedBindAttempts;
+		private long unboundSince = System.nanoTime();
 		
-		public ServiceBindThread() {
-			super("ServiceBind");
+		public LeasedService(ServiceBeanInstance<?> instance) {
+			this.instance = instance;
 		}
 		
 		@Override
 		public void run() {
-			while (!interrupted()) {
-				for (ServiceBeanInstance<?> leasedService : leasedServices) {
-					if (!leasedService.isBound()) {
-						bind(leasedService);
-					}
+			synchronized (this) {
+				running = true;
+				runAgain = false;
+			}
+			try {
+				if (instance.isBound()) {
+					renewLease();
+				} else {
+					bind();
 				}
-				try {
-					Thread.sleep(config.get(AstrixSettings.BEAN_BIND_ATTEMPT_INTERVAL).get());
-				} catch (InterruptedException e) {
-					interrupt();
+			} finally {
+				synchronized (this) {
+					running = false;
+					if (runAgain) {
+						schedule(0);
+					} else {
+						scheduleNext();
+					}
 				}
 			}
-			log.info("Terminating thread=" + getName());
 		}
 		
-		private void bind(ServiceBeanInstance<?> leasedService) {
+		void stop() {
+			changeListener.remove();
+			instance.destroy();
+		}
+		
+		/**
+		 * Runs a lease renewal/bind attempt as soon as possible.
+		 */
+		synchronized void runNow() {
+			failedBindAttempts = 0;
+			if (running) {
+				runAgain = true;
+				return;
+			}
+			if (nextRun != null && !nextRun.cancel(false)) {
+				// Already started
+				return;
+			}
+			schedule(0);
+		}
+		
+		private void renewLease() {
+			long start = System.nanoTime();
 			try {
-				log.debug("Attempting to bind service={} beanId={}", leasedService.getBeanKey(), leasedService.getBeanId());
-				leasedService.bind();
+				instance.renewLease();
 			} catch (Exception e) {
-				log.warn("Failed to bind service: " + leasedService.getBeanKey(), e);
+				log.warn("Failed to renew lease for service: " + instance.getBeanKey(), e);
+			}
+			long end = System.nanoTime();
+			statistics.leaseRenewed(end - start);
+			if (!instance.isBound()) {
+				synchronized (this) {
+					unboundSince = end;
+				}
 			}
 		}
-	}
-	
-	private class ServiceLeaseRenewalThread extends AstrixFrameworkThread {
 		
-		public ServiceLeaseRenewalThread() {
-			super("ServiceLeaseRenewal");
+		private void bind() {
+			try {
+				log.debug("Attempting to bind service={} beanId={}", instance.getBeanKey(), instance.getBeanId());
+				statistics.bindAttempted();
+				instance.bind();
+			} catch (Exception e) {
+				log.warn("Failed to bind service: " + instance.getBeanKey(), e);
+			}
+			synchronized (this) {
+				if (instance.isBound()) {
+					statistics.bound(System.nanoTime() - unboundSince);
+					failedBindAttempts = 0;
+				} else {
+					failedBindAttempts++;
+				}
+			}
 		}
 		
-		@Override
-		public void run() {
-			while (!interrupted()) {
-				for (ServiceBeanInstance<?> leasedService : leasedServices) {
-					renewLease(leasedService);
-				}
-				try {
-					Thread.sleep(config.get(AstrixSettings.SERVICE_LEASE_RENEW_INTERVAL).get());
-				} catch (InterruptedException e) {
-					interrupt();
-				}
+		synchronized void scheduleNext() {
+			if (instance.isBound()) {
+				schedule(withJitter(config.get(AstrixSettings.SERVICE_LEASE_RENEW_INTERVAL).get()));
+			} else {
+				schedule(withJitter(bindAttemptDelay()));
 			}
-			log.info("Terminating thread=" + getName());
 		}
 		
-		private void renewLease(ServiceBeanInstance<?> leasedService) {
+		private long bindAttemptDelay() {
+			long maxDelay = config.get(AstrixSettings.BEAN_BIND_ATTEMPT_INTERVAL).get();
+			long initialDelay = Math.min(config.get(AstrixSettings.BEAN_BIND_ATTEMPT_INITIAL_INTERVAL).get(), maxDelay);
+			int exponent = Math.max(0, Math.min(failedBindAttempts - 1, MAX_BACKOFF_EXPONENT));
+			return Math.min(initialDelay << exponent, maxDelay);
+		}
+		
+		private void schedule(long delayMillis) {
+			if (executor.isShutdown()) {
+				return;
+			}
 			try {
-				leasedService.renewLease();
-			} catch (Exception e) {
-				log.warn("Failed to renew lease for service: " + leasedService.getBeanKey(), e);
+				nextRun = executor.schedule(this, delayMillis, TimeUnit.MILLISECONDS);
+			} catch (RejectedExecutionException e) {
+				// Lease manager destroyed
 			}
 		}
 	}
 	
-}
\ No newline at end of file
+}
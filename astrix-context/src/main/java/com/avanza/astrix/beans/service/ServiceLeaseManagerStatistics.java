@@ -0,0 +1,126 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.beans.service;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Statistics for the {@link ServiceLeaseManager}. <p>
+ * 
+ * Lease renewal time is the time spent renewing the lease of a single bound service bean, i.e running 
+ * service discovery and rebinding the bean if the service properties changed. Bind latency is the time 
+ * from a service bean entering unbound state until it is successfully bound. <p>
+ */
+final class ServiceLeaseManagerStatistics implements ServiceLeaseManagerStatisticsMBean {
+	
+	private final IntSupplier managedBeanCount;
+	private final IntSupplier unboundBeanCount;
+	private final Durations leaseRenewals = new Durations();
+	private final Durations bindLatencies = new Durations();
+	private final LongAdder bindAttemptCount = new LongAdder();
+	
+	ServiceLeaseManagerStatistics(IntSupplier managedBeanCount, IntSupplier unboundBeanCount) {
+		this.managedBeanCount = managedBeanCount;
+		this.unboundBeanCount = unboundBeanCount;
+	}
+	
+	void leaseRenewed(long durationNanos) {
+		leaseRenewals.record(durationNanos);
+	}
+	
+	void bindAttempted() {
+		bindAttemptCount.increment();
+	}
+	
+	void bound(long latencyNanos) {
+		bindLatencies.record(latencyNanos);
+	}
+	
+	@Override
+	public int getManagedBeanCount() {
+		return managedBeanCount.getAsInt();
+	}
+	
+	@Override
+	public int getUnboundBeanCount() {
+		return unboundBeanCount.getAsInt();
+	}
+	
+	@Override
+	public long getLeaseRenewalCount() {
+		return leaseRenewals.count.sum();
+	}
+	
+	@Override
+	public double getLeaseRenewalMeanMillis() {
+		return leaseRenewals.getMeanMillis();
+	}
+	
+	@Override
+	public double getLeaseRenewalMaxMillis() {
+		return leaseRenewals.getMaxMillis();
+	}
+	
+	@Override
+	public long getBindAttemptCount() {
+		return bindAttemptCount.sum();
+	}
+	
+	@Override
+	public long getBindCount() {
+		return bindLatencies.count.sum();
+	}
+	
+	@Override
+	public double getBindLatencyMeanMillis() {
+		return bindLatencies.getMeanMillis();
+	}
+	
+	@Override
+	public double getBindLatencyMaxMillis() {
+		return bindLatencies.getMaxMillis();
+	}
+	
+	private static final class Durations {
+		
+		private final LongAdder count = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+		
+		void record(long durationNanos) {
+			count.increment();
+			totalNanos.add(durationNanos);
+			maxNanos.accumulate(durationNanos);
+		}
+		
+		double getMeanMillis() {
+			long count = this.count.sum();
+			return count == 0 ? 0 : toMillis(totalNanos.sum()) / count;
+		}
+		
+		double getMaxMillis() {
+			return toMillis(maxNanos.get());
+		}
+		
+		private static double toMillis(long nanos) {
+			return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+		}
+	}
+
+}
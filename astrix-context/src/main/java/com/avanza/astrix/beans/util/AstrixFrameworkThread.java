@@ -26,4 +26,9 @@ public class AstrixFrameworkThread extends Thread {
 		setDaemon(true);
 	}
 	
+	public AstrixFrameworkThread(String name, Runnable target) {
+		super(target, "Astrix-" + name);
+		setDaemon(true);
+	}
+	
 }
@@ -18,6 +18,15 @@ package com.avanza.astrix.context.mbeans;
 public interface MBeanExporter {
 
 	void registerMBean(Object mbean, String folder, String name);
+	
+	/**
+	 * Unregisters a mbean previously registered using {@link #registerMBean(Object, String, String)}.
+	 * 
+	 * @param folder
+	 * @param name
+	 */
+	default void unregisterMBean(String folder, String name) {
+	}
 
 	public static class NoExporter implements MBeanExporter {
 		@Override
@@ -41,6 +41,11 @@ final class MBeanExporterImpl implements MBeanExporter {
 		}
 		mbeanServer.registerMBean(mbean, folder, name);
 	}
+	
+	@Override
+	public void unregisterMBean(String folder, String name) {
+		mbeanServer.unregisterMBean(folder, name);
+	}
 
 	private boolean exportMBeans() {
 		return astrixConfig.get(AstrixSettings.EXPORT_ASTRIX_MBEANS).get();
@@ -17,4 +17,7 @@ package com.avanza.astrix.context.mbeans;
 
 public interface MBeanServerFacade {
 	void registerMBean(Object mbean, String folder, String name);
+	
+	default void unregisterMBean(String folder, String name) {
+	}
 }
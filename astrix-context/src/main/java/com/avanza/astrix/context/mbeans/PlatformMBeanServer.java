@@ -58,6 +58,14 @@ public class PlatformMBeanServer implements MBeanServerFacade {
 		}
 	}
 
+	@Override
+	public void unregisterMBean(String folder, String name) {
+		ObjectName objectName = getObjectName(folder, name);
+		if (exportedMbeans.remove(objectName) != null) {
+			unregisterMBean(objectName);
+		}
+	}
+
 	private ObjectName getObjectName(String folder, String name) {
 		try {
 			return new ObjectName(domain + ":00=" + folder + ",name=" + name);
@@ -40,6 +40,21 @@ final class BeanMetrics implements BeanMetricsMBean {
 		return timer.get99thPercentile();
 	}
 
+	@Override
+	public double get90thPercentile() {
+		return timer.get90thPercentile();
+	}
+	
+	@Override
+	public double get999thPercentile() {
+		return timer.get999thPercentile();
+	}
+	
+	@Override
+	public double get9999thPercentile() {
+		return timer.get9999thPercentile();
+	}
+
 	@Override
 	public double getMax() {
 		return timer.getMax();
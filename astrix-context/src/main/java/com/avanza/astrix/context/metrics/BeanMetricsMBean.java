@@ -32,6 +32,12 @@ public interface BeanMetricsMBean {
 	double getMax();
 
 	double get99thPercentile();
+	
+	double get90thPercentile();
+	
+	double get999thPercentile();
+	
+	double get9999thPercentile();
 
 	double get50thPercentile();
 
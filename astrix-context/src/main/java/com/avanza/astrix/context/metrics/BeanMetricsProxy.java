@@ -24,6 +24,7 @@ import com.avanza.astrix.beans.core.AstrixSettings;
 import com.avanza.astrix.beans.core.BeanProxy;
 import com.avanza.astrix.beans.core.BeanProxyNames;
 import com.avanza.astrix.config.DynamicBooleanProperty;
+import com.avanza.astrix.config.DynamicPropertyListener;
 import com.avanza.astrix.core.function.CheckedCommand;
 
 import rx.Observable;
@@ -58,6 +59,23 @@ class BeanMetricsProxy implements BeanProxy {
 	public boolean isEnabled() {
 		return beanMetricsEnabledGlobally.get() && beanMetricsEnabled.get();
 	}
+	
+	@Override
+	public boolean supportsEnabledListener() {
+		return true;
+	}
+	
+	@Override
+	public void addEnabledListener(DynamicPropertyListener<Boolean> listener) {
+		beanMetricsEnabledGlobally.addListener(listener);
+		beanMetricsEnabled.addListener(listener);
+	}
+	
+	@Override
+	public void removeEnabledListener(DynamicPropertyListener<Boolean> listener) {
+		beanMetricsEnabledGlobally.removeListener(listener);
+		beanMetricsEnabled.removeListener(listener);
+	}
 
 	@Override
 	public String name() {
@@ -21,4 +21,9 @@ public final class DefaultMetricSpi implements MetricsSpi {
 	public TimerSpi createTimer() {
 		return new TimerSpi.NoTimer();
 	}
+	
+	@Override
+	public HistogramSpi createHistogram() {
+		return new HistogramSpi.NoHistogram();
+	}
 }
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.context.metrics;
+
+/**
+ * Tracks the distribution of a stream of values, for instance the size of
+ * serialized messages. <p>
+ */
+public class Histogram {
+	
+	private final HistogramSpi histogramSpi;
+	
+	public Histogram(HistogramSpi histogramSpi) {
+		this.histogramSpi = histogramSpi;
+	}
+	
+	public void update(long value) {
+		histogramSpi.update(value);
+	}
+	
+	public double get50thPercentile() {
+		return histogramSpi.getSnapshot().get50thPercentile();
+	}
+
+	public double get99thPercentile() {
+		return histogramSpi.getSnapshot().get99thPercentile();
+	}
+
+	public double getMax() {
+		return histogramSpi.getSnapshot().getMax();
+	}
+
+	public double getMean() {
+		return histogramSpi.getSnapshot().getMean();
+	}
+
+	public double getMin() {
+		return histogramSpi.getSnapshot().getMin();
+	}
+
+	public long getCount() {
+		return histogramSpi.getSnapshot().getCount();
+	}
+
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.context.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non negative long values, typically latencies in nanoseconds, using 
+ * logarithmic buckets with each power of two divided into 32 linear sub-buckets. This is the
+ * same bucket layout as used by HdrHistogram, which bounds the relative error of reported 
+ * percentiles to ~3% over the whole range of trackable values. <p>
+ * 
+ * Statistics are reported for the last one to two minutes. Recorded values are kept in two 
+ * one minute intervals which are rotated using compare-and-set, i.e. recording a value never 
+ * blocks and never allocates except when rotating intervals. <p>
+ */
+public final class IntervalHistogram {
+	
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	/*
+	 * Values above 2^(MAX_EXPONENT + 1) ns (~2.5 hours) are recorded as the max trackable value
+	 */
+	private static final int MAX_EXPONENT = 42;
+	private static final long MAX_TRACKABLE_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+	private static final int BUCKET_COUNT = bucketIndex(MAX_TRACKABLE_VALUE) + 1;
+	private static final long INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+	
+	private final AtomicReference<Intervals> intervals;
+	
+	public IntervalHistogram() {
+		this(System.nanoTime());
+	}
+	
+	public IntervalHistogram(long nowNanos) {
+		this.intervals = new AtomicReference<>(new Intervals(new Interval(nowNanos), null));
+	}
+	
+	/**
+	 * @param nowNanos - current time as returned by {@link System#nanoTime()}
+	 * @param value
+	 */
+	public void record(long nowNanos, long value) {
+		currentIntervals(nowNanos).current.record(value);
+	}
+	
+	public void record(long value) {
+		record(System.nanoTime(), value);
+	}
+	
+	public Snapshot getSnapshot() {
+		return getSnapshot(System.nanoTime());
+	}
+	
+	public Snapshot getSnapshot(long nowNanos) {
+		Intervals intervals = currentIntervals(nowNanos);
+		Snapshot result = new Snapshot(nowNanos - intervals.oldestStartNanos());
+		intervals.current.addTo(result);
+		if (intervals.previous != null) {
+			intervals.previous.addTo(result);
+		}
+		return result;
+	}
+	
+	private Intervals currentIntervals(long nowNanos) {
+		Intervals intervals = this.intervals.get();
+		while (nowNanos - intervals.current.startNanos >= INTERVAL_NANOS) {
+			Intervals rotated = intervals.rotate(nowNanos);
+			if (this.intervals.compareAndSet(intervals, rotated)) {
+				return rotated;
+			}
+			intervals = this.intervals.get();
+		}
+		return intervals;
+	}
+	
+	static int bucketIndex(long value) {
+		long v = Math.min(Math.max(value, 0), MAX_TRACKABLE_VALUE);
+		if (v < 2 * SUB_BUCKET_COUNT) {
+			return (int) v;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(v);
+		int shift = exponent - SUB_BUCKET_BITS;
+		return (shift + 1) * SUB_BUCKET_COUNT + (int) (v >>> shift) - SUB_BUCKET_COUNT;
+	}
+	
+	/**
+	 * Returns the value in the middle of the range covered by a given bucket.
+	 */
+	static long bucketValue(int index) {
+		if (index < 2 * SUB_BUCKET_COUNT) {
+			return index;
+		}
+		int shift = index / SUB_BUCKET_COUNT - 1;
+		long lowestValue = (long) (index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT) << shift;
+		return lowestValue + ((1L << shift) >>> 1);
+	}
+	
+	private static final class Intervals {
+		private final Interval current;
+		private final Interval previous;
+		
+		Intervals(Interval current, Interval previous) {
+			this.current = current;
+			this.previous = previous;
+		}
+		
+		Intervals rotate(long nowNanos) {
+			if (nowNanos - current.startNanos >= 2 * INTERVAL_NANOS) {
+				// No values recorded during the last interval
+				return new Intervals(new Interval(nowNanos), null);
+			}
+			return new Intervals(new Interval(current.startNanos + INTERVAL_NANOS), current);
+		}
+		
+		long oldestStartNanos() {
+			return previous != null ? previous.startNanos : current.startNanos;
+		}
+	}
+	
+	private static final class Interval {
+		private final long startNanos;
+		private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+		private final LongAdder count = new LongAdder();
+		private final LongAdder sum = new LongAdder();
+		private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+		private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+		
+		Interval(long startNanos) {
+			this.startNanos = startNanos;
+		}
+		
+		void record(long value) {
+			counts.incrementAndGet(bucketIndex(value));
+			count.increment();
+			sum.add(value);
+			max.accumulate(value);
+			min.accumulate(value);
+		}
+		
+		void addTo(Snapshot snapshot) {
+			long intervalCount = count.sum();
+			if (intervalCount == 0) {
+				return;
+			}
+			for (int i = 0; i < BUCKET_COUNT; i++) {
+				snapshot.counts[i] += counts.get(i);
+			}
+			snapshot.count += intervalCount;
+			snapshot.sum += sum.sum();
+			snapshot.max = Math.max(snapshot.max, max.get());
+			snapshot.min = Math.min(snapshot.min, min.get());
+		}
+	}
+	
+	/**
+	 * Statistics for all values recorded in the reported intervals.
+	 */
+	public static final class Snapshot {
+		private final long[] counts = new long[BUCKET_COUNT];
+		private final long durationNanos;
+		private long count;
+		private long sum;
+		private long max = Long.MIN_VALUE;
+		private long min = Long.MAX_VALUE;
+		
+		private Snapshot(long durationNanos) {
+			this.durationNanos = durationNanos;
+		}
+		
+		public long getCount() {
+			return count;
+		}
+		
+		public long getMax() {
+			return count == 0 ? 0 : max;
+		}
+		
+		public long getMin() {
+			return count == 0 ? 0 : min;
+		}
+		
+		public double getMean() {
+			return count == 0 ? 0 : (double) sum / count;
+		}
+		
+		/**
+		 * Returns the number of recorded values per second.
+		 */
+		public double getRate() {
+			return durationNanos <= 0 ? 0 : (double) count * TimeUnit.SECONDS.toNanos(1) / durationNanos;
+		}
+		
+		/**
+		 * @param quantile - between 0 and 1
+		 */
+		public long getValueAtQuantile(double quantile) {
+			if (count == 0) {
+				return 0;
+			}
+			long rank = Math.max(1, (long) Math.ceil(quantile * count));
+			long seen = 0;
+			for (int i = 0; i < counts.length; i++) {
+				seen += counts[i];
+				if (seen >= rank) {
+					return Math.min(Math.max(bucketValue(i), getMin()), getMax());
+				}
+			}
+			return getMax();
+		}
+	}
+
+}
@@ -24,12 +24,19 @@ public interface Metrics {
 	 */
 	Timer createTimer();
 	
+	Histogram createHistogram();
+	
 	public static class NoMetrics implements Metrics {
 		@Override
 		public Timer createTimer() {
 			return new Timer(new TimerSpi.NoTimer());
 		}
 		
+		@Override
+		public Histogram createHistogram() {
+			return new Histogram(new HistogramSpi.NoHistogram());
+		}
+		
 	}
 
 }
@@ -32,4 +32,9 @@ final class MetricsImpl implements Metrics {
 		return new Timer(metricsSpi.createTimer());
 	}
 	
+	@Override
+	public Histogram createHistogram() {
+		return new Histogram(metricsSpi.createHistogram());
+	}
+	
 }
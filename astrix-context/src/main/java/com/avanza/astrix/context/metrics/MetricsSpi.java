@@ -18,4 +18,6 @@ package com.avanza.astrix.context.metrics;
 public interface MetricsSpi {
 	
 	TimerSpi createTimer();
+	
+	HistogramSpi createHistogram();
 }
@@ -52,6 +52,10 @@ public class Timer {
 		return timerSpi.timeObservable(command);
 	}
 	
+	public void update(long duration, TimeUnit unit) {
+		timerSpi.update(duration, unit);
+	}
+	
 	public double get50thPercentile() {
 		return timerSpi.getSnapshot().get50thPercentile();
 	}
@@ -60,6 +64,18 @@ public class Timer {
 		return timerSpi.getSnapshot().get99thPercentile();
 	}
 
+	public double get90thPercentile() {
+		return timerSpi.getSnapshot().get90thPercentile();
+	}
+	
+	public double get999thPercentile() {
+		return timerSpi.getSnapshot().get999thPercentile();
+	}
+	
+	public double get9999thPercentile() {
+		return timerSpi.getSnapshot().get9999thPercentile();
+	}
+
 	public double getMax() {
 		return timerSpi.getSnapshot().getMax();
 	}
@@ -22,6 +22,9 @@ public class TimerSnaphot {
 	private final long count;
 	private final double _99thPercentile;
 	private final double _50thPercentile;
+	private final double _90thPercentile;
+	private final double _999thPercentile;
+	private final double _9999thPercentile;
 	private final double max;
 	private final double mean;
 	private final double min;
@@ -33,6 +36,9 @@ public class TimerSnaphot {
 		this.count = builder.count;
 		this._50thPercentile = builder._50thPercentile;
 		this._99thPercentile = builder._99thPercentile;
+		this._90thPercentile = builder._90thPercentile;
+		this._999thPercentile = builder._999thPercentile;
+		this._9999thPercentile = builder._9999thPercentile;
 		this.max = builder.max;
 		this.mean = builder.mean;
 		this.min = builder.min;
@@ -64,6 +70,27 @@ public class TimerSnaphot {
 	public double get99thPercentile() {
 		return this._99thPercentile;
 	}
+	
+	/**
+	 * The 90th percentile execution time in {@link #getDurationUnit()}.
+	 */
+	public double get90thPercentile() {
+		return this._90thPercentile;
+	}
+	
+	/**
+	 * The 99.9th percentile execution time in {@link #getDurationUnit()}.
+	 */
+	public double get999thPercentile() {
+		return this._999thPercentile;
+	}
+	
+	/**
+	 * The 99.99th percentile execution time in {@link #getDurationUnit()}.
+	 */
+	public double get9999thPercentile() {
+		return this._9999thPercentile;
+	}
 
 	/**
 	 * The maximum execution time 
@@ -117,6 +144,9 @@ public class TimerSnaphot {
 		private long count;
 		private double _99thPercentile;
 		private double _50thPercentile;
+		private double _90thPercentile;
+		private double _999thPercentile;
+		private double _9999thPercentile;
 		private double max;
 		private double mean;
 		private double min;
@@ -143,6 +173,21 @@ public class TimerSnaphot {
 			return this;
 		}
 
+		public Builder set90thPercentile(double _90thPercentile) {
+			this._90thPercentile = _90thPercentile;
+			return this;
+		}
+		
+		public Builder set999thPercentile(double _999thPercentile) {
+			this._999thPercentile = _999thPercentile;
+			return this;
+		}
+		
+		public Builder set9999thPercentile(double _9999thPercentile) {
+			this._9999thPercentile = _9999thPercentile;
+			return this;
+		}
+
 		public Builder max(double max) {
 			this.max = max;
 			return this;
@@ -15,6 +15,7 @@
  */
 package com.avanza.astrix.context.metrics;
 
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import com.avanza.astrix.core.function.CheckedCommand;
@@ -26,6 +27,11 @@ public interface TimerSpi {
 	<T> CheckedCommand<T> timeExecution(CheckedCommand<T> execution);
 	
 	<T> Supplier<Observable<T>> timeObservable(Supplier<Observable<T>> observableFactory);
+	
+	/**
+	 * Records the duration of an execution that was timed by the caller.
+	 */
+	void update(long duration, TimeUnit unit);
 
 	TimerSnaphot getSnapshot();
 	
@@ -40,6 +46,10 @@ public interface TimerSpi {
 			return execution;
 		}
 		
+		@Override
+		public void update(long duration, TimeUnit unit) {
+		}
+		
 		@Override
 		public TimerSnaphot getSnapshot() {
 			return TimerSnaphot.empty();
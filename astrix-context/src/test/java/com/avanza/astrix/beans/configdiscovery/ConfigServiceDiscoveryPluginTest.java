@@ -0,0 +1,65 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.beans.configdiscovery;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.avanza.astrix.beans.config.AstrixConfig;
+import com.avanza.astrix.beans.core.AstrixBeanKey;
+import com.avanza.astrix.beans.service.ServiceComponentRegistry;
+import com.avanza.astrix.beans.service.ServiceDiscovery;
+import com.avanza.astrix.context.AstrixApplicationContext;
+import com.avanza.astrix.context.TestAstrixConfigurer;
+
+public class ConfigServiceDiscoveryPluginTest {
+	
+	private AstrixApplicationContext astrixContext;
+	
+	@After
+	public void destroy() {
+		if (astrixContext != null) {
+			astrixContext.destroy();
+		}
+	}
+	
+	@Test
+	public void removedChangeListenerIsNoLongerNotified() throws Exception {
+		TestAstrixConfigurer configurer = new TestAstrixConfigurer();
+		astrixContext = (AstrixApplicationContext) configurer.configure();
+		ConfigServiceDiscoveryPlugin plugin = new ConfigServiceDiscoveryPlugin(astrixContext.getInstance(ServiceComponentRegistry.class), 
+																			   astrixContext.getInstance(AstrixConfig.class));
+		ServiceDiscovery serviceDiscovery = plugin.create(AstrixBeanKey.create(Ping.class), new ConfigDiscoveryProperties("pingUri"));
+		AtomicInteger changeCount = new AtomicInteger();
+		
+		ServiceDiscovery.ChangeListenerRegistration registration = serviceDiscovery.addChangeListener(changeCount::incrementAndGet);
+		configurer.set("pingUri", "direct:1");
+		assertEquals(1, changeCount.get());
+		
+		registration.remove();
+		configurer.set("pingUri", "direct:2");
+		assertEquals(1, changeCount.get());
+	}
+	
+	public interface Ping {
+		String ping(String msg);
+	}
+
+}
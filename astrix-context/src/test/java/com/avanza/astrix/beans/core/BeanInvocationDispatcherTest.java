@@ -0,0 +1,184 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.beans.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import com.avanza.astrix.config.DynamicPropertyListener;
+import com.avanza.astrix.core.function.CheckedCommand;
+
+import rx.Observable;
+
+public class BeanInvocationDispatcherTest {
+	
+	private final AtomicInteger handlerInvocationCount = new AtomicInteger();
+	
+	@Test
+	public void invokesHandlerOfProxiedTargetBeanDirectly() throws Exception {
+		Ping ping = createBean(createProxiedPing(), true);
+		
+		assertEquals("foo", ping.ping("foo"));
+		assertEquals(1, handlerInvocationCount.get());
+	}
+	
+	@Test
+	public void invokesProxiedTargetBeanThroughProxyWhenNotInvokingHandlerDirectly() throws Exception {
+		Ping ping = createBean(createProxiedPing(), false);
+		
+		assertEquals("foo", ping.ping("foo"));
+		assertEquals(1, handlerInvocationCount.get());
+	}
+	
+	@Test
+	public void exceptionsThrownByHandlerOfProxiedTargetBeanArePropagated() throws Exception {
+		Ping ping = createBean(createProxiedPing(), true);
+		try {
+			ping.ping(null);
+			fail("Expected exception to be thrown");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+	
+	@Test
+	public void invokesNonProxiedTargetBean() throws Exception {
+		Ping ping = createBean(msg -> msg, true);
+		
+		assertEquals("foo", ping.ping("foo"));
+	}
+	
+	@Test
+	public void queriesEnabledStateOfProxiesThatDoesNotSupportEnabledListenerOnEachInvocation() throws Exception {
+		AtomicBoolean enabled = new AtomicBoolean(false);
+		BeanProxy upperCaseProxy = new BeanProxy() {
+			@SuppressWarnings("unchecked")
+			@Override
+			public <T> CheckedCommand<T> proxyInvocation(CheckedCommand<T> command) {
+				return () -> (T) command.call().toString().toUpperCase();
+			}
+			@Override
+			public <T> Supplier<Observable<T>> proxyReactiveInvocation(Supplier<Observable<T>> command) {
+				return command;
+			}
+			@Override
+			public String name() {
+				return "upperCase";
+			}
+			@Override
+			public boolean isEnabled() {
+				return enabled.get();
+			}
+		};
+		BeanInvocationDispatcher dispatcher = new BeanInvocationDispatcher(Arrays.asList(upperCaseProxy), new ReactiveTypeConverterImpl(Collections.emptyList()), (Ping) msg -> msg);
+		Ping ping = (Ping) Proxy.newProxyInstance(Ping.class.getClassLoader(), new Class<?>[] { Ping.class }, dispatcher);
+		
+		assertEquals("foo", ping.ping("foo"));
+		enabled.set(true);
+		assertEquals("FOO", ping.ping("foo"));
+		enabled.set(false);
+		assertEquals("foo", ping.ping("foo"));
+	}
+	
+	@Test
+	public void linksEnabledProxiesOnceAndRelinksWhenEnabledStateChanges() throws Exception {
+		AtomicBoolean enabled = new AtomicBoolean(true);
+		AtomicInteger linkCount = new AtomicInteger();
+		List<DynamicPropertyListener<Boolean>> enabledListeners = new CopyOnWriteArrayList<>();
+		BeanProxy upperCaseProxy = new BeanProxy() {
+			@Override
+			public <T> CheckedCommand<T> proxyInvocation(CheckedCommand<T> command) {
+				throw new AssertionError("Expected invocation to be proxied using proxyBeanInvocation");
+			}
+			@Override
+			public <T> Supplier<Observable<T>> proxyReactiveInvocation(Supplier<Observable<T>> command) {
+				return command;
+			}
+			@Override
+			public BeanInvocation proxyBeanInvocation(BeanInvocation invocation) {
+				linkCount.incrementAndGet();
+				return args -> invocation.invoke(args).toString().toUpperCase();
+			}
+			@Override
+			public String name() {
+				return "upperCase";
+			}
+			@Override
+			public boolean isEnabled() {
+				return enabled.get();
+			}
+			@Override
+			public boolean supportsEnabledListener() {
+				return true;
+			}
+			@Override
+			public void addEnabledListener(DynamicPropertyListener<Boolean> listener) {
+				enabledListeners.add(listener);
+			}
+		};
+		BeanInvocationDispatcher dispatcher = new BeanInvocationDispatcher(Arrays.asList(upperCaseProxy), new ReactiveTypeConverterImpl(Collections.emptyList()), (Ping) msg -> msg);
+		Ping ping = (Ping) Proxy.newProxyInstance(Ping.class.getClassLoader(), new Class<?>[] { Ping.class }, dispatcher);
+		
+		assertEquals("FOO", ping.ping("foo"));
+		assertEquals("FOO", ping.ping("foo"));
+		assertEquals(1, linkCount.get());
+		
+		enabled.set(false);
+		enabledListeners.forEach(listener -> listener.propertyChanged(false));
+		assertEquals("foo", ping.ping("foo"));
+		
+		enabled.set(true);
+		enabledListeners.forEach(listener -> listener.propertyChanged(true));
+		assertEquals("FOO", ping.ping("foo"));
+		assertEquals(2, linkCount.get());
+	}
+	
+	private Ping createProxiedPing() {
+		InvocationHandler handler = (proxy, method, args) -> {
+			handlerInvocationCount.incrementAndGet();
+			if (args[0] == null) {
+				throw new IllegalArgumentException("msg");
+			}
+			return args[0];
+		};
+		return (Ping) Proxy.newProxyInstance(Ping.class.getClassLoader(), new Class<?>[] { Ping.class }, handler);
+	}
+	
+	private Ping createBean(Ping targetBean, boolean invokeProxyHandlerDirectly) {
+		BeanInvocationDispatcher dispatcher = new BeanInvocationDispatcher(Arrays.asList(BeanProxy.NoProxy.create()), 
+																		   new ReactiveTypeConverterImpl(Collections.emptyList()), 
+																		   targetBean, 
+																		   invokeProxyHandlerDirectly);
+		return (Ping) Proxy.newProxyInstance(Ping.class.getClassLoader(), new Class<?>[] { Ping.class }, dispatcher);
+	}
+	
+	public interface Ping {
+		String ping(String msg);
+	}
+
+}
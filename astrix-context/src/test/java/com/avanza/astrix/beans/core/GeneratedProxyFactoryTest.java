@@ -0,0 +1,213 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.beans.core;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.avanza.astrix.core.util.ReflectionUtil;
+
+public class GeneratedProxyFactoryTest {
+
+	private final Calculator target = new CalculatorImpl();
+	private final AtomicReference<Object[]> lastArgs = new AtomicReference<>();
+
+	@Test
+	public void passesArgumentsAndReturnValuesOfAllTypes() throws Exception {
+		Calculator calculator = createProxy();
+
+		assertEquals(3, calculator.add(1, 2));
+		assertEquals(3L, calculator.add(1L, 2L));
+		assertEquals(3.5d, calculator.add(1d, 2.5d), 0d);
+		assertEquals(3.5f, calculator.add(1f, 2.5f), 0f);
+		assertEquals('b', calculator.next('a'));
+		assertEquals((byte) 2, calculator.next((byte) 1));
+		assertEquals((short) 2, calculator.next((short) 1));
+		assertTrue(calculator.not(false));
+		assertEquals(8L, calculator.sum(1, 2L, 2d, "3"));
+		assertArrayEquals(new Object[] {1, 2L, 2d, "3"}, lastArgs.get());
+		assertArrayEquals(new int[] {2, 1}, calculator.reverse(new int[] {1, 2}));
+		calculator.reset();
+		assertNull("Methods without arguments are invoked with null args", lastArgs.get());
+	}
+
+	@Test
+	public void rethrowsUncheckedAndDeclaredExceptions() throws Exception {
+		Calculator calculator = createProxy();
+		try {
+			calculator.divide(1, 0);
+			fail("Expected ArithmeticException");
+		} catch (ArithmeticException e) {
+			// expected
+		}
+		try {
+			calculator.parse("foo");
+			fail("Expected IOException");
+		} catch (IOException e) {
+			// expected
+		}
+	}
+
+	@Test
+	public void wrapsUndeclaredCheckedExceptions() throws Exception {
+		IOException undeclared = new IOException();
+		Calculator calculator = (Calculator) GeneratedProxyFactory.newProxyInstance(method -> args -> {
+			throw undeclared;
+		}, Calculator.class);
+		try {
+			calculator.add(1, 2);
+			fail("Expected UndeclaredThrowableException");
+		} catch (UndeclaredThrowableException e) {
+			assertSame(undeclared, e.getCause());
+		}
+	}
+
+	@Test
+	public void proxiesObjectMethods() throws Exception {
+		Calculator calculator = createProxy();
+
+		assertEquals(target.toString(), calculator.toString());
+		assertEquals(target.hashCode(), calculator.hashCode());
+		assertTrue(calculator.equals(target));
+	}
+
+	@Test
+	public void implementsAllGivenInterfaces() throws Exception {
+		Object proxy = GeneratedProxyFactory.newProxyInstance(method -> args -> method.getName(), Calculator.class, Named.class);
+
+		assertTrue(proxy instanceof Calculator);
+		assertEquals("name", ((Named) proxy).name());
+		assertFalse(Proxy.isProxyClass(proxy.getClass()));
+	}
+
+	@Test
+	public void canNotGenerateProxyForNonPublicInterfaces() throws Exception {
+		assertTrue(GeneratedProxyFactory.canGenerateProxy(Calculator.class));
+		assertFalse(GeneratedProxyFactory.canGenerateProxy(NonPublic.class));
+		assertFalse(GeneratedProxyFactory.canGenerateProxy(UsesNonPublicType.class));
+	}
+
+	private Calculator createProxy() {
+		return (Calculator) GeneratedProxyFactory.newProxyInstance(this::invokeTarget, Calculator.class);
+	}
+
+	private BeanProxy.BeanInvocation invokeTarget(Method method) {
+		return args -> {
+			lastArgs.set(args);
+			return ReflectionUtil.invokeMethod(method, target, args);
+		};
+	}
+
+	public interface Named {
+		String name();
+	}
+
+	interface NonPublic {
+		String name();
+	}
+
+	public interface UsesNonPublicType {
+		NonPublic get();
+	}
+
+	public interface Calculator {
+		int add(int a, int b);
+		long add(long a, long b);
+		double add(double a, double b);
+		float add(float a, float b);
+		char next(char c);
+		byte next(byte b);
+		short next(short s);
+		boolean not(boolean b);
+		long sum(int a, long b, double c, String d);
+		int[] reverse(int[] values);
+		int divide(int a, int b);
+		int parse(String value) throws IOException;
+		void reset();
+	}
+
+	public static class CalculatorImpl implements Calculator {
+		@Override
+		public int add(int a, int b) {
+			return a + b;
+		}
+		@Override
+		public long add(long a, long b) {
+			return a + b;
+		}
+		@Override
+		public double add(double a, double b) {
+			return a + b;
+		}
+		@Override
+		public float add(float a, float b) {
+			return a + b;
+		}
+		@Override
+		public char next(char c) {
+			return (char) (c + 1);
+		}
+		@Override
+		public byte next(byte b) {
+			return (byte) (b + 1);
+		}
+		@Override
+		public short next(short s) {
+			return (short) (s + 1);
+		}
+		@Override
+		public boolean not(boolean b) {
+			return !b;
+		}
+		@Override
+		public long sum(int a, long b, double c, String d) {
+			return a + b + (long) c + Long.parseLong(d);
+		}
+		@Override
+		public int[] reverse(int[] values) {
+			return new int[] {values[1], values[0]};
+		}
+		@Override
+		public int divide(int a, int b) {
+			return a / b;
+		}
+		@Override
+		public int parse(String value) throws IOException {
+			throw new IOException("Not a number: " + value);
+		}
+		@Override
+		public void reset() {
+		}
+		@Override
+		public String toString() {
+			return "CalculatorImpl";
+		}
+	}
+
+}
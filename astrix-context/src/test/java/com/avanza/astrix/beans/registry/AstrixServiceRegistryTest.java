@@ -19,7 +19,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.fail;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.After;
 import org.junit.Before;
@@ -29,6 +31,7 @@ import com.avanza.astrix.beans.core.AstrixBeanKey;
 import com.avanza.astrix.beans.core.AstrixSettings;
 import com.avanza.astrix.beans.service.DirectComponent;
 import com.avanza.astrix.beans.service.ServiceProperties;
+import com.avanza.astrix.config.DynamicLongProperty;
 import com.avanza.astrix.context.AstrixContext;
 import com.avanza.astrix.context.TestAstrixConfigurer;
 import com.avanza.astrix.core.ServiceUnavailableException;
@@ -79,6 +82,51 @@ public class AstrixServiceRegistryTest {
 		assertNotNull(ping1.ping());
 	}
 	
+	@Test
+	public void lookupAllReturnsServicePropertiesForEachServiceWithAProvider() throws Exception {
+		InMemoryServiceRegistry serviceRegistry = new InMemoryServiceRegistry();
+		
+		astrixConfigurer.setSubsystem("default");
+		astrixConfigurer.set(AstrixSettings.SERVICE_REGISTRY_URI, serviceRegistry.getServiceUri());
+		clientContext = astrixConfigurer.configure();
+		
+		ServiceRegistryExporterClient serverServiceRegistryClient = new ServiceRegistryExporterClient(serviceRegistry, "default", "server-1");
+		ServiceProperties pingProperties = DirectComponent.registerAndGetProperties(Ping.class, new PingImpl("1"));
+		serverServiceRegistryClient.register(Ping.class, pingProperties, Integer.MAX_VALUE);
+		ServiceProperties qualifiedPingProperties = DirectComponent.registerAndGetProperties(Ping.class, new PingImpl("2"));
+		qualifiedPingProperties.setQualifier("foo");
+		serverServiceRegistryClient.register(Ping.class, qualifiedPingProperties, Integer.MAX_VALUE);
+		
+		ServiceRegistryClient serviceRegistryClient = clientContext.getBean(ServiceRegistryClient.class);
+		Map<AstrixBeanKey<?>, ServiceProperties> result = serviceRegistryClient.lookupAll(Arrays.asList(AstrixBeanKey.create(Ping.class), 
+																										 AstrixBeanKey.create(Ping.class, "foo"),
+																										 AstrixBeanKey.create(Ping.class, "bar")));
+		assertEquals(2, result.size());
+		assertEquals(pingProperties.getProperties(), result.get(AstrixBeanKey.create(Ping.class)).getProperties());
+		assertEquals(qualifiedPingProperties.getProperties(), result.get(AstrixBeanKey.create(Ping.class, "foo")).getProperties());
+	}
+	
+	@Test
+	public void lookupCacheEvictsBeansThatAreNoLongerLeased() throws Exception {
+		InMemoryServiceRegistry serviceRegistry = new InMemoryServiceRegistry();
+		
+		astrixConfigurer.setSubsystem("default");
+		astrixConfigurer.set(AstrixSettings.SERVICE_REGISTRY_URI, serviceRegistry.getServiceUri());
+		clientContext = astrixConfigurer.configure();
+		
+		ServiceRegistryExporterClient serverServiceRegistryClient = new ServiceRegistryExporterClient(serviceRegistry, "default", "server-1");
+		serverServiceRegistryClient.register(Ping.class, DirectComponent.registerAndGetProperties(Ping.class, new PingImpl("1")), Integer.MAX_VALUE);
+		
+		ServiceRegistryLookupCache lookupCache = new ServiceRegistryLookupCache(clientContext.getBean(ServiceRegistryClient.class), new DynamicLongProperty(0));
+		assertNotNull(lookupCache.lookup(AstrixBeanKey.create(Ping.class)));
+		lookupCache.lookup(AstrixBeanKey.create(Ping.class, "foo"));
+		assertEquals(2, lookupCache.size());
+		
+		lookupCache.evict(AstrixBeanKey.create(Ping.class, "foo"));
+		assertNotNull(lookupCache.lookup(AstrixBeanKey.create(Ping.class)));
+		assertEquals(1, lookupCache.size());
+	}
+	
 	@Test
 	public void doesNotBindToNonPublishedProvidersInOtherZones() throws Exception {
 		InMemoryServiceRegistry serviceRegistry = new InMemoryServiceRegistry();
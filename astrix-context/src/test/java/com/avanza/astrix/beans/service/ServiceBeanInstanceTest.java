@@ -24,6 +24,7 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.lang.reflect.Proxy;
 import java.util.Collections;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
@@ -158,6 +159,60 @@ public class ServiceBeanInstanceTest {
 		AstrixTestUtil.assertThrows(() -> ping.ping("foo"), ServiceUnavailableException.class);
 	}
 	
+	@Test
+	public void beanCanBeSetInActiveStateAgainUsingBeanSettings() throws Exception {
+		InMemoryServiceRegistry serviceRegistry = new InMemoryServiceRegistry();
+		serviceRegistry.registerProvider(Ping.class, new PingImpl());
+		
+		TestAstrixConfigurer astrixConfigurer = new TestAstrixConfigurer();
+		astrixConfigurer.registerApiProvider(PingApiProvider.class);
+		astrixConfigurer.set(AstrixSettings.SERVICE_REGISTRY_URI, serviceRegistry.getServiceUri());
+		astrixConfigurer.set(AstrixBeanSettings.AVAILABLE, AstrixBeanKey.create(Ping.class), false);
+
+		astrixContext = astrixConfigurer.configure();
+		
+		final Ping ping = astrixContext.getBean(Ping.class);
+		AstrixTestUtil.assertThrows(() -> ping.ping("foo"), ServiceUnavailableException.class);
+		astrixConfigurer.set(AstrixBeanSettings.AVAILABLE, AstrixBeanKey.create(Ping.class), true);
+		assertEquals("foo", ping.ping("foo"));
+	}
+	
+	@Test
+	public void serviceBeansAreCreatedUsingGeneratedProxyClassesByDefault() throws Exception {
+		InMemoryServiceRegistry serviceRegistry = new InMemoryServiceRegistry();
+		serviceRegistry.registerProvider(Ping.class, new PingImpl());
+		
+		TestAstrixConfigurer astrixConfigurer = new TestAstrixConfigurer();
+		astrixConfigurer.registerApiProvider(PingApiProvider.class);
+		astrixConfigurer.set(AstrixSettings.SERVICE_REGISTRY_URI, serviceRegistry.getServiceUri());
+		astrixContext = astrixConfigurer.configure();
+		
+		Ping ping = astrixContext.getBean(Ping.class);
+		assertFalse(Proxy.isProxyClass(ping.getClass()));
+		assertTrue(ping instanceof StatefulAstrixBean);
+		assertEquals("foo", ping.ping("foo"));
+		astrixConfigurer.set(AstrixBeanSettings.AVAILABLE, AstrixBeanKey.create(Ping.class), false);
+		AstrixTestUtil.assertThrows(() -> ping.ping("foo"), ServiceUnavailableException.class);
+		astrixConfigurer.set(AstrixBeanSettings.AVAILABLE, AstrixBeanKey.create(Ping.class), true);
+		assertEquals("foo", ping.ping("foo"));
+	}
+	
+	@Test
+	public void serviceBeansAreCreatedUsingJdkDynamicProxiesWhenGeneratedProxiesAreDisabled() throws Exception {
+		InMemoryServiceRegistry serviceRegistry = new InMemoryServiceRegistry();
+		serviceRegistry.registerProvider(Ping.class, new PingImpl());
+		
+		TestAstrixConfigurer astrixConfigurer = new TestAstrixConfigurer();
+		astrixConfigurer.registerApiProvider(PingApiProvider.class);
+		astrixConfigurer.set(AstrixSettings.SERVICE_REGISTRY_URI, serviceRegistry.getServiceUri());
+		astrixConfigurer.set(AstrixSettings.GENERATED_BEAN_PROXIES, false);
+		astrixContext = astrixConfigurer.configure();
+		
+		Ping ping = astrixContext.getBean(Ping.class);
+		assertTrue(Proxy.isProxyClass(ping.getClass()));
+		assertEquals("foo", ping.ping("foo"));
+	}
+	
 	@Test
 	public void waitForBeanReturnsWhenServiceIsBound() throws Exception {
 		InMemoryServiceRegistry serviceRegistry = new InMemoryServiceRegistry();
@@ -206,6 +261,23 @@ public class ServiceBeanInstanceTest {
 		
 	}
 	
+	@Test
+	public void bindsServiceBeanWhenServiceDiscoverySignalsChange() throws Exception {
+		TestAstrixConfigurer config = new TestAstrixConfigurer();
+		config.set(AstrixSettings.BEAN_BIND_ATTEMPT_INITIAL_INTERVAL, 60_000);
+		config.set(AstrixSettings.BEAN_BIND_ATTEMPT_INTERVAL, 60_000);
+		config.registerApiProvider(PingApiProviderUsingConfigLookup.class);
+		astrixContext = config.configure();
+		
+		final Ping ping = astrixContext.getBean(Ping.class);
+		AstrixTestUtil.assertThrows(() -> ping.ping("foo"), NoServiceProviderFound.class);
+		
+		config.set("pingUri", DirectComponent.registerAndGetUri(Ping.class, new PingImpl()));
+		
+		astrixContext.waitForBean(Ping.class, 2000);
+		assertEquals("foo", ping.ping("foo"));
+	}
+	
 	@Test
 	public void boundServiceInstancesShouldBeReleasedWhenContextIsDestroyed() throws Exception {
 		InMemoryServiceRegistry serviceRegistry = new InMemoryServiceRegistry();
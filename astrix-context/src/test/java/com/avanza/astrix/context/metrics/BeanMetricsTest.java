@@ -18,6 +18,7 @@ package com.avanza.astrix.context.metrics;
 import static org.junit.Assert.assertEquals;
 
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
@@ -124,6 +125,31 @@ public class BeanMetricsTest {
 		assertEquals(-1L, fakeTimer.getLastTimedObservableExecutionTime());
 	}
 	
+	@Test
+	public void beanMetricsCanBeEnabledAndDisabledAtRuntime() throws Exception {
+		TestAstrixConfigurer astrixConfigurer = new TestAstrixConfigurer();
+		final AtomicLong fakeClock = new AtomicLong(0);
+		FakeTimer fakeTimer = new FakeTimer(fakeClock);
+		astrixConfigurer.registerStrategy(MetricsSpi.class, fakeTimer);
+		astrixConfigurer.registerApiProvider(PingApi.class);
+		astrixConfigurer.set(AstrixSettings.ENABLE_BEAN_METRICS, false);
+		astrixConfigurer.set("ping", DirectComponent.registerAndGetUri(Ping.class, new TwoClockTickPing(fakeClock)));
+		this.astrixContext = astrixConfigurer.configure();
+		
+		Ping ping = this.astrixContext.getBean(Ping.class);
+		assertEquals("foo", ping.pingAsync("foo").get());
+		assertEquals(-1L, fakeTimer.getLastTimedExecututionTime());
+		
+		astrixConfigurer.set(AstrixSettings.ENABLE_BEAN_METRICS, true);
+		assertEquals("foo", ping.pingAsync("foo").get());
+		assertEquals(2, fakeTimer.getLastTimedExecututionTime());
+		
+		astrixConfigurer.set(AstrixSettings.ENABLE_BEAN_METRICS, false);
+		fakeTimer.lastTimedExecututionTime = -1L;
+		assertEquals("foo", ping.pingAsync("foo").get());
+		assertEquals(-1L, fakeTimer.getLastTimedExecututionTime());
+	}
+	
 	
 	private static final class TwoClockTickPing implements Ping {
 		private final AtomicLong fakeClock;
@@ -192,11 +218,19 @@ public class BeanMetricsTest {
 					};
 				}
 				@Override
+				public void update(long duration, TimeUnit unit) {
+				}
+				@Override
 				public TimerSnaphot getSnapshot() {
 					return TimerSnaphot.empty();
 				}
 			};
 		}
+		
+		@Override
+		public HistogramSpi createHistogram() {
+			return new HistogramSpi.NoHistogram();
+		}
 	}
 
 	public interface Ping {
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.context.metrics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class IntervalHistogramTest {
+	
+	private static final long ONE_MINUTE = TimeUnit.MINUTES.toNanos(1);
+	
+	@Test
+	public void reportsPercentilesWithBoundedRelativeError() throws Exception {
+		IntervalHistogram histogram = new IntervalHistogram(0);
+		for (long value = 1; value <= 100_000; value++) {
+			histogram.record(0, value * 1000);
+		}
+		IntervalHistogram.Snapshot snapshot = histogram.getSnapshot(0);
+		
+		assertEquals(100_000, snapshot.getCount());
+		assertEquals(1000, snapshot.getMin());
+		assertEquals(100_000_000, snapshot.getMax());
+		assertEquals(50_000_500D, snapshot.getMean(), 0.01D);
+		assertEquals(50_000_000D, snapshot.getValueAtQuantile(0.5), 50_000_000D * 0.03);
+		assertEquals(99_000_000D, snapshot.getValueAtQuantile(0.99), 99_000_000D * 0.03);
+		assertEquals(99_900_000D, snapshot.getValueAtQuantile(0.999), 99_900_000D * 0.03);
+	}
+	
+	@Test
+	public void bucketValuesAreWithinTheRangeOfTheBucket() throws Exception {
+		for (long value = 0; value < 1_000_000; value += 7) {
+			long bucketValue = IntervalHistogram.bucketValue(IntervalHistogram.bucketIndex(value));
+			assertEquals(value, bucketValue, Math.max(1D, value * 0.032));
+		}
+	}
+	
+	@Test
+	public void onlyReportsValuesRecordedDuringTheLastTwoIntervals() throws Exception {
+		IntervalHistogram histogram = new IntervalHistogram(0);
+		histogram.record(0, 1000);
+		histogram.record(ONE_MINUTE + 1, 2000);
+		
+		assertEquals(2, histogram.getSnapshot(ONE_MINUTE + 1).getCount());
+		assertEquals(1000, histogram.getSnapshot(ONE_MINUTE + 1).getMin());
+		
+		histogram.record(2 * ONE_MINUTE + 1, 3000);
+		
+		assertEquals(2, histogram.getSnapshot(2 * ONE_MINUTE + 1).getCount());
+		assertEquals(2000, histogram.getSnapshot(2 * ONE_MINUTE + 1).getMin());
+		assertEquals(0, histogram.getSnapshot(10 * ONE_MINUTE).getCount());
+		assertEquals(0, histogram.getSnapshot(10 * ONE_MINUTE).getValueAtQuantile(0.99));
+	}
+	
+	@Test
+	public void reportsRatePerSecond() throws Exception {
+		IntervalHistogram histogram = new IntervalHistogram(0);
+		for (int i = 0; i < 600; i++) {
+			histogram.record(0, 1000);
+		}
+		assertEquals(10D, histogram.getSnapshot(ONE_MINUTE).getRate(), 0.01D);
+	}
+
+}
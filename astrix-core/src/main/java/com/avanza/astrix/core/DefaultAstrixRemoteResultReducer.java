@@ -20,16 +20,34 @@ import java.util.Collection;
 import java.util.List;
 
 /**
- *
+ * Reduces {@link List}s into one {@link List} containing all elements in each list. <p>
+ * 
+ * The {@link #reduce(List)} method does not use the state accumulated by {@link #accumulate(AstrixRemoteResult)},
+ * hence an instance might be shared between invocations as long as it is only used to reduce.
  */
-public class DefaultAstrixRemoteResultReducer<T> implements RemoteResultReducer<List<T>> {
+public class DefaultAstrixRemoteResultReducer<T> implements IncrementalRemoteResultReducer<List<T>> {
+
+	private final List<T> accumulated = new ArrayList<>();
+	
+	@Override
+	public void accumulate(AstrixRemoteResult<List<T>> partialResult) {
+		Collection<T> r = partialResult.getResult();
+		if (r != null) {
+			accumulated.addAll(r);
+		}
+	}
+	
+	@Override
+	public List<T> finish() {
+		return accumulated;
+	}
 
 	@Override
 	public List<T> reduce(List<AstrixRemoteResult<List<T>>> results) {
 		List<T> result = new ArrayList<>();
 		for (AstrixRemoteResult<List<T>> remoteResult : results) {
 			Collection<T> r = remoteResult.getResult();
-			if (result != null) {
+			if (r != null) {
 				result.addAll(r);
 			}
 		}
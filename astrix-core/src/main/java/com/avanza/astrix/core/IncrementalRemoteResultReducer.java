@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.core;
+
+import java.util.List;
+
+/**
+ * A {@link RemoteResultReducer} that folds each individual response into the result as
+ * soon as it is received, instead of waiting for the responses from all members. <p>
+ * 
+ * A new reducer instance is created for each service invocation. The accumulate method is
+ * never invoked concurrently for a given instance, and finish is invoked once all responses
+ * have been accumulated. Hence an instance is only used once, which also applies to the
+ * default {@link #reduce(List)} implementation. <p>
+ * 
+ * The bundled reducers, e.g {@link DefaultAstrixRemoteResultReducer}, implement this interface. A subclass
+ * that overrides {@link #reduce(List)}, without also overriding {@link #accumulate(AstrixRemoteResult)}, is 
+ * still reduced using reduce, i.e. the responses are buffered until all responses are received.
+ */
+public interface IncrementalRemoteResultReducer<T> extends RemoteResultReducer<T> {
+	
+	/**
+	 * Folds the response from an individual member into the result.
+	 * 
+	 * @param partialResult
+	 */
+	void accumulate(AstrixRemoteResult<T> partialResult);
+	
+	/**
+	 * Returns the result once all responses have been accumulated.
+	 * 
+	 * @return
+	 */
+	T finish();
+	
+	@Override
+	default T reduce(List<AstrixRemoteResult<T>> results) {
+		for (AstrixRemoteResult<T> result : results) {
+			accumulate(result);
+		}
+		return finish();
+	}
+
+}
@@ -20,13 +20,29 @@ import java.util.List;
 import java.util.Map;
 
 import com.avanza.astrix.core.AstrixRemoteResult;
-import com.avanza.astrix.core.RemoteResultReducer;
+import com.avanza.astrix.core.IncrementalRemoteResultReducer;
 
 /**
- * Reduce {@link Map}s into one {@link Map} containing the union of all input data
+ * Reduce {@link Map}s into one {@link Map} containing the union of all input data. <p>
+ * 
+ * The {@link #reduce(List)} method does not use the state accumulated by {@link #accumulate(AstrixRemoteResult)},
+ * hence an instance might be shared between invocations as long as it is only used to reduce.
+ * 
  * @author joasah
  */
-public class GenericAstrixMapReducer<K, V> implements RemoteResultReducer<Map<K, V>> {
+public class GenericAstrixMapReducer<K, V> implements IncrementalRemoteResultReducer<Map<K, V>> {
+	
+	private final Map<K, V> accumulated = new HashMap<>();
+	
+	@Override
+	public void accumulate(AstrixRemoteResult<Map<K, V>> partialResult) {
+		accumulated.putAll(partialResult.getResult());
+	}
+	
+	@Override
+	public Map<K, V> finish() {
+		return accumulated;
+	}
 
 	@Override
 	public Map<K, V> reduce(List<AstrixRemoteResult<Map<K, V>>> results) {
@@ -20,13 +20,27 @@ import java.util.List;
 import java.util.Set;
 
 import com.avanza.astrix.core.AstrixRemoteResult;
-import com.avanza.astrix.core.RemoteResultReducer;
+import com.avanza.astrix.core.IncrementalRemoteResultReducer;
 
 /**
- * Reduce {@link Set}s into one {@link Set} containing the union of all unique input data.
+ * Reduce {@link Set}s into one {@link Set} containing the union of all unique input data. <p>
  * 
+ * The {@link #reduce(List)} method does not use the state accumulated by {@link #accumulate(AstrixRemoteResult)},
+ * hence an instance might be shared between invocations as long as it is only used to reduce.
  */
-public class GenericAstrixSetReducer<T> implements RemoteResultReducer<Set<T>> {
+public class GenericAstrixSetReducer<T> implements IncrementalRemoteResultReducer<Set<T>> {
+	
+	private final Set<T> accumulated = new HashSet<>();
+	
+	@Override
+	public void accumulate(AstrixRemoteResult<Set<T>> partialResult) {
+		accumulated.addAll(partialResult.getResult());
+	}
+	
+	@Override
+	public Set<T> finish() {
+		return accumulated;
+	}
 
 	@Override
 	public Set<T> reduce(List<AstrixRemoteResult<Set<T>>> results) {
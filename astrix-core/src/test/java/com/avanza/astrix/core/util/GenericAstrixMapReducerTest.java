@@ -44,6 +44,15 @@ public class GenericAstrixMapReducerTest {
 				AstrixRemoteResult.successful(newMap("b", 2).build()))));
 	}
 	
+	@Test
+	public void accumulate_flattensMaps() throws Exception {
+		GenericAstrixMapReducer<String, Integer> reducer = new GenericAstrixMapReducer<>();
+		reducer.accumulate(AstrixRemoteResult.successful(newMap("a", 1).with("c", 3).build()));
+		reducer.accumulate(AstrixRemoteResult.successful(newMap("b", 2).build()));
+		
+		assertEquals(newMap("a", 1).with("b", 2).with("c", 3).build(), reducer.finish());
+	}
+	
 	@Test(expected = MyRuntimeException.class)
 	public void reduce_rethrowsException() throws Exception {
 		GenericAstrixMapReducer<String, Integer> reducer = new GenericAstrixMapReducer<>();
@@ -16,11 +16,13 @@
 package com.avanza.astrix.core.util;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
 
 import org.junit.Before;
@@ -56,6 +58,15 @@ public class GenericAstrixSetReducerTest {
         assertTrue(reduced.containsAll(third));
     }
 
+	@Test
+	public void accumulatesResultsIncrementally() {
+		reducer.accumulate(AstrixRemoteResult.successful(Collections.singleton("1")));
+		reducer.accumulate(AstrixRemoteResult.successful(Collections.singleton("1")));
+		reducer.accumulate(AstrixRemoteResult.successful(Collections.singleton("2")));
+		
+		assertEquals(new HashSet<>(Arrays.asList("1", "2")), reducer.finish());
+	}
+
 	@Test(expected = MyRuntimeException.class)
 	public void exceptionIsRethrown() throws Exception {
 		reducer.reduce(Arrays.asList(
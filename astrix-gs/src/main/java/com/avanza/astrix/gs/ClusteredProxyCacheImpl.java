@@ -31,6 +31,8 @@ import org.slf4j.LoggerFactory;
 import com.avanza.astrix.beans.core.AstrixConfigAware;
 import com.avanza.astrix.beans.service.ServiceProperties;
 import com.avanza.astrix.config.DynamicConfig;
+import com.avanza.astrix.context.mbeans.MBeanExporter;
+import com.avanza.astrix.context.metrics.Metrics;
 import com.avanza.astrix.modules.KeyLock;
 import com.avanza.astrix.modules.ObjectCache;
 import com.avanza.astrix.modules.ObjectCache.ObjectFactory;
@@ -47,8 +49,15 @@ public class ClusteredProxyCacheImpl implements AstrixConfigAware, ClusteredProx
 	private static final Logger log = LoggerFactory.getLogger(ClusteredProxyCacheImpl.class);
 	private final ObjectCache objectCache = new ObjectCache();
 	private final KeyLock<String> proxyByUrlLock = new KeyLock<>();
+	private final Metrics metrics;
+	private final MBeanExporter mbeanExporter;
 	private DynamicConfig config;
 	
+	public ClusteredProxyCacheImpl(Metrics metrics, MBeanExporter mbeanExporter) {
+		this.metrics = metrics;
+		this.mbeanExporter = mbeanExporter;
+	}
+	
 	/**
 	 * Retreives a given proxy from the cache and creates the proxy if it does not exits.
 	 * 
@@ -115,7 +124,7 @@ public class ClusteredProxyCacheImpl implements AstrixConfigAware, ClusteredProx
 			spaceTaskDispatcherStateLock.lock();
 			try {
 				if (spaceTaskDispatcher == null) {
-					this.spaceTaskDispatcher = new SpaceTaskDispatcher(proxy, config); 
+					this.spaceTaskDispatcher = new SpaceTaskDispatcher(proxy, config, metrics, mbeanExporter); 
 				}
 				return spaceTaskDispatcher;
 			} finally {
@@ -18,9 +18,12 @@ package com.avanza.astrix.gs;
 import java.io.Serializable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.function.UnaryOperator;
 
 import org.openspaces.core.GigaSpace;
@@ -31,6 +34,11 @@ import org.slf4j.LoggerFactory;
 
 import com.avanza.astrix.config.DynamicConfig;
 import com.avanza.astrix.config.DynamicIntProperty;
+import com.avanza.astrix.config.DynamicLongProperty;
+import com.avanza.astrix.config.DynamicStringProperty;
+import com.avanza.astrix.context.mbeans.MBeanExporter;
+import com.avanza.astrix.context.metrics.Metrics;
+import com.avanza.astrix.context.metrics.Timer;
 import com.avanza.astrix.core.ServiceUnavailableException;
 import com.avanza.astrix.core.util.NamedThreadFactory;
 import com.avanza.astrix.remoting.util.GsUtil;
@@ -45,7 +53,7 @@ import rx.Subscriber;
  * @author Elias Lindholm (elilin)
  *
  */
-public final class SpaceTaskDispatcher {
+public final class SpaceTaskDispatcher implements SpaceTaskDispatcherMBean {
 	
 	/*
 	 * IMPLEMENTATION NOTE:
@@ -55,25 +63,51 @@ public final class SpaceTaskDispatcher {
 	 * resources are available to process the request. In order to ensure a non-blocking programming model
 	 * we associate each clustered proxy with a dedicated thread pool to submit task executions, which ensures
 	 * that a service invocation will never block, see com.avanza.astrix.gs.remoting.GsRemotingTransport
+	 * 
+	 * In "direct" mode task executions are submitted on the subscribing thread, which avoids a thread hop 
+	 * for every invocation. As soon as a submission takes longer than the configured blocking threshold, 
+	 * direct submission is suspended for a while and all task executions are submitted using the thread pool,
+	 * just like in the default "pooled" mode. 
+	 * 
+	 * The thread pool queue is bounded. Task executions that can't be queued are rejected and reported 
+	 * as a ServiceUnavailableException.
 	 */
 	
 	private static final Logger log = LoggerFactory.getLogger(SpaceTaskDispatcher.class);
+	private static final String DIRECT_MODE = "direct";
+	private static final String MBEAN_FOLDER = "SpaceTaskDispatchers";
 	private final GigaSpace gigaSpace;
+	private final MBeanExporter mbeanExporter;
 	private final ThreadPoolExecutor executorService;
+	private final DynamicLongProperty blockedSubmissionThresholdMillis;
+	private final DynamicLongProperty directSubmissionSuspensionMillis;
+	private final Timer submitTimer;
+	private final AtomicLong directSubmissionCount = new AtomicLong();
+	private final AtomicLong pooledSubmissionCount = new AtomicLong();
+	private final AtomicLong rejectedSubmissionCount = new AtomicLong();
+	private final AtomicLong blockedSubmissionCount = new AtomicLong();
+	private volatile boolean directModeEnabled;
+	private volatile long directSubmissionSuspendedUntil = System.nanoTime();
 
-	public SpaceTaskDispatcher(GigaSpace gigaSpace, DynamicConfig config) {
+	public SpaceTaskDispatcher(GigaSpace gigaSpace, DynamicConfig config, Metrics metrics, MBeanExporter mbeanExporter) {
 		this.gigaSpace = gigaSpace;
+		this.mbeanExporter = mbeanExporter;
 		/* 
 		 * TODO 
 		 * 	(1) Improve configuration mechanism used to configure thread pool. 
 		 */
 		String spaceInstanceName = gigaSpace.getName();
-		DynamicIntProperty poolSize = config.getIntProperty("astrix.beans.gigaspace." + spaceInstanceName + ".spaceTaskDispatcher.poolsize", 10);
+		String propertyPrefix = "astrix.beans.gigaspace." + spaceInstanceName + ".spaceTaskDispatcher.";
+		DynamicIntProperty poolSize = config.getIntProperty(propertyPrefix + "poolsize", 10);
+		int queueSize = config.getIntProperty(propertyPrefix + "queueSize", 1000).get();
+		DynamicStringProperty mode = config.getStringProperty(propertyPrefix + "mode", "pooled");
+		this.blockedSubmissionThresholdMillis = config.getLongProperty(propertyPrefix + "blockedSubmissionThresholdMillis", 50);
+		this.directSubmissionSuspensionMillis = config.getLongProperty(propertyPrefix + "directSubmissionSuspensionMillis", 10_000);
 		this.executorService = new ThreadPoolExecutor(poolSize.get(), 
 											 poolSize.get(), 
 											 0, 
 											 TimeUnit.SECONDS,
-											 new LinkedBlockingQueue<Runnable>(),
+											 new LinkedBlockingQueue<Runnable>(queueSize),
 											 new NamedThreadFactory(String.format("SpaceTaskDispatcher[%s]", spaceInstanceName)));
 		poolSize.addListener(newValue -> {
 			log.info(String.format("Changing pool-size for SpaceTaskDistpatcher. space=%s newSize=%s, oldSize=%s", 
@@ -82,6 +116,14 @@ public final class SpaceTaskDispatcher {
 			executorService.setCorePoolSize(newValue);
 			executorService.setMaximumPoolSize(newValue);
 		});
+		this.directModeEnabled = DIRECT_MODE.equals(mode.get());
+		mode.addListener(newValue -> {
+			log.info(String.format("Changing mode for SpaceTaskDistpatcher. space=%s newMode=%s", 
+									SpaceTaskDispatcher.this.gigaSpace.getName(), newValue));
+			directModeEnabled = DIRECT_MODE.equals(newValue);
+		});
+		this.submitTimer = metrics.createTimer();
+		mbeanExporter.registerMBean(this, MBEAN_FOLDER, spaceInstanceName);
 	}
 
 
@@ -106,24 +148,10 @@ public final class SpaceTaskDispatcher {
 	 */
 	public <T extends Serializable> Observable<T> observe(final Task<T> task, final Object routingKey) {
 		return Observable.create(subscriber -> {
-			usingErrorReporter(subscriber, serviceUnavailable()).accept(() -> {
-				// Use ExecutorService to ensure non-blocking programming model when subscribing to remote task invocation
-				executorService.execute(() -> {
-					submitRoutedTaskExecution(subscriber, task, routingKey);
-				});
-			});
+			dispatch(subscriber, () -> gigaSpace.execute(task, routingKey));
 		});
 	}
 
-	private <T extends Serializable> void submitRoutedTaskExecution(Subscriber<? super T> subscriber, final Task<T> task, final Object routingKey) {
-		usingErrorReporter(subscriber, serviceUnavailable()).accept(() -> {
-			// Submit task on current thread in executorService
-			AsyncFuture<T> taskResult = gigaSpace.execute(task, routingKey);
-			GsUtil.subscribe(taskResult, subscriber);
-		});
-	}
-	
-
 	/**
 	 * Creates a lazy Observable that will execute a given DistributedTask asynchronously once subscribed to.
 	 * 
@@ -132,23 +160,59 @@ public final class SpaceTaskDispatcher {
 	 * @return
 	 */
 	public <T extends Serializable, R> Observable<R> observe(final DistributedTask<T, R> distributedTask) {
-		return Observable.create(t1 -> {
-			usingErrorReporter(t1, serviceUnavailable()).accept(() -> {
+		return Observable.create(subscriber -> {
+			dispatch(subscriber, () -> gigaSpace.execute(distributedTask));
+		});
+	}
+	
+	private <T> void dispatch(Subscriber<? super T> subscriber, Supplier<AsyncFuture<T>> taskExecution) {
+		if (isDirectSubmissionActive()) {
+			directSubmissionCount.incrementAndGet();
+			submitTaskExecution(subscriber, taskExecution);
+			return;
+		}
+		usingErrorReporter(subscriber, serviceUnavailable()).accept(() -> {
+			// Use ExecutorService to ensure non-blocking programming model when subscribing to remote task invocation
+			try {
 				executorService.execute(() -> {
-					submitDistributedTaskExecution(distributedTask, t1);
+					submitTaskExecution(subscriber, taskExecution);
 				});
-			});
+			} catch (RejectedExecutionException e) {
+				rejectedSubmissionCount.incrementAndGet();
+				throw e;
+			}
+			pooledSubmissionCount.incrementAndGet();
 		});
 	}
 	
-	private <R, T extends Serializable> void submitDistributedTaskExecution(final DistributedTask<T, R> distributedTask, Subscriber<? super R> t1) {
-		usingErrorReporter(t1, serviceUnavailable()).accept(() -> {
-			// Submit task on current thread in executorService
-			AsyncFuture<R> taskResult = gigaSpace.execute(distributedTask);
-			GsUtil.subscribe(taskResult, t1);
+	private <T> void submitTaskExecution(Subscriber<? super T> subscriber, Supplier<AsyncFuture<T>> taskExecution) {
+		usingErrorReporter(subscriber, serviceUnavailable()).accept(() -> {
+			long start = System.nanoTime();
+			AsyncFuture<T> taskResult;
+			try {
+				taskResult = submitTimer.timeExecution(taskExecution::get).call();
+			} finally {
+				onSubmissionCompleted(System.nanoTime() - start);
+			}
+			GsUtil.subscribe(taskResult, subscriber);
 		});
 	}
 	
+	private void onSubmissionCompleted(long durationNanos) {
+		if (durationNanos <= TimeUnit.MILLISECONDS.toNanos(blockedSubmissionThresholdMillis.get())) {
+			return;
+		}
+		blockedSubmissionCount.incrementAndGet();
+		if (directModeEnabled) {
+			boolean wasActive = isDirectSubmissionActive();
+			directSubmissionSuspendedUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(directSubmissionSuspensionMillis.get());
+			if (wasActive) {
+				log.warn(String.format("Task submission blocked for %s ms, submitting tasks using thread pool for %s ms. space=%s", 
+										TimeUnit.NANOSECONDS.toMillis(durationNanos), directSubmissionSuspensionMillis.get(), gigaSpace.getName()));
+			}
+		}
+	}
+	
 	private Consumer<Runnable> usingErrorReporter(Subscriber<?> subscriber, UnaryOperator<Exception> exceptionTranslator) {
 		return command -> {
 			try {
@@ -164,16 +228,68 @@ public final class SpaceTaskDispatcher {
 		return e -> new ServiceUnavailableException("Failed to submit remote invocation task", e);
 	}
 
-
-
-
+	@Override
+	public int getQueueSize() {
+		return executorService.getQueue().size();
+	}
+	
+	@Override
+	public int getActiveCount() {
+		return executorService.getActiveCount();
+	}
+	
+	@Override
+	public boolean isDirectSubmissionActive() {
+		return directModeEnabled && System.nanoTime() - directSubmissionSuspendedUntil >= 0;
+	}
+	
+	@Override
+	public long getDirectSubmissionCount() {
+		return directSubmissionCount.get();
+	}
+	
+	@Override
+	public long getPooledSubmissionCount() {
+		return pooledSubmissionCount.get();
+	}
+	
+	@Override
+	public long getRejectedSubmissionCount() {
+		return rejectedSubmissionCount.get();
+	}
+	
+	@Override
+	public long getBlockedSubmissionCount() {
+		return blockedSubmissionCount.get();
+	}
+	
+	@Override
+	public double getSubmitLatency50thPercentile() {
+		return submitTimer.get50thPercentile();
+	}
+	
+	@Override
+	public double getSubmitLatency99thPercentile() {
+		return submitTimer.get99thPercentile();
+	}
+	
+	@Override
+	public double getSubmitLatencyMax() {
+		return submitTimer.getMax();
+	}
+	
+	@Override
+	public TimeUnit getDurationUnit() {
+		return submitTimer.getDurationUnit();
+	}
 	
 	/**
 	 * Destroys the {@link SpaceTaskDispatcher} by shutting down the underlying
-	 * {@link ExecutorService}. <p>
+	 * {@link ExecutorService} and unregistering its mbean. <p>
 	 */
 	public void destroy() {
 		this.executorService.shutdown();
+		this.mbeanExporter.unregisterMBean(MBEAN_FOLDER, gigaSpace.getName());
 	}
 
 	public String getSpaceName() {
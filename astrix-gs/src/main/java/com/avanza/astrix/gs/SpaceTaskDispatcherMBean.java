@@ -0,0 +1,44 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.gs;
+
+import java.util.concurrent.TimeUnit;
+
+public interface SpaceTaskDispatcherMBean {
+	
+	int getQueueSize();
+	
+	int getActiveCount();
+	
+	boolean isDirectSubmissionActive();
+	
+	long getDirectSubmissionCount();
+	
+	long getPooledSubmissionCount();
+	
+	long getRejectedSubmissionCount();
+	
+	long getBlockedSubmissionCount();
+	
+	double getSubmitLatency50thPercentile();
+	
+	double getSubmitLatency99thPercentile();
+	
+	double getSubmitLatencyMax();
+	
+	TimeUnit getDurationUnit();
+
+}
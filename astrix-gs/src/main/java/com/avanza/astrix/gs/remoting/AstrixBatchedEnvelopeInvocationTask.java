@@ -0,0 +1,65 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.gs.remoting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import javax.annotation.Resource;
+
+import org.openspaces.core.executor.AutowireTask;
+import org.openspaces.core.executor.Task;
+
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodecs;
+import com.avanza.astrix.remoting.server.AstrixServiceActivator;
+import com.avanza.astrix.spring.AstrixSpringContext;
+/**
+ * Carries a batch of envelope encoded requests routed to the same partition. All requests
+ * are invoked in one go using {@link AstrixServiceActivator#invokeServices(List)}, and the
+ * encoded responses are returned in request order. 
+ */
+@AutowireTask
+public class AstrixBatchedEnvelopeInvocationTask implements Task<ArrayList<byte[]>> {
+
+	private static final long serialVersionUID = 1L;
+
+	@Resource
+	private transient AstrixSpringContext astrixSpringContext;
+	private final ArrayList<byte[]> encodedRequests;
+	
+	public AstrixBatchedEnvelopeInvocationTask(ArrayList<byte[]> encodedRequests) {
+		this.encodedRequests = Objects.requireNonNull(encodedRequests);
+	}
+
+	@Override
+	public ArrayList<byte[]> execute() throws Exception {
+		AstrixServiceActivator serviceActivator = astrixSpringContext.getInstance(AstrixServiceActivator.class);
+		List<AstrixServiceInvocationRequest> requests = new ArrayList<>(encodedRequests.size());
+		for (byte[] encodedRequest : encodedRequests) {
+			requests.add(RemotingEnvelopeCodecs.decodeRequest(encodedRequest));
+		}
+		List<AstrixServiceInvocationResponse> responses = serviceActivator.invokeServices(requests);
+		ArrayList<byte[]> encodedResponses = new ArrayList<>(responses.size());
+		for (int i = 0; i < responses.size(); i++) {
+			encodedResponses.add(RemotingEnvelopeCodecs.encodeResponse(RemotingEnvelopeCodecs.formatOf(encodedRequests.get(i)), responses.get(i)));
+		}
+		return encodedResponses;
+	}
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.gs.remoting;
+
+import java.util.List;
+import java.util.Objects;
+
+import javax.annotation.Resource;
+
+import org.openspaces.core.executor.AutowireTask;
+import org.openspaces.core.executor.DistributedTask;
+
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodecs;
+import com.avanza.astrix.remoting.server.AstrixServiceActivator;
+import com.avanza.astrix.spring.AstrixSpringContext;
+import com.gigaspaces.async.AsyncResult;
+/**
+ * Same as {@link AstrixDistributedServiceInvocationTask} but carries the request, and the responses,
+ * encoded using a {@link com.avanza.astrix.remoting.codec.RemotingEnvelopeCodec}.
+ */
+@AutowireTask
+public class AstrixDistributedEnvelopeInvocationTask implements DistributedTask<byte[], List<AsyncResult<byte[]>>> {
+
+	private static final long serialVersionUID = 1L;
+	@Resource
+	private transient AstrixSpringContext astrixSpringContext;
+	private final byte[] encodedRequest;
+	
+	public AstrixDistributedEnvelopeInvocationTask(byte[] encodedRequest) {
+		this.encodedRequest = Objects.requireNonNull(encodedRequest);
+	}
+
+	@Override
+	public byte[] execute() throws Exception {
+		AstrixServiceActivator serviceActivator = astrixSpringContext.getInstance(AstrixServiceActivator.class);
+		AstrixServiceInvocationRequest request = RemotingEnvelopeCodecs.decodeRequest(encodedRequest);
+		AstrixServiceInvocationResponse response = serviceActivator.invokeService(request);
+		return RemotingEnvelopeCodecs.encodeResponse(RemotingEnvelopeCodecs.formatOf(encodedRequest), response);
+	}
+	
+	@Override
+	public List<AsyncResult<byte[]>> reduce(List<AsyncResult<byte[]>> results) throws Exception {
+		return results;
+	}
+
+}
@@ -51,7 +51,10 @@ public class AstrixDistributedServiceInvocationTask implements DistributedTask<A
 	@Override
 	public AstrixServiceInvocationResponse execute() throws Exception {
 		AstrixServiceActivator serviceActivator = astrixSpringContext.getInstance(AstrixServiceActivator.class);
-		return serviceActivator.invokeService(request);
+		AstrixServiceInvocationResponse response = serviceActivator.invokeService(request);
+		// Serialized as is by GigaSpaces
+		response.serializeStreamedPayload();
+		return response;
 	}
 	
 	@Override
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.gs.remoting;
+
+import java.util.Objects;
+
+import javax.annotation.Resource;
+
+import org.openspaces.core.executor.AutowireTask;
+import org.openspaces.core.executor.Task;
+
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodecs;
+import com.avanza.astrix.remoting.server.AstrixServiceActivator;
+import com.avanza.astrix.spring.AstrixSpringContext;
+/**
+ * Same as {@link AstrixServiceInvocationTask} but carries the request, and the response, encoded
+ * using a {@link com.avanza.astrix.remoting.codec.RemotingEnvelopeCodec}. The response is encoded
+ * using the same envelope format as the request.
+ */
+@AutowireTask
+public class AstrixEnvelopeInvocationTask implements Task<byte[]> {
+
+	private static final long serialVersionUID = 1L;
+
+	@Resource
+	private transient AstrixSpringContext astrixSpringContext;
+	private final byte[] encodedRequest;
+	
+	public AstrixEnvelopeInvocationTask(byte[] encodedRequest) {
+		this.encodedRequest = Objects.requireNonNull(encodedRequest);
+	}
+
+	@Override
+	public byte[] execute() throws Exception {
+		AstrixServiceActivator serviceActivator = astrixSpringContext.getInstance(AstrixServiceActivator.class);
+		AstrixServiceInvocationRequest request = RemotingEnvelopeCodecs.decodeRequest(encodedRequest);
+		AstrixServiceInvocationResponse response = serviceActivator.invokeService(request);
+		return RemotingEnvelopeCodecs.encodeResponse(RemotingEnvelopeCodecs.formatOf(encodedRequest), response);
+	}
+
+}
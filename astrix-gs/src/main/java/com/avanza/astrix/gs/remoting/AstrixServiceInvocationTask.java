@@ -47,7 +47,10 @@ public class AstrixServiceInvocationTask implements Task<AstrixServiceInvocation
 	@Override
 	public AstrixServiceInvocationResponse execute() throws Exception {
 		AstrixServiceActivator serviceActivator = astrixSpringContext.getInstance(AstrixServiceActivator.class);
-		return serviceActivator.invokeService(invocationRequest);
+		AstrixServiceInvocationResponse response = serviceActivator.invokeService(invocationRequest);
+		// Serialized as is by GigaSpaces
+		response.serializeStreamedPayload();
+		return response;
 	}
 
 }
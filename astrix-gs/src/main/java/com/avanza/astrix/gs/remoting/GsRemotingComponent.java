@@ -15,21 +15,35 @@
  */
 package com.avanza.astrix.gs.remoting;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.annotation.PreDestroy;
+
 import org.openspaces.core.GigaSpace;
 
+import com.avanza.astrix.beans.config.AstrixConfig;
+import com.avanza.astrix.beans.core.AstrixSettings;
 import com.avanza.astrix.beans.core.ReactiveTypeConverter;
 import com.avanza.astrix.beans.service.BoundServiceBeanInstance;
 import com.avanza.astrix.beans.service.ServiceComponent;
 import com.avanza.astrix.beans.service.ServiceDefinition;
 import com.avanza.astrix.beans.service.ServiceProperties;
+import com.avanza.astrix.context.mbeans.MBeanExporter;
+import com.avanza.astrix.context.metrics.Metrics;
+import com.avanza.astrix.core.util.NamedThreadFactory;
 import com.avanza.astrix.core.util.ReflectionUtil;
 import com.avanza.astrix.gs.BoundProxyServiceBeanInstance;
 import com.avanza.astrix.gs.ClusteredProxyCache;
 import com.avanza.astrix.gs.ClusteredProxyCacheImpl.GigaSpaceInstance;
 import com.avanza.astrix.gs.GsBinder;
 import com.avanza.astrix.provider.component.AstrixServiceComponentNames;
+import com.avanza.astrix.remoting.client.BatchingRemotingTransport;
 import com.avanza.astrix.remoting.client.RemotingProxy;
 import com.avanza.astrix.remoting.client.RemotingTransport;
+import com.avanza.astrix.remoting.client.RemotingTransportSpi;
+import com.avanza.astrix.remoting.client.SerializationMetricsFactory;
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodecs;
 import com.avanza.astrix.remoting.server.AstrixServiceActivator;
 import com.avanza.astrix.spring.AstrixSpringContext;
 import com.avanza.astrix.versioning.core.AstrixObjectSerializer;
@@ -48,16 +62,23 @@ public class GsRemotingComponent implements ServiceComponent {
 	private final ObjectSerializerFactory objectSerializerFactory;
 	private final ClusteredProxyCache proxyCache;
 	private final ReactiveTypeConverter reactiveTypeConverter;
+	private final AstrixConfig config;
+	private final SerializationMetricsFactory serializationMetricsFactory;
+	private ScheduledExecutorService batchScheduler;
 	
 	public GsRemotingComponent(GsBinder gsBinder, AstrixSpringContext astrixSpringContext,
 			AstrixServiceActivator serviceActivator, ObjectSerializerFactory objectSerializerFactory,
-			ClusteredProxyCache proxyCache, ReactiveTypeConverter reactiveTypeConverter) {
+			ClusteredProxyCache proxyCache, ReactiveTypeConverter reactiveTypeConverter, AstrixConfig config,
+			Metrics metrics, MBeanExporter mbeanExporter) {
 		this.gsBinder = gsBinder;
 		this.astrixSpringContext = astrixSpringContext;
 		this.serviceActivator = serviceActivator;
 		this.objectSerializerFactory = objectSerializerFactory;
 		this.proxyCache = proxyCache;
 		this.reactiveTypeConverter = reactiveTypeConverter;
+		this.config = config;
+		this.serializationMetricsFactory = new SerializationMetricsFactory(metrics, mbeanExporter, SerializationMetricsFactory.SERVICE_BEAN_FOLDER, 
+																		   config.get(AstrixSettings.ENABLE_BEAN_METRICS));
 	}
 
 	@Override
@@ -65,13 +86,37 @@ public class GsRemotingComponent implements ServiceComponent {
 		AstrixObjectSerializer objectSerializer = objectSerializerFactory.create(serviceDefinition.getObjectSerializerDefinition());
 		
 		GigaSpaceInstance proxyInstance = proxyCache.getProxy(serviceProperties);
-		GsRemotingTransport gsRemotingTransport = new GsRemotingTransport(proxyInstance.getSpaceTaskDispatcher());
-		RemotingTransport remotingTransport = RemotingTransport.create(gsRemotingTransport);
+		GsRemotingTransport gsRemotingTransport = new GsRemotingTransport(proxyInstance.getSpaceTaskDispatcher(), 
+				RemotingEnvelopeCodecs.forName(config.get(RemotingEnvelopeCodecs.ENVELOPE_FORMAT).get()));
+		RemotingTransport remotingTransport = RemotingTransport.create(batchingEnabled(gsRemotingTransport));
 		T proxy = RemotingProxy.create(serviceDefinition.getServiceType(), ReflectionUtil.classForName(serviceProperties.getProperty(ServiceProperties.API))
-				, remotingTransport, objectSerializer, new GsRoutingStrategy(), reactiveTypeConverter);
+				, remotingTransport, objectSerializer, new GsRoutingStrategy(), reactiveTypeConverter, serializationMetricsFactory);
 		return BoundProxyServiceBeanInstance.create(proxy, proxyInstance);
 	}
 	
+	private RemotingTransportSpi batchingEnabled(GsRemotingTransport gsRemotingTransport) {
+		if (!config.get(BatchingRemotingTransport.BATCHING_ENABLED).get()) {
+			return gsRemotingTransport;
+		}
+		return new BatchingRemotingTransport(gsRemotingTransport, getBatchScheduler(), 
+				config.get(BatchingRemotingTransport.BATCHING_WINDOW_MICROS).get(), 
+				config.get(BatchingRemotingTransport.MAX_BATCH_SIZE).get());
+	}
+	
+	private synchronized ScheduledExecutorService getBatchScheduler() {
+		if (batchScheduler == null) {
+			batchScheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("Astrix-RemotingBatcher"));
+		}
+		return batchScheduler;
+	}
+	
+	@PreDestroy
+	public synchronized void destroy() {
+		if (batchScheduler != null) {
+			batchScheduler.shutdownNow();
+		}
+	}
+	
 	@Override
 	public ServiceProperties parseServiceProviderUri(String serviceProviderUri) {
 		return gsBinder.createServiceProperties(serviceProviderUri);
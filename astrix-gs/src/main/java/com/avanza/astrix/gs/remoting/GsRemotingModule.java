@@ -17,11 +17,14 @@ package com.avanza.astrix.gs.remoting;
 
 import org.kohsuke.MetaInfServices;
 
+import com.avanza.astrix.beans.config.AstrixConfig;
 import com.avanza.astrix.beans.core.ReactiveTypeConverter;
 import com.avanza.astrix.beans.ft.BeanFaultToleranceFactory;
 import com.avanza.astrix.beans.service.ServiceComponent;
 import com.avanza.astrix.context.AstrixContextPlugin;
 import com.avanza.astrix.context.AstrixStrategiesConfig;
+import com.avanza.astrix.context.mbeans.MBeanExporter;
+import com.avanza.astrix.context.metrics.Metrics;
 import com.avanza.astrix.gs.ClusteredProxyCache;
 import com.avanza.astrix.modules.ModuleContext;
 import com.avanza.astrix.remoting.server.AstrixServiceActivator;
@@ -44,6 +47,9 @@ public class GsRemotingModule implements AstrixContextPlugin {
 		moduleContext.importType(ClusteredProxyCache.class);
 		moduleContext.importType(AstrixServiceActivator.class);
 		moduleContext.importType(ReactiveTypeConverter.class);
+		moduleContext.importType(AstrixConfig.class);
+		moduleContext.importType(Metrics.class);
+		moduleContext.importType(MBeanExporter.class);
 		
 		moduleContext.export(ServiceComponent.class);
 	}
@@ -15,6 +15,7 @@
  */
 package com.avanza.astrix.gs.remoting;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -25,6 +26,8 @@ import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
 import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
 import com.avanza.astrix.remoting.client.RemotingTransportSpi;
 import com.avanza.astrix.remoting.client.RoutedServiceInvocationRequest;
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodec;
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodecs;
 import com.avanza.astrix.remoting.util.GsUtil;
 import com.gigaspaces.async.AsyncResult;
 
@@ -33,15 +36,27 @@ import rx.functions.Func1;
 /**
  * RemotingTransport implementation based on GigaSpaces task execution. <p> 
  * 
+ * Requests are encoded using the configured {@link RemotingEnvelopeCodec} once the receiving server
+ * has acknowledged its format, see {@link RemotingEnvelopeCodecs#codecFor}. When the java serialization
+ * envelope format is used the request is carried as is by the original invocation tasks, which allows
+ * communicating with servers that does not support envelope encoded tasks. Batched requests always
+ * use envelope encoded tasks, hence batching requires servers that support them.
+ * 
  * @author Elias Lindholm
  *
  */
 public class GsRemotingTransport implements RemotingTransportSpi {
 
 	private final SpaceTaskDispatcher spaceTaskDispatcher;
+	private final RemotingEnvelopeCodec envelopeCodec;
 	
 	public GsRemotingTransport(SpaceTaskDispatcher spaceTaskDispatcher) {
+		this(spaceTaskDispatcher, RemotingEnvelopeCodecs.JAVA_SERIALIZATION);
+	}
+	
+	public GsRemotingTransport(SpaceTaskDispatcher spaceTaskDispatcher, RemotingEnvelopeCodec envelopeCodec) {
 		this.spaceTaskDispatcher = spaceTaskDispatcher;
+		this.envelopeCodec = envelopeCodec;
 	}
 	
 	@Override
@@ -62,20 +77,49 @@ public class GsRemotingTransport implements RemotingTransportSpi {
 		return observeBroadcastRequest(request);
 	}
 	
+	@Override
+	public Observable<List<AstrixServiceInvocationResponse>> submitRoutedBatch(List<AstrixServiceInvocationRequest> requests, RoutingKey routingKey) {
+		ArrayList<byte[]> encodedRequests = new ArrayList<>(requests.size());
+		for (AstrixServiceInvocationRequest request : requests) {
+			encodedRequests.add(RemotingEnvelopeCodecs.encodeRequest(RemotingEnvelopeCodecs.codecFor(envelopeCodec, request), request));
+		}
+		return spaceTaskDispatcher.observe(new AstrixBatchedEnvelopeInvocationTask(encodedRequests), routingKey)
+								  .map(encodedResponses -> {
+									  List<AstrixServiceInvocationResponse> responses = new ArrayList<>(encodedResponses.size());
+									  for (byte[] encodedResponse : encodedResponses) {
+										  responses.add(RemotingEnvelopeCodecs.decodeResponse(encodedResponse));
+									  }
+									  return responses;
+								  });
+	}
+	
 	private Observable<AstrixServiceInvocationResponse> observeRoutedRequest(AstrixServiceInvocationRequest request,
 																			  RoutingKey routingKey) {
-		return spaceTaskDispatcher.observe(new AstrixServiceInvocationTask(request), routingKey);
+		RemotingEnvelopeCodec requestCodec = RemotingEnvelopeCodecs.codecFor(envelopeCodec, request);
+		if (requestCodec == RemotingEnvelopeCodecs.JAVA_SERIALIZATION) {
+			return spaceTaskDispatcher.observe(new AstrixServiceInvocationTask(request), routingKey);
+		}
+		byte[] encodedRequest = RemotingEnvelopeCodecs.encodeRequest(requestCodec, request);
+		return spaceTaskDispatcher.observe(new AstrixEnvelopeInvocationTask(encodedRequest), routingKey)
+								  .map(RemotingEnvelopeCodecs::decodeResponse);
 	}
 	
 	private Observable<List<AstrixServiceInvocationResponse>> observeRoutedReqeuests(Collection<RoutedServiceInvocationRequest> requests) {
 		Observable<AstrixServiceInvocationResponse> result = Observable.empty();
 		for (RoutedServiceInvocationRequest request : requests) {
-			result = result.mergeWith(spaceTaskDispatcher.observe(new AstrixServiceInvocationTask(request.getRequest()), request.getRoutingkey()));
+			result = result.mergeWith(observeRoutedRequest(request.getRequest(), request.getRoutingkey()));
 		}
 		return result.toList();
 	}
 	
 	private Observable<List<AstrixServiceInvocationResponse>> observeBroadcastRequest(AstrixServiceInvocationRequest request) {
+		RemotingEnvelopeCodec requestCodec = RemotingEnvelopeCodecs.codecFor(envelopeCodec, request);
+		if (requestCodec != RemotingEnvelopeCodecs.JAVA_SERIALIZATION) {
+			Observable<List<AsyncResult<byte[]>>> responses = spaceTaskDispatcher.observe(
+					new AstrixDistributedEnvelopeInvocationTask(RemotingEnvelopeCodecs.encodeRequest(requestCodec, request)));
+			Func1<List<AsyncResult<byte[]>>, Observable<byte[]>> listToObservable = GsUtil.asyncResultListToObservable();
+			return responses.flatMap(listToObservable).map(RemotingEnvelopeCodecs::decodeResponse).toList();
+		}
 		Observable<List<AsyncResult<AstrixServiceInvocationResponse>>> responses = spaceTaskDispatcher.observe(new AstrixDistributedServiceInvocationTask(request));
 		Func1<List<AsyncResult<AstrixServiceInvocationResponse>>, Observable<AstrixServiceInvocationResponse>> listToObservable = 
 				GsUtil.asyncResultListToObservable();
@@ -1,8 +1,8 @@
 package com.avanza.astrix.http;
 
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 
 /*
  * Copyright 2014 Avanza Bank AB
@@ -26,6 +26,8 @@ import javax.servlet.http.HttpServletResponse;
 
 import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
 import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodec;
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodecs;
 import com.avanza.astrix.remoting.server.AstrixServiceActivator;
 /**
  * 
@@ -47,10 +49,13 @@ public class HttpRemotingEndpoint extends HttpServlet {
 	@Override
 	protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
 		try {
-			ObjectInputStream input = new ObjectInputStream(req.getInputStream());
-			AstrixServiceInvocationRequest invocationRequest = (AstrixServiceInvocationRequest) input.readObject();
+			DataInputStream input = new DataInputStream(req.getInputStream());
+			RemotingEnvelopeCodec envelopeCodec = RemotingEnvelopeCodecs.readFormat(input);
+			AstrixServiceInvocationRequest invocationRequest = envelopeCodec.readRequest(input);
 			AstrixServiceInvocationResponse invocationResponse = serviceActivator.invokeService(invocationRequest);
-			new ObjectOutputStream(resp.getOutputStream()).writeObject(invocationResponse);
+			DataOutputStream output = new DataOutputStream(resp.getOutputStream());
+			RemotingEnvelopeCodecs.writeResponse(envelopeCodec, invocationResponse, output);
+			output.flush();
 		} catch (Exception e) {
 			throw new ServletException(e);
 		}
@@ -15,8 +15,8 @@
  */
 package com.avanza.astrix.http;
 
+import java.io.DataInputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -29,7 +29,7 @@ import org.apache.http.HttpEntity;
 import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.concurrent.FutureCallback;
-import org.apache.http.entity.SerializableEntity;
+import org.apache.http.entity.ByteArrayEntity;
 import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
 import org.apache.http.impl.nio.client.HttpAsyncClients;
 
@@ -37,12 +37,15 @@ import rx.Observable;
 import rx.Observable.OnSubscribe;
 import rx.Subscriber;
 
+import com.avanza.astrix.beans.config.AstrixConfig;
 import com.avanza.astrix.core.ServiceUnavailableException;
 import com.avanza.astrix.core.remoting.RoutingKey;
 import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
 import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
 import com.avanza.astrix.remoting.client.RemotingTransportSpi;
 import com.avanza.astrix.remoting.client.RoutedServiceInvocationRequest;
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodec;
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodecs;
 /**
  * 
  * @author Elias Lindholm
@@ -53,9 +56,15 @@ public final class HttpRemotingTransport implements RemotingTransportSpi {
 	private final CloseableHttpAsyncClient httpclient = HttpAsyncClients.createDefault();
 	private final Map<Integer, ClusterMember> clusterMembers = new ConcurrentHashMap<>();
 	private final int clusterSize; // may be larger than clusterMembers.size in case not all members are discovered yet.
+	private final RemotingEnvelopeCodec envelopeCodec;
 	
-	public HttpRemotingTransport(Collection<ClusterMember> clusterMembers, int clusterSize) {
+	public HttpRemotingTransport(Collection<ClusterMember> clusterMembers, int clusterSize, AstrixConfig config) {
+		this(clusterMembers, clusterSize, RemotingEnvelopeCodecs.forName(config.get(RemotingEnvelopeCodecs.ENVELOPE_FORMAT).get()));
+	}
+	
+	public HttpRemotingTransport(Collection<ClusterMember> clusterMembers, int clusterSize, RemotingEnvelopeCodec envelopeCodec) {
 		this.clusterSize = clusterSize;
+		this.envelopeCodec = envelopeCodec;
 		for (ClusterMember clusterMember : clusterMembers) {
 			this.clusterMembers.put(clusterMember.getClusterInstanceId(), clusterMember);
 		}
@@ -66,7 +75,7 @@ public final class HttpRemotingTransport implements RemotingTransportSpi {
 			final AstrixServiceInvocationRequest request, final RoutingKey routingKey) {
 		ClusterMember clusterMember = getTargetMember(routingKey);
 		final HttpPost postRequest = new HttpPost(clusterMember.getRemoteEndpointUri());
-		postRequest.setEntity(new SerializableEntity(request));
+		postRequest.setEntity(new ByteArrayEntity(RemotingEnvelopeCodecs.encodeRequest(RemotingEnvelopeCodecs.codecFor(envelopeCodec, request), request)));
 		return Observable.create(new OnSubscribe<AstrixServiceInvocationResponse>() {
 			@Override
 			public void call(final Subscriber<? super AstrixServiceInvocationResponse> t1) {
@@ -96,7 +105,7 @@ public final class HttpRemotingTransport implements RemotingTransportSpi {
 		Observable<AstrixServiceInvocationResponse> result = Observable.empty();
 		for (ClusterMember clusterMember : getAllClusterMembers()) {
 			final HttpPost postRequest = new HttpPost(clusterMember.getRemoteEndpointUri());
-			postRequest.setEntity(new SerializableEntity(request));
+			postRequest.setEntity(new ByteArrayEntity(RemotingEnvelopeCodecs.encodeRequest(RemotingEnvelopeCodecs.codecFor(envelopeCodec, request), request)));
 			result = result.mergeWith(Observable.create(new OnSubscribe<AstrixServiceInvocationResponse>() {
 				@Override
 				public void call(final Subscriber<? super AstrixServiceInvocationResponse> t1) {
@@ -148,9 +157,9 @@ public final class HttpRemotingTransport implements RemotingTransportSpi {
 	private AstrixServiceInvocationResponse getResponse(final HttpResponse response){
 		try {
 			HttpEntity entity = response.getEntity();
-			ObjectInputStream inputStream = new ObjectInputStream(entity.getContent());
-			return (AstrixServiceInvocationResponse) inputStream.readObject();
-		} catch (ClassNotFoundException | IOException e) {
+			DataInputStream inputStream = new DataInputStream(entity.getContent());
+			return RemotingEnvelopeCodecs.readFormat(inputStream).readResponse(inputStream);
+		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
 	}
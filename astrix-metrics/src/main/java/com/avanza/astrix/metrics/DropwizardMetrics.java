@@ -19,10 +19,13 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
+import com.avanza.astrix.context.metrics.HistogramSnapshot;
+import com.avanza.astrix.context.metrics.HistogramSpi;
 import com.avanza.astrix.context.metrics.MetricsSpi;
 import com.avanza.astrix.context.metrics.TimerSnaphot;
 import com.avanza.astrix.context.metrics.TimerSpi;
 import com.avanza.astrix.core.function.CheckedCommand;
+import com.codahale.metrics.Histogram;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Snapshot;
 import com.codahale.metrics.Timer;
@@ -33,6 +36,7 @@ import rx.Observable;
 final class DropwizardMetrics implements MetricsSpi {
 
 	private final AtomicInteger nextTimerId = new AtomicInteger(0);
+	private final AtomicInteger nextHistogramId = new AtomicInteger(0);
 	private final MetricRegistry metrics = new MetricRegistry();
 	
 	@Override
@@ -40,6 +44,11 @@ final class DropwizardMetrics implements MetricsSpi {
 		return new TimerAdapter(metrics.timer("timer-" + nextTimerId.incrementAndGet()));
 	}
 	
+	@Override
+	public HistogramSpi createHistogram() {
+		return new HistogramAdapter(metrics.histogram("histogram-" + nextHistogramId.incrementAndGet()));
+	}
+	
 	static class TimerAdapter implements TimerSpi {
 		private Timer timer;
 		public TimerAdapter(Timer timer) {
@@ -65,6 +74,11 @@ final class DropwizardMetrics implements MetricsSpi {
 				return observableFactory.get().doOnTerminate(() -> context.stop());
 			};
 		}
+		
+		@Override
+		public void update(long duration, TimeUnit unit) {
+			timer.update(duration, unit);
+		}
 
 		@Override
 		public TimerSnaphot getSnapshot() {
@@ -83,6 +97,9 @@ final class DropwizardMetrics implements MetricsSpi {
 							   .oneMinuteRate(timer.getOneMinuteRate()) // No need to convert rate since its already in SECONDS
 							   .set50thPercentile(snapshot.getMedian() * durationFactor)
 							   .set99thPercentile(snapshot.get99thPercentile() * durationFactor)
+							   .set90thPercentile(snapshot.getValue(0.9) * durationFactor)
+							   .set999thPercentile(snapshot.get999thPercentile() * durationFactor)
+							   .set9999thPercentile(snapshot.getValue(0.9999) * durationFactor)
 							   .rateUnit(rateUnit)
 							   .durationUnit(durationUnit)
 							   .build();
@@ -90,6 +107,33 @@ final class DropwizardMetrics implements MetricsSpi {
 		
 	}
 	
+	static class HistogramAdapter implements HistogramSpi {
+		private final Histogram histogram;
+		
+		public HistogramAdapter(Histogram histogram) {
+			this.histogram = histogram;
+		}
+
+		@Override
+		public void update(long value) {
+			histogram.update(value);
+		}
+
+		@Override
+		public HistogramSnapshot getSnapshot() {
+			Snapshot snapshot = histogram.getSnapshot();
+			return HistogramSnapshot.builder()
+								   .count(histogram.getCount())
+								   .max(snapshot.getMax())
+								   .mean(snapshot.getMean())
+								   .min(snapshot.getMin())
+								   .set50thPercentile(snapshot.getMedian())
+								   .set99thPercentile(snapshot.get99thPercentile())
+								   .build();
+		}
+		
+	}
+	
 	// For testing
 	MetricRegistry getMetrics() {
 		return metrics;
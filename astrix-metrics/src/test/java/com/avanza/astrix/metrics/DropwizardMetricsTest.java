@@ -27,6 +27,8 @@ import org.junit.Test;
 
 import com.avanza.astrix.context.AstrixApplicationContext;
 import com.avanza.astrix.context.TestAstrixConfigurer;
+import com.avanza.astrix.context.metrics.HistogramSnapshot;
+import com.avanza.astrix.context.metrics.HistogramSpi;
 import com.avanza.astrix.context.metrics.MetricsSpi;
 import com.avanza.astrix.context.metrics.TimerSnaphot;
 import com.avanza.astrix.context.metrics.TimerSpi;
@@ -95,5 +97,18 @@ public class DropwizardMetricsTest {
 		// Should meassure execution time roughly equal to 10 ms
 		assertThat(timerSnapshot.getMax(), greaterThan(8D));
 	}
+	
+	@Test
+	public void histogram() throws Throwable {
+		HistogramSpi histogram = dropwizardMetrics.createHistogram();
+		histogram.update(10);
+		histogram.update(30);
+		
+		HistogramSnapshot histogramSnapshot = histogram.getSnapshot();
+		assertEquals(2, histogramSnapshot.getCount());
+		assertEquals(10D, histogramSnapshot.getMin(), 0.001D);
+		assertEquals(30D, histogramSnapshot.getMax(), 0.001D);
+		assertEquals(20D, histogramSnapshot.getMean(), 0.001D);
+	}
 
 }
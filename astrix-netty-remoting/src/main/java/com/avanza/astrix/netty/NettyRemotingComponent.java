@@ -17,23 +17,33 @@ package com.avanza.astrix.netty;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.PreDestroy;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.avanza.astrix.beans.config.AstrixConfig;
 import com.avanza.astrix.beans.service.BoundServiceBeanInstance;
 import com.avanza.astrix.beans.service.ServiceComponent;
 import com.avanza.astrix.beans.service.ServiceDefinition;
 import com.avanza.astrix.beans.service.ServiceProperties;
-import com.avanza.astrix.beans.service.SimpleBoundServiceBeanInstance;
-import com.avanza.astrix.core.remoting.RoutingStrategy;
+import com.avanza.astrix.config.IntSetting;
+import com.avanza.astrix.config.StringSetting;
 import com.avanza.astrix.netty.client.NettyRemotingClient;
 import com.avanza.astrix.netty.server.NettyRemotingServer;
 import com.avanza.astrix.remoting.client.RemotingProxyFactory;
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodec;
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodecs;
 import com.avanza.astrix.remoting.server.AstrixServiceActivator;
 import com.avanza.astrix.versioning.core.AstrixObjectSerializer;
 import com.avanza.astrix.versioning.core.ObjectSerializerFactory;
 
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+
 /**
  * This component is in a (very) experimental state.
  * 
@@ -42,44 +52,80 @@ import com.avanza.astrix.versioning.core.ObjectSerializerFactory;
  */
 public class NettyRemotingComponent implements ServiceComponent {
 	
+	/**
+	 * Number of connections opened to each cluster member by a bound service bean.
+	 */
+	public static final IntSetting CONNECTIONS_PER_MEMBER = IntSetting.create("astrix.netty.client.connectionsPerMember", 2);
+	/**
+	 * Comma separated list of host:port for all members in the cluster that this application
+	 * is part of, ordered by partition. When not set the application is published as a
+	 * single member cluster.
+	 */
+	public static final StringSetting CLUSTER_MEMBERS = StringSetting.create("astrix.netty.server.clusterMembers", null);
+	
 	private Logger log = LoggerFactory.getLogger(NettyRemotingComponent.class);
 
 	private static final String NETTY_PORT = "astrix.netty.port";
 	private static final String NETTY_HOST = "astrix.netty.host";
+	private static final String NETTY_MEMBERS = "astrix.netty.members";
 	public static final String NAME = "netty-remoting";
 	
 	private final RemotingProxyFactory remotingProxyFactory;
 	private final AstrixServiceActivator serviceActivator;
 	private final ObjectSerializerFactory objectSerializerFactory;
 	private final NettyRemotingServer remotingServer;
-	
+	private final AstrixConfig config;
+	private final EventLoopGroup clientGroup = new NioEventLoopGroup();
 
 	public NettyRemotingComponent(RemotingProxyFactory remotingProxyFactory, AstrixServiceActivator serviceActivator,
-			ObjectSerializerFactory objectSerializerFactory, NettyRemotingServer remotingServer) {
+			ObjectSerializerFactory objectSerializerFactory, NettyRemotingServer remotingServer, AstrixConfig config) {
 		this.remotingProxyFactory = remotingProxyFactory;
 		this.serviceActivator = serviceActivator;
 		this.objectSerializerFactory = objectSerializerFactory;
 		this.remotingServer = remotingServer;
+		this.config = config;
 	}
 
 	@Override
 	public <T> BoundServiceBeanInstance<T> bind(ServiceDefinition<T> serviceDefinition, ServiceProperties serviceProperties) {
-		String host = serviceProperties.getProperty(NETTY_HOST);
-		int port = Integer.valueOf(serviceProperties.getProperty(NETTY_PORT));
-		log.info("Connecting to: {}:{}", host, port);
-		NettyRemotingClient remotingClient = new NettyRemotingClient();
-		remotingClient.connect(host, port);
-		NettyRemotingTransport nettyRemotingTransport = new NettyRemotingTransport(remotingClient);
-		T serviceProxy = remotingProxyFactory.create(serviceDefinition, serviceProperties, nettyRemotingTransport, new RoutingStrategy.RoundRobin());
-		return new SimpleBoundServiceBeanInstance<T>(serviceProxy); // TODO: proper lifecycle-management of remotingClient instance
+		RemotingEnvelopeCodec envelopeCodec = RemotingEnvelopeCodecs.forName(config.get(RemotingEnvelopeCodecs.ENVELOPE_FORMAT).get());
+		int connectionsPerMember = config.get(CONNECTIONS_PER_MEMBER).get();
+		List<NettyRemotingClient> members = new ArrayList<>();
+		try {
+			for (String member : getMembers(serviceProperties)) {
+				String[] hostAndPort = member.split(":");
+				log.info("Connecting to: {}", member);
+				NettyRemotingClient remotingClient = new NettyRemotingClient(clientGroup, envelopeCodec, hostAndPort[0], Integer.parseInt(hostAndPort[1]), connectionsPerMember);
+				members.add(remotingClient);
+				remotingClient.connect();
+			}
+		} catch (RuntimeException e) {
+			members.forEach(NettyRemotingClient::destroy);
+			throw e;
+		}
+		NettyRemotingTransport nettyRemotingTransport = new NettyRemotingTransport(members);
+		T serviceProxy = remotingProxyFactory.create(serviceDefinition, serviceProperties, nettyRemotingTransport, new NettyRoutingStrategy());
+		return new BoundNettyServiceBeanInstance<T>(serviceProxy, nettyRemotingTransport);
+	}
+	
+	private static String[] getMembers(ServiceProperties serviceProperties) {
+		String members = serviceProperties.getProperty(NETTY_MEMBERS);
+		if (members != null) {
+			return members.split(",");
+		}
+		return new String[] { serviceProperties.getProperty(NETTY_HOST) + ":" + serviceProperties.getProperty(NETTY_PORT) };
 	}
 
 	@Override
 	public ServiceProperties parseServiceProviderUri(String serviceProviderUri) {
-		String[] hostAndPort = serviceProviderUri.split(":");
 		ServiceProperties result = new ServiceProperties();
+		String[] members = serviceProviderUri.split(",");
+		String[] hostAndPort = members[0].split(":");
 		result.getProperties().put(NETTY_HOST, hostAndPort[0]);
 		result.getProperties().put(NETTY_PORT, hostAndPort[1]);
+		if (members.length > 1) {
+			result.getProperties().put(NETTY_MEMBERS, serviceProviderUri);
+		}
 		return result;
 	}
 
@@ -88,6 +134,10 @@ public class NettyRemotingComponent implements ServiceComponent {
 		ServiceProperties properties = new ServiceProperties();
 		properties.getProperties().put(NETTY_HOST, getHostName()); // TODO
 		properties.getProperties().put(NETTY_PORT, Integer.toString(remotingServer.getPort()));
+		String clusterMembers = config.get(CLUSTER_MEMBERS).get();
+		if (clusterMembers != null) {
+			properties.getProperties().put(NETTY_MEMBERS, clusterMembers);
+		}
 		return properties;
 	}
 
@@ -122,5 +172,32 @@ public class NettyRemotingComponent implements ServiceComponent {
 	public boolean requiresProviderInstance() {
 		return true;
 	}
+	
+	@PreDestroy
+	public void destroy() {
+		clientGroup.shutdownGracefully();
+	}
+	
+	private static class BoundNettyServiceBeanInstance<T> implements BoundServiceBeanInstance<T> {
+		
+		private final T instance;
+		private final NettyRemotingTransport transport;
+		
+		public BoundNettyServiceBeanInstance(T instance, NettyRemotingTransport transport) {
+			this.instance = instance;
+			this.transport = transport;
+		}
+
+		@Override
+		public T get() {
+			return instance;
+		}
+
+		@Override
+		public void release() {
+			transport.destroy();
+		}
+		
+	}
 
 }
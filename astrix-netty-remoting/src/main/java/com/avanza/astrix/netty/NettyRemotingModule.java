@@ -20,6 +20,8 @@ import org.kohsuke.MetaInfServices;
 import com.avanza.astrix.beans.config.AstrixConfig;
 import com.avanza.astrix.beans.service.ServiceComponent;
 import com.avanza.astrix.context.AstrixContextPlugin;
+import com.avanza.astrix.context.mbeans.MBeanExporter;
+import com.avanza.astrix.context.metrics.Metrics;
 import com.avanza.astrix.modules.ModuleContext;
 import com.avanza.astrix.remoting.client.RemotingProxyFactory;
 import com.avanza.astrix.remoting.server.AstrixServiceActivator;
@@ -36,6 +38,8 @@ public class NettyRemotingModule implements AstrixContextPlugin {
 		moduleContext.importType(ObjectSerializerFactory.class);
 		moduleContext.importType(RemotingProxyFactory.class);
 		moduleContext.importType(AstrixConfig.class);
+		moduleContext.importType(Metrics.class);
+		moduleContext.importType(MBeanExporter.class);
 		
 		moduleContext.export(ServiceComponent.class);
 	}
@@ -15,6 +15,7 @@
  */
 package com.avanza.astrix.netty;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -26,35 +27,66 @@ import com.avanza.astrix.remoting.client.RemotingTransportSpi;
 import com.avanza.astrix.remoting.client.RoutedServiceInvocationRequest;
 
 import rx.Observable;
-
+/**
+ * Routes requests over a set of cluster members, where each member corresponds to one partition. <p>
+ * 
+ * A routed request is sent to the member with index <code>routingKey.hashCode() % partitionCount</code>,
+ * and broadcast requests as well as requests targeting several partitions are sent to all targeted
+ * members in parallel.
+ * 
+ * @author Elias Lindholm (elilin)
+ *
+ */
 public class NettyRemotingTransport implements RemotingTransportSpi {
 	
-	private NettyRemotingClient remotingClient;
+	private final List<NettyRemotingClient> members;
 
-	public NettyRemotingTransport(NettyRemotingClient remotingClient) {
-		this.remotingClient = remotingClient;
+	public NettyRemotingTransport(List<NettyRemotingClient> members) {
+		if (members.isEmpty()) {
+			throw new IllegalArgumentException("At least one cluster member is required");
+		}
+		this.members = new ArrayList<>(members);
 	}
 
 	@Override
 	public Observable<AstrixServiceInvocationResponse> submitRoutedRequest(AstrixServiceInvocationRequest request, RoutingKey routingKey) {
-		return remotingClient.invokeService(request); // TODO: Add support for routing
+		return getMember(routingKey).invokeService(request);
 	}
 
 	@Override
 	public Observable<List<AstrixServiceInvocationResponse>> submitRoutedRequests(Collection<RoutedServiceInvocationRequest> requests) {
-		Observable<AstrixServiceInvocationResponse> result = submitRoutedRequest(requests.iterator().next().getRequest(), null);
-		return result.toList();
+		List<Observable<AstrixServiceInvocationResponse>> responses = new ArrayList<>(requests.size());
+		for (RoutedServiceInvocationRequest request : requests) {
+			responses.add(submitRoutedRequest(request.getRequest(), request.getRoutingkey()));
+		}
+		return Observable.merge(responses).toList();
 	}
 
 	@Override
 	public Observable<List<AstrixServiceInvocationResponse>> submitBroadcastRequest(AstrixServiceInvocationRequest request) {
-		Observable<AstrixServiceInvocationResponse> result = submitRoutedRequest(request, null);
-		return result.toList();
+		List<Observable<AstrixServiceInvocationResponse>> responses = new ArrayList<>(members.size());
+		for (NettyRemotingClient member : members) {
+			responses.add(member.invokeService(request));
+		}
+		return Observable.merge(responses).toList();
 	}
 
 	@Override
 	public int partitionCount() {
-		return 1;
+		return members.size();
+	}
+	
+	private NettyRemotingClient getMember(RoutingKey routingKey) {
+		if (members.size() == 1) {
+			return members.get(0);
+		}
+		return members.get(routingKey.hashCode() % members.size());
+	}
+	
+	void destroy() {
+		for (NettyRemotingClient member : members) {
+			member.destroy();
+		}
 	}
 
 }
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.netty;
+
+import java.lang.reflect.Method;
+
+import com.avanza.astrix.core.remoting.Router;
+import com.avanza.astrix.core.remoting.RoutingStrategy;
+import com.avanza.astrix.remoting.client.DefaultAstrixRoutingStrategy;
+/**
+ * Routes service methods with an @AstrixRouting argument to the partition owning the
+ * routing key. All other methods are distributed round robin over the cluster members.
+ */
+public class NettyRoutingStrategy implements RoutingStrategy {
+	
+	private final DefaultAstrixRoutingStrategy astrixRoutingStrategy = new DefaultAstrixRoutingStrategy();
+	private final RoutingStrategy.RoundRobin roundRobin = new RoutingStrategy.RoundRobin();
+
+	@Override
+	public Router create(Method serviceMethod) {
+		Router result = astrixRoutingStrategy.create(serviceMethod);
+		if (result != null) {
+			return result;
+		}
+		return roundRobin.create(serviceMethod);
+	}
+
+}
@@ -15,65 +15,173 @@
  */
 package com.avanza.astrix.netty.client;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.avanza.astrix.core.ServiceUnavailableException;
 import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
 import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodec;
 
 import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.handler.codec.serialization.ClassResolvers;
-import io.netty.handler.codec.serialization.ObjectDecoder;
-import io.netty.handler.codec.serialization.ObjectEncoder;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import rx.Observable;
 
+/**
+ * A pool of connections to a single remoting server. <p>
+ * 
+ * Requests are distributed round robin over the active connections in the pool, and each
+ * connection pipelines any number of concurrent requests. A connection that is found to be
+ * closed is reestablished in the background while requests are sent on the remaining connections.
+ * 
+ * @author Elias Lindholm (elilin)
+ *
+ */
 public final class NettyRemotingClient {
+	
+	private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+	private static final Logger log = LoggerFactory.getLogger(NettyRemotingClient.class);
 
-	private final EventLoopGroup group = new NioEventLoopGroup();
-	private final NettyRemotingClientHandler nettyRemotingClientHandler = new NettyRemotingClientHandler();
-
-    public void connect(String host, int port) {
-        Bootstrap b = new Bootstrap();
-        b.group(group)
-         .channel(NioSocketChannel.class)
-         .handler(new ChannelInitializer<SocketChannel>() {
-            @Override
-            public void initChannel(SocketChannel ch) throws Exception {
-                ChannelPipeline p = ch.pipeline();
-				p.addLast(
-                        new ObjectEncoder(),
-                        new ObjectDecoder(ClassResolvers.cacheDisabled(null)),
-                        nettyRemotingClientHandler);
-            }
-         });
+	private final Bootstrap bootstrap;
+	private final RemotingEnvelopeCodec envelopeCodec;
+	private final String host;
+	private final int port;
+	private final Connection[] connections;
+	private final AtomicInteger nextConnection = new AtomicInteger();
+	private volatile boolean destroyed = false;
+	
+	public NettyRemotingClient(EventLoopGroup group, RemotingEnvelopeCodec envelopeCodec, String host, int port, int connectionCount) {
+		if (connectionCount < 1) {
+			throw new IllegalArgumentException("connectionCount must be at least 1, was: " + connectionCount);
+		}
+		this.envelopeCodec = envelopeCodec;
+		this.host = host;
+		this.port = port;
+		this.bootstrap = new Bootstrap().group(group)
+										.channel(NioSocketChannel.class)
+										.option(ChannelOption.TCP_NODELAY, true)
+										.option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+										.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, CONNECT_TIMEOUT_MILLIS);
+		this.connections = new Connection[connectionCount];
+		for (int i = 0; i < connections.length; i++) {
+			this.connections[i] = new Connection();
+		}
+	}
 
-        // Start the connection attempt.
-        ChannelFuture channel = b.connect(host, port);
-        try {
-			if (channel.await(1, TimeUnit.SECONDS)) {
-				if (channel.isSuccess()) {
-					return;
+	/**
+	 * Opens all connections in the pool. <p>
+	 * 
+	 * @throws IllegalArgumentException if no connection could be established to the remoting server.
+	 */
+	public void connect() {
+		for (Connection connection : connections) {
+			connection.connect().awaitUninterruptibly(CONNECT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+		}
+		if (!hasActiveConnection()) {
+			destroy();
+			throw new IllegalArgumentException(String.format("Failed to connect to remoting server: %s:%d", host, port));
+		}
+	}
+	
+	public Observable<AstrixServiceInvocationResponse> invokeService(AstrixServiceInvocationRequest request) {
+		int start = nextConnection.getAndIncrement();
+		for (int i = 0; i < connections.length; i++) {
+			Connection connection = connections[Math.abs((start + i) % connections.length)];
+			if (connection.handler.isActive()) {
+				return connection.handler.sendInvocationRequest(request);
+			}
+			connection.reconnect();
+		}
+		return Observable.error(new ServiceUnavailableException(String.format("No active connection to remoting server: %s:%d", host, port)));
+	}
+	
+	private boolean hasActiveConnection() {
+		for (Connection connection : connections) {
+			if (connection.handler.isActive()) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Closes all connections in the pool. The underlying {@link EventLoopGroup} is owned
+	 * by the creator of this client and is not affected.
+	 */
+	public void destroy() {
+		this.destroyed = true;
+		List<ChannelFuture> closeFutures = new ArrayList<>(connections.length);
+		for (Connection connection : connections) {
+			ChannelFuture closeFuture = connection.handler.close();
+			if (closeFuture != null) {
+				closeFutures.add(closeFuture);
+			}
+		}
+		for (ChannelFuture closeFuture : closeFutures) {
+			closeFuture.awaitUninterruptibly(CONNECT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+		}
+	}
+	
+	public String getHost() {
+		return host;
+	}
+	
+	public int getPort() {
+		return port;
+	}
+	
+	private class Connection {
+		
+		private final AtomicBoolean connecting = new AtomicBoolean(false);
+		private volatile NettyRemotingClientHandler handler = new NettyRemotingClientHandler();
+		private volatile long lastConnectAttempt;
+		
+		ChannelFuture connect() {
+			this.lastConnectAttempt = System.currentTimeMillis();
+			NettyRemotingClientHandler handler = new NettyRemotingClientHandler();
+			this.handler = handler;
+			return bootstrap.clone().handler(new ChannelInitializer<SocketChannel>() {
+				@Override
+				public void initChannel(SocketChannel ch) throws Exception {
+					ChannelPipeline p = ch.pipeline();
+					p.addLast(
+							new LengthFieldBasedFrameDecoder(NettyRemotingClientHandler.MAX_FRAME_LENGTH, 0, 4, 0, 4),
+							new NettyRemotingClientCodec(envelopeCodec),
+							handler);
 				}
+			}).connect(host, port);
+		}
+		
+		void reconnect() {
+			if (destroyed || System.currentTimeMillis() - lastConnectAttempt < CONNECT_TIMEOUT_MILLIS) {
+				return;
+			}
+			if (!connecting.compareAndSet(false, true)) {
+				return;
 			}
-		} catch (InterruptedException e) {
+			connect().addListener(future -> {
+				connecting.set(false);
+				if (!future.isSuccess()) {
+					log.debug("Failed to reconnect to remoting server: {}:{}", host, port);
+				} else if (destroyed) {
+					handler.close();
+				}
+			});
 		}
-        destroy();
-        throw new IllegalArgumentException(String.format("Failed to connect to remoting server: %s:%d", host, port));
-    }
-    
-    public Observable<AstrixServiceInvocationResponse> invokeService(AstrixServiceInvocationRequest request) {
-    	return nettyRemotingClientHandler.sendInvocationRequest(request);
-    }
-    
-    public void destroy() {
-    	group.shutdownGracefully();
-    }
-    		
+	}
     		
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.netty.client;
+
+import java.util.List;
+
+import com.avanza.astrix.netty.codec.ByteBufEnvelopeInput;
+import com.avanza.astrix.netty.codec.ByteBufEnvelopeOutput;
+import com.avanza.astrix.netty.codec.FrameBufferAllocator;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodec;
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodecs;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageCodec;
+/**
+ * Encodes outgoing requests using the configured {@link RemotingEnvelopeCodec}, once acknowledged
+ * by the server, see {@link RemotingEnvelopeCodecs#codecFor}, and decodes
+ * incoming responses using the codec identified by the format id of each frame. Each frame
+ * is prefixed with the correlation id of the request, see {@link NettyRemotingFrame}. <p>
+ * 
+ * Outgoing frames, including the length field, are written directly into a single io buffer.
+ * Incoming frames are split by a length field based frame decoder earlier in the pipeline. Strings
+ * are decoded directly from the frame buffer, see {@link ByteBufEnvelopeInput}.
+ */
+public class NettyRemotingClientCodec extends MessageToMessageCodec<ByteBuf, NettyRemotingFrame<AstrixServiceInvocationRequest>> {
+	
+	private final RemotingEnvelopeCodec envelopeCodec;
+	private final FrameBufferAllocator frameBufferAllocator = new FrameBufferAllocator();
+	
+	public NettyRemotingClientCodec(RemotingEnvelopeCodec envelopeCodec) {
+		this.envelopeCodec = envelopeCodec;
+	}
+
+	@Override
+	protected void encode(ChannelHandlerContext ctx, NettyRemotingFrame<AstrixServiceInvocationRequest> request, List<Object> out) throws Exception {
+		ByteBuf frame = frameBufferAllocator.allocate(ctx);
+		try {
+			frame.writeLong(request.getCorrelationId());
+			RemotingEnvelopeCodecs.writeRequest(RemotingEnvelopeCodecs.codecFor(envelopeCodec, request.getEnvelope()), request.getEnvelope(), new ByteBufEnvelopeOutput(frame));
+			frameBufferAllocator.complete(frame);
+		} catch (Exception e) {
+			frame.release();
+			throw e;
+		}
+		out.add(frame);
+	}
+
+	@Override
+	protected void decode(ChannelHandlerContext ctx, ByteBuf frame, List<Object> out) throws Exception {
+		long correlationId = frame.readLong();
+		ByteBufEnvelopeInput in = new ByteBufEnvelopeInput(frame);
+		RemotingEnvelopeCodec responseCodec = RemotingEnvelopeCodecs.readFormat(in);
+		out.add(new NettyRemotingFrame<>(correlationId, responseCodec.readResponse(in), responseCodec));
+	}
+
+}
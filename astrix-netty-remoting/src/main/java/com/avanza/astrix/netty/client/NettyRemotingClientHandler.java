@@ -15,69 +15,126 @@
  */
 package com.avanza.astrix.netty.client;
 
-import java.util.UUID;
+import java.util.Iterator;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.avanza.astrix.core.ServiceUnavailableException;
 import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
 import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
 
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import rx.Observable;
 import rx.Subscriber;
+import rx.subscriptions.Subscriptions;
 
+/**
+ * Client side handler for a single channel. <p>
+ * 
+ * Many requests might be in flight on the same channel at any given time. Each request
+ * is assigned a numeric correlation id which the server echoes back on the response,
+ * see {@link NettyRemotingFrame}. Instances of this class must not be shared between channels.
+ * 
+ * @author Elias Lindholm (elilin)
+ *
+ */
 public class NettyRemotingClientHandler extends ChannelInboundHandlerAdapter {
 	
-
-	public static final String NETTY_RESPONSE_SUBSCRIBER_ID = "netty.responseSubscriberId";
-	private volatile ChannelHandlerContext ctx;
+	/**
+	 * Max size of a single remoting frame, i.e an encoded request or response.
+	 */
+	public static final int MAX_FRAME_LENGTH = 64 * 1024 * 1024;
+	private static final Logger log = LoggerFactory.getLogger(NettyRemotingClientHandler.class);
 	
-	private ConcurrentMap<String, Subscriber<? super AstrixServiceInvocationResponse>> subscriberBySubscriberId = new ConcurrentHashMap<>(); 
+	private final AtomicLong nextCorrelationId = new AtomicLong();
+	private final ConcurrentMap<Long, Subscriber<? super AstrixServiceInvocationResponse>> subscriberByCorrelationId = new ConcurrentHashMap<>(); 
+	private volatile Channel channel;
 
     @Override
-    public void channelActive(ChannelHandlerContext ctx) {
-		this.ctx = ctx;
-//         Send the first message if this handler is a client-side handler.
-//        ctx.writeAndFlush();
+    public void channelActive(ChannelHandlerContext ctx) throws Exception {
+		this.channel = ctx.channel();
+		super.channelActive(ctx);
+    }
+    
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+    	failPendingRequests("Connection to remoting server closed: " + ctx.channel().remoteAddress());
+    	super.channelInactive(ctx);
     }
 
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) {
-    	AstrixServiceInvocationResponse response = (AstrixServiceInvocationResponse) msg;
-    	String invocationId = response.getHeader(NETTY_RESPONSE_SUBSCRIBER_ID);
-    	Subscriber<? super AstrixServiceInvocationResponse> subscriber = getSubscriber(invocationId);
+    	@SuppressWarnings("unchecked")
+		NettyRemotingFrame<AstrixServiceInvocationResponse> response = (NettyRemotingFrame<AstrixServiceInvocationResponse>) msg;
+    	Subscriber<? super AstrixServiceInvocationResponse> subscriber = this.subscriberByCorrelationId.remove(response.getCorrelationId());
     	if (subscriber == null) {
     		return;
     	}
-    	subscriber.onNext(response);
+    	subscriber.onNext(response.getEnvelope());
     	subscriber.onCompleted();
-        // Echo back the received object to the server.
-//        ctx.write(msg);
-    }
-
-    private Subscriber<? super AstrixServiceInvocationResponse> getSubscriber(String invocationId) {
-    	Subscriber<? super AstrixServiceInvocationResponse> subscriber = this.subscriberBySubscriberId.remove(invocationId);
-		return subscriber;
-	}
-
-	@Override
-    public void channelReadComplete(ChannelHandlerContext ctx) {
-        ctx.flush();
     }
 
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
-        cause.printStackTrace();
+    	log.warn("Closing remoting channel due to unexpected exception. channel=" + ctx.channel(), cause);
         ctx.close();
     }
+    
+    public boolean isActive() {
+    	Channel channel = this.channel;
+    	return channel != null && channel.isActive();
+    }
+    
+    public ChannelFuture close() {
+    	Channel channel = this.channel;
+    	if (channel != null) {
+    		return channel.close();
+    	}
+    	return null;
+    }
 
 	public Observable<AstrixServiceInvocationResponse> sendInvocationRequest(AstrixServiceInvocationRequest request) {
 		return Observable.create((subscriber) -> {
-			String invocationId = UUID.randomUUID().toString();
-			this.subscriberBySubscriberId.put(invocationId, subscriber);
-			request.setHeader(NETTY_RESPONSE_SUBSCRIBER_ID, invocationId);
-			ctx.writeAndFlush(request);
+			Long correlationId = nextCorrelationId.incrementAndGet();
+			this.subscriberByCorrelationId.put(correlationId, subscriber);
+			// Discard the pending request if the subscriber unsubscribes before the response arrives
+			subscriber.add(Subscriptions.create(() -> this.subscriberByCorrelationId.remove(correlationId)));
+			Channel channel = this.channel;
+			if (channel == null || !channel.isActive()) {
+				failPendingRequest(correlationId, "Not connected to remoting server");
+				return;
+			}
+			channel.writeAndFlush(new NettyRemotingFrame<>(correlationId, request, null)).addListener(future -> {
+				if (!future.isSuccess()) {
+					failPendingRequest(correlationId, "Failed to send request to remoting server: " + channel.remoteAddress(), future.cause());
+				}
+			});
 		});
 	}
-}
\ No newline at end of file
+	
+	private void failPendingRequests(String message) {
+		Iterator<Long> pendingRequests = this.subscriberByCorrelationId.keySet().iterator();
+		while (pendingRequests.hasNext()) {
+			failPendingRequest(pendingRequests.next(), message);
+		}
+	}
+	
+	private void failPendingRequest(Long correlationId, String message) {
+		failPendingRequest(correlationId, message, null);
+	}
+
+	private void failPendingRequest(Long correlationId, String message, Throwable cause) {
+		Subscriber<? super AstrixServiceInvocationResponse> subscriber = this.subscriberByCorrelationId.remove(correlationId);
+		if (subscriber != null) {
+			subscriber.onError(new ServiceUnavailableException(message, cause));
+		}
+	}
+	
+}
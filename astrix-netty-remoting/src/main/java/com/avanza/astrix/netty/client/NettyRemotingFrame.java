@@ -0,0 +1,60 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.netty.client;
+
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodec;
+
+/**
+ * A single request or response envelope together with the correlation id used
+ * to match responses to pending requests when many requests are in flight on the
+ * same channel. <p>
+ * 
+ * On the wire each frame consists of the correlation id (8 bytes) followed by the
+ * envelope encoded using the given {@link RemotingEnvelopeCodec}.
+ * 
+ * @param <T> the envelope type, a request or a response
+ */
+public final class NettyRemotingFrame<T> {
+	
+	private final long correlationId;
+	private final T envelope;
+	private final RemotingEnvelopeCodec envelopeCodec;
+	
+	public NettyRemotingFrame(long correlationId, T envelope, RemotingEnvelopeCodec envelopeCodec) {
+		this.correlationId = correlationId;
+		this.envelope = envelope;
+		this.envelopeCodec = envelopeCodec;
+	}
+
+	public long getCorrelationId() {
+		return correlationId;
+	}
+	
+	public T getEnvelope() {
+		return envelope;
+	}
+	
+	/**
+	 * The codec used to encode the envelope. Outgoing requests are always encoded using the
+	 * codec configured for the connection, in which case this method returns null.
+	 * 
+	 * @return
+	 */
+	public RemotingEnvelopeCodec getEnvelopeCodec() {
+		return envelopeCodec;
+	}
+	
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.netty.codec;
+
+import java.nio.charset.StandardCharsets;
+
+import com.avanza.astrix.remoting.codec.Utf8DataInput;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+/**
+ * Reads an envelope from a frame buffer. Strings are decoded directly from the buffer
+ * without copying the encoded bytes to the heap first. 
+ */
+public final class ByteBufEnvelopeInput extends ByteBufInputStream implements Utf8DataInput {
+	
+	private final ByteBuf buffer;
+
+	public ByteBufEnvelopeInput(ByteBuf buffer) {
+		super(buffer);
+		this.buffer = buffer;
+	}
+
+	@Override
+	public String readUtf8(int utf8Length) {
+		String result = buffer.toString(buffer.readerIndex(), utf8Length, StandardCharsets.UTF_8);
+		buffer.skipBytes(utf8Length);
+		return result;
+	}
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.netty.codec;
+
+import java.nio.charset.StandardCharsets;
+
+import com.avanza.astrix.remoting.client.StreamedPayload;
+import com.avanza.astrix.remoting.codec.Utf8DataOutput;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
+/**
+ * Writes an envelope, including streamed response bodies, straight into the (pooled, direct) frame buffer. 
+ */
+public final class ByteBufEnvelopeOutput extends ByteBufOutputStream implements Utf8DataOutput {
+
+	public ByteBufEnvelopeOutput(ByteBuf buffer) {
+		super(buffer);
+	}
+
+	@Override
+	public void writeUtf8(String value, int utf8Length) {
+		if (utf8Length == value.length()) {
+			// Only ascii chars, ByteBufUtil does not handle surrogate pairs correctly 
+			ByteBufUtil.writeUtf8(buffer(), value);
+		} else {
+			buffer().writeBytes(value.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+	
+	@Override
+	public void writeSizePrefixed(StreamedPayload payload) {
+		ByteBuf buffer = buffer();
+		int sizeIndex = buffer.writerIndex();
+		buffer.writeInt(0);
+		try {
+			payload.writeTo(this);
+		} catch (RuntimeException e) {
+			buffer.writerIndex(sizeIndex);
+			throw e;
+		}
+		buffer.setInt(sizeIndex, buffer.writerIndex() - sizeIndex - 4);
+	}
+
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.netty.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+/**
+ * Allocates io buffers for outgoing frames. <p>
+ * 
+ * Each frame starts with a four byte length field which is filled in when the
+ * frame is completed, hence an encoder writes the whole frame into a single buffer
+ * without a separate length prepender. The initial capacity of each buffer is based
+ * on the size of the previous frame to avoid reallocations while encoding. <p>
+ * 
+ * Instances are not thread safe and must not be shared between channels.
+ */
+public final class FrameBufferAllocator {
+	
+	private static final int MIN_CAPACITY = 256;
+	private static final int LENGTH_FIELD_SIZE = 4;
+	
+	private int capacityHint = MIN_CAPACITY;
+	
+	public ByteBuf allocate(ChannelHandlerContext ctx) {
+		ByteBuf frame = ctx.alloc().ioBuffer(capacityHint);
+		frame.writeInt(0);
+		return frame;
+	}
+	
+	public void complete(ByteBuf frame) {
+		int frameSize = frame.readableBytes();
+		frame.setInt(frame.readerIndex(), frameSize - LENGTH_FIELD_SIZE);
+		capacityHint = Math.max(MIN_CAPACITY, frameSize);
+	}
+
+}
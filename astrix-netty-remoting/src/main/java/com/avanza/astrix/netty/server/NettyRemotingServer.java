@@ -26,9 +26,14 @@ import org.slf4j.LoggerFactory;
 
 import com.avanza.astrix.beans.config.AstrixConfig;
 import com.avanza.astrix.config.IntSetting;
+import com.avanza.astrix.config.StringSetting;
+import com.avanza.astrix.context.mbeans.MBeanExporter;
+import com.avanza.astrix.context.metrics.Metrics;
+import com.avanza.astrix.netty.client.NettyRemotingClientHandler;
 import com.avanza.astrix.remoting.server.AstrixServiceActivator;
 
 import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
@@ -39,26 +44,47 @@ import io.netty.channel.EventLoopGroup;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.handler.codec.serialization.ClassResolvers;
-import io.netty.handler.codec.serialization.ObjectDecoder;
-import io.netty.handler.codec.serialization.ObjectEncoder;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
 
 public final class NettyRemotingServer {
 	
 	public static final IntSetting NETTY_SERVER_BIND_PORT = IntSetting.create("astrix.netty.server.bindport", 12003);
+	/**
+	 * Defines what thread executes incoming service invocations, one of:
+	 * <ul>
+	 * <li>eventloop - the netty event loop thread that read the request</li>
+	 * <li>bulkhead - a bounded thread pool per exported service</li>
+	 * <li>virtual-thread - a new virtual thread per request, falls back to a cached thread pool on jvms without virtual threads</li>
+	 * </ul>
+	 */
+	public static final StringSetting NETTY_SERVER_EXECUTION_MODEL = StringSetting.create("astrix.netty.server.executionModel", "bulkhead");
+	/**
+	 * Number of threads per exported service when using the bulkhead execution model.
+	 */
+	public static final IntSetting NETTY_SERVER_BULKHEAD_THREADS = IntSetting.create("astrix.netty.server.bulkheadThreads", 10);
+	/**
+	 * Number of requests per exported service that might wait for execution before
+	 * new requests are rejected, and reading from the sending channel is paused.
+	 */
+	public static final IntSetting NETTY_SERVER_BULKHEAD_QUEUE_SIZE = IntSetting.create("astrix.netty.server.bulkheadQueueSize", 100);
 	private static final Logger log = LoggerFactory.getLogger(NettyRemotingServer.class);
 
 	private int port;
 	private EventLoopGroup bossGroup;
 	private EventLoopGroup workerGroup;
 	private AtomicBoolean started = new AtomicBoolean(false);
-	private AstrixServiceActivator serviceActivator;
+	private final ServiceInvocationDispatcher dispatcher;
 	
-	public NettyRemotingServer(AstrixServiceActivator serviceActivator, AstrixConfig config) {
-		this.serviceActivator = serviceActivator;
+	public NettyRemotingServer(AstrixServiceActivator serviceActivator, AstrixConfig config, Metrics metrics, MBeanExporter mbeanExporter) {
 		this.port = config.get(NETTY_SERVER_BIND_PORT).get();
+		this.dispatcher = new ServiceInvocationDispatcher(serviceActivator, 
+														  ServiceExecutionModel.parse(config.get(NETTY_SERVER_EXECUTION_MODEL).get()), 
+														  config.get(NETTY_SERVER_BULKHEAD_THREADS).get(), 
+														  config.get(NETTY_SERVER_BULKHEAD_QUEUE_SIZE).get(), 
+														  metrics, 
+														  mbeanExporter);
 	}
 
 	public void verifyStarted() {
@@ -74,15 +100,17 @@ public final class NettyRemotingServer {
         b.group(bossGroup, workerGroup)
          .channel(NioServerSocketChannel.class)
          .option(ChannelOption.SO_REUSEADDR, false)
+         .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+         .childOption(ChannelOption.TCP_NODELAY, true)
          .handler(new LoggingHandler(LogLevel.INFO))
          .childHandler(new ChannelInitializer<SocketChannel>() {
 			@Override
             public void initChannel(SocketChannel ch) throws Exception {
                 ChannelPipeline p = ch.pipeline();
                 p.addLast(
-                        new ObjectEncoder(),
-                        new ObjectDecoder(ClassResolvers.cacheDisabled(null)),
-                        new NettyRemotingServerHandler(serviceActivator));
+                        new LengthFieldBasedFrameDecoder(NettyRemotingClientHandler.MAX_FRAME_LENGTH, 0, 4, 0, 4),
+                        new NettyRemotingServerCodec(),
+                        new NettyRemotingServerHandler(dispatcher));
             }
          });
 
@@ -108,6 +136,7 @@ public final class NettyRemotingServer {
     		bossGroup.shutdownGracefully();
     		workerGroup.shutdownGracefully();
     	}
+    	dispatcher.shutdown();
 	}
 
 	public int getPort() {
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.netty.server;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.avanza.astrix.netty.client.NettyRemotingClientHandler;
+import com.avanza.astrix.netty.client.NettyRemotingFrame;
+import com.avanza.astrix.netty.codec.ByteBufEnvelopeInput;
+import com.avanza.astrix.netty.codec.ByteBufEnvelopeOutput;
+import com.avanza.astrix.netty.codec.FrameBufferAllocator;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodec;
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodecs;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageCodec;
+import io.netty.handler.codec.serialization.ObjectDecoderInputStream;
+import io.netty.handler.codec.serialization.ObjectEncoderOutputStream;
+/**
+ * Decodes incoming requests and encodes the responses using the same envelope
+ * format as the client used for the request. The correlation id of each request
+ * frame is echoed back on the corresponding response frame, which allows the
+ * client to pipeline many requests on the same channel. Instances of this class must
+ * not be shared between channels. <p>
+ * 
+ * Clients that predate the envelope formats send a single java serialized object per frame,
+ * encoded using netty's {@link ObjectEncoderOutputStream}, and match responses using the
+ * {@link #LEGACY_RESPONSE_SUBSCRIBER_ID} header. Such frames are recognized by the leading
+ * stream version byte, which is never the first byte of a correlation id, and are replied to
+ * using the same format.
+ */
+public class NettyRemotingServerCodec extends MessageToMessageCodec<ByteBuf, NettyRemotingFrame<AstrixServiceInvocationResponse>> {
+	
+	static final String LEGACY_RESPONSE_SUBSCRIBER_ID = "netty.responseSubscriberId";
+	
+	/*
+	 * First byte of netty's compact object stream. Correlation id's are assigned sequentially
+	 * starting at 1, hence the first byte of a frame with a correlation id is always 0.
+	 */
+	private static final byte LEGACY_STREAM_VERSION = 5;
+	private static final long LEGACY_CORRELATION_ID = -1L;
+	
+	private final FrameBufferAllocator frameBufferAllocator = new FrameBufferAllocator();
+	
+	/**
+	 * Creates the frame for a response to a given request.
+	 * 
+	 * @param request
+	 * @param response
+	 * @return
+	 */
+	static NettyRemotingFrame<AstrixServiceInvocationResponse> replyTo(NettyRemotingFrame<AstrixServiceInvocationRequest> request, AstrixServiceInvocationResponse response) {
+		if (request.getCorrelationId() == LEGACY_CORRELATION_ID) {
+			response.setHeader(LEGACY_RESPONSE_SUBSCRIBER_ID, request.getEnvelope().getHeader(LEGACY_RESPONSE_SUBSCRIBER_ID));
+		}
+		return new NettyRemotingFrame<>(request.getCorrelationId(), response, request.getEnvelopeCodec());
+	}
+	
+	@Override
+	protected void decode(ChannelHandlerContext ctx, ByteBuf frame, List<Object> out) throws Exception {
+		if (frame.getByte(frame.readerIndex()) == LEGACY_STREAM_VERSION) {
+			out.add(new NettyRemotingFrame<>(LEGACY_CORRELATION_ID, readLegacyRequest(frame), RemotingEnvelopeCodecs.JAVA_SERIALIZATION));
+			return;
+		}
+		long correlationId = frame.readLong();
+		ByteBufEnvelopeInput in = new ByteBufEnvelopeInput(frame);
+		RemotingEnvelopeCodec requestCodec = RemotingEnvelopeCodecs.readFormat(in);
+		out.add(new NettyRemotingFrame<>(correlationId, requestCodec.readRequest(in), requestCodec));
+	}
+
+	@Override
+	protected void encode(ChannelHandlerContext ctx, NettyRemotingFrame<AstrixServiceInvocationResponse> response, List<Object> out) throws Exception {
+		if (response.getCorrelationId() == LEGACY_CORRELATION_ID) {
+			out.add(writeLegacyResponse(response.getEnvelope()));
+			return;
+		}
+		ByteBuf frame = frameBufferAllocator.allocate(ctx);
+		try {
+			frame.writeLong(response.getCorrelationId());
+			RemotingEnvelopeCodecs.writeResponse(response.getEnvelopeCodec(), response.getEnvelope(), new ByteBufEnvelopeOutput(frame));
+			frameBufferAllocator.complete(frame);
+		} catch (Exception e) {
+			frame.release();
+			throw e;
+		}
+		out.add(frame);
+	}
+
+	private static AstrixServiceInvocationRequest readLegacyRequest(ByteBuf frame) throws IOException {
+		// The length prefix was already stripped by the frame decoder
+		ByteBuf lengthPrefixed = Unpooled.wrappedBuffer(Unpooled.copyInt(frame.readableBytes()), frame.retain());
+		try {
+			return (AstrixServiceInvocationRequest) new ObjectDecoderInputStream(new ByteBufInputStream(lengthPrefixed), null, NettyRemotingClientHandler.MAX_FRAME_LENGTH).readObject();
+		} catch (ClassNotFoundException e) {
+			throw new IOException("Failed to deserialize request", e);
+		} finally {
+			lengthPrefixed.release();
+		}
+	}
+	
+	private static ByteBuf writeLegacyResponse(AstrixServiceInvocationResponse response) throws IOException {
+		response.serializeStreamedPayload();
+		ByteBuf frame = Unpooled.buffer();
+		try (ObjectEncoderOutputStream out = new ObjectEncoderOutputStream(new ByteBufOutputStream(frame))) {
+			out.writeObject(response);
+		} catch (IOException e) {
+			frame.release();
+			throw e;
+		}
+		return frame;
+	}
+
+}
@@ -15,28 +15,30 @@
  */
 package com.avanza.astrix.netty.server;
 
-import com.avanza.astrix.netty.client.NettyRemotingClientHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.avanza.astrix.netty.client.NettyRemotingFrame;
 import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
-import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
-import com.avanza.astrix.remoting.server.AstrixServiceActivator;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 
 public class NettyRemotingServerHandler extends ChannelInboundHandlerAdapter {
+	
+	private static final Logger log = LoggerFactory.getLogger(NettyRemotingServerHandler.class);
 
-	private AstrixServiceActivator serviceActivator;
+	private final ServiceInvocationDispatcher dispatcher;
 	
-    public NettyRemotingServerHandler(AstrixServiceActivator serviceActivator) {
-		this.serviceActivator = serviceActivator;
+    NettyRemotingServerHandler(ServiceInvocationDispatcher dispatcher) {
+		this.dispatcher = dispatcher;
 	}
     
 	@Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) {
-    	AstrixServiceInvocationRequest request = (AstrixServiceInvocationRequest) msg;
-		AstrixServiceInvocationResponse response = serviceActivator.invokeService(request);
-    	response.setHeader(NettyRemotingClientHandler.NETTY_RESPONSE_SUBSCRIBER_ID, request.getHeader(NettyRemotingClientHandler.NETTY_RESPONSE_SUBSCRIBER_ID));
-        ctx.write(response);
+    	@SuppressWarnings("unchecked")
+		NettyRemotingFrame<AstrixServiceInvocationRequest> request = (NettyRemotingFrame<AstrixServiceInvocationRequest>) msg;
+    	dispatcher.dispatch(ctx, request);
     }
 
     @Override
@@ -46,7 +48,7 @@ public class NettyRemotingServerHandler extends ChannelInboundHandlerAdapter {
 
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
-        cause.printStackTrace();
+    	log.warn("Closing remoting channel due to unexpected exception. channel=" + ctx.channel(), cause);
         ctx.close();
     }
 }
\ No newline at end of file
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.netty.server;
+
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.avanza.astrix.context.metrics.Timer;
+
+import io.netty.channel.Channel;
+/**
+ * Limits the number of concurrent requests for a single exported service. <p>
+ * 
+ * Requests beyond the limit are rejected. Reading from a channel is paused when it submits
+ * a request while the bulkhead is saturated, and resumed once the number of requests in flight
+ * has dropped to half of the limit. A paused channel lets the TCP receive window fill up, which
+ * pushes back on the client instead of queueing requests without bounds on the server. 
+ */
+final class ServiceBulkhead implements ServiceBulkheadMBean {
+	
+	private final Executor executor;
+	private final int maxConcurrentRequests;
+	private final int resumeThreshold;
+	private final Timer executionTimer;
+	private final AtomicInteger inFlightCount = new AtomicInteger();
+	private final AtomicInteger activeCount = new AtomicInteger();
+	private final AtomicLong rejectedCount = new AtomicLong();
+	private final Set<Channel> pausedChannels = ConcurrentHashMap.newKeySet();
+	
+	ServiceBulkhead(Executor executor, int maxConcurrentRequests, Timer executionTimer) {
+		if (maxConcurrentRequests < 1) {
+			throw new IllegalArgumentException("maxConcurrentRequests must be at least 1, was: " + maxConcurrentRequests);
+		}
+		this.executor = executor;
+		this.maxConcurrentRequests = maxConcurrentRequests;
+		this.resumeThreshold = maxConcurrentRequests / 2;
+		this.executionTimer = executionTimer;
+	}
+
+	/**
+	 * Submits a service invocation received on a given channel.
+	 * 
+	 * @return true if the invocation was accepted for execution, false if it was rejected
+	 */
+	boolean execute(Channel channel, Runnable invocation) {
+		int inFlight = inFlightCount.incrementAndGet();
+		if (inFlight > maxConcurrentRequests) {
+			inFlightCount.decrementAndGet();
+			reject(channel);
+			return false;
+		}
+		try {
+			executor.execute(() -> run(invocation));
+		} catch (RejectedExecutionException e) {
+			inFlightCount.decrementAndGet();
+			reject(channel);
+			return false;
+		}
+		if (inFlight == maxConcurrentRequests) {
+			pause(channel);
+		}
+		return true;
+	}
+
+	private void reject(Channel channel) {
+		rejectedCount.incrementAndGet();
+		pause(channel);
+	}
+
+	private void run(Runnable invocation) {
+		activeCount.incrementAndGet();
+		try {
+			executionTimer.timeExecution(() -> {
+				invocation.run();
+				return null;
+			}).call();
+		} finally {
+			activeCount.decrementAndGet();
+			if (inFlightCount.decrementAndGet() <= resumeThreshold) {
+				resumePausedChannels();
+			}
+		}
+	}
+	
+	private void pause(Channel channel) {
+		channel.config().setAutoRead(false);
+		pausedChannels.add(channel);
+		// All in flight requests might have completed before the channel was registered as paused
+		if (inFlightCount.get() <= resumeThreshold) {
+			resumePausedChannels();
+		}
+	}
+	
+	private void resumePausedChannels() {
+		if (pausedChannels.isEmpty()) {
+			return;
+		}
+		Iterator<Channel> channels = pausedChannels.iterator();
+		while (channels.hasNext()) {
+			Channel channel = channels.next();
+			channels.remove();
+			channel.config().setAutoRead(true);
+		}
+	}
+
+	@Override
+	public int getQueueDepth() {
+		return Math.max(0, inFlightCount.get() - activeCount.get());
+	}
+
+	@Override
+	public int getActiveCount() {
+		return activeCount.get();
+	}
+	
+	@Override
+	public int getMaxConcurrentRequests() {
+		return maxConcurrentRequests;
+	}
+
+	@Override
+	public long getRejectedCount() {
+		return rejectedCount.get();
+	}
+
+	@Override
+	public int getPausedChannelCount() {
+		return pausedChannels.size();
+	}
+
+	@Override
+	public long getInvocationCount() {
+		return executionTimer.getCount();
+	}
+
+	@Override
+	public double get50thPercentile() {
+		return executionTimer.get50thPercentile();
+	}
+
+	@Override
+	public double get99thPercentile() {
+		return executionTimer.get99thPercentile();
+	}
+
+	@Override
+	public double getMax() {
+		return executionTimer.getMax();
+	}
+
+	@Override
+	public double getMean() {
+		return executionTimer.getMean();
+	}
+
+	@Override
+	public TimeUnit getDurationUnit() {
+		return executionTimer.getDurationUnit();
+	}
+
+}
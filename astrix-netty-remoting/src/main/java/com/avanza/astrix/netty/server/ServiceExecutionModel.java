@@ -0,0 +1,55 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.netty.server;
+
+import java.util.Locale;
+/**
+ * Defines on what thread an incoming service invocation is executed on the server side.
+ */
+enum ServiceExecutionModel {
+	
+	/**
+	 * Invokes the service directly on the netty event loop thread that read the request. Only
+	 * suitable for services that never block, since a slow invocation stalls all channels
+	 * served by the same event loop.
+	 */
+	EVENT_LOOP,
+	
+	/**
+	 * Invokes the service on a bounded thread pool dedicated to the invoked service.
+	 */
+	BULKHEAD,
+	
+	/**
+	 * Invokes the service on a new virtual thread per request. Falls back to a cached
+	 * thread pool when virtual threads are not supported by the running JVM.
+	 */
+	VIRTUAL_THREAD;
+	
+	static ServiceExecutionModel parse(String name) {
+		switch (name.trim().toLowerCase(Locale.ENGLISH)) {
+		case "eventloop":
+			return EVENT_LOOP;
+		case "bulkhead":
+			return BULKHEAD;
+		case "virtual-thread":
+			return VIRTUAL_THREAD;
+		default:
+			throw new IllegalArgumentException("Unknown service execution model: " + name + ". Expected one of: eventloop, bulkhead, virtual-thread");
+		}
+	}
+
+}
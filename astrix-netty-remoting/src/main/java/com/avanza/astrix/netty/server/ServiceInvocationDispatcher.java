@@ -0,0 +1,157 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.netty.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.avanza.astrix.context.mbeans.MBeanExporter;
+import com.avanza.astrix.context.metrics.Metrics;
+import com.avanza.astrix.core.util.NamedThreadFactory;
+import com.avanza.astrix.netty.client.NettyRemotingFrame;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequestHeaders;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
+import com.avanza.astrix.remoting.server.AstrixServiceActivator;
+
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+/**
+ * Executes incoming service invocations according to the configured {@link ServiceExecutionModel}
+ * and writes the response back on the channel the request was received on. <p>
+ * 
+ * Unless the {@link ServiceExecutionModel#EVENT_LOOP} model is used, each exported service gets
+ * its own {@link ServiceBulkhead}, hence a slow service can't starve other services or stall the
+ * event loop. Requests for service api's not registered in the {@link AstrixServiceActivator} share
+ * a single bulkhead, so a client can't allocate resources by sending arbitrary service api names.
+ */
+final class ServiceInvocationDispatcher {
+	
+	private static final Logger log = LoggerFactory.getLogger(ServiceInvocationDispatcher.class);
+	private static final String UNREGISTERED_SERVICES = "unregistered-services"; // Not a valid class name
+	private static final String MBEAN_FOLDER = "NettyServiceBulkheads";
+	
+	private final AstrixServiceActivator serviceActivator;
+	private final ServiceExecutionModel executionModel;
+	private final int bulkheadThreads;
+	private final int maxConcurrentRequests;
+	private final Metrics metrics;
+	private final MBeanExporter mbeanExporter;
+	private final ConcurrentMap<String, ServiceBulkhead> bulkheadByServiceApi = new ConcurrentHashMap<>();
+	private final List<ExecutorService> executors = new ArrayList<>();
+	private volatile ExecutorService virtualThreadExecutor;
+	
+	ServiceInvocationDispatcher(AstrixServiceActivator serviceActivator, 
+								ServiceExecutionModel executionModel, 
+								int bulkheadThreads, 
+								int bulkheadQueueSize, 
+								Metrics metrics, 
+								MBeanExporter mbeanExporter) {
+		this.serviceActivator = serviceActivator;
+		this.executionModel = executionModel;
+		this.bulkheadThreads = bulkheadThreads;
+		this.maxConcurrentRequests = bulkheadThreads + bulkheadQueueSize;
+		this.metrics = metrics;
+		this.mbeanExporter = mbeanExporter;
+	}
+	
+	void dispatch(ChannelHandlerContext ctx, NettyRemotingFrame<AstrixServiceInvocationRequest> request) {
+		if (executionModel == ServiceExecutionModel.EVENT_LOOP) {
+			// Flushed in channelReadComplete
+			ctx.write(invoke(request)).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+			return;
+		}
+		String serviceApi = request.getEnvelope().getHeader(AstrixServiceInvocationRequestHeaders.SERVICE_API);
+		ServiceBulkhead bulkhead = getBulkhead(serviceApi != null && serviceActivator.isRegistered(serviceApi) ? serviceApi : UNREGISTERED_SERVICES);
+		boolean accepted = bulkhead.execute(ctx.channel(), () -> {
+			ctx.writeAndFlush(invoke(request)).addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+		});
+		if (!accepted) {
+			AstrixServiceInvocationResponse response = new AstrixServiceInvocationResponse();
+			response.setServiceUnavailable(true);
+			response.setExceptionMsg("Service invocation rejected, too many concurrent requests: " + serviceApi);
+			ctx.write(NettyRemotingServerCodec.replyTo(request, response))
+			   .addListener(ChannelFutureListener.FIRE_EXCEPTION_ON_FAILURE);
+		}
+	}
+	
+	private NettyRemotingFrame<AstrixServiceInvocationResponse> invoke(NettyRemotingFrame<AstrixServiceInvocationRequest> request) {
+		return NettyRemotingServerCodec.replyTo(request, serviceActivator.invokeService(request.getEnvelope()));
+	}
+
+	private ServiceBulkhead getBulkhead(String serviceApi) {
+		ServiceBulkhead result = bulkheadByServiceApi.get(serviceApi);
+		if (result != null) {
+			return result;
+		}
+		synchronized (executors) {
+			return bulkheadByServiceApi.computeIfAbsent(serviceApi, this::createBulkhead);
+		}
+	}
+	
+	private ServiceBulkhead createBulkhead(String serviceApi) {
+		ServiceBulkhead bulkhead = new ServiceBulkhead(createExecutor(serviceApi), maxConcurrentRequests, metrics.createTimer());
+		mbeanExporter.registerMBean(bulkhead, MBEAN_FOLDER, serviceApi);
+		return bulkhead;
+	}
+
+	private ExecutorService createExecutor(String serviceApi) {
+		if (executionModel == ServiceExecutionModel.VIRTUAL_THREAD) {
+			if (virtualThreadExecutor == null) {
+				virtualThreadExecutor = createVirtualThreadExecutor();
+				executors.add(virtualThreadExecutor);
+			}
+			return virtualThreadExecutor;
+		}
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(bulkheadThreads, bulkheadThreads, 60, TimeUnit.SECONDS, 
+															 new LinkedBlockingQueue<>(), // Bounded by ServiceBulkhead
+															 new NamedThreadFactory("Astrix-NettyService-" + serviceApi));
+		executor.allowCoreThreadTimeOut(true);
+		executors.add(executor);
+		return executor;
+	}
+
+	private static ExecutorService createVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			log.warn("Virtual threads not supported by running jvm, falling back to a cached thread pool");
+			return Executors.newCachedThreadPool(new NamedThreadFactory("Astrix-NettyService"));
+		}
+	}
+	
+	void shutdown() {
+		synchronized (executors) {
+			for (ExecutorService executor : executors) {
+				executor.shutdown();
+			}
+			for (String serviceApi : bulkheadByServiceApi.keySet()) {
+				mbeanExporter.unregisterMBean(MBEAN_FOLDER, serviceApi);
+			}
+		}
+	}
+
+}
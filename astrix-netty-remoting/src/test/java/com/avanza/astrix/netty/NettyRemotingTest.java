@@ -17,6 +17,10 @@ package com.avanza.astrix.netty;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+
 import org.junit.After;
 import org.junit.Test;
 
@@ -25,24 +29,40 @@ import com.avanza.astrix.beans.registry.InMemoryServiceRegistry;
 import com.avanza.astrix.context.AstrixApplicationContext;
 import com.avanza.astrix.context.AstrixContext;
 import com.avanza.astrix.context.TestAstrixConfigurer;
+import com.avanza.astrix.core.AstrixRouting;
+import com.avanza.astrix.netty.server.NettyRemotingServer;
 import com.avanza.astrix.provider.component.AstrixServiceComponentNames;
 import com.avanza.astrix.provider.core.AstrixApiProvider;
 import com.avanza.astrix.provider.core.AstrixApplication;
 import com.avanza.astrix.provider.core.AstrixServiceExport;
 import com.avanza.astrix.provider.core.Service;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequestHeaders;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
 import com.avanza.astrix.serviceunit.ServiceExporter;
 
+import io.netty.handler.codec.serialization.ObjectDecoderInputStream;
+import io.netty.handler.codec.serialization.ObjectEncoderOutputStream;
+
 public class NettyRemotingTest {
 	
 	
 	InMemoryServiceRegistry registry = new InMemoryServiceRegistry();
 	private AstrixApplicationContext serverContext;
+	private AstrixApplicationContext secondServerContext;
 	private AstrixContext clientContext;
 	
 	@After
 	public void cleanup() {
-		serverContext.destroy();
-		clientContext.destroy();
+		if (clientContext != null) {
+			clientContext.destroy();
+		}
+		if (serverContext != null) {
+			serverContext.destroy();
+		}
+		if (secondServerContext != null) {
+			secondServerContext.destroy();
+		}
 	}
 	
 	@Test(timeout=5000)
@@ -60,7 +80,73 @@ public class NettyRemotingTest {
 																.configure();
 		Ping ping = clientContext.waitForBean(Ping.class, 1000L);
 		assertEquals("foo", ping.ping("foo"));
+		assertEquals("\u00e5\u00e4\u00f6 \ud83d\ude00", ping.ping("\u00e5\u00e4\u00f6 \ud83d\ude00"));
+		
+	}
+	
+	@Test(timeout=5000)
+	public void routesRequestsToPartitionOwningRoutingKey() throws Exception {
+		int firstPort = getFreePort();
+		int secondPort = getFreePort();
+		String clusterMembers = "localhost:" + firstPort + ",localhost:" + secondPort;
+		serverContext = startPartition(0, firstPort, clusterMembers);
+		secondServerContext = startPartition(1, secondPort, clusterMembers);
+		
+		clientContext = new TestAstrixConfigurer().registerApiProvider(PartitionApi.class)
+												  .set(AstrixSettings.SERVICE_REGISTRY_URI, registry.getServiceUri())
+												  .set(AstrixSettings.BEAN_BIND_ATTEMPT_INTERVAL, 10L)
+												  .configure();
+		PartitionInfo partitionInfo = clientContext.waitForBean(PartitionInfo.class, 1000L);
+		for (int routingKey = 0; routingKey < 10; routingKey++) {
+			assertEquals(routingKey % 2, partitionInfo.partitionId(routingKey));
+		}
+	}
+
+	@Test(timeout=5000)
+	public void serverRepliesToClientsUsingTheLegacyObjectStreamFormat() throws Exception {
+		int port = getFreePort();
+		serverContext = (AstrixApplicationContext) new TestAstrixConfigurer().setApplicationDescriptor(PingApp.class)
+				.set(AstrixSettings.SERVICE_REGISTRY_URI, registry.getServiceUri())
+				.set(AstrixSettings.SERVICE_ADMINISTRATOR_COMPONENT, AstrixServiceComponentNames.DIRECT)
+				.set(NettyRemotingServer.NETTY_SERVER_BIND_PORT, port)
+				.configure();
+		serverContext.getInstance(ServiceExporter.class).addServiceProvider(new PingImpl());
+		serverContext.startServicePublisher();
 		
+		AstrixServiceInvocationRequest request = new AstrixServiceInvocationRequest();
+		request.setHeader(AstrixServiceInvocationRequestHeaders.SERVICE_API, Ping.class.getName());
+		request.setHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_SIGNATURE, "ping(java.lang.String)");
+		request.setHeader(AstrixServiceInvocationRequestHeaders.API_VERSION, "1");
+		request.setHeader("netty.responseSubscriberId", "subscriber-1");
+		request.setArguments(new Object[] { "foo" });
+		try (Socket socket = new Socket("localhost", port);
+			 ObjectEncoderOutputStream out = new ObjectEncoderOutputStream(socket.getOutputStream());
+			 ObjectDecoderInputStream in = new ObjectDecoderInputStream(socket.getInputStream())) {
+			out.writeObject(request);
+			out.flush();
+			
+			AstrixServiceInvocationResponse response = (AstrixServiceInvocationResponse) in.readObject();
+			assertEquals("subscriber-1", response.getHeader("netty.responseSubscriberId"));
+			assertEquals("foo", response.getResponseBody());
+		}
+	}
+
+	private static int getFreePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+
+	private AstrixApplicationContext startPartition(int partitionId, int port, String clusterMembers) {
+		AstrixApplicationContext result = (AstrixApplicationContext) new TestAstrixConfigurer().setApplicationDescriptor(PartitionApp.class)
+				.set(AstrixSettings.SERVICE_REGISTRY_URI, registry.getServiceUri())
+				.set(AstrixSettings.SERVICE_ADMINISTRATOR_COMPONENT, AstrixServiceComponentNames.DIRECT)
+				.set(NettyRemotingServer.NETTY_SERVER_BIND_PORT, port)
+				.set(NettyRemotingComponent.CLUSTER_MEMBERS, clusterMembers)
+				.configure();
+		result.getInstance(ServiceExporter.class).addServiceProvider(new PartitionInfoImpl(partitionId));
+		result.startServicePublisher();
+		return result;
 	}
 	
 	public interface Ping {
@@ -85,4 +171,32 @@ public class NettyRemotingTest {
 //	@AstrixApplication(defaultServiceComponent = AstrixServiceComponentNames.DIRECT, exportsRemoteServicesFor = PingApi.class)
 	public static class PingApp {
 	}
+	
+	public interface PartitionInfo {
+		int partitionId(@AstrixRouting int routingKey);
+	}
+	
+	@AstrixServiceExport(PartitionInfo.class)
+	public static class PartitionInfoImpl implements PartitionInfo {
+		private final int partitionId;
+		
+		public PartitionInfoImpl(int partitionId) {
+			this.partitionId = partitionId;
+		}
+
+		@Override
+		public int partitionId(int routingKey) {
+			return partitionId;
+		}
+	}
+	
+	@AstrixApiProvider
+	public static interface PartitionApi {
+		@Service
+		PartitionInfo partitionInfo();
+	}
+	
+	@AstrixApplication(defaultServiceComponent = NettyRemotingComponent.NAME, exportsRemoteServicesFor = PartitionApi.class)
+	public static class PartitionApp {
+	}
 }
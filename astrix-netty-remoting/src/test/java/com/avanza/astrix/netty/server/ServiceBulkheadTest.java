@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.netty.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.avanza.astrix.context.metrics.Timer;
+import com.avanza.astrix.context.metrics.TimerSpi;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+
+public class ServiceBulkheadTest {
+	
+	private final List<Runnable> queuedInvocations = new ArrayList<>();
+	private final ServiceBulkhead bulkhead = new ServiceBulkhead(queuedInvocations::add, 2, new Timer(new TimerSpi.NoTimer()));
+	private final EmbeddedChannel channel = new EmbeddedChannel();
+	
+	@Test
+	public void rejectsInvocationsWhenSaturated() throws Exception {
+		assertTrue(bulkhead.execute(channel, () -> {}));
+		assertTrue(bulkhead.execute(channel, () -> {}));
+		assertFalse(bulkhead.execute(channel, () -> {}));
+		
+		assertEquals(1, bulkhead.getRejectedCount());
+		assertEquals(2, bulkhead.getQueueDepth());
+	}
+	
+	@Test
+	public void pausesReadingFromChannelUntilInvocationsInFlightDropsToHalfOfLimit() throws Exception {
+		bulkhead.execute(channel, () -> {});
+		assertTrue(channel.config().isAutoRead());
+		
+		bulkhead.execute(channel, () -> {});
+		assertFalse(channel.config().isAutoRead());
+		assertEquals(1, bulkhead.getPausedChannelCount());
+		
+		queuedInvocations.remove(0).run();
+		assertTrue(channel.config().isAutoRead());
+		assertEquals(0, bulkhead.getPausedChannelCount());
+		assertEquals(1, bulkhead.getQueueDepth());
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.netty.server;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.avanza.astrix.context.mbeans.MBeanExporter;
+import com.avanza.astrix.context.metrics.Metrics;
+import com.avanza.astrix.netty.client.NettyRemotingFrame;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequestHeaders;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodecs;
+import com.avanza.astrix.remoting.server.AstrixServiceActivator;
+import com.avanza.astrix.versioning.core.AstrixObjectSerializer;
+
+import io.netty.channel.ChannelHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+public class ServiceInvocationDispatcherTest {
+	
+	private final List<String> bulkheads = new ArrayList<>();
+	private final MBeanExporter mbeanExporter = new MBeanExporter() {
+		@Override
+		public void registerMBean(Object mbean, String folder, String name) {
+			bulkheads.add(name);
+		}
+		@Override
+		public void unregisterMBean(String folder, String name) {
+			bulkheads.remove(name);
+		}
+	};
+	private final ServiceInvocationDispatcher dispatcher = new ServiceInvocationDispatcher(new FakeServiceActivator("com.avanza.PingService"), 
+																						   ServiceExecutionModel.BULKHEAD, 1, 10, 
+																						   new Metrics.NoMetrics(), mbeanExporter);
+	private final EmbeddedChannel channel = new EmbeddedChannel(new ChannelHandlerAdapter() {});
+	
+	@After
+	public void shutdown() {
+		dispatcher.shutdown();
+	}
+	
+	@Test
+	public void requestsForUnregisteredServicesShareASingleBulkhead() throws Exception {
+		dispatch("com.avanza.PingService");
+		dispatch("com.avanza.PingService");
+		dispatch("com.avanza.UnknownService1");
+		dispatch("com.avanza.UnknownService2");
+		dispatch(null);
+		
+		assertEquals(2, bulkheads.size());
+		assertEquals("com.avanza.PingService", bulkheads.get(0));
+	}
+
+	@Test
+	public void unregistersBulkheadMBeansOnShutdown() throws Exception {
+		dispatch("com.avanza.PingService");
+		dispatch("com.avanza.UnknownService");
+		assertEquals(2, bulkheads.size());
+		
+		dispatcher.shutdown();
+		
+		assertEquals(0, bulkheads.size());
+	}
+
+	private void dispatch(String serviceApi) {
+		AstrixServiceInvocationRequest request = new AstrixServiceInvocationRequest();
+		if (serviceApi != null) {
+			request.setHeader(AstrixServiceInvocationRequestHeaders.SERVICE_API, serviceApi);
+		}
+		dispatcher.dispatch(channel.pipeline().firstContext(), new NettyRemotingFrame<>(1L, request, RemotingEnvelopeCodecs.BINARY));
+	}
+	
+	private static class FakeServiceActivator implements AstrixServiceActivator {
+		
+		private final String registeredServiceApi;
+		
+		public FakeServiceActivator(String registeredServiceApi) {
+			this.registeredServiceApi = registeredServiceApi;
+		}
+
+		@Override
+		public AstrixServiceInvocationResponse invokeService(AstrixServiceInvocationRequest invocationRequest) {
+			return new AstrixServiceInvocationResponse();
+		}
+
+		@Override
+		public void register(Object provider, AstrixObjectSerializer objectSerializer, Class<?> publishedApi) {
+		}
+		
+		@Override
+		public boolean isRegistered(String serviceApi) {
+			return registeredServiceApi.equals(serviceApi);
+		}
+	}
+
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.client;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * Splits the partitioned argument of a service invocation into one container for each
+ * target partition. <p>
+ * 
+ * The implementation is chosen once for each service method. long[] and int[] arguments are
+ * partitioned without boxing the elements, and other arrays are sized exactly up front. 
+ */
+abstract class ArgumentPartitioner {
+	
+	private ArgumentPartitioner() {
+	}
+	
+	/**
+	 * Partitions the given argument. 
+	 * 
+	 * @param argument
+	 * @param partitionCount
+	 * @return an array indexed by partition holding the part of the argument that should be sent 
+	 *         to each partition, or null for partitions that did not receive any elements
+	 */
+	abstract Object[] partition(Object argument, int partitionCount);
+	
+	static ArgumentPartitioner array(Class<?> elementType, PartitionedRouter router) {
+		if (elementType == long.class) {
+			return new LongArrayPartitioner();
+		}
+		if (elementType == int.class) {
+			return new IntArrayPartitioner();
+		}
+		if (elementType.isPrimitive()) {
+			return new PrimitiveArrayPartitioner(elementType, router);
+		}
+		return new ObjectArrayPartitioner(elementType, router);
+	}
+	
+	static ArgumentPartitioner collection(Class<?> collectionType, PartitionedRouter router) {
+		return new CollectionPartitioner(collectionFactory(collectionType), router);
+	}
+	
+	static int partitionOf(int routingHash, int partitionCount) {
+		// Same as RoutingKey.create(routingHash).hashCode() % partitionCount
+		int hash = routingHash == Integer.MIN_VALUE ? Integer.MAX_VALUE : Math.abs(routingHash);
+		return hash % partitionCount;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static Supplier<Collection<Object>> collectionFactory(Class<?> collectionType) {
+		if (collectionType == ArrayList.class) {
+			return ArrayList::new;
+		}
+		if (collectionType == HashSet.class) {
+			return HashSet::new;
+		}
+		if (collectionType == LinkedHashSet.class) {
+			return LinkedHashSet::new;
+		}
+		if (collectionType == LinkedList.class) {
+			return LinkedList::new;
+		}
+		if (collectionType == TreeSet.class) {
+			return TreeSet::new;
+		}
+		Constructor<?> constructor;
+		try {
+			constructor = collectionType.getDeclaredConstructor();
+			constructor.setAccessible(true);
+		} catch (NoSuchMethodException | SecurityException e) {
+			throw new IllegalArgumentException("Collection class supplied by @AstrixPartitionedRouting must have a zero argument constructor: " + collectionType.getName(), e);
+		}
+		return () -> {
+			try {
+				return (Collection<Object>) constructor.newInstance();
+			} catch (ReflectiveOperationException e) {
+				throw new RuntimeException("Failed to instantiate class: " + collectionType.getName(), e);
+			}
+		};
+	}
+	
+	private static final class LongArrayPartitioner extends ArgumentPartitioner {
+		@Override
+		Object[] partition(Object argument, int partitionCount) {
+			long[] elements = (long[]) argument;
+			int[] targetPartitions = new int[elements.length];
+			int[] partitionSizes = new int[partitionCount];
+			for (int i = 0; i < elements.length; i++) {
+				int partition = partitionOf(Long.hashCode(elements[i]), partitionCount);
+				targetPartitions[i] = partition;
+				partitionSizes[partition]++;
+			}
+			long[][] result = new long[partitionCount][];
+			for (int partition = 0; partition < partitionCount; partition++) {
+				if (partitionSizes[partition] > 0) {
+					result[partition] = new long[partitionSizes[partition]];
+					partitionSizes[partition] = 0;
+				}
+			}
+			for (int i = 0; i < elements.length; i++) {
+				int partition = targetPartitions[i];
+				result[partition][partitionSizes[partition]++] = elements[i];
+			}
+			return result;
+		}
+	}
+	
+	private static final class IntArrayPartitioner extends ArgumentPartitioner {
+		@Override
+		Object[] partition(Object argument, int partitionCount) {
+			int[] elements = (int[]) argument;
+			int[] targetPartitions = new int[elements.length];
+			int[] partitionSizes = new int[partitionCount];
+			for (int i = 0; i < elements.length; i++) {
+				int partition = partitionOf(Integer.hashCode(elements[i]), partitionCount);
+				targetPartitions[i] = partition;
+				partitionSizes[partition]++;
+			}
+			int[][] result = new int[partitionCount][];
+			for (int partition = 0; partition < partitionCount; partition++) {
+				if (partitionSizes[partition] > 0) {
+					result[partition] = new int[partitionSizes[partition]];
+					partitionSizes[partition] = 0;
+				}
+			}
+			for (int i = 0; i < elements.length; i++) {
+				int partition = targetPartitions[i];
+				result[partition][partitionSizes[partition]++] = elements[i];
+			}
+			return result;
+		}
+	}
+	
+	private static final class ObjectArrayPartitioner extends ArgumentPartitioner {
+		
+		private final Class<?> elementType;
+		private final PartitionedRouter router;
+		
+		ObjectArrayPartitioner(Class<?> elementType, PartitionedRouter router) {
+			this.elementType = Objects.requireNonNull(elementType);
+			this.router = Objects.requireNonNull(router);
+		}
+
+		@Override
+		Object[] partition(Object argument, int partitionCount) {
+			Object[] elements = (Object[]) argument;
+			int[] targetPartitions = new int[elements.length];
+			int[] partitionSizes = new int[partitionCount];
+			for (int i = 0; i < elements.length; i++) {
+				int partition = partitionOf(router.routingHash(elements[i]), partitionCount);
+				targetPartitions[i] = partition;
+				partitionSizes[partition]++;
+			}
+			Object[][] result = new Object[partitionCount][];
+			for (int partition = 0; partition < partitionCount; partition++) {
+				if (partitionSizes[partition] > 0) {
+					result[partition] = (Object[]) Array.newInstance(elementType, partitionSizes[partition]);
+					partitionSizes[partition] = 0;
+				}
+			}
+			for (int i = 0; i < elements.length; i++) {
+				int partition = targetPartitions[i];
+				result[partition][partitionSizes[partition]++] = elements[i];
+			}
+			return result;
+		}
+	}
+	
+	private static final class PrimitiveArrayPartitioner extends ArgumentPartitioner {
+		
+		private final Class<?> elementType;
+		private final PartitionedRouter router;
+		
+		PrimitiveArrayPartitioner(Class<?> elementType, PartitionedRouter router) {
+			this.elementType = Objects.requireNonNull(elementType);
+			this.router = Objects.requireNonNull(router);
+		}
+		
+		@Override
+		Object[] partition(Object argument, int partitionCount) {
+			int length = Array.getLength(argument);
+			int[] targetPartitions = new int[length];
+			int[] partitionSizes = new int[partitionCount];
+			for (int i = 0; i < length; i++) {
+				int partition = partitionOf(router.routingHash(Array.get(argument, i)), partitionCount);
+				targetPartitions[i] = partition;
+				partitionSizes[partition]++;
+			}
+			Object[] result = new Object[partitionCount];
+			for (int partition = 0; partition < partitionCount; partition++) {
+				if (partitionSizes[partition] > 0) {
+					result[partition] = Array.newInstance(elementType, partitionSizes[partition]);
+					partitionSizes[partition] = 0;
+				}
+			}
+			for (int i = 0; i < length; i++) {
+				int partition = targetPartitions[i];
+				Array.set(result[partition], partitionSizes[partition]++, Array.get(argument, i));
+			}
+			return result;
+		}
+	}
+	
+	private static final class CollectionPartitioner extends ArgumentPartitioner {
+		
+		private final Supplier<Collection<Object>> collectionFactory;
+		private final PartitionedRouter router;
+		
+		CollectionPartitioner(Supplier<Collection<Object>> collectionFactory, PartitionedRouter router) {
+			this.collectionFactory = Objects.requireNonNull(collectionFactory);
+			this.router = Objects.requireNonNull(router);
+		}
+
+		@Override
+		Object[] partition(Object argument, int partitionCount) {
+			Object[] result = new Object[partitionCount];
+			for (Object element : (Collection<?>) argument) {
+				int partition = partitionOf(router.routingHash(element), partitionCount);
+				@SuppressWarnings("unchecked")
+				Collection<Object> target = (Collection<Object>) result[partition];
+				if (target == null) {
+					target = collectionFactory.get();
+					result[partition] = target;
+				}
+				target.add(element);
+			}
+			return result;
+		}
+	}
+
+}
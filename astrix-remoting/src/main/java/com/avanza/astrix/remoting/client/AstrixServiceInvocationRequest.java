@@ -15,10 +15,14 @@
  */
 package com.avanza.astrix.remoting.client;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 /**
  * 
  * @author Elias Lindholm (elilin)
@@ -28,9 +32,101 @@ public class AstrixServiceInvocationRequest implements Serializable {
 	
 	private static final long serialVersionUID = 1L;
 	
-	private final Map<String, String> headers = new HashMap<>();
+	private Map<String, String> headers;
+	/*
+	 * True as long as headers refers to a (immutable) map shared with other requests,
+	 * see RemoteInvocationTemplate. The map is copied on first modification.
+	 */
+	private transient boolean sharedHeaders;
+	/*
+	 * Shared headers that also identifies the invoked method by its signature and asks for the accepted
+	 * envelope formats, used for servers that have not acknowledged the use of ServiceMethodIds or
+	 * their envelope formats, see RemotingEngine.
+	 */
+	private transient Map<String, String> negotiationHeaders;
+	/*
+	 * The envelope formats acknowledged by the server receiving this request, or null if
+	 * not (yet) acknowledged, see RemotingEngine.
+	 */
+	private transient Set<String> acceptedEnvelopeFormats;
 	private Object[] arguments;
 	
+	public AstrixServiceInvocationRequest() {
+		this.headers = new HashMap<>();
+	}
+	
+	/**
+	 * Creates a request that initially carries the given headers without copying them. The
+	 * headers are copied first when modified, hence the map must not be modified after it
+	 * is passed to this constructor.
+	 * 
+	 * @param sharedHeaders
+	 */
+	AstrixServiceInvocationRequest(Map<String, String> sharedHeaders) {
+		this.headers = sharedHeaders;
+		this.sharedHeaders = true;
+	}
+	
+	/**
+	 * Creates a request that initially carries the given compact headers, see {@link ServiceMethodIds}.
+	 * Neither map is copied unless the headers of the request are modified, hence neither map must be
+	 * modified after it is passed to this constructor.
+	 * 
+	 * @param sharedHeaders
+	 * @param negotiationHeaders - the same headers as sharedHeaders, including the signature of the invoked method
+	 * 							 and the question for the accepted envelope formats
+	 */
+	AstrixServiceInvocationRequest(Map<String, String> sharedHeaders, Map<String, String> negotiationHeaders) {
+		this(sharedHeaders);
+		this.negotiationHeaders = negotiationHeaders;
+	}
+	
+	/**
+	 * Creates a new request carrying the same headers as this request, without copying
+	 * headers shared with other requests.
+	 */
+	AstrixServiceInvocationRequest copyHeaders() {
+		if (this.sharedHeaders) {
+			return new AstrixServiceInvocationRequest(this.headers, this.negotiationHeaders);
+		}
+		AstrixServiceInvocationRequest result = new AstrixServiceInvocationRequest();
+		result.headers.putAll(this.headers);
+		result.negotiationHeaders = this.negotiationHeaders;
+		return result;
+	}
+	
+	/**
+	 * Identifies the invoked method using its full signature, in addition to its id, and asks for the
+	 * envelope formats accepted by the server, when this request is sent to a server that has not
+	 * acknowledged the use of {@link ServiceMethodIds} or its envelope formats.
+	 */
+	void includeNegotiationHeaders() {
+		if (this.negotiationHeaders == null || this.headers == this.negotiationHeaders) {
+			return;
+		}
+		if (this.sharedHeaders) {
+			this.headers = this.negotiationHeaders;
+		} else {
+			this.negotiationHeaders.forEach(this.headers::putIfAbsent);
+		}
+	}
+	
+	void setAcceptedEnvelopeFormats(Set<String> acceptedEnvelopeFormats) {
+		this.acceptedEnvelopeFormats = acceptedEnvelopeFormats;
+	}
+	
+	/**
+	 * Whether the server receiving this request has acknowledged that it accepts the given envelope
+	 * format. Requests are sent using java serialization until the server has acknowledged another
+	 * format, since a server that predates the envelope formats only accepts java serialized requests.
+	 * 
+	 * @param envelopeFormat - the name of an envelope format, see RemotingEnvelopeCodecs
+	 * @return
+	 */
+	public boolean acceptsEnvelopeFormat(String envelopeFormat) {
+		return this.acceptedEnvelopeFormats != null && this.acceptedEnvelopeFormats.contains(envelopeFormat);
+	}
+	
 	public void setArguments(Object[] requestBody) {
 		this.arguments = requestBody;
 	}
@@ -40,7 +136,7 @@ public class AstrixServiceInvocationRequest implements Serializable {
 	}
 
 	public void setHeader(String name, String value) {
-		this.headers.put(name, value);
+		ownHeaders().put(name, value);
 	}
 	
 	public String getHeader(String name) {
@@ -53,12 +149,35 @@ public class AstrixServiceInvocationRequest implements Serializable {
 	}
 
 	public Map<String, String> getHeaders() {
-		return this.headers;
+		return ownHeaders();
+	}
+	
+	/**
+	 * Returns the headers of this request without copying headers shared with other
+	 * requests, see {@link #getHeaders()} for a modifiable map.
+	 * 
+	 * @return a read-only view of the headers of this request
+	 */
+	public Map<String, String> getReadOnlyHeaders() {
+		return Collections.unmodifiableMap(this.headers);
 	}
 
 	public void setAllHeaders(Map<String, String> headers) {
-		this.headers.putAll(headers);
+		ownHeaders().putAll(headers);
+	}
+	
+	private Map<String, String> ownHeaders() {
+		if (this.sharedHeaders) {
+			this.headers = new HashMap<>(this.headers);
+			this.sharedHeaders = false;
+		}
+		return this.headers;
+	}
+	
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		// Always write a HashMap to remain compatible with previously released versions
+		ownHeaders();
+		out.defaultWriteObject();
 	}
-
 	
 }
@@ -20,5 +20,27 @@ public class AstrixServiceInvocationRequestHeaders {
 	public static final String API_VERSION = "apiVersion";
 	public static final String SERVICE_METHOD_SIGNATURE = "serviceMethodSignature";
 	public static final String SERVICE_API = "serviceApi";
+	/**
+	 * Set to "true" by a party that accepts payloads in byte form, see {@link BinaryPayloads}.
+	 */
+	public static final String BINARY_PAYLOADS = "binaryPayloads";
+	/**
+	 * Names the compression, if any, that a client accepts for, or a server has applied to, 
+	 * a response body, see {@link CompressedPayloads}.
+	 */
+	public static final String COMPRESSED_PAYLOADS = "compressedPayloads";
+	/**
+	 * The compact id of the invoked service method, see {@link ServiceMethodIds}.
+	 */
+	public static final String SERVICE_METHOD_ID = "serviceMethodId";
+	/**
+	 * Set to "true" on responses from a server that dispatches on {@link #SERVICE_METHOD_ID}, see {@link ServiceMethodIds}.
+	 */
+	public static final String SERVICE_METHOD_IDS = "serviceMethodIds";
+	/**
+	 * Set to "true" by a client that asks for the envelope formats accepted by a server, and on the response
+	 * set to the comma separated names of the envelope formats accepted by the server, see RemotingEnvelopeCodecs.
+	 */
+	public static final String ENVELOPE_FORMATS = "envelopeFormats";
 
 }
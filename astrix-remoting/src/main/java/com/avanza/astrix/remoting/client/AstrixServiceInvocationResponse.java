@@ -18,6 +18,7 @@ package com.avanza.astrix.remoting.client;
 import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 /**
  * 
  * @author Elias Lindholm (elilin)
@@ -83,6 +84,10 @@ public class AstrixServiceInvocationResponse implements Serializable {
 		return this.headers.get(name);
 	}
 	
+	public Map<String, String> getHeaders() {
+		return this.headers;
+	}
+	
 	public void setCorrelationId(String correlationId) {
 		this.correlationId = correlationId;
 	}
@@ -103,4 +108,31 @@ public class AstrixServiceInvocationResponse implements Serializable {
 	public void setServiceUnavailable(boolean unavailable) {
 		setHeader("service-unavailable", Boolean.toString(unavailable));
 	}
+	
+	/**
+	 * Serializes a response body that would otherwise be serialized first when written by
+	 * the transport, see {@link StreamedPayload}. Used by transports that pass the response on as is.
+	 */
+	public void serializeStreamedPayload() {
+		if (this.responseBody instanceof StreamedPayload) {
+			try {
+				this.responseBody = ((StreamedPayload) this.responseBody).toByteArray();
+			} catch (RuntimeException e) {
+				streamedPayloadFailed(e);
+			}
+		}
+	}
+	
+	/**
+	 * Replaces a response body that failed to serialize when written by the transport, see {@link StreamedPayload},
+	 * by the failure. The client sees the failure the same way as an exception thrown by the invoked service.
+	 * 
+	 * @param failure
+	 */
+	public void streamedPayloadFailed(RuntimeException failure) {
+		this.responseBody = null;
+		this.thrownExceptionType = failure.getClass().getName();
+		this.exceptionMsg = failure.getMessage();
+		this.correlationId = UUID.randomUUID().toString();
+	}
 }
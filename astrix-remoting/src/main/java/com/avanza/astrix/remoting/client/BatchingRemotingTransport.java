@@ -0,0 +1,192 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.avanza.astrix.config.BooleanSetting;
+import com.avanza.astrix.config.IntSetting;
+import com.avanza.astrix.config.LongSetting;
+import com.avanza.astrix.core.ServiceUnavailableException;
+import com.avanza.astrix.core.remoting.RoutingKey;
+
+import rx.Observable;
+import rx.Subscriber;
+/**
+ * Decorates a {@link RemotingTransportSpi} with micro batching of routed requests. <p>
+ * 
+ * Routed requests targeting the same partition within a short time window are collected and 
+ * sent using a single {@link RemotingTransportSpi#submitRoutedBatch(List, RoutingKey)} invocation.
+ * A batch is sent when the window, starting with the first request in the batch, expires, or as
+ * soon as the batch reaches its max size. The responses are demultiplexed back to the subscriber
+ * of each request. <p>
+ * 
+ * Batching trades a small amount of added latency for fewer round trips, and is disabled by default.
+ */
+public final class BatchingRemotingTransport implements RemotingTransportSpi {
+	
+	public static final BooleanSetting BATCHING_ENABLED = BooleanSetting.create("astrix.remoting.batching.enabled", false);
+	public static final LongSetting BATCHING_WINDOW_MICROS = LongSetting.create("astrix.remoting.batching.windowMicros", 200L);
+	public static final IntSetting MAX_BATCH_SIZE = IntSetting.create("astrix.remoting.batching.maxBatchSize", 32);
+	
+	private final RemotingTransportSpi target;
+	private final ScheduledExecutorService scheduler;
+	private final long windowMicros;
+	private final int maxBatchSize;
+	private final ConcurrentMap<Integer, PartitionBatcher> batcherByPartition = new ConcurrentHashMap<>();
+	
+	public BatchingRemotingTransport(RemotingTransportSpi target, ScheduledExecutorService scheduler, long windowMicros, int maxBatchSize) {
+		if (maxBatchSize < 1) {
+			throw new IllegalArgumentException("maxBatchSize must be at least 1, was: " + maxBatchSize);
+		}
+		this.target = target;
+		this.scheduler = scheduler;
+		this.windowMicros = windowMicros;
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	@Override
+	public Observable<AstrixServiceInvocationResponse> submitRoutedRequest(AstrixServiceInvocationRequest request, RoutingKey routingKey) {
+		return Observable.create(subscriber -> {
+			getBatcher(routingKey).add(new PendingRequest(request, routingKey, subscriber));
+		});
+	}
+
+	@Override
+	public Observable<List<AstrixServiceInvocationResponse>> submitRoutedRequests(Collection<RoutedServiceInvocationRequest> requests) {
+		return target.submitRoutedRequests(requests);
+	}
+
+	@Override
+	public List<Observable<AstrixServiceInvocationResponse>> submitRoutedRequestsIndividually(Collection<RoutedServiceInvocationRequest> requests) {
+		return target.submitRoutedRequestsIndividually(requests);
+	}
+
+	@Override
+	public Observable<List<AstrixServiceInvocationResponse>> submitBroadcastRequest(AstrixServiceInvocationRequest request) {
+		return target.submitBroadcastRequest(request);
+	}
+	
+	@Override
+	public Observable<List<AstrixServiceInvocationResponse>> submitRoutedBatch(List<AstrixServiceInvocationRequest> requests, RoutingKey routingKey) {
+		return target.submitRoutedBatch(requests, routingKey);
+	}
+
+	@Override
+	public int partitionCount() {
+		return target.partitionCount();
+	}
+	
+	private PartitionBatcher getBatcher(RoutingKey routingKey) {
+		int partition = routingKey.hashCode() % Math.max(1, target.partitionCount());
+		PartitionBatcher result = batcherByPartition.get(partition);
+		if (result != null) {
+			return result;
+		}
+		return batcherByPartition.computeIfAbsent(partition, p -> new PartitionBatcher());
+	}
+	
+	private void submit(List<PendingRequest> batch) {
+		if (batch.size() == 1) {
+			PendingRequest request = batch.get(0);
+			target.submitRoutedRequest(request.request, request.routingKey).subscribe(request.subscriber);
+			return;
+		}
+		List<AstrixServiceInvocationRequest> requests = new ArrayList<>(batch.size());
+		for (PendingRequest pendingRequest : batch) {
+			requests.add(pendingRequest.request);
+		}
+		target.submitRoutedBatch(requests, batch.get(0).routingKey).subscribe(responses -> {
+			if (responses.size() != batch.size()) {
+				// Verified before emitting anything, hence no subscriber is both completed and failed
+				fail(batch, new ServiceUnavailableException("Expected " + batch.size() + " responses to batched request, got: " + responses.size()));
+				return;
+			}
+			for (int i = 0; i < batch.size(); i++) {
+				Subscriber<? super AstrixServiceInvocationResponse> subscriber = batch.get(i).subscriber;
+				subscriber.onNext(responses.get(i));
+				subscriber.onCompleted();
+			}
+		}, error -> fail(batch, error));
+	}
+	
+	private static void fail(List<PendingRequest> batch, Throwable error) {
+		for (PendingRequest pendingRequest : batch) {
+			pendingRequest.subscriber.onError(error);
+		}
+	}
+	
+	private class PartitionBatcher {
+		
+		private List<PendingRequest> pendingRequests = new ArrayList<>();
+		private ScheduledFuture<?> scheduledFlush;
+		
+		void add(PendingRequest request) {
+			List<PendingRequest> fullBatch = null;
+			synchronized (this) {
+				pendingRequests.add(request);
+				if (pendingRequests.size() >= maxBatchSize) {
+					fullBatch = takePendingRequests();
+				} else if (pendingRequests.size() == 1) {
+					scheduledFlush = scheduler.schedule(this::flush, windowMicros, TimeUnit.MICROSECONDS);
+				}
+			}
+			if (fullBatch != null) {
+				submit(fullBatch);
+			}
+		}
+		
+		private void flush() {
+			List<PendingRequest> batch;
+			synchronized (this) {
+				batch = takePendingRequests();
+			}
+			if (!batch.isEmpty()) {
+				submit(batch);
+			}
+		}
+		
+		private List<PendingRequest> takePendingRequests() {
+			if (scheduledFlush != null) {
+				scheduledFlush.cancel(false);
+				scheduledFlush = null;
+			}
+			List<PendingRequest> result = pendingRequests;
+			pendingRequests = new ArrayList<>();
+			return result;
+		}
+	}
+	
+	private static class PendingRequest {
+		private final AstrixServiceInvocationRequest request;
+		private final RoutingKey routingKey;
+		private final Subscriber<? super AstrixServiceInvocationResponse> subscriber;
+		
+		PendingRequest(AstrixServiceInvocationRequest request, RoutingKey routingKey, Subscriber<? super AstrixServiceInvocationResponse> subscriber) {
+			this.request = request;
+			this.routingKey = routingKey;
+			this.subscriber = subscriber;
+		}
+	}
+
+}
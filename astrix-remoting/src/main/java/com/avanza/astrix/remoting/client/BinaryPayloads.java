@@ -0,0 +1,63 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Type;
+
+import com.avanza.astrix.versioning.core.AstrixObjectSerializer;
+/**
+ * Helpers for the byte oriented payload form, see {@link AstrixObjectSerializer#supportsStreaming()}. <p>
+ * 
+ * Payloads are sent as the UTF-8 bytes written by the serializer which the transports copy as is,
+ * avoiding the char[] to String to byte[] round trip of the String form. Response bodies are streamed
+ * straight into the transport buffer when supported by the transport, see {@link StreamedPayload}.
+ * The byte form is negotiated using the {@link AstrixServiceInvocationRequestHeaders#BINARY_PAYLOADS} 
+ * header: The client sets the header on each request when its serializer supports the byte form, and the 
+ * server then replies using it and echoes the header. <p>
+ * 
+ * Arguments are sent in byte form only to servers that have echoed the header, which is tracked per member
+ * of a service since an acknowledgement from one server says nothing about the others, see {@link RemotingEngine}.
+ * All other servers receive arguments in String form, which is always accepted, hence old clients and 
+ * servers keep working.
+ */
+public final class BinaryPayloads {
+	
+	private BinaryPayloads() {
+	}
+	
+	public static byte[] serialize(AstrixObjectSerializer objectSerializer, Object element, int version) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+		objectSerializer.serialize(element, version, out);
+		return out.toByteArray();
+	}
+	
+	/**
+	 * Deserializes a payload in either the byte form or the form returned by {@link AstrixObjectSerializer#serialize(Object, int)}.
+	 */
+	public static <T> T deserialize(AstrixObjectSerializer objectSerializer, Object payload, Type type, int version) {
+		if (payload instanceof StreamedPayload) {
+			// Not written by a transport, e.g. an in-process invocation
+			payload = ((StreamedPayload) payload).toByteArray();
+		}
+		if (payload instanceof byte[] && objectSerializer.supportsStreaming()) {
+			return objectSerializer.deserialize(new ByteArrayInputStream((byte[]) payload), type, version);
+		}
+		return objectSerializer.deserialize(payload, type, version);
+	}
+
+}
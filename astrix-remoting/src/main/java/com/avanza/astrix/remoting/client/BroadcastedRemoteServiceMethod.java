@@ -18,13 +18,13 @@ package com.avanza.astrix.remoting.client;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import rx.Observable;
 import rx.functions.Func1;
 
 import com.avanza.astrix.core.AstrixRemoteResult;
 import com.avanza.astrix.core.RemoteResultReducer;
-import com.avanza.astrix.core.util.ReflectionUtil;
 
 /**
  * 
@@ -35,18 +35,22 @@ import com.avanza.astrix.core.util.ReflectionUtil;
 public class BroadcastedRemoteServiceMethod implements RemoteServiceMethod {
 	
 	private final String signature;
-	private final Class<? extends RemoteResultReducer> reducer;
+	private final Supplier<RemoteResultReducer<Object>> reducerFactory;
 	private final RemotingEngine remotingEngine;
 	private final Type returnType;
+	private final SerializationMetrics serializationMetrics;
 	
+	@SuppressWarnings("unchecked")
 	public BroadcastedRemoteServiceMethod(String signature,
 			Class<? extends RemoteResultReducer> reducer,
 			RemotingEngine remotingEngine, 
-			Type returnType) {
+			Type returnType,
+			SerializationMetrics serializationMetrics) {
 		this.signature = signature;
-		this.reducer = reducer;
+		this.reducerFactory = RemotingProxyUtil.reducerFactory((Class<? extends RemoteResultReducer<?>>) reducer);
 		this.remotingEngine = remotingEngine;
 		this.returnType = returnType;
+		this.serializationMetrics = serializationMetrics;
 	}
 
 	public String getSignature() {
@@ -54,7 +58,7 @@ public class BroadcastedRemoteServiceMethod implements RemoteServiceMethod {
 	}
 	
 	private RemoteResultReducer<?> newReducer() {
-		return ReflectionUtil.newInstance(this.reducer);
+		return reducerFactory.get();
 	}
 
 	@Override
@@ -65,8 +69,7 @@ public class BroadcastedRemoteServiceMethod implements RemoteServiceMethod {
 	private <T> Observable<T> submitBroadcastRequest(
 			AstrixServiceInvocationRequest request, Object[] args) throws InstantiationException,
 			IllegalAccessException {
-		request.setArguments(remotingEngine.marshall(args));
-		final RemoteResultReducer<T> reducer = (RemoteResultReducer<T>) newReducer();
+		request.setArguments(remotingEngine.marshallBroadcast(args, serializationMetrics));
 		Observable<List<AstrixServiceInvocationResponse>> responesObservable = remotingEngine.submitBroadcastRequest(request);
 		if (returnType.equals(Void.TYPE) || returnType.equals(Void.class)) {
 			return responesObservable.map(responses -> {
@@ -77,15 +80,16 @@ public class BroadcastedRemoteServiceMethod implements RemoteServiceMethod {
 		return responesObservable.map(responses -> {
 			List<AstrixRemoteResult<T>> unmarshalledResponses = new ArrayList<>();
 			for (AstrixServiceInvocationResponse response : responses) {
-				AstrixRemoteResult<T> result = remotingEngine.toRemoteResult(response, returnType);
+				AstrixRemoteResult<T> result = remotingEngine.toRemoteResult(response, returnType, serializationMetrics);
 				unmarshalledResponses.add(result);
 			}
+			RemoteResultReducer<T> reducer = (RemoteResultReducer<T>) newReducer();
 			return reducer.reduce(unmarshalledResponses);
 		});
 	}
 
 	private void readResponses(List<AstrixServiceInvocationResponse> responses) {
-		responses.forEach(res -> remotingEngine.toRemoteResult(res, returnType).getResult());
+		responses.forEach(res -> remotingEngine.toRemoteResult(res, returnType, serializationMetrics).getResult());
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.client;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.avanza.astrix.config.IntSetting;
+/**
+ * Deflate compression of large response bodies. <p>
+ * 
+ * Compression is opt-in on the server side, see {@link #COMPRESSION_THRESHOLD_BYTES}, and negotiated using the
+ * {@link AstrixServiceInvocationRequestHeaders#COMPRESSED_PAYLOADS} header: <p>
+ * 
+ * <ul>
+ * <li>The client sets the header to {@link #DEFLATE} on each request to tell that it accepts compressed response bodies</li>
+ * <li>The server compresses response bodies in byte form, see {@link BinaryPayloads}, that are at least as large as the threshold
+ *  and sets the header to {@link #DEFLATE} on the response</li>
+ * </ul>
+ * 
+ * A server never compresses the response to a client that did not ask for it, hence old clients keep working.
+ */
+public final class CompressedPayloads {
+	
+	public static final String DEFLATE = "deflate";
+	
+	/**
+	 * The minimum size, in bytes, of a response body for it to be compressed. Compression is disabled
+	 * when negative.
+	 */
+	public static final IntSetting COMPRESSION_THRESHOLD_BYTES = IntSetting.create("astrix.remoting.compression.thresholdBytes", -1);
+	
+	private CompressedPayloads() {
+	}
+	
+	public static boolean isCompressed(AstrixServiceInvocationResponse response) {
+		return DEFLATE.equals(response.getHeader(AstrixServiceInvocationRequestHeaders.COMPRESSED_PAYLOADS));
+	}
+	
+	public static byte[] compress(byte[] payload) {
+		Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+		try {
+			deflater.setInput(payload);
+			deflater.finish();
+			ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(payload.length / 4, 64));
+			byte[] buffer = new byte[8192];
+			while (!deflater.finished()) {
+				int length = deflater.deflate(buffer);
+				out.write(buffer, 0, length);
+			}
+			return out.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+	
+	public static byte[] decompress(byte[] payload) {
+		Inflater inflater = new Inflater();
+		try {
+			inflater.setInput(payload);
+			ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length * 4);
+			byte[] buffer = new byte[8192];
+			while (!inflater.finished()) {
+				int length = inflater.inflate(buffer);
+				if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new IllegalArgumentException("Truncated compressed payload");
+				}
+				out.write(buffer, 0, length);
+			}
+			return out.toByteArray();
+		} catch (DataFormatException e) {
+			throw new IllegalArgumentException("Invalid compressed payload", e);
+		} finally {
+			inflater.end();
+		}
+	}
+
+}
@@ -16,20 +16,19 @@
 package com.avanza.astrix.remoting.client;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.Array;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.*;
-import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import com.avanza.astrix.core.AstrixPartitionedRouting;
 import com.avanza.astrix.core.AstrixRemoteResult;
+import com.avanza.astrix.core.IncrementalRemoteResultReducer;
 import com.avanza.astrix.core.RemoteResultReducer;
 import com.avanza.astrix.core.remoting.RoutingKey;
 import com.avanza.astrix.core.util.ReflectionUtil;
 import rx.Observable;
-import rx.functions.Func1;
 /**
  * 
  * @author Elias Lindholm (elilin)
@@ -41,30 +40,34 @@ public class PartitionedRemoteServiceMethod implements RemoteServiceMethod {
 	private final String methodSignature;
 	private final RemotingEngine remotingEngine;
 	private final Type targetReturnType;
-	private final Class<? extends RemoteResultReducer<?>> reducerType;
-	private final ContainerType partitionedArgumentContainerType;
-	private final PartitionedRouter router;
+	private final Supplier<RemoteResultReducer<Object>> reducerFactory;
+	private final Supplier<IncrementalRemoteResultReducer<Object>> incrementalReducerFactory;
+	private final ArgumentPartitioner argumentPartitioner;
 	private final Method proxiedMethod;
+	private final SerializationMetrics serializationMetrics;
+	private volatile RoutingKey[] partitionRoutingKeys = new RoutingKey[0];
 
 	public PartitionedRemoteServiceMethod(int partitionedArgumentIndex,
 										  Method proxiedMethod,
 										  String methodSignature,
 										  RemotingEngine remotingEngine,
 										  Type targetReturnType,
-										  Method targetServiceMethod) {
+										  Method targetServiceMethod,
+										  SerializationMetrics serializationMetrics) {
 		this.partitionedArgumentIndex = partitionedArgumentIndex;
 		this.proxiedMethod = proxiedMethod;
 		this.methodSignature = methodSignature;
 		this.remotingEngine = remotingEngine;
 		this.targetReturnType = targetReturnType;
+		this.serializationMetrics = serializationMetrics;
 		AstrixPartitionedRouting partitionedRouting = getPartitionedRoutingAnnotation(proxiedMethod, partitionedArgumentIndex);
-		this.reducerType = getReducer(partitionedRouting, targetServiceMethod);
-		this.partitionedArgumentContainerType = getPartitionedArgumentContainerType(proxiedMethod, partitionedRouting);
-		this.router = createRouter(partitionedRouting);
+		Class<? extends RemoteResultReducer<?>> reducerType = getReducer(partitionedRouting, targetServiceMethod);
+		this.reducerFactory = RemotingProxyUtil.reducerFactory(reducerType);
+		this.incrementalReducerFactory = RemotingProxyUtil.incrementalReducerFactory(reducerType);
+		this.argumentPartitioner = createArgumentPartitioner(proxiedMethod, partitionedRouting);
 	}
 
-	private PartitionedRouter createRouter(AstrixPartitionedRouting partitionedRouting) {
-		Class<?> elementType = this.partitionedArgumentContainerType.getElementType();
+	private PartitionedRouter createRouter(AstrixPartitionedRouting partitionedRouting, Class<?> elementType) {
 		if (!partitionedRouting.routingMethod().isEmpty()) {
 			Method routingMethod;
 			try {
@@ -79,10 +82,12 @@ public class PartitionedRemoteServiceMethod implements RemoteServiceMethod {
 		return PartitionedRouter.identity();
 	}
 
-	private ContainerType getPartitionedArgumentContainerType(Method proxiedMethod, AstrixPartitionedRouting partitionBy) {
+	@SuppressWarnings("unchecked")
+	private ArgumentPartitioner createArgumentPartitioner(Method proxiedMethod, AstrixPartitionedRouting partitionBy) {
 		Class<?> partitionedArgumentType = proxiedMethod.getParameterTypes()[partitionedArgumentIndex];
 		if (partitionedArgumentType.isArray()) {
-			return new ArrayContainerType(partitionedArgumentType.getComponentType());
+			Class<?> elementType = partitionedArgumentType.getComponentType();
+			return ArgumentPartitioner.array(elementType, createRouter(partitionBy, elementType));
 		}
 		Class<? extends Collection<?>> collectionFactory = (Class<? extends Collection<?>>) partitionBy.collectionFactory();
 		if (!proxiedMethod.getParameterTypes()[partitionedArgumentIndex].isAssignableFrom(collectionFactory)) {
@@ -96,7 +101,8 @@ public class PartitionedRemoteServiceMethod implements RemoteServiceMethod {
 			throw new IllegalArgumentException("Illegal service method: " + ReflectionUtil.fullMethodName(proxiedMethod) + ".\nWhen defining a routingMethod for @AstrixPartitionedRouting the target Collection type must not be a raw type. \nwas: " + rawType);
 		}
 		ParameterizedType partitionedArgumentTypeParameters = (ParameterizedType) rawType;
-		return new CollectionContainerType(collectionFactory, (Class<?>)partitionedArgumentTypeParameters.getActualTypeArguments()[0]);
+		Class<?> elementType = (Class<?>) partitionedArgumentTypeParameters.getActualTypeArguments()[0];
+		return ArgumentPartitioner.collection(collectionFactory, createRouter(partitionBy, elementType));
 	}
 
 	private Class<? extends RemoteResultReducer<?>> getReducer(AstrixPartitionedRouting partitionBy, Method targetServiceMethod) {
@@ -126,218 +132,112 @@ public class PartitionedRemoteServiceMethod implements RemoteServiceMethod {
 		 * 2. Marshall arguments
 		 * 3. Execute requests
 		 */
-		ServiceInvocationPartitioner serviceInvocationPartitioner = new ServiceInvocationPartitioner();
-		List<RoutedServiceInvocationRequest> partitionInvocationRequest = serviceInvocationPartitioner.partitionInvocationRequest(invocationRequest, args);
-		Observable<List<AstrixServiceInvocationResponse>> serviceInvocationResponses = remotingEngine.submitRoutedRequests(partitionInvocationRequest);
+		List<RoutedServiceInvocationRequest> partitionInvocationRequest = partitionInvocationRequest(invocationRequest, args);
+		List<Observable<AstrixServiceInvocationResponse>> serviceInvocationResponses = remotingEngine.submitRoutedRequestsIndividually(partitionInvocationRequest);
 		return reduce(serviceInvocationResponses);
 	}
 
-	private <T> Observable<T> reduce(Observable<List<AstrixServiceInvocationResponse>> responses) {
+	private <T> Observable<T> reduce(List<Observable<AstrixServiceInvocationResponse>> responses) {
+		/*
+		 * Each response is unmarshalled on the thread that receives it, and folded into the
+		 * result as soon as it arrives. Hence responses delivered on different threads are
+		 * unmarshalled in parallel without a dedicated executor. Only the reduced result is emitted,
+		 * which retains the single emission semantics of RemotingTransportSpi#submitRoutedRequests.
+		 */
+		List<Observable<AstrixRemoteResult<T>>> results = new ArrayList<>(responses.size());
+		for (Observable<AstrixServiceInvocationResponse> response : responses) {
+			results.add(response.map(res -> remotingEngine.<T>toRemoteResult(res, targetReturnType, serializationMetrics)));
+		}
 		if (targetReturnType.equals(Void.TYPE) || targetReturnType.equals(Void.class)) {
-			return responses.map(responseList -> {
-				readResults(responseList);
+			return Observable.merge(results).toList().map(resultList -> {
+				resultList.forEach(AstrixRemoteResult::getResult);
 				return null;
 			});
 		}
-		final RemoteResultReducer<T> reducer = newRemoteResultReducer();
-		return responses.map(responseList -> {
-			List<AstrixRemoteResult<T>> unmarshalledResponses = new ArrayList<>(responseList.size());
-			for (AstrixServiceInvocationResponse response : responseList) {
-				AstrixRemoteResult<T> result = remotingEngine.toRemoteResult(response, targetReturnType);
-				unmarshalledResponses.add(result);
-			}
-			return reducer.reduce(unmarshalledResponses);
-		});
-		
-	}
-
-	private void readResults(List<AstrixServiceInvocationResponse> responseList) {
-		responseList.forEach(res -> remotingEngine.toRemoteResult(res, targetReturnType).getResult());
+		return Observable.merge(results)
+						 .collect(this::<T>newResultAccumulator, ResultAccumulator::accumulate)
+						 .map(ResultAccumulator::finish);
 	}
 
-	@SuppressWarnings("unchecked")
-	private <T> RemoteResultReducer<T> newRemoteResultReducer() {
-		return (RemoteResultReducer<T>) ReflectionUtil.newInstance(this.reducerType);
-	}
-
-	private ContainerBuilder newCollectionInstance() {
-		return partitionedArgumentContainerType.newInstance();
-	}
-
-	private class RoutedServiceInvocationRequestBuilder {
-		private final ContainerBuilder routingKeys;
-		private final RoutingKey targetPartitionRoutingKey;
-
-		public RoutedServiceInvocationRequestBuilder(ContainerBuilder keys, int targetPartition) {
-			this.routingKeys = keys;
-			this.targetPartitionRoutingKey = RoutingKey.create(targetPartition);
-		}
-
-		public void addKey(Object requestedKey) {
-			this.routingKeys.add(requestedKey);
-		}
-		
-		private RoutedServiceInvocationRequest createInvocationRequest(
-				AstrixServiceInvocationRequest invocationRequest,
-				Object[] unpartitionedArguments) {
-			AstrixServiceInvocationRequest partitionedRequest = new AstrixServiceInvocationRequest();
-			partitionedRequest.setAllHeaders(invocationRequest.getHeaders());
-			Object[] requestForPartition = Arrays.copyOf(unpartitionedArguments, unpartitionedArguments.length);
-			requestForPartition[partitionedArgumentIndex] = this.routingKeys.buildTarget();
-			partitionedRequest.setArguments(remotingEngine.marshall(requestForPartition));
-			return new RoutedServiceInvocationRequest(partitionedRequest, targetPartitionRoutingKey);
+	private List<RoutedServiceInvocationRequest> partitionInvocationRequest(AstrixServiceInvocationRequest invocationRequest, Object[] args) {
+		int partitionCount = remotingEngine.partitionCount();
+		Object[] argumentByPartition = argumentPartitioner.partition(args[partitionedArgumentIndex], partitionCount);
+		RoutingKey[] routingKeys = getPartitionRoutingKeys(partitionCount);
+		List<RoutedServiceInvocationRequest> result = new ArrayList<>(partitionCount);
+		for (int partition = 0; partition < partitionCount; partition++) {
+			if (argumentByPartition[partition] == null) {
+				continue;
+			}
+			AstrixServiceInvocationRequest partitionedRequest = invocationRequest.copyHeaders();
+			Object[] requestForPartition = Arrays.copyOf(args, args.length);
+			requestForPartition[partitionedArgumentIndex] = argumentByPartition[partition];
+			partitionedRequest.setArguments(remotingEngine.marshall(requestForPartition, routingKeys[partition], serializationMetrics));
+			result.add(new RoutedServiceInvocationRequest(partitionedRequest, routingKeys[partition]));
 		}
+		return result;
 	}
 	
-	private class ServiceInvocationPartitioner {
-		private final RoutedServiceInvocationRequestBuilder[] requests;
-		
-		public ServiceInvocationPartitioner() {
-			this.requests = new RoutedServiceInvocationRequestBuilder[remotingEngine.partitionCount()];
-		}
-
-		public List<RoutedServiceInvocationRequest> partitionInvocationRequest(AstrixServiceInvocationRequest invocationRequest, Object[] args) {
-			partitionedArgumentContainerType.iterateContainer(getContainerInstance(args), new Consumer<Object>() {
-				@Override
-				public void accept(Object element) {
-					addElement(element);
-				}
-			});
-			List<RoutedServiceInvocationRequest> result = new LinkedList<>();
-			for (RoutedServiceInvocationRequestBuilder routedInvocationReqeustBuilder : requests) {
-				if (routedInvocationReqeustBuilder != null) {
-					result.add(routedInvocationReqeustBuilder.createInvocationRequest(invocationRequest, args));
-				}
+	private RoutingKey[] getPartitionRoutingKeys(int partitionCount) {
+		RoutingKey[] result = this.partitionRoutingKeys;
+		if (result.length != partitionCount) {
+			result = new RoutingKey[partitionCount];
+			for (int partition = 0; partition < partitionCount; partition++) {
+				result[partition] = RoutingKey.create(partition);
 			}
-			return result;
-		}
-		
-		private Object getContainerInstance(Object[] args) {
-			return args[partitionedArgumentIndex];
+			this.partitionRoutingKeys = result;
 		}
+		return result;
+	}
 
-		public void addElement(Object element) {
-			RoutingKey routingKey = router.getRoutingKey(element);
-			int targetPartition = routingKey.hashCode() % requests.length;
-			RoutedServiceInvocationRequestBuilder invocationRequestBuilderForPartition = this.requests[targetPartition];
-			if (invocationRequestBuilderForPartition == null) {
-				invocationRequestBuilderForPartition = new RoutedServiceInvocationRequestBuilder(newCollectionInstance(), targetPartition);
-				this.requests[targetPartition] = invocationRequestBuilderForPartition;
-				
-			}
-			invocationRequestBuilderForPartition.addKey(element);
+	@SuppressWarnings("unchecked")
+	private <T> ResultAccumulator<T> newResultAccumulator() {
+		if (incrementalReducerFactory != null) {
+			return new IncrementalResultAccumulator<>((IncrementalRemoteResultReducer<T>) incrementalReducerFactory.get());
 		}
-
+		return new BufferingResultAccumulator<>((RemoteResultReducer<T>) reducerFactory.get(), remotingEngine.partitionCount());
 	}
-	
-	private interface ContainerType {
-		ContainerBuilder newInstance();
-		void iterateContainer(Object container, Consumer<Object> consumer);
-		Class<?> getElementType();
+
+	private interface ResultAccumulator<T> {
+		void accumulate(AstrixRemoteResult<T> partialResult);
+		T finish();
 	}
 	
-	private static class CollectionContainerType implements ContainerType {
-		private final Class<?> elementType;
-		private final Class<? extends Collection<?>> collectionFactory;
+	private static class IncrementalResultAccumulator<T> implements ResultAccumulator<T> {
+		private final IncrementalRemoteResultReducer<T> reducer;
 		
-		public CollectionContainerType(Class<? extends Collection<?>> collectionFactory, Class<?> elementType) {
-			this.collectionFactory = Objects.requireNonNull(collectionFactory);
-			this.elementType = Objects.requireNonNull(elementType);
+		public IncrementalResultAccumulator(IncrementalRemoteResultReducer<T> reducer) {
+			this.reducer = reducer;
 		}
 
 		@Override
-		public ContainerBuilder newInstance() {
-			return new CollectionContainerBuilder((Collection<? super Object>) ReflectionUtil.newInstance(this.collectionFactory));
+		public void accumulate(AstrixRemoteResult<T> partialResult) {
+			reducer.accumulate(partialResult);
 		}
 
 		@Override
-		public void iterateContainer(Object container, Consumer<Object> consumer) {
-			for (Object element : (Collection<? extends Object>) container) {
-				consumer.accept(element);
-			}
-		}
-		
-		@Override
-		public Class<?> getElementType() {
-			return elementType;
+		public T finish() {
+			return reducer.finish();
 		}
 	}
 	
-	private static class ArrayContainerType implements ContainerType {
-		
-		private final Class<?> elementType;
+	private static class BufferingResultAccumulator<T> implements ResultAccumulator<T> {
+		private final RemoteResultReducer<T> reducer;
+		private final List<AstrixRemoteResult<T>> results;
 		
-		public ArrayContainerType(Class<?> elementType) {
-			this.elementType = elementType;
+		public BufferingResultAccumulator(RemoteResultReducer<T> reducer, int expectedResultCount) {
+			this.reducer = reducer;
+			this.results = new ArrayList<>(expectedResultCount);
 		}
 
 		@Override
-		public ContainerBuilder newInstance() {
-			return new ArrayContainerBuilder(elementType);
+		public void accumulate(AstrixRemoteResult<T> partialResult) {
+			results.add(partialResult);
 		}
 
 		@Override
-		public void iterateContainer(Object container, Consumer<Object> consumer) {
-			for (int i = 0; i < Array.getLength(container); i++) {
-				consumer.accept(Array.get(container, i));
-			}
-		}
-		
-		@Override
-		public Class<?> getElementType() {
-			return this.elementType;
+		public T finish() {
+			return reducer.reduce(results);
 		}
 	}
-	
-	private static class ArrayContainerBuilder extends ContainerBuilder {
-		
-		private final Class<?> elementType;
-		private final List<Object> elements = new ArrayList<>();
-		
-		public ArrayContainerBuilder(Class<?> elementType) {
-			this.elementType = elementType;
-		}
-		
-		@Override
-		void add(Object element) {
-			elements.add(element);
-		}
-		
-		@Override
-		Object buildTarget() {
-			Object array = Array.newInstance(elementType, elements.size());
-			int nextIndex = 0;
-			for (Object element : elements) {
-				Array.set(array, nextIndex, element);
-				nextIndex++;
-			}
-			return array;
-		}
-	}
-	
-	private static abstract class ContainerBuilder {
-		
-		abstract void add(Object element);
-		
-		abstract Object buildTarget();
-	}
-	
-	private static class CollectionContainerBuilder extends ContainerBuilder {
-		private Collection<? super Object> collection;
 
-		public CollectionContainerBuilder(Collection<? super Object> collection) {
-			this.collection = collection;
-		}
-		
-		@Override
-		void add(Object element) {
-			this.collection.add(element);
-		}
-		
-		@Override
-		Object buildTarget() {
-			return collection;
-		}
-	}
-	
 }
@@ -31,7 +31,11 @@ abstract class PartitionedRouter {
 	private PartitionedRouter() {
 	}
 	
-	abstract RoutingKey getRoutingKey(Object element);
+	/**
+	 * Returns the hash used to route a given element, which is the same hash as used by 
+	 * {@link RoutingKey#create(Object)} for the routing key of the element.
+	 */
+	abstract int routingHash(Object element);
 	
 	/**
 	 * Uses the given argument as routing key.<p>
@@ -48,8 +52,8 @@ abstract class PartitionedRouter {
 	
 	private static class Identity extends PartitionedRouter {
 		@Override
-		RoutingKey getRoutingKey(Object element) {
-			return RoutingKey.create(element);
+		int routingHash(Object element) {
+			return element.hashCode();
 		}
 	}
 	private static class RoutingMethod extends PartitionedRouter {
@@ -58,10 +62,10 @@ abstract class PartitionedRouter {
 			this.method = Objects.requireNonNull(method);
 		}
 		@Override
-		RoutingKey getRoutingKey(Object element) {
+		int routingHash(Object element) {
 			try {
 				Object result = ReflectionUtil.invokeMethod(method, element, null);
-				return RoutingKey.create(result);
+				return result.hashCode();
 			} catch (Throwable e) {
 				throw new RuntimeException("Failed to invoke routing Method on: " + element, e);
 			}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.client;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import rx.Observable;
+/**
+ * Everything required to invoke a given proxied method that can be computed up front, i.e. when
+ * the {@link RemotingProxy} is created. <p>
+ * 
+ * The headers are shared by all requests created from a template, see {@link AstrixServiceInvocationRequest}, and
+ * the strategy used to adapt the result to the return type of the proxied method is resolved once, which
+ * keeps the per invocation work in {@link RemotingProxy} down to a minimum. <p>
+ * 
+ * The method signature, and the question for the envelope formats accepted by the server, are left out of the
+ * request headers for servers that have acknowledged the use of {@link ServiceMethodIds} and their envelope
+ * formats, see {@link RemotingEngine}. <p>
+ */
+final class RemoteInvocationTemplate {
+	
+	private final RemoteServiceMethod remoteServiceMethod;
+	private final Map<String, String> headers;
+	private final Map<String, String> compactHeaders;
+	private final ResultAdapter resultAdapter;
+	
+	RemoteInvocationTemplate(RemoteServiceMethod remoteServiceMethod, String serviceApi, int apiVersion, RemotingEngine remotingEngine, ResultAdapter resultAdapter) {
+		this.remoteServiceMethod = remoteServiceMethod;
+		this.resultAdapter = resultAdapter;
+		Map<String, String> compactHeaders = new HashMap<>(8);
+		compactHeaders.put(AstrixServiceInvocationRequestHeaders.API_VERSION, Integer.toString(apiVersion));
+		compactHeaders.put(AstrixServiceInvocationRequestHeaders.SERVICE_API, serviceApi);
+		compactHeaders.put(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_ID, ServiceMethodIds.methodId(remoteServiceMethod.getSignature()));
+		if (remotingEngine.acceptsBinaryPayloads()) {
+			compactHeaders.put(AstrixServiceInvocationRequestHeaders.BINARY_PAYLOADS, "true");
+		}
+		compactHeaders.put(AstrixServiceInvocationRequestHeaders.COMPRESSED_PAYLOADS, CompressedPayloads.DEFLATE);
+		Map<String, String> headers = new HashMap<>(compactHeaders);
+		headers.put(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_SIGNATURE, remoteServiceMethod.getSignature());
+		headers.put(AstrixServiceInvocationRequestHeaders.ENVELOPE_FORMATS, "true");
+		this.compactHeaders = Collections.unmodifiableMap(compactHeaders);
+		this.headers = Collections.unmodifiableMap(headers);
+	}
+	
+	Object invoke(Object[] args) throws Exception {
+		Observable<?> result = remoteServiceMethod.invoke(new AstrixServiceInvocationRequest(compactHeaders, headers), args);
+		return resultAdapter.adapt(result);
+	}
+	
+	/**
+	 * Adapts the result of a remote invocation to the return type of the proxied method.
+	 */
+	@FunctionalInterface
+	interface ResultAdapter {
+		Object adapt(Observable<?> result) throws Exception;
+	}
+
+}
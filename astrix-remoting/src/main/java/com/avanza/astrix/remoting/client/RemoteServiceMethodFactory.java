@@ -39,24 +39,24 @@ public class RemoteServiceMethodFactory {
 	}
 
 	public RemoteServiceMethod createRemoteServiceMethod(
-			Class<?> targetServiceType, Method proxiedMethod, Type targetReturnType) {
+			Class<?> targetServiceType, Method proxiedMethod, Type targetReturnType, SerializationMetrics serializationMetrics) {
 		String methodSignature = ReflectionUtil.methodSignatureWithoutReturnType(proxiedMethod);
 		if (proxiedMethod.isAnnotationPresent(AstrixBroadcast.class)) {
 			Method targetServiceMethod = ReflectionUtil.getMethod(targetServiceType, proxiedMethod.getName(),proxiedMethod.getParameterTypes());
 			return new BroadcastedRemoteServiceMethod(methodSignature,
 					getRemoteResultReducerClass(targetServiceMethod),
-					remotingEngine, targetReturnType);
+					remotingEngine, targetReturnType, serializationMetrics);
 		}
 		int partitionedByArgumentIndex = getPartitionedByAnnotation(proxiedMethod);
 		if (partitionedByArgumentIndex >= 0) {
 			Method targetServiceMethod = ReflectionUtil.getMethod(targetServiceType, proxiedMethod.getName(),proxiedMethod.getParameterTypes());
-			return new PartitionedRemoteServiceMethod(partitionedByArgumentIndex, proxiedMethod, methodSignature, remotingEngine, targetReturnType, targetServiceMethod);
+			return new PartitionedRemoteServiceMethod(partitionedByArgumentIndex, proxiedMethod, methodSignature, remotingEngine, targetReturnType, targetServiceMethod, serializationMetrics);
 		}
 		if (proxiedMethod.isAnnotationPresent(AstrixRoutingStrategy.class)) {
 			RoutingStrategy routingStrategy = createRoutingStrategy(proxiedMethod);
-			return new RoutedRemoteServiceMethod(methodSignature, routingStrategy.create(proxiedMethod), remotingEngine, targetReturnType);
+			return new RoutedRemoteServiceMethod(methodSignature, routingStrategy.create(proxiedMethod), remotingEngine, targetReturnType, serializationMetrics);
 		}
-		return new RoutedRemoteServiceMethod(methodSignature, defaultRoutingStrategy.create(proxiedMethod), remotingEngine, targetReturnType);
+		return new RoutedRemoteServiceMethod(methodSignature, defaultRoutingStrategy.create(proxiedMethod), remotingEngine, targetReturnType, serializationMetrics);
 	}
 
 	private RoutingStrategy createRoutingStrategy(Method proxiedMethod) {
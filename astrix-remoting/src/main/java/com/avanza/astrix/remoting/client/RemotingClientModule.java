@@ -18,8 +18,11 @@ package com.avanza.astrix.remoting.client;
 
 import org.kohsuke.MetaInfServices;
 
+import com.avanza.astrix.beans.config.AstrixConfig;
 import com.avanza.astrix.beans.core.ReactiveTypeConverter;
 import com.avanza.astrix.context.AstrixContextPlugin;
+import com.avanza.astrix.context.mbeans.MBeanExporter;
+import com.avanza.astrix.context.metrics.Metrics;
 import com.avanza.astrix.modules.ModuleContext;
 import com.avanza.astrix.versioning.core.ObjectSerializerFactory;
 
@@ -32,6 +35,9 @@ public class RemotingClientModule implements AstrixContextPlugin {
 		
 		moduleContext.importType(ObjectSerializerFactory.class);
 		moduleContext.importType(ReactiveTypeConverter.class);
+		moduleContext.importType(Metrics.class);
+		moduleContext.importType(MBeanExporter.class);
+		moduleContext.importType(AstrixConfig.class);
 		
 		moduleContext.export(RemotingProxyFactory.class);
 	}
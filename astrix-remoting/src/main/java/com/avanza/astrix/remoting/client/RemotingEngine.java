@@ -16,7 +16,14 @@
 package com.avanza.astrix.remoting.client;
 
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import rx.Observable;
 
@@ -31,9 +38,25 @@ public final class RemotingEngine {
 	
 	// TODO: find suitable name for this abstraction
 	
+	private static final Object[] NO_ARGUMENTS = new Object[0];
+	
 	private final RemotingTransport serviceTransport;
 	private final AstrixObjectSerializer objectSerializer;
 	private final int apiVersion;
+	/*
+	 * Index of each member that has acknowledged the use of ServiceMethodIds. Requests to all other members
+	 * also identifies the invoked method by its signature, since an old server ignores the id.
+	 */
+	private final Set<Integer> membersUsingServiceMethodIds = ConcurrentHashMap.newKeySet();
+	/*
+	 * The envelope formats acknowledged by each member. Requests to all other members are sent using java serialization,
+	 * since an old server only accepts java serialized requests, see AstrixServiceInvocationRequest.acceptsEnvelopeFormat.
+	 */
+	private final Map<Integer, Set<String>> envelopeFormatsByMember = new ConcurrentHashMap<>();
+	/*
+	 * Index of each member that has acknowledged that it accepts arguments in byte form, see BinaryPayloads. 
+	 */
+	private final Set<Integer> membersAcceptingBinaryPayloads = ConcurrentHashMap.newKeySet();
 	
 	public RemotingEngine(RemotingTransport serviceTransport, AstrixObjectSerializer objectSerializer, int apiVersion) {
 		this.serviceTransport = serviceTransport;
@@ -41,7 +64,11 @@ public final class RemotingEngine {
 		this.apiVersion = apiVersion;
 	}
 
-	protected final <T> AstrixRemoteResult<T> toRemoteResult(AstrixServiceInvocationResponse response, Type returnType) {
+	final boolean acceptsBinaryPayloads() {
+		return objectSerializer.supportsStreaming();
+	}
+	
+	protected final <T> AstrixRemoteResult<T> toRemoteResult(AstrixServiceInvocationResponse response, Type returnType, SerializationMetrics serializationMetrics) {
 		if (response.isServiceUnavailable()) {
 			return AstrixRemoteResult.unavailable(response.getExceptionMsg(), CorrelationId.valueOf(response.getCorrelationId()));
 		}
@@ -52,29 +79,61 @@ public final class RemotingEngine {
 		if (returnType.equals(Void.TYPE) || returnType.equals(Void.class)) {
 			return AstrixRemoteResult.voidResult();
 		}
-		T result = unmarshall(response, returnType, apiVersion);
+		T result = unmarshall(response, returnType, apiVersion, serializationMetrics);
 		return AstrixRemoteResult.successful(result);
 	}
 	
-	protected final Object[] marshall(Object[] elements) {
-		if (elements == null) {
+	/**
+	 * Marshalls the arguments of a request routed using a given routing key.
+	 */
+	protected final Object[] marshall(Object[] elements, RoutingKey routingKey, SerializationMetrics serializationMetrics) {
+		return marshall(elements, membersAcceptingBinaryPayloads.contains(memberOf(routingKey, partitionCount())), serializationMetrics);
+	}
+	
+	/**
+	 * Marshalls the arguments of a request broadcasted to all members.
+	 */
+	protected final Object[] marshallBroadcast(Object[] elements, SerializationMetrics serializationMetrics) {
+		int partitionCount = partitionCount();
+		boolean binaryPayloads = true;
+		for (int member = 0; member < partitionCount && binaryPayloads; member++) {
+			binaryPayloads = membersAcceptingBinaryPayloads.contains(member);
+		}
+		return marshall(elements, binaryPayloads, serializationMetrics);
+	}
+	
+	private Object[] marshall(Object[] elements, boolean binaryPayloads, SerializationMetrics serializationMetrics) {
+		if (elements == null || elements.length == 0) {
 			// No argument method
-			return new Object[0];
+			return NO_ARGUMENTS;
 		}
+		long start = serializationMetrics.start();
 		Object[] result = new Object[elements.length];
 		for (int i = 0; i < result.length; i++) {
-			result[i] = this.objectSerializer.serialize(elements[i], apiVersion);
+			result[i] = binaryPayloads ? BinaryPayloads.serialize(objectSerializer, elements[i], apiVersion) 
+									   : this.objectSerializer.serialize(elements[i], apiVersion);
 		}
+		serializationMetrics.serialized(start, result);
 		return result;
 	}
 
-	private <T> T unmarshall(AstrixServiceInvocationResponse response, Type returnType, int version) {
-		return objectSerializer.deserialize(response.getResponseBody(), returnType, version);
+	private <T> T unmarshall(AstrixServiceInvocationResponse response, Type returnType, int version, SerializationMetrics serializationMetrics) {
+		Object responseBody = response.getResponseBody();
+		if (CompressedPayloads.isCompressed(response)) {
+			long start = serializationMetrics.start();
+			responseBody = CompressedPayloads.decompress((byte[]) responseBody);
+			serializationMetrics.decompressed(start);
+		}
+		long start = serializationMetrics.start();
+		T result = BinaryPayloads.deserialize(objectSerializer, responseBody, returnType, version);
+		serializationMetrics.deserialized(start, responseBody);
+		return result;
 	}
 	
 	protected final ServiceInvocationException createClientSideException(AstrixServiceInvocationResponse response, int version) {
 		if (response.getException() != null) {
-			ServiceInvocationException exception = objectSerializer.deserialize(response.getException(), 
+			ServiceInvocationException exception = BinaryPayloads.deserialize(objectSerializer, 
+																		response.getException(), 
 																		ServiceInvocationException.class, 
 																		version);
 			return exception;
@@ -83,15 +142,149 @@ public final class RemotingEngine {
 	}
 	
 	final Observable<AstrixServiceInvocationResponse> submitRoutedRequest(AstrixServiceInvocationRequest request, RoutingKey routingKey) {
-		return this.serviceTransport.submitRoutedRequest(request, routingKey);
+		int member = memberOf(routingKey, partitionCount());
+		prepareRequest(request, member);
+		return this.serviceTransport.submitRoutedRequest(request, routingKey)
+									.doOnNext(response -> acknowledged(member, request, response))
+									.doOnError(e -> negotiationFailed(member));
 	}
 	
 	final Observable<List<AstrixServiceInvocationResponse>> submitRoutedRequests(List<RoutedServiceInvocationRequest> requests) {
+		// The responses can't be associated with a member, hence they don't acknowledge the use of ServiceMethodIds or envelope formats
+		int partitionCount = partitionCount();
+		for (RoutedServiceInvocationRequest request : requests) {
+			prepareRequest(request.getRequest(), memberOf(request.getRoutingkey(), partitionCount));
+		}
 		return this.serviceTransport.submitRoutedRequests(requests);
 	}
 
+	final List<Observable<AstrixServiceInvocationResponse>> submitRoutedRequestsIndividually(List<RoutedServiceInvocationRequest> requests) {
+		int partitionCount = partitionCount();
+		int[] members = new int[requests.size()];
+		for (int i = 0; i < members.length; i++) {
+			RoutedServiceInvocationRequest request = requests.get(i);
+			members[i] = memberOf(request.getRoutingkey(), partitionCount);
+			prepareRequest(request.getRequest(), members[i]);
+		}
+		List<Observable<AstrixServiceInvocationResponse>> responses = this.serviceTransport.submitRoutedRequestsIndividually(requests);
+		List<Observable<AstrixServiceInvocationResponse>> result = new ArrayList<>(responses.size());
+		for (int i = 0; i < members.length; i++) {
+			int member = members[i];
+			AstrixServiceInvocationRequest request = requests.get(i).getRequest();
+			result.add(responses.get(i).doOnNext(response -> acknowledged(member, request, response))
+									   .doOnError(e -> negotiationFailed(member)));
+		}
+		return result;
+	}
+
 	final Observable<List<AstrixServiceInvocationResponse>> submitBroadcastRequest(AstrixServiceInvocationRequest request) {
-		return this.serviceTransport.submitBroadcastRequest(request);
+		int partitionCount = partitionCount();
+		Set<String> acceptedEnvelopeFormats = null;
+		for (int member = 0; member < partitionCount; member++) {
+			Set<String> memberEnvelopeFormats = envelopeFormatsByMember.get(member);
+			if (!membersUsingServiceMethodIds.contains(member) || memberEnvelopeFormats == null) {
+				request.includeNegotiationHeaders();
+				acceptedEnvelopeFormats = null;
+				break;
+			}
+			acceptedEnvelopeFormats = intersection(acceptedEnvelopeFormats, memberEnvelopeFormats);
+		}
+		request.setAcceptedEnvelopeFormats(acceptedEnvelopeFormats);
+		return this.serviceTransport.submitBroadcastRequest(request).doOnNext(responses -> {
+			// The responses can't be associated with a member, hence only an acknowledgement from all members is recorded
+			if (responses.size() != partitionCount) {
+				return;
+			}
+			boolean serviceMethodIds = true;
+			boolean binaryPayloads = true;
+			boolean envelopeFormatsAcknowledged = true;
+			Set<String> envelopeFormats = null;
+			for (AstrixServiceInvocationResponse response : responses) {
+				serviceMethodIds &= acknowledgesServiceMethodIds(response);
+				binaryPayloads &= acknowledgesBinaryPayloads(response);
+				Set<String> responseEnvelopeFormats = acknowledgedEnvelopeFormats(response);
+				if (responseEnvelopeFormats == null) {
+					envelopeFormatsAcknowledged = false;
+				} else {
+					envelopeFormats = intersection(envelopeFormats, responseEnvelopeFormats);
+				}
+			}
+			for (int member = 0; member < partitionCount; member++) {
+				if (serviceMethodIds) {
+					membersUsingServiceMethodIds.add(member);
+				}
+				if (binaryPayloads) {
+					membersAcceptingBinaryPayloads.add(member);
+				}
+				if (envelopeFormatsAcknowledged) {
+					envelopeFormatsByMember.put(member, envelopeFormats);
+				}
+			}
+		});
+	}
+	
+	private static int memberOf(RoutingKey routingKey, int partitionCount) {
+		return routingKey.hashCode() % partitionCount;
+	}
+	
+	private void prepareRequest(AstrixServiceInvocationRequest request, int member) {
+		Set<String> acceptedEnvelopeFormats = envelopeFormatsByMember.get(member);
+		if (!membersUsingServiceMethodIds.contains(member) || acceptedEnvelopeFormats == null) {
+			request.includeNegotiationHeaders();
+		}
+		request.setAcceptedEnvelopeFormats(acceptedEnvelopeFormats);
+	}
+	
+	private void acknowledged(int member, AstrixServiceInvocationRequest request, AstrixServiceInvocationResponse response) {
+		// A member that stops acknowledging the ids, for instance when restarted using an old version, receives the signature again
+		if (acknowledgesServiceMethodIds(response)) {
+			membersUsingServiceMethodIds.add(member);
+		} else {
+			membersUsingServiceMethodIds.remove(member);
+		}
+		if (acknowledgesBinaryPayloads(response)) {
+			membersAcceptingBinaryPayloads.add(member);
+		} else {
+			membersAcceptingBinaryPayloads.remove(member);
+		}
+		Set<String> envelopeFormats = acknowledgedEnvelopeFormats(response);
+		if (envelopeFormats != null) {
+			envelopeFormatsByMember.put(member, envelopeFormats);
+		} else if (request.getHeader(AstrixServiceInvocationRequestHeaders.ENVELOPE_FORMATS) != null) {
+			envelopeFormatsByMember.remove(member);
+		}
+	}
+	
+	private void negotiationFailed(int member) {
+		// For instance an old server that fails to decode a request in an unknown envelope format
+		membersUsingServiceMethodIds.remove(member);
+		membersAcceptingBinaryPayloads.remove(member);
+		envelopeFormatsByMember.remove(member);
+	}
+	
+	private static boolean acknowledgesServiceMethodIds(AstrixServiceInvocationResponse response) {
+		return "true".equals(response.getHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_IDS));
+	}
+	
+	private static boolean acknowledgesBinaryPayloads(AstrixServiceInvocationResponse response) {
+		return "true".equals(response.getHeader(AstrixServiceInvocationRequestHeaders.BINARY_PAYLOADS));
+	}
+	
+	private static Set<String> acknowledgedEnvelopeFormats(AstrixServiceInvocationResponse response) {
+		String envelopeFormats = response.getHeader(AstrixServiceInvocationRequestHeaders.ENVELOPE_FORMATS);
+		if (envelopeFormats == null) {
+			return null;
+		}
+		return Collections.unmodifiableSet(new HashSet<>(Arrays.asList(envelopeFormats.split(","))));
+	}
+	
+	private static Set<String> intersection(Set<String> envelopeFormats, Set<String> otherEnvelopeFormats) {
+		if (envelopeFormats == null || envelopeFormats.equals(otherEnvelopeFormats)) {
+			return otherEnvelopeFormats;
+		}
+		Set<String> result = new HashSet<>(envelopeFormats);
+		result.retainAll(otherEnvelopeFormats);
+		return Collections.unmodifiableSet(result);
 	}
 
 	public int partitionCount() {
@@ -20,8 +20,8 @@ import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -32,6 +32,7 @@ import com.avanza.astrix.beans.core.ReactiveTypeConverter;
 import com.avanza.astrix.core.AstrixCallStackTrace;
 import com.avanza.astrix.core.remoting.RoutingStrategy;
 import com.avanza.astrix.core.util.ReflectionUtil;
+import com.avanza.astrix.remoting.client.RemoteInvocationTemplate.ResultAdapter;
 import com.avanza.astrix.versioning.core.AstrixObjectSerializer;
 
 import rx.Observable;
@@ -46,12 +47,16 @@ public class RemotingProxy implements InvocationHandler {
 	
 	private final int apiVersion;
 	private final String serviceApi;
-	private final ConcurrentMap<Method, RemoteServiceMethod> remoteServiceMethodByMethod = new ConcurrentHashMap<>();
+	private final Map<Method, RemoteInvocationTemplate> invocationTemplateByMethod = new HashMap<>();
 	private final RemoteServiceMethodFactory remoteServiceMethodFactory;
 	private final ReactiveTypeConverter reactiveTypeConverter;
 
 	public static <T> T create(Class<T> proxyApi, Class<?> targetApi, RemotingTransport transport, AstrixObjectSerializer objectSerializer, RoutingStrategy defaultRoutingStrategy, ReactiveTypeConverter reactiveTypeConverter) {
-		RemotingProxy handler = new RemotingProxy(proxyApi, targetApi, objectSerializer, transport, defaultRoutingStrategy, reactiveTypeConverter);
+		return create(proxyApi, targetApi, transport, objectSerializer, defaultRoutingStrategy, reactiveTypeConverter, SerializationMetricsFactory.noMetrics());
+	}
+	
+	public static <T> T create(Class<T> proxyApi, Class<?> targetApi, RemotingTransport transport, AstrixObjectSerializer objectSerializer, RoutingStrategy defaultRoutingStrategy, ReactiveTypeConverter reactiveTypeConverter, SerializationMetricsFactory serializationMetricsFactory) {
+		RemotingProxy handler = new RemotingProxy(proxyApi, targetApi, objectSerializer, transport, defaultRoutingStrategy, reactiveTypeConverter, serializationMetricsFactory);
 		T serviceProxy = (T) Proxy.newProxyInstance(RemotingProxy.class.getClassLoader(), new Class[]{proxyApi}, handler);
 		return serviceProxy;
 	}
@@ -61,7 +66,8 @@ public class RemotingProxy implements InvocationHandler {
 							    AstrixObjectSerializer objectSerializer,
 							    RemotingTransport AstrixServiceTransport,
 							    RoutingStrategy defaultRoutingStrategy,
-							    ReactiveTypeConverter reactiveTypeConverter) {
+							    ReactiveTypeConverter reactiveTypeConverter,
+							    SerializationMetricsFactory serializationMetricsFactory) {
 		this.reactiveTypeConverter = reactiveTypeConverter;
 		this.serviceApi = targetServiceApi.getName();
 		this.apiVersion = objectSerializer.version();
@@ -76,8 +82,9 @@ public class RemotingProxy implements InvocationHandler {
 		Class<?> targetServiceType = ReflectionUtil.classForName(this.serviceApi);
 		for (Method proxiedMethod : proxiedServiceApi.getMethods()) {
 			Type returnType = getReturnType(proxiedMethod);
-			RemoteServiceMethod remoteServiceMethod = this.remoteServiceMethodFactory.createRemoteServiceMethod(targetServiceType, proxiedMethod, returnType);
-			remoteServiceMethodByMethod.put(proxiedMethod, remoteServiceMethod);
+			SerializationMetrics serializationMetrics = serializationMetricsFactory.getMetrics(serviceApi, proxiedMethod.getName());
+			RemoteServiceMethod remoteServiceMethod = this.remoteServiceMethodFactory.createRemoteServiceMethod(targetServiceType, proxiedMethod, returnType, serializationMetrics);
+			invocationTemplateByMethod.put(proxiedMethod, new RemoteInvocationTemplate(remoteServiceMethod, serviceApi, apiVersion, remotingEngine, createResultAdapter(proxiedMethod)));
 		}
 	}
 
@@ -91,39 +98,41 @@ public class RemotingProxy implements InvocationHandler {
 		if (method.getDeclaringClass().equals(Object.class)) {
 			return ReflectionUtil.invokeMethod(method, this, args);
 		}
-		RemoteServiceMethod remoteServiceMethod = this.remoteServiceMethodByMethod.get(method);
-		
-		AstrixServiceInvocationRequest invocationRequest = new AstrixServiceInvocationRequest();
-		
-		invocationRequest.setHeader("apiVersion", Integer.toString(this.apiVersion));
-		invocationRequest.setHeader("serviceMethodSignature", remoteServiceMethod.getSignature());
-		invocationRequest.setHeader("serviceApi", this.serviceApi);
-		
-		Observable<?> result = remoteServiceMethod.invoke(invocationRequest, args);
-		if (isObservableType(method.getReturnType())) {
-			return result;
-		}
-		if (isReactiveType(method.getReturnType())) {
-			ReplaySubject<Object> subject = ReplaySubject.create();
-	        // eagerly kick off subscription
-	        result.subscribe(subject);
-	        // return the subject that can be subscribed to later while the execution has already started
-			return reactiveTypeConverter.toCustomReactiveType(method.getReturnType(), subject);
+		return this.invocationTemplateByMethod.get(method).invoke(args);
+	}
+	
+	private ResultAdapter createResultAdapter(Method method) {
+		Class<?> returnType = method.getReturnType();
+		if (isObservableType(returnType)) {
+			return result -> result;
 		}
-		if (Future.class.equals(method.getReturnType())) {
-			ReplaySubject<Object> subject = ReplaySubject.create();
-	        // eagerly kick off subscription
-	        result.subscribe(subject);
-	        // return the subject that can be subscribed to later while the execution has already started
-			return new FutureAdapter<>(subject);
+		if (isReactiveType(returnType)) {
+			return result -> {
+				ReplaySubject<Object> subject = ReplaySubject.create();
+				// eagerly kick off subscription
+				result.subscribe(subject);
+				// return the subject that can be subscribed to later while the execution has already started
+				return reactiveTypeConverter.toCustomReactiveType(returnType, subject);
+			};
 		}
-		try {
-			return result.toBlocking().first();
-		} catch (Exception e) {
-			// Append invocation call stack
-			appendStackTrace(e, new AstrixCallStackTrace());
-			throw e;
+		if (Future.class.equals(returnType)) {
+			return result -> {
+				ReplaySubject<Object> subject = ReplaySubject.create();
+				// eagerly kick off subscription
+				result.subscribe(subject);
+				// return the subject that can be subscribed to later while the execution has already started
+				return new FutureAdapter<>(subject);
+			};
 		}
+		return result -> {
+			try {
+				return result.toBlocking().first();
+			} catch (Exception e) {
+				// Append invocation call stack
+				appendStackTrace(e, new AstrixCallStackTrace());
+				throw e;
+			}
+		};
 	}
 
 	private static void appendStackTrace(Throwable exception, AstrixCallStackTrace trace) {
@@ -15,9 +15,13 @@
  */
 package com.avanza.astrix.remoting.client;
 
+import com.avanza.astrix.beans.config.AstrixConfig;
+import com.avanza.astrix.beans.core.AstrixSettings;
 import com.avanza.astrix.beans.core.ReactiveTypeConverter;
 import com.avanza.astrix.beans.service.ServiceDefinition;
 import com.avanza.astrix.beans.service.ServiceProperties;
+import com.avanza.astrix.context.mbeans.MBeanExporter;
+import com.avanza.astrix.context.metrics.Metrics;
 import com.avanza.astrix.core.remoting.RoutingStrategy;
 import com.avanza.astrix.core.util.ReflectionUtil;
 import com.avanza.astrix.versioning.core.AstrixObjectSerializer;
@@ -27,10 +31,14 @@ public class RemotingProxyFactoryImpl implements RemotingProxyFactory {
 	
 	private final ObjectSerializerFactory objectSerializerFactory;
 	private final ReactiveTypeConverter reactiveTypeConverter;
+	private final SerializationMetricsFactory serializationMetricsFactory;
 	
-	public RemotingProxyFactoryImpl(ObjectSerializerFactory objectSerializerFactory, ReactiveTypeConverter reactiveTypeConverter) {
+	public RemotingProxyFactoryImpl(ObjectSerializerFactory objectSerializerFactory, ReactiveTypeConverter reactiveTypeConverter, 
+									Metrics metrics, MBeanExporter mbeanExporter, AstrixConfig config) {
 		this.objectSerializerFactory = objectSerializerFactory;
 		this.reactiveTypeConverter = reactiveTypeConverter;
+		this.serializationMetricsFactory = new SerializationMetricsFactory(metrics, mbeanExporter, SerializationMetricsFactory.SERVICE_BEAN_FOLDER, 
+																		   config.get(AstrixSettings.ENABLE_BEAN_METRICS));
 	}
 
 	@Override
@@ -39,7 +47,7 @@ public class RemotingProxyFactoryImpl implements RemotingProxyFactory {
 		AstrixObjectSerializer objectSerializer = objectSerializerFactory.create(serviceDefinition.getObjectSerializerDefinition());
 		RemotingTransport remotingTransport = RemotingTransport.create(remotingTransportSpi);
 		return RemotingProxy.create(serviceDefinition.getServiceType(), ReflectionUtil.classForName(serviceProperties.getProperty(ServiceProperties.API))
-				, remotingTransport, objectSerializer, routingStrategy, reactiveTypeConverter);
+				, remotingTransport, objectSerializer, routingStrategy, reactiveTypeConverter, serializationMetricsFactory);
 	}
 
 }
@@ -17,13 +17,89 @@ package com.avanza.astrix.remoting.client;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.TypeVariable;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
 
+import com.avanza.astrix.core.AstrixRemoteResult;
+import com.avanza.astrix.core.DefaultAstrixRemoteResultReducer;
+import com.avanza.astrix.core.IncrementalRemoteResultReducer;
 import com.avanza.astrix.core.RemoteResultReducer;
+import com.avanza.astrix.core.util.GenericAstrixMapReducer;
+import com.avanza.astrix.core.util.GenericAstrixSetReducer;
 import com.avanza.astrix.core.util.ReflectionUtil;
 
 final class RemotingProxyUtil {
 	
+	/*
+	 * Reducers known to be stateless, hence safe to share between invocations.
+	 */
+	private static final Set<Class<?>> SHARED_REDUCERS = new HashSet<>(Arrays.asList(DefaultAstrixRemoteResultReducer.class,
+																					  GenericAstrixSetReducer.class,
+																					  GenericAstrixMapReducer.class));
+	
+	/**
+	 * Returns a factory for reducers of a given type. The bundled reducers are stateless and a single
+	 * instance, created on first use, is shared between invocations. A new instance is created for 
+	 * each invocation for all other reducers.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> Supplier<RemoteResultReducer<T>> reducerFactory(Class<? extends RemoteResultReducer<?>> reducerType) {
+		Supplier<RemoteResultReducer<T>> factory = () -> (RemoteResultReducer<T>) ReflectionUtil.newInstance(reducerType);
+		if (!SHARED_REDUCERS.contains(reducerType)) {
+			return factory;
+		}
+		return new SharedReducerFactory<>(factory);
+	}
+	
+	/**
+	 * Returns a factory for reducers of a given type that folds each response as soon as it is
+	 * received, or null if the reducer has to be reduced using {@link RemoteResultReducer#reduce(List)}. <p>
+	 * 
+	 * A reducer is reduced incrementally if it implements {@link IncrementalRemoteResultReducer}, unless 
+	 * reduce is overridden below the class implementing accumulate, e.g. by a subclass of one of the
+	 * bundled reducers. A new instance is created for each invocation.
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> Supplier<IncrementalRemoteResultReducer<T>> incrementalReducerFactory(Class<? extends RemoteResultReducer<?>> reducerType) {
+		if (!isIncremental(reducerType)) {
+			return null;
+		}
+		return () -> (IncrementalRemoteResultReducer<T>) ReflectionUtil.newInstance(reducerType);
+	}
+	
+	private static boolean isIncremental(Class<? extends RemoteResultReducer<?>> reducerType) {
+		if (!IncrementalRemoteResultReducer.class.isAssignableFrom(reducerType)) {
+			return false;
+		}
+		Class<?> reduceDeclaringClass = ReflectionUtil.getMethod(reducerType, "reduce", List.class).getDeclaringClass();
+		Class<?> accumulateDeclaringClass = ReflectionUtil.getMethod(reducerType, "accumulate", AstrixRemoteResult.class).getDeclaringClass();
+		return reduceDeclaringClass.isAssignableFrom(accumulateDeclaringClass);
+	}
+	
+	private static final class SharedReducerFactory<T> implements Supplier<RemoteResultReducer<T>> {
+		
+		private final Supplier<RemoteResultReducer<T>> factory;
+		private volatile RemoteResultReducer<T> sharedReducer;
+		
+		SharedReducerFactory(Supplier<RemoteResultReducer<T>> factory) {
+			this.factory = factory;
+		}
+
+		@Override
+		public RemoteResultReducer<T> get() {
+			RemoteResultReducer<T> result = sharedReducer;
+			if (result == null) {
+				// Racing threads might create one instance each, which is harmless for a stateless reducer
+				result = factory.get();
+				sharedReducer = result;
+			}
+			return result;
+		}
+	}
+	
 	static void validateRemoteResultReducer(Method targetServiceMethod,
 			Class<? extends RemoteResultReducer<?>> reducerType) {
 		validateRemoteResultReducerReturnType(targetServiceMethod, reducerType);
@@ -32,7 +108,9 @@ final class RemotingProxyUtil {
 	private static void validateRemoteResultReducerReturnType(
 			Method targetServiceMethod,
 			Class<? extends RemoteResultReducer<?>> reducerType) {
-		Method reduceMethod = ReflectionUtil.getMethod(reducerType, "reduce", List.class);
+		Method reduceMethod = isIncremental(reducerType) 
+				? ReflectionUtil.getMethod(reducerType, "finish")
+				: ReflectionUtil.getMethod(reducerType, "reduce", List.class);
 		Class<?> returnType = targetServiceMethod.getReturnType();
 		if (returnType.equals(Void.TYPE)) {
 			return;
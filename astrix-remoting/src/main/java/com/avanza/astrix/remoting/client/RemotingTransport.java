@@ -45,6 +45,10 @@ public class RemotingTransport {
 		return impl.submitRoutedRequests(requests);
 	}
 	
+	public List<Observable<AstrixServiceInvocationResponse>> submitRoutedRequestsIndividually(List<RoutedServiceInvocationRequest> requests) {
+		return impl.submitRoutedRequestsIndividually(requests);
+	}
+	
 	public Observable<List<AstrixServiceInvocationResponse>> submitBroadcastRequest(AstrixServiceInvocationRequest request) {
 		return impl.submitBroadcastRequest(request);
 	}
@@ -15,6 +15,7 @@
  */
 package com.avanza.astrix.remoting.client;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -66,6 +67,25 @@ public interface RemotingTransportSpi {
 	 */
 	Observable<List<AstrixServiceInvocationResponse>> submitRoutedRequests(Collection<RoutedServiceInvocationRequest> requests);
 	
+	/**
+	 * Sends each service invocation to the associated target cluster member, allowing the caller
+	 * to process each response as soon as it is received. <p>
+	 * 
+	 * Note that each returned Observable emits its response independently of the others. Callers must
+	 * combine them into a single emission to retain the timeout semantics described above.
+	 * 
+	 * @param requests
+	 * @return one Observable for each request, in the same order as the requests, that will emit 
+	 * the response from that invocation.
+	 */
+	default List<Observable<AstrixServiceInvocationResponse>> submitRoutedRequestsIndividually(Collection<RoutedServiceInvocationRequest> requests) {
+		List<Observable<AstrixServiceInvocationResponse>> result = new ArrayList<>(requests.size());
+		for (RoutedServiceInvocationRequest request : requests) {
+			result.add(submitRoutedRequest(request.getRequest(), request.getRoutingkey()));
+		}
+		return result;
+	}
+	
 	/**
 	 * Sends a service invocation request to each member in the cluster. 
 	 * 
@@ -75,6 +95,32 @@ public interface RemotingTransportSpi {
 	 */
 	Observable<List<AstrixServiceInvocationResponse>> submitBroadcastRequest(AstrixServiceInvocationRequest request);
 	
+	/**
+	 * Sends a batch of service invocations that all target the same cluster member, identified by 
+	 * the given routingKey. <p>
+	 * 
+	 * Transports that are able to carry several invocations in a single round trip should override
+	 * this method. The default implementation submits each request separately.
+	 * 
+	 * @param requests
+	 * @param routingKey
+	 * @return an Observable that will emit one item with the responses for each request, in the same
+	 * order as the requests.
+	 */
+	default Observable<List<AstrixServiceInvocationResponse>> submitRoutedBatch(List<AstrixServiceInvocationRequest> requests, RoutingKey routingKey) {
+		List<Observable<AstrixServiceInvocationResponse>> responses = new ArrayList<>(requests.size());
+		for (AstrixServiceInvocationRequest request : requests) {
+			responses.add(submitRoutedRequest(request, routingKey));
+		}
+		return Observable.zip(responses, results -> {
+			List<AstrixServiceInvocationResponse> result = new ArrayList<>(results.length);
+			for (Object response : results) {
+				result.add((AstrixServiceInvocationResponse) response);
+			}
+			return result;
+		});
+	}
+	
 	/**
 	 * 
 	 * @return the number of members in the target cluster.
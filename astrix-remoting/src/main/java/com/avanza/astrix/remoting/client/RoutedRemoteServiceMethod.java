@@ -29,15 +29,18 @@ public class RoutedRemoteServiceMethod implements RemoteServiceMethod {
 	private final Router router;
 	private final RemotingEngine remotingEngine;
 	private final Type returnType;
+	private final SerializationMetrics serializationMetrics;
 
 	public RoutedRemoteServiceMethod(String signature, 
 									 Router router,
 									 RemotingEngine remotingEngine, 
-									 Type returnType) {
+									 Type returnType,
+									 SerializationMetrics serializationMetrics) {
 		this.signature = signature;
 		this.router = router;
 		this.remotingEngine = remotingEngine;
 		this.returnType = returnType;
+		this.serializationMetrics = serializationMetrics;
 	}
 
 	public String getSignature() {
@@ -46,11 +49,11 @@ public class RoutedRemoteServiceMethod implements RemoteServiceMethod {
 	
 	@Override
 	public Observable<?> invoke(AstrixServiceInvocationRequest invocationRequest, Object[] args) throws Exception {
-		invocationRequest.setArguments(remotingEngine.marshall(args));
 		RoutingKey routingKey = router.getRoutingKey(args);
 		if (routingKey == null) {
 			throw new IllegalStateException(String.format("Service method is routed but the defined remotingKey value was null: method=%s", signature));
 		}
+		invocationRequest.setArguments(remotingEngine.marshall(args, routingKey, serializationMetrics));
 		return submitRoutedRequest(invocationRequest, routingKey);
 	}
 	
@@ -61,7 +64,7 @@ public class RoutedRemoteServiceMethod implements RemoteServiceMethod {
 		return response.map(new Func1<AstrixServiceInvocationResponse, Object>() {
 			@Override
 			public Object call(AstrixServiceInvocationResponse t1) {
-				return remotingEngine.toRemoteResult(t1, returnType).getResult();
+				return remotingEngine.toRemoteResult(t1, returnType, serializationMetrics).getResult();
 			}
 		});
 	}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.client;
+
+import java.util.concurrent.TimeUnit;
+
+import com.avanza.astrix.config.DynamicBooleanProperty;
+import com.avanza.astrix.context.metrics.Histogram;
+import com.avanza.astrix.context.metrics.Metrics;
+import com.avanza.astrix.context.metrics.Timer;
+
+/**
+ * Records the size of the serialized payloads of a given service method, and the time
+ * spent serializing and deserializing them. <p>
+ * 
+ * On the client side the serialized payloads are the arguments of an invocation and the deserialized
+ * payload is the result, on the server side it's the other way around. The size of a payload in string form 
+ * is measured in chars, which approximates the number of bytes sent. <p>
+ * 
+ * Compressed response bodies, see {@link CompressedPayloads}, are tracked by their compression ratio and
+ * the time spent compressing (server side) and decompressing (client side) them. <p>
+ */
+public final class SerializationMetrics implements SerializationMetricsMBean {
+	
+	private final Histogram serializedSize;
+	private final Histogram deserializedSize;
+	private final Timer serializationTime;
+	private final Timer deserializationTime;
+	private final Histogram compressionRatio;
+	private final Timer compressionTime;
+	private final Timer decompressionTime;
+	private final DynamicBooleanProperty enabled;
+	
+	public SerializationMetrics(Metrics metrics, DynamicBooleanProperty enabled) {
+		this.enabled = enabled;
+		this.serializedSize = metrics.createHistogram();
+		this.deserializedSize = metrics.createHistogram();
+		this.serializationTime = metrics.createTimer();
+		this.deserializationTime = metrics.createTimer();
+		this.compressionRatio = metrics.createHistogram();
+		this.compressionTime = metrics.createTimer();
+		this.decompressionTime = metrics.createTimer();
+	}
+	
+	/**
+	 * Returns the start time to pass when recording a serialization, or 0 if
+	 * no metrics should be recorded.
+	 */
+	public long start() {
+		return enabled.get() ? System.nanoTime() : 0;
+	}
+	
+	public void serialized(long startNanos, Object[] payloads) {
+		if (startNanos == 0) {
+			return;
+		}
+		serializationTime.update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+		int size = 0;
+		for (Object payload : payloads) {
+			size += sizeOf(payload);
+		}
+		serializedSize.update(size);
+	}
+	
+	public void serialized(long startNanos, Object payload) {
+		if (startNanos == 0) {
+			return;
+		}
+		serializationTime.update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+		serializedSize.update(sizeOf(payload));
+	}
+	
+	/**
+	 * Records a payload that was streamed in byte form, see {@link StreamedPayload}.
+	 */
+	public void serializedBytes(long startNanos, int size) {
+		if (startNanos == 0) {
+			return;
+		}
+		serializationTime.update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+		serializedSize.update(size);
+	}
+	
+	public void deserialized(long startNanos, Object[] payloads) {
+		if (startNanos == 0) {
+			return;
+		}
+		deserializationTime.update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+		int size = 0;
+		for (Object payload : payloads) {
+			size += sizeOf(payload);
+		}
+		deserializedSize.update(size);
+	}
+	
+	public void deserialized(long startNanos, Object payload) {
+		if (startNanos == 0) {
+			return;
+		}
+		deserializationTime.update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+		deserializedSize.update(sizeOf(payload));
+	}
+	
+	public void compressed(long startNanos, int uncompressedSize, int compressedSize) {
+		if (startNanos == 0) {
+			return;
+		}
+		compressionTime.update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+		if (uncompressedSize > 0) {
+			compressionRatio.update(100L * compressedSize / uncompressedSize);
+		}
+	}
+	
+	public void decompressed(long startNanos) {
+		if (startNanos == 0) {
+			return;
+		}
+		decompressionTime.update(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
+	
+	private static int sizeOf(Object payload) {
+		if (payload instanceof byte[]) {
+			return ((byte[]) payload).length;
+		}
+		if (payload instanceof String) {
+			return ((String) payload).length();
+		}
+		return 0;
+	}
+
+	@Override
+	public long getSerializationCount() {
+		return serializedSize.getCount();
+	}
+
+	@Override
+	public double getSerializedSizeMean() {
+		return serializedSize.getMean();
+	}
+
+	@Override
+	public double getSerializedSize99thPercentile() {
+		return serializedSize.get99thPercentile();
+	}
+
+	@Override
+	public double getSerializedSizeMax() {
+		return serializedSize.getMax();
+	}
+
+	@Override
+	public double getSerializationTime50thPercentile() {
+		return serializationTime.get50thPercentile();
+	}
+
+	@Override
+	public double getSerializationTime99thPercentile() {
+		return serializationTime.get99thPercentile();
+	}
+
+	@Override
+	public long getDeserializationCount() {
+		return deserializedSize.getCount();
+	}
+
+	@Override
+	public double getDeserializedSizeMean() {
+		return deserializedSize.getMean();
+	}
+
+	@Override
+	public double getDeserializedSize99thPercentile() {
+		return deserializedSize.get99thPercentile();
+	}
+
+	@Override
+	public double getDeserializedSizeMax() {
+		return deserializedSize.getMax();
+	}
+
+	@Override
+	public double getDeserializationTime50thPercentile() {
+		return deserializationTime.get50thPercentile();
+	}
+
+	@Override
+	public double getDeserializationTime99thPercentile() {
+		return deserializationTime.get99thPercentile();
+	}
+
+	@Override
+	public long getCompressionCount() {
+		return compressionRatio.getCount();
+	}
+
+	@Override
+	public double getCompressionRatioMean() {
+		return compressionRatio.getMean();
+	}
+
+	@Override
+	public double getCompressionTime99thPercentile() {
+		return compressionTime.get99thPercentile();
+	}
+
+	@Override
+	public double getDecompressionTime99thPercentile() {
+		return decompressionTime.get99thPercentile();
+	}
+
+	@Override
+	public TimeUnit getDurationUnit() {
+		return serializationTime.getDurationUnit();
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.client;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.avanza.astrix.config.DynamicBooleanProperty;
+import com.avanza.astrix.context.mbeans.MBeanExporter;
+import com.avanza.astrix.context.metrics.Metrics;
+
+/**
+ * Creates the {@link SerializationMetrics} for each service method and exports them as mbeans. <p>
+ * 
+ * All service methods with the same name share the same metrics, and a given metrics instance is only
+ * created and exported once, even if the same service is bound several times. <p>
+ */
+public final class SerializationMetricsFactory {
+	
+	/**
+	 * Folder used for the serialization metrics of consumed services. 
+	 */
+	public static final String SERVICE_BEAN_FOLDER = "ServiceBeanSerializationMetrics";
+	
+	/**
+	 * Folder used for the serialization metrics of exported services. 
+	 */
+	public static final String EXPORTED_SERVICES_FOLDER = "ExportedServices";
+	
+	private final ConcurrentMap<String, SerializationMetrics> metricsByName = new ConcurrentHashMap<>();
+	private final Metrics metrics;
+	private final MBeanExporter mbeanExporter;
+	private final String folder;
+	private final DynamicBooleanProperty enabled;
+	
+	/**
+	 * @param enabled - whether serialization sizes and times are recorded 
+	 */
+	public SerializationMetricsFactory(Metrics metrics, MBeanExporter mbeanExporter, String folder, DynamicBooleanProperty enabled) {
+		this.metrics = metrics;
+		this.mbeanExporter = mbeanExporter;
+		this.folder = folder;
+		this.enabled = enabled;
+	}
+	
+	public static SerializationMetricsFactory noMetrics() {
+		return new SerializationMetricsFactory(new Metrics.NoMetrics(), new MBeanExporter.NoExporter(), "", new DynamicBooleanProperty(false));
+	}
+	
+	public SerializationMetrics getMetrics(String serviceApi, String methodName) {
+		return metricsByName.computeIfAbsent(serviceApi + "#" + methodName + "#serialization", this::create);
+	}
+	
+	private SerializationMetrics create(String name) {
+		SerializationMetrics result = new SerializationMetrics(metrics, enabled);
+		mbeanExporter.registerMBean(result, folder, name);
+		return result;
+	}
+
+}
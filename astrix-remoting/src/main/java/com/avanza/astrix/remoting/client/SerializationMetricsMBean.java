@@ -0,0 +1,59 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.client;
+
+import java.util.concurrent.TimeUnit;
+
+public interface SerializationMetricsMBean {
+	
+	long getSerializationCount();
+	
+	double getSerializedSizeMean();
+	
+	double getSerializedSize99thPercentile();
+	
+	double getSerializedSizeMax();
+	
+	double getSerializationTime50thPercentile();
+	
+	double getSerializationTime99thPercentile();
+	
+	long getDeserializationCount();
+	
+	double getDeserializedSizeMean();
+	
+	double getDeserializedSize99thPercentile();
+	
+	double getDeserializedSizeMax();
+	
+	double getDeserializationTime50thPercentile();
+	
+	double getDeserializationTime99thPercentile();
+	
+	long getCompressionCount();
+	
+	/**
+	 * The mean size of compressed response bodies in percent of their uncompressed size.
+	 */
+	double getCompressionRatioMean();
+	
+	double getCompressionTime99thPercentile();
+	
+	double getDecompressionTime99thPercentile();
+	
+	TimeUnit getDurationUnit();
+
+}
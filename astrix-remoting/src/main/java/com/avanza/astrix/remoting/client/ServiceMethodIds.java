@@ -0,0 +1,73 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.client;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Compact identifiers for the methods of a remote service, used instead of the full method 
+ * signature to identify the invoked method. <p>
+ * 
+ * The id is derived from the method signature, hence client and server agree on the id for a
+ * given method without any coordination. Since a client that has received an acknowledgement only sends 
+ * the id, the id must distinguish the signature from all signatures known by the server, including 
+ * when the client invokes a method that is missing in the server's version of the service. It's therefore
+ * a 128 bit prefix of the SHA-256 digest of the signature, rather than a hash that is likely to collide. The use of ids is negotiated per service using the
+ * {@link AstrixServiceInvocationRequestHeaders#SERVICE_METHOD_ID} and {@link AstrixServiceInvocationRequestHeaders#SERVICE_METHOD_IDS} 
+ * headers: <p>
+ * 
+ * <ul>
+ * <li>The client sets the id, along with the full signature, on each request</li>
+ * <li>A server that dispatches on ids sets the SERVICE_METHOD_IDS header on the response, unless the ids of 
+ * the service are ambiguous. The client then stops sending the signature to that server</li>
+ * </ul>
+ * 
+ * Old servers ignore the id and old clients never send one, hence both keep working using the
+ * full method signature.
+ */
+public final class ServiceMethodIds {
+	
+	private ServiceMethodIds() {
+	}
+	
+	private static final int ID_LENGTH_BYTES = 16;
+	
+	/**
+	 * Returns the id of the service method with a given signature, see {@link com.avanza.astrix.core.util.ReflectionUtil#methodSignatureWithoutReturnType(java.lang.reflect.Method)}.
+	 * Distinct signatures yield distinct ids, barring a collision of 128 bits of a cryptographic digest. 
+	 * 
+	 * @param methodSignature
+	 * @return
+	 */
+	public static String methodId(String methodSignature) {
+		byte[] digest = sha256().digest(methodSignature.getBytes(StandardCharsets.UTF_8));
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, ID_LENGTH_BYTES));
+	}
+	
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// Required to be supported by every java platform
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
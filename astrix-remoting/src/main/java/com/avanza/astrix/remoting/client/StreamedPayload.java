@@ -0,0 +1,101 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.client;
+
+import java.io.IOException;
+import java.io.ObjectStreamException;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+import com.avanza.astrix.versioning.core.AstrixObjectSerializer;
+/**
+ * A payload in byte form, see {@link BinaryPayloads}, that is serialized first when written by the transport. <p>
+ * 
+ * Envelope codecs that support it stream the payload straight into the transport buffer, which spares 
+ * the intermediate byte arrays of {@link BinaryPayloads#serialize(AstrixObjectSerializer, Object, int)}. Any 
+ * other consumer, for instance java serialization of the envelope, sees the payload as a plain byte[]. <p>
+ */
+public final class StreamedPayload implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private final transient AstrixObjectSerializer objectSerializer;
+	private final transient Object element;
+	private final transient int version;
+	private final transient SerializationMetrics serializationMetrics;
+	
+	public StreamedPayload(AstrixObjectSerializer objectSerializer, Object element, int version, SerializationMetrics serializationMetrics) {
+		this.objectSerializer = objectSerializer;
+		this.element = element;
+		this.version = version;
+		this.serializationMetrics = serializationMetrics;
+	}
+	
+	/**
+	 * Serializes this payload into a given stream. The stream is not closed.
+	 * 
+	 * @param out
+	 */
+	public void writeTo(OutputStream out) {
+		long start = serializationMetrics.start();
+		if (start == 0) {
+			objectSerializer.serialize(element, version, out);
+			return;
+		}
+		CountingOutputStream countingOut = new CountingOutputStream(out);
+		objectSerializer.serialize(element, version, countingOut);
+		serializationMetrics.serializedBytes(start, countingOut.count);
+	}
+	
+	public byte[] toByteArray() {
+		long start = serializationMetrics.start();
+		byte[] result = BinaryPayloads.serialize(objectSerializer, element, version);
+		serializationMetrics.serialized(start, result);
+		return result;
+	}
+	
+	private Object writeReplace() throws ObjectStreamException {
+		return toByteArray();
+	}
+	
+	private static final class CountingOutputStream extends OutputStream {
+		
+		private final OutputStream out;
+		private int count;
+		
+		CountingOutputStream(OutputStream out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+		
+		@Override
+		public void flush() throws IOException {
+			out.flush();
+		}
+	}
+
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequestHeaders;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
+import com.avanza.astrix.remoting.client.StreamedPayload;
+/**
+ * Compact binary envelope codec. <p>
+ * 
+ * Lengths and counts are written as unsigned varints, strings as UTF-8 and the names of the
+ * well known headers are replaced by a single byte id. Arguments and response bodies are
+ * written as tagged values. Strings and byte arrays, i.e the output of the
+ * AstrixObjectSerializer implementations, are written as is and any other value
+ * falls back to java serialization. Strings are transcoded directly from/to the transport
+ * buffer when the given stream supports it, see {@link Utf8DataInput} and {@link Utf8DataOutput}. A response
+ * body in the form of a {@link StreamedPayload} is serialized straight into the transport buffer when supported,
+ * and is read as a byte array. <p>
+ * 
+ * Request layout: [header count][headers...][argument count + 1 (0 means null)][values...] <br>
+ * Response layout: [body][exception][exceptionType][exceptionMsg][correlationId][header count][headers...]
+ */
+final class BinaryEnvelopeCodec implements RemotingEnvelopeCodec {
+	
+	static final byte FORMAT_ID = 2;
+	static final String NAME = "binary";
+	
+	private static final int MAX_CHUNK_SIZE = 64 * 1024;
+	private static final int MAX_ARGUMENT_COUNT = 255; // Parameter limit of a java method
+	
+	private static final byte TAG_NULL = 0;
+	private static final byte TAG_STRING = 1;
+	private static final byte TAG_BYTES = 2;
+	private static final byte TAG_SERIALIZED = 3;
+	private static final byte TAG_STREAMED = 4;
+	
+	/*
+	 * Never reorder or remove entries in this table, the index is part of the wire format.
+	 * New header names may only be appended.
+	 */
+	private static final String[] WELL_KNOWN_HEADERS = {
+		null, // 0 = header name written as string
+		AstrixServiceInvocationRequestHeaders.API_VERSION,
+		AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_SIGNATURE,
+		AstrixServiceInvocationRequestHeaders.SERVICE_API,
+		"service-unavailable",
+		AstrixServiceInvocationRequestHeaders.BINARY_PAYLOADS,
+		AstrixServiceInvocationRequestHeaders.COMPRESSED_PAYLOADS,
+		AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_ID,
+		AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_IDS,
+		AstrixServiceInvocationRequestHeaders.ENVELOPE_FORMATS,
+	};
+	private static final Map<String, Integer> WELL_KNOWN_HEADER_IDS = new HashMap<>();
+	static {
+		for (int id = 1; id < WELL_KNOWN_HEADERS.length; id++) {
+			WELL_KNOWN_HEADER_IDS.put(WELL_KNOWN_HEADERS[id], id);
+		}
+	}
+
+	@Override
+	public byte formatId() {
+		return FORMAT_ID;
+	}
+
+	@Override
+	public String name() {
+		return NAME;
+	}
+
+	@Override
+	public void writeRequest(AstrixServiceInvocationRequest request, DataOutput out) throws IOException {
+		writeHeaders(request.getReadOnlyHeaders(), out);
+		Object[] arguments = request.getArguments();
+		if (arguments == null) {
+			writeVarInt(0, out);
+			return;
+		}
+		writeVarInt(arguments.length + 1, out);
+		for (Object argument : arguments) {
+			writeValue(argument, out);
+		}
+	}
+
+	@Override
+	public AstrixServiceInvocationRequest readRequest(DataInput in) throws IOException {
+		AstrixServiceInvocationRequest request = new AstrixServiceInvocationRequest();
+		readHeaders(request::setHeader, in);
+		int argumentCount = readVarInt(in) - 1;
+		if (argumentCount > MAX_ARGUMENT_COUNT) {
+			throw new IOException("Corrupt envelope, invalid argument count: " + argumentCount);
+		}
+		if (argumentCount >= 0) {
+			Object[] arguments = new Object[argumentCount];
+			for (int i = 0; i < argumentCount; i++) {
+				arguments[i] = readValue(in);
+			}
+			request.setArguments(arguments);
+		}
+		return request;
+	}
+
+	@Override
+	public void writeResponse(AstrixServiceInvocationResponse response, DataOutput out) throws IOException {
+		writeResponseBody(response, out);
+		writeValue(response.getException(), out);
+		writeString(response.getThrownExceptionType(), out);
+		writeString(response.getExceptionMsg(), out);
+		writeString(response.getCorrelationId(), out);
+		writeHeaders(response.getHeaders(), out);
+	}
+
+	@Override
+	public AstrixServiceInvocationResponse readResponse(DataInput in) throws IOException {
+		AstrixServiceInvocationResponse response = new AstrixServiceInvocationResponse();
+		response.setResponseBody(readValue(in));
+		response.setException(readValue(in));
+		response.setThrownExceptionType(readString(in));
+		response.setExceptionMsg(readString(in));
+		response.setCorrelationId(readString(in));
+		readHeaders(response::setHeader, in);
+		return response;
+	}
+	
+	private static void writeResponseBody(AstrixServiceInvocationResponse response, DataOutput out) throws IOException {
+		Object responseBody = response.getResponseBody();
+		if (!(responseBody instanceof StreamedPayload)) {
+			writeValue(responseBody, out);
+			return;
+		}
+		if (!(out instanceof Utf8DataOutput)) {
+			response.serializeStreamedPayload();
+			writeValue(response.getResponseBody(), out);
+			return;
+		}
+		out.writeByte(TAG_STREAMED);
+		try {
+			((Utf8DataOutput) out).writeSizePrefixed((StreamedPayload) responseBody);
+		} catch (RuntimeException e) {
+			// Nothing but the tag is written, the failure is sent in place of the body
+			out.writeInt(0);
+			response.streamedPayloadFailed(e);
+		}
+	}
+	
+	private static void writeHeaders(Map<String, String> headers, DataOutput out) throws IOException {
+		writeVarInt(headers.size(), out);
+		for (Map.Entry<String, String> header : headers.entrySet()) {
+			Integer headerId = WELL_KNOWN_HEADER_IDS.get(header.getKey());
+			if (headerId != null) {
+				writeVarInt(headerId, out);
+			} else {
+				writeVarInt(0, out);
+				writeString(header.getKey(), out);
+			}
+			writeString(header.getValue(), out);
+		}
+	}
+	
+	private static void readHeaders(BiConsumer<String, String> headers, DataInput in) throws IOException {
+		int headerCount = readVarInt(in);
+		for (int i = 0; i < headerCount; i++) {
+			int headerId = readVarInt(in);
+			String name;
+			if (headerId == 0) {
+				name = readString(in);
+			} else if (headerId < WELL_KNOWN_HEADERS.length) {
+				name = WELL_KNOWN_HEADERS[headerId];
+			} else {
+				throw new IOException("Unknown header id: " + headerId);
+			}
+			headers.accept(name, readString(in));
+		}
+	}
+	
+	private static void writeValue(Object value, DataOutput out) throws IOException {
+		if (value == null) {
+			out.writeByte(TAG_NULL);
+		} else if (value instanceof String) {
+			out.writeByte(TAG_STRING);
+			String string = (String) value;
+			int utf8Length = Utf8.encodedLength(string);
+			writeVarInt(utf8Length, out);
+			Utf8.write(string, utf8Length, out);
+		} else if (value instanceof byte[]) {
+			out.writeByte(TAG_BYTES);
+			writeBytes((byte[]) value, out);
+		} else {
+			out.writeByte(TAG_SERIALIZED);
+			ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+			try (ObjectOutputStream objectOut = new ObjectOutputStream(serialized)) {
+				objectOut.writeObject(value);
+			}
+			writeBytes(serialized.toByteArray(), out);
+		}
+	}
+	
+	private static Object readValue(DataInput in) throws IOException {
+		byte tag = in.readByte();
+		switch (tag) {
+		case TAG_NULL:
+			return null;
+		case TAG_STRING:
+			return Utf8.read(readVarInt(in), in);
+		case TAG_BYTES:
+			return readBytes(in);
+		case TAG_STREAMED:
+			return readFully(in.readInt(), in);
+		case TAG_SERIALIZED:
+			try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)))) {
+				return objectIn.readObject();
+			} catch (ClassNotFoundException e) {
+				throw new IOException("Failed to deserialize value", e);
+			}
+		default:
+			throw new IOException("Unknown value tag: " + tag);
+		}
+	}
+	
+	/*
+	 * Strings are written as [utf-8 length + 1][bytes], a zero length denotes null.
+	 */
+	private static void writeString(String value, DataOutput out) throws IOException {
+		if (value == null) {
+			writeVarInt(0, out);
+			return;
+		}
+		int utf8Length = Utf8.encodedLength(value);
+		writeVarInt(utf8Length + 1, out);
+		Utf8.write(value, utf8Length, out);
+	}
+	
+	private static String readString(DataInput in) throws IOException {
+		int length = readVarInt(in) - 1;
+		if (length < 0) {
+			return null;
+		}
+		return Utf8.read(length, in);
+	}
+	
+	private static void writeBytes(byte[] bytes, DataOutput out) throws IOException {
+		writeVarInt(bytes.length, out);
+		out.write(bytes);
+	}
+	
+	private static byte[] readBytes(DataInput in) throws IOException {
+		return readFully(readVarInt(in), in);
+	}
+	
+	/*
+	 * The length is read from the envelope and might be corrupt. Large values are read in chunks to
+	 * avoid allocating more memory than there are bytes left in the envelope.
+	 */
+	static byte[] readFully(int length, DataInput in) throws IOException {
+		if (length < 0) {
+			throw new IOException("Corrupt envelope, negative length: " + length);
+		}
+		if (length <= MAX_CHUNK_SIZE) {
+			byte[] bytes = new byte[length];
+			in.readFully(bytes);
+			return bytes;
+		}
+		ByteArrayOutputStream result = new ByteArrayOutputStream(MAX_CHUNK_SIZE);
+		byte[] chunk = new byte[MAX_CHUNK_SIZE];
+		for (int remaining = length; remaining > 0; remaining -= MAX_CHUNK_SIZE) {
+			int chunkSize = Math.min(remaining, MAX_CHUNK_SIZE);
+			in.readFully(chunk, 0, chunkSize);
+			result.write(chunk, 0, chunkSize);
+		}
+		return result.toByteArray();
+	}
+	
+	static void writeVarInt(int value, DataOutput out) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			out.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.writeByte(value);
+	}
+	
+	static int readVarInt(DataInput in) throws IOException {
+		int result = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			byte b = in.readByte();
+			result |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new IOException("Malformed varint");
+	}
+
+}
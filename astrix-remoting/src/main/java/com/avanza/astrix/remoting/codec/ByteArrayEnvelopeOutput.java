@@ -0,0 +1,88 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.avanza.astrix.remoting.client.StreamedPayload;
+/**
+ * Writes an envelope, including streamed response bodies, into a growable byte array. Used when
+ * a transport needs the encoded envelope as a byte[]. 
+ */
+final class ByteArrayEnvelopeOutput extends DataOutputStream implements Utf8DataOutput {
+	
+	private final Buffer buffer;
+	
+	ByteArrayEnvelopeOutput(int initialSize) {
+		this(new Buffer(initialSize));
+	}
+	
+	private ByteArrayEnvelopeOutput(Buffer buffer) {
+		super(buffer);
+		this.buffer = buffer;
+	}
+
+	@Override
+	public void writeUtf8(String value, int utf8Length) {
+		byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+		buffer.write(utf8, 0, utf8.length);
+	}
+
+	@Override
+	public void writeSizePrefixed(StreamedPayload payload) {
+		int sizeIndex = buffer.size();
+		buffer.writeInt(0);
+		try {
+			payload.writeTo(buffer);
+		} catch (RuntimeException e) {
+			buffer.truncate(sizeIndex);
+			throw e;
+		}
+		buffer.setInt(sizeIndex, buffer.size() - sizeIndex - 4);
+	}
+	
+	byte[] toByteArray() {
+		return buffer.toByteArray();
+	}
+	
+	private static final class Buffer extends ByteArrayOutputStream {
+		
+		Buffer(int initialSize) {
+			super(initialSize);
+		}
+		
+		void writeInt(int value) {
+			write(value >>> 24);
+			write(value >>> 16);
+			write(value >>> 8);
+			write(value);
+		}
+		
+		void setInt(int index, int value) {
+			buf[index] = (byte) (value >>> 24);
+			buf[index + 1] = (byte) (value >>> 16);
+			buf[index + 2] = (byte) (value >>> 8);
+			buf[index + 3] = (byte) value;
+		}
+		
+		void truncate(int size) {
+			count = size;
+		}
+	}
+
+}
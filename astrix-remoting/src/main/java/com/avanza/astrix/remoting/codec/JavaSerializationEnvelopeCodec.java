@@ -0,0 +1,113 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamConstants;
+import java.io.SequenceInputStream;
+
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
+/**
+ * Envelope codec that uses plain java serialization, i.e the format used by all
+ * transports before the binary envelope format was introduced. Kept for compatibility. <p>
+ * 
+ * The format id of this codec is the first byte of the java serialization stream magic (0xAC).
+ * Hence a java serialized envelope, including its format id, is byte for byte identical to the 
+ * raw {@link ObjectOutputStream} stream sent by peers that don't know about envelope formats, which
+ * allows such peers to be decoded, and replied to, using this codec.
+ */
+final class JavaSerializationEnvelopeCodec implements RemotingEnvelopeCodec {
+	
+	static final byte FORMAT_ID = (byte) (ObjectStreamConstants.STREAM_MAGIC >>> 8);
+	static final String NAME = "java";
+
+	@Override
+	public byte formatId() {
+		return FORMAT_ID;
+	}
+
+	@Override
+	public String name() {
+		return NAME;
+	}
+
+	@Override
+	public void writeRequest(AstrixServiceInvocationRequest request, DataOutput out) throws IOException {
+		writeObject(request, out);
+	}
+
+	@Override
+	public AstrixServiceInvocationRequest readRequest(DataInput in) throws IOException {
+		return (AstrixServiceInvocationRequest) readObject(in);
+	}
+
+	@Override
+	public void writeResponse(AstrixServiceInvocationResponse response, DataOutput out) throws IOException {
+		response.serializeStreamedPayload();
+		writeObject(response, out);
+	}
+
+	@Override
+	public AstrixServiceInvocationResponse readResponse(DataInput in) throws IOException {
+		return (AstrixServiceInvocationResponse) readObject(in);
+	}
+	
+	private static void writeObject(Object object, DataOutput out) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream objectOut = new ObjectOutputStream(bytes)) {
+			objectOut.writeObject(object);
+		}
+		// The first byte of the stream magic is already written as format id
+		byte[] serialized = bytes.toByteArray();
+		out.write(serialized, 1, serialized.length - 1);
+	}
+	
+	private static Object readObject(DataInput in) throws IOException {
+		InputStream stream = new SequenceInputStream(new ByteArrayInputStream(new byte[] { FORMAT_ID }), asInputStream(in));
+		try {
+			// Not closed since that would close the underlying input
+			return new ObjectInputStream(stream).readObject();
+		} catch (ClassNotFoundException e) {
+			throw new IOException("Failed to deserialize envelope", e);
+		}
+	}
+	
+	private static InputStream asInputStream(DataInput in) {
+		if (in instanceof InputStream) {
+			return (InputStream) in;
+		}
+		return new InputStream() {
+			@Override
+			public int read() throws IOException {
+				try {
+					return in.readByte() & 0xFF;
+				} catch (EOFException e) {
+					return -1;
+				}
+			}
+		};
+	}
+
+}
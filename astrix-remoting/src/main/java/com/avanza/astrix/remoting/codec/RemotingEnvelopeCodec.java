@@ -0,0 +1,50 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.codec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
+/**
+ * Encodes the remoting envelope, i.e {@link AstrixServiceInvocationRequest} and
+ * {@link AstrixServiceInvocationResponse}, into the wire format used by a transport. <p>
+ * 
+ * Note that the codec only deals with the envelope. The arguments and the response body
+ * are already serialized by the {@link com.avanza.astrix.versioning.core.AstrixObjectSerializer}
+ * used by the service. <p>
+ * 
+ * Each codec is identified by a format id which is written in front of each envelope,
+ * see {@link RemotingEnvelopeCodecs}, which allows a server to reply in the same format
+ * as the client used for the request.
+ */
+public interface RemotingEnvelopeCodec {
+	
+	byte formatId();
+	
+	String name();
+	
+	void writeRequest(AstrixServiceInvocationRequest request, DataOutput out) throws IOException;
+	
+	AstrixServiceInvocationRequest readRequest(DataInput in) throws IOException;
+	
+	void writeResponse(AstrixServiceInvocationResponse response, DataOutput out) throws IOException;
+	
+	AstrixServiceInvocationResponse readResponse(DataInput in) throws IOException;
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.avanza.astrix.config.StringSetting;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequestHeaders;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
+/**
+ * Registry of the available {@link RemotingEnvelopeCodec}'s. <p>
+ * 
+ * Every envelope written using this class is prefixed with the format id of the codec used, which
+ * makes the format self describing. A server decodes a request using the codec identified by the
+ * format id and replies using the same codec, hence a client decides which format is used by
+ * configuring {@link #ENVELOPE_FORMAT}. Plain java serialized envelopes sent by peers that
+ * predate the envelope formats are identified as {@link #JAVA_SERIALIZATION}. <p>
+ * 
+ * A server that predates the envelope formats only accepts java serialized requests. Therefore a client
+ * sends its requests to a given server using java serialization until the server has acknowledged the
+ * configured format, see {@link #codecFor(RemotingEnvelopeCodec, AstrixServiceInvocationRequest)}. <p>
+ */
+public final class RemotingEnvelopeCodecs {
+	
+	public static final RemotingEnvelopeCodec JAVA_SERIALIZATION = new JavaSerializationEnvelopeCodec();
+	public static final RemotingEnvelopeCodec BINARY = new BinaryEnvelopeCodec();
+	
+	/**
+	 * The envelope format used by clients when sending requests, either "binary" or "java". Requests are sent
+	 * using "java" to servers that have not acknowledged that they accept the configured format.
+	 */
+	public static final StringSetting ENVELOPE_FORMAT = StringSetting.create("astrix.remoting.envelopeFormat", JavaSerializationEnvelopeCodec.NAME);
+	
+	/**
+	 * The names of the envelope formats accepted by servers, acknowledged to clients using
+	 * the {@link AstrixServiceInvocationRequestHeaders#ENVELOPE_FORMATS} header.
+	 */
+	public static final String ACCEPTED_FORMATS = BINARY.name() + "," + JAVA_SERIALIZATION.name();
+	
+	private RemotingEnvelopeCodecs() {
+	}
+	
+	public static RemotingEnvelopeCodec forName(String name) {
+		if (BINARY.name().equalsIgnoreCase(name)) {
+			return BINARY;
+		}
+		if (JAVA_SERIALIZATION.name().equalsIgnoreCase(name)) {
+			return JAVA_SERIALIZATION;
+		}
+		throw new IllegalArgumentException("Unknown remoting envelope format: " + name);
+	}
+	
+	/**
+	 * Returns the codec to use when sending a given request.
+	 * 
+	 * @param envelopeCodec - the configured codec
+	 * @param request
+	 * @return the configured codec if the server receiving the request has acknowledged that it accepts its
+	 * 		   format, otherwise {@link #JAVA_SERIALIZATION}
+	 */
+	public static RemotingEnvelopeCodec codecFor(RemotingEnvelopeCodec envelopeCodec, AstrixServiceInvocationRequest request) {
+		if (envelopeCodec == JAVA_SERIALIZATION || request.acceptsEnvelopeFormat(envelopeCodec.name())) {
+			return envelopeCodec;
+		}
+		return JAVA_SERIALIZATION;
+	}
+	
+	public static RemotingEnvelopeCodec forFormatId(byte formatId) {
+		if (formatId == BINARY.formatId()) {
+			return BINARY;
+		}
+		if (formatId == JAVA_SERIALIZATION.formatId()) {
+			return JAVA_SERIALIZATION;
+		}
+		throw new IllegalArgumentException("Unknown remoting envelope format id: " + formatId);
+	}
+	
+	public static void writeRequest(RemotingEnvelopeCodec codec, AstrixServiceInvocationRequest request, DataOutput out) throws IOException {
+		out.writeByte(codec.formatId());
+		codec.writeRequest(request, out);
+	}
+	
+	public static void writeResponse(RemotingEnvelopeCodec codec, AstrixServiceInvocationResponse response, DataOutput out) throws IOException {
+		out.writeByte(codec.formatId());
+		codec.writeResponse(response, out);
+	}
+	
+	/**
+	 * Reads the format id that prefixes each envelope.
+	 * 
+	 * @param in
+	 * @return the codec that should be used to read the rest of the envelope
+	 * @throws IOException
+	 */
+	public static RemotingEnvelopeCodec readFormat(DataInput in) throws IOException {
+		return forFormatId(in.readByte());
+	}
+	
+	public static RemotingEnvelopeCodec formatOf(byte[] envelope) {
+		return forFormatId(envelope[0]);
+	}
+	
+	public static byte[] encodeRequest(RemotingEnvelopeCodec codec, AstrixServiceInvocationRequest request) {
+		ByteArrayEnvelopeOutput out = new ByteArrayEnvelopeOutput(256);
+		try {
+			writeRequest(codec, request, out);
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to encode request", e);
+		}
+		return out.toByteArray();
+	}
+	
+	public static AstrixServiceInvocationRequest decodeRequest(byte[] envelope) {
+		try {
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(envelope));
+			return readFormat(in).readRequest(in);
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to decode request", e);
+		}
+	}
+	
+	public static byte[] encodeResponse(RemotingEnvelopeCodec codec, AstrixServiceInvocationResponse response) {
+		ByteArrayEnvelopeOutput out = new ByteArrayEnvelopeOutput(256);
+		try {
+			writeResponse(codec, response, out);
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to encode response", e);
+		}
+		return out.toByteArray();
+	}
+	
+	public static AstrixServiceInvocationResponse decodeResponse(byte[] envelope) {
+		try {
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(envelope));
+			return readFormat(in).readResponse(in);
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to decode response", e);
+		}
+	}
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.codec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+/**
+ * UTF-8 helpers used by the envelope codecs.
+ */
+public final class Utf8 {
+	
+	private Utf8() {
+	}
+	
+	/**
+	 * Computes the number of bytes in the UTF-8 encoding of a given sequence of chars, without encoding it.
+	 * Unpaired surrogates are counted as one byte each, since they are replaced by '?' when encoded.
+	 * 
+	 * @param value
+	 * @return
+	 */
+	public static int encodedLength(CharSequence value) {
+		int length = value.length();
+		int result = length;
+		for (int i = 0; i < length; i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				continue;
+			}
+			if (c < 0x800) {
+				result += 1;
+			} else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+				// A surrogate pair, i.e two chars, is encoded as four bytes
+				result += 2;
+				i++;
+			} else if (Character.isSurrogate(c)) {
+				// Unpaired surrogate
+				continue;
+			} else {
+				result += 2;
+			}
+		}
+		return result;
+	}
+	
+	static void write(String value, int utf8Length, DataOutput out) throws IOException {
+		if (out instanceof Utf8DataOutput) {
+			((Utf8DataOutput) out).writeUtf8(value, utf8Length);
+			return;
+		}
+		out.write(value.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	static String read(int utf8Length, DataInput in) throws IOException {
+		if (in instanceof Utf8DataInput) {
+			return ((Utf8DataInput) in).readUtf8(utf8Length);
+		}
+		byte[] utf8 = BinaryEnvelopeCodec.readFully(utf8Length, in);
+		return new String(utf8, StandardCharsets.UTF_8);
+	}
+
+}
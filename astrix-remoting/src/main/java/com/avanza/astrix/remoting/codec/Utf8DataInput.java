@@ -0,0 +1,35 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.codec;
+
+import java.io.DataInput;
+import java.io.IOException;
+/**
+ * A {@link DataInput} that is able to decode UTF-8 strings directly from the underlying
+ * buffer without copying the encoded bytes to an intermediate byte array.
+ */
+public interface Utf8DataInput extends DataInput {
+	
+	/**
+	 * Reads a string from the next utf8Length bytes of UTF-8 encoded data.
+	 * 
+	 * @param utf8Length
+	 * @return
+	 * @throws IOException
+	 */
+	String readUtf8(int utf8Length) throws IOException;
+
+}
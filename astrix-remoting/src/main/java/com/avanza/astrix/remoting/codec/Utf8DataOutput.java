@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.codec;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.avanza.astrix.remoting.client.StreamedPayload;
+/**
+ * A {@link DataOutput} that is able to encode strings and payloads as UTF-8 directly into the underlying
+ * buffer. Codecs use it when available to avoid allocating an intermediate byte array
+ * for each string, which matters for the (potentially large) json payloads of 
+ * arguments and response bodies.
+ */
+public interface Utf8DataOutput extends DataOutput {
+	
+	/**
+	 * Writes the UTF-8 encoding of a given string, without any length prefix.
+	 * 
+	 * @param value
+	 * @param utf8Length the number of bytes in the UTF-8 encoding of value, see {@link Utf8#encodedLength(CharSequence)} 
+	 * @throws IOException
+	 */
+	void writeUtf8(String value, int utf8Length) throws IOException;
+	
+	/**
+	 * Serializes a payload straight into the underlying buffer, prefixed by its size in bytes as a
+	 * four byte int. Nothing is written if the payload fails to serialize.
+	 * 
+	 * @param payload
+	 * @throws IOException
+	 */
+	void writeSizePrefixed(StreamedPayload payload) throws IOException;
+
+}
@@ -15,6 +15,9 @@
  */
 package com.avanza.astrix.remoting.server;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
 import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
 import com.avanza.astrix.versioning.core.AstrixObjectSerializer;
@@ -22,7 +25,29 @@ import com.avanza.astrix.versioning.core.AstrixObjectSerializer;
 public interface AstrixServiceActivator {
 
 	AstrixServiceInvocationResponse invokeService(AstrixServiceInvocationRequest invocationRequest);
+	
+	/**
+	 * Invokes a batch of service invocation requests, typically received in a single round trip.
+	 * 
+	 * @param invocationRequests
+	 * @return the response for each request, in the same order as the requests.
+	 */
+	default List<AstrixServiceInvocationResponse> invokeServices(List<AstrixServiceInvocationRequest> invocationRequests) {
+		List<AstrixServiceInvocationResponse> result = new ArrayList<>(invocationRequests.size());
+		for (AstrixServiceInvocationRequest invocationRequest : invocationRequests) {
+			result.add(invokeService(invocationRequest));
+		}
+		return result;
+	}
 
 	void register(Object provider, AstrixObjectSerializer objectSerializer, Class<?> publishedApi);
+	
+	/**
+	 * @param serviceApi the name of a service api, as sent in the request headers
+	 * @return true if a provider for the given service api is registered in this activator
+	 */
+	default boolean isRegistered(String serviceApi) {
+		return false;
+	}
 
 }
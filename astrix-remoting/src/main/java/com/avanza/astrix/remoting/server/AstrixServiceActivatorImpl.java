@@ -16,12 +16,13 @@
 package com.avanza.astrix.remoting.server;
 
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
-import java.util.Arrays;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
@@ -33,17 +34,25 @@ import org.slf4j.LoggerFactory;
 import com.avanza.astrix.beans.config.AstrixConfig;
 import com.avanza.astrix.beans.core.AstrixSettings;
 import com.avanza.astrix.config.DynamicBooleanProperty;
+import com.avanza.astrix.config.DynamicIntProperty;
 import com.avanza.astrix.context.mbeans.MBeanExporter;
 import com.avanza.astrix.context.metrics.Metrics;
-import com.avanza.astrix.context.metrics.Timer;
 import com.avanza.astrix.core.ServiceInvocationException;
-import com.avanza.astrix.core.function.Command;
 import com.avanza.astrix.core.util.ReflectionUtil;
 import com.avanza.astrix.modules.AstrixInject;
 import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequestHeaders;
 import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
+import com.avanza.astrix.remoting.client.BinaryPayloads;
+import com.avanza.astrix.remoting.client.CompressedPayloads;
 import com.avanza.astrix.remoting.client.MissingServiceMethodException;
+import com.avanza.astrix.remoting.client.SerializationMetrics;
+import com.avanza.astrix.remoting.client.SerializationMetricsFactory;
+import com.avanza.astrix.remoting.client.ServiceMethodIds;
+import com.avanza.astrix.remoting.client.StreamedPayload;
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodecs;
 import com.avanza.astrix.versioning.core.AstrixObjectSerializer;
+import com.avanza.astrix.versioning.core.AstrixObjectSerializer.NoVersioningSupport;
 /**
  * Server side component used to invoke exported services. <p> 
  * 
@@ -54,97 +63,223 @@ class AstrixServiceActivatorImpl implements AstrixServiceActivator {
 	
 	private static final Logger logger = LoggerFactory.getLogger(AstrixServiceActivatorImpl.class);
 	private final ConcurrentMap<String, PublishedService<?>> serviceByType = new ConcurrentHashMap<>();
-	private final Metrics metrics;
+	/*
+	 * The most recently invoked service, which spares the lookup by name for consecutive 
+	 * requests to the same service.
+	 */
+	private volatile PublishedService<?> lastInvokedService;
 	private final MBeanExporter mbeanExporter;
 	private final ServiceInvocationMonitor allServicesAggregated;
 	private final DynamicBooleanProperty exportedServiceMetricsEnabled;
+	private final SerializationMetricsFactory serializationMetricsFactory;
+	private final DynamicIntProperty compressionThreshold;
 
 	@AstrixInject
 	public AstrixServiceActivatorImpl(AstrixConfig astrixConfig, Metrics metrics, MBeanExporter mbeanExporter) {
-		this(astrixConfig.get(AstrixSettings.EXPORTED_SERVICE_METRICS_ENABLED), metrics, mbeanExporter);
+		this(astrixConfig.get(AstrixSettings.EXPORTED_SERVICE_METRICS_ENABLED), astrixConfig.get(CompressedPayloads.COMPRESSION_THRESHOLD_BYTES), metrics, mbeanExporter);
 	}
 	
 	// For testnig
-	AstrixServiceActivatorImpl(DynamicBooleanProperty exportedServiceMetricsEnabled, Metrics metrics, MBeanExporter mbeanExporter) {
+	AstrixServiceActivatorImpl(DynamicBooleanProperty exportedServiceMetricsEnabled, DynamicIntProperty compressionThreshold, Metrics metrics, MBeanExporter mbeanExporter) {
 		this.exportedServiceMetricsEnabled = exportedServiceMetricsEnabled;
-		this.metrics = metrics;
+		this.compressionThreshold = compressionThreshold;
 		this.mbeanExporter = mbeanExporter;
+		this.serializationMetricsFactory = new SerializationMetricsFactory(metrics, mbeanExporter, SerializationMetricsFactory.EXPORTED_SERVICES_FOLDER, exportedServiceMetricsEnabled);
 		// Monitor for aggregated stats for all exported services
-		this.allServicesAggregated = new ServiceInvocationMonitor(metrics.createTimer());
+		this.allServicesAggregated = new ServiceInvocationMonitor();
 		mbeanExporter.registerMBean(this.allServicesAggregated, "ExportedServices", "AllServicesAggregated");
 	}
 	
+	/**
+	 * Records each invocation of a service method, using a single pair of timestamps, 
+	 * in the method, service and all-services monitors.
+	 */
 	private static class ServiceInvocationMonitors {
-		private final List<ServiceInvocationMonitor> monitor;
+		private final ServiceInvocationMonitor methodMonitor;
+		private final ServiceInvocationMonitor serviceMonitor;
+		private final ServiceInvocationMonitor allServicesMonitor;
 		private final DynamicBooleanProperty serviceMonitorEnabled;
 		
-		public ServiceInvocationMonitors(DynamicBooleanProperty serviceMonitorEnabled, ServiceInvocationMonitor... monitors) {
+		public ServiceInvocationMonitors(DynamicBooleanProperty serviceMonitorEnabled, ServiceInvocationMonitor methodMonitor, 
+										 ServiceInvocationMonitor serviceMonitor, ServiceInvocationMonitor allServicesMonitor) {
 			this.serviceMonitorEnabled = serviceMonitorEnabled;
-			this.monitor = Arrays.asList(monitors);
+			this.methodMonitor = methodMonitor;
+			this.serviceMonitor = serviceMonitor;
+			this.allServicesMonitor = allServicesMonitor;
+		}
+		
+		public boolean isEnabled() {
+			return serviceMonitorEnabled.get();
 		}
 
-		public Command<AstrixServiceInvocationResponse> monitorServiceInvocation(Command<AstrixServiceInvocationResponse> execution) {
-			if (!serviceMonitorEnabled.get()) {
-				return execution;
-			}
-			for (ServiceInvocationMonitor monitor : monitor) {
-				execution = monitor.monitor(execution);
-			}
-			return execution;
+		public void record(long startNanos, AstrixServiceInvocationResponse response) {
+			long endNanos = System.nanoTime();
+			long durationNanos = endNanos - startNanos;
+			// A null response means that the invocation ended with an Error
+			boolean error = response == null || response.getThrownExceptionType() != null;
+			methodMonitor.record(endNanos, durationNanos, error);
+			serviceMonitor.record(endNanos, durationNanos, error);
+			allServicesMonitor.record(endNanos, durationNanos, error);
 		}
 	}
 	
 	private static class PublishedServiceMethod<T> {
 		private final ServiceInvocationMonitors serviceInvocationMonitors;
 		private final Method serviceMethod;
+		private final String signature;
+		/*
+		 * Bound to the service instance and spreading an Object[] of arguments, i.e. (Object[])Object
+		 */
+		private final MethodHandle serviceMethodHandle;
+		/*
+		 * The parameter types accepted by serviceMethodHandle, i.e. with primitive types wrapped
+		 */
+		private final Class<?>[] argumentTypes;
+		private final Type[] parameterTypes;
 		private final AstrixObjectSerializer objectSerializer;
-		private final T service;
+		private final SerializationMetrics serializationMetrics;
+		private final DynamicIntProperty compressionThreshold;
 		
-		public PublishedServiceMethod(ServiceInvocationMonitors serviceInvocationMonitors, Method method, AstrixObjectSerializer objectSerializer, T service) {
+		public PublishedServiceMethod(ServiceInvocationMonitors serviceInvocationMonitors, Method method, AstrixObjectSerializer objectSerializer, 
+									  SerializationMetrics serializationMetrics, DynamicIntProperty compressionThreshold, T service) {
 			this.serviceInvocationMonitors = serviceInvocationMonitors;
 			this.serviceMethod = method;
+			this.signature = ReflectionUtil.methodSignatureWithoutReturnType(method);
+			this.serviceMethodHandle = createMethodHandle(method, service);
+			this.argumentTypes = MethodType.methodType(void.class, method.getParameterTypes()).wrap().parameterArray();
+			this.parameterTypes = method.getGenericParameterTypes();
 			this.objectSerializer = objectSerializer;
-			this.service = service;
+			this.serializationMetrics = serializationMetrics;
+			this.compressionThreshold = compressionThreshold;
+		}
+		
+		private static MethodHandle createMethodHandle(Method method, Object service) {
+			MethodHandle methodHandle;
+			try {
+				methodHandle = MethodHandles.publicLookup().unreflect(method);
+			} catch (IllegalAccessException e) {
+				// Non public service api
+				method.setAccessible(true);
+				try {
+					methodHandle = MethodHandles.publicLookup().unreflect(method);
+				} catch (IllegalAccessException e2) {
+					throw new IllegalArgumentException("Cannot access service method: " + method, e2);
+				}
+			}
+			return methodHandle.bindTo(service)
+							   .asSpreader(Object[].class, method.getParameterCount())
+							   .asType(MethodType.methodType(Object.class, Object[].class));
 		}
 		
 		private AstrixServiceInvocationResponse timeInvocation(AstrixServiceInvocationRequest request, int version) {
-			return serviceInvocationMonitors.monitorServiceInvocation(() -> invoke(request, version)).call();
+			if (!serviceInvocationMonitors.isEnabled()) {
+				return invoke(request, version);
+			}
+			long start = System.nanoTime();
+			AstrixServiceInvocationResponse response = null;
+			try {
+				response = invoke(request, version);
+				return response;
+			} finally {
+				serviceInvocationMonitors.record(start, response);
+			}
 		}
 		
 		private AstrixServiceInvocationResponse invoke(AstrixServiceInvocationRequest request, int version) {
+			boolean binaryPayloads = objectSerializer.supportsStreaming() 
+					&& "true".equals(request.getHeader(AstrixServiceInvocationRequestHeaders.BINARY_PAYLOADS));
+			AstrixServiceInvocationResponse invocationResponse;
 			try {
-				return invokeService(request, version);
+				invocationResponse = invokeService(request, version, binaryPayloads, acceptsCompressedPayloads(request));
 			} catch (Exception e) {
 				Throwable exceptionThrownByService = resolveException(e);
-				AstrixServiceInvocationResponse invocationResponse = new AstrixServiceInvocationResponse();
+				invocationResponse = new AstrixServiceInvocationResponse();
 				invocationResponse.setExceptionMsg(exceptionThrownByService.getMessage());
 				invocationResponse.setCorrelationId(UUID.randomUUID().toString());
 				if (exceptionThrownByService instanceof ServiceInvocationException) {
-					invocationResponse.setException(this.objectSerializer.serialize(exceptionThrownByService, version));
+					invocationResponse.setException(serialize(exceptionThrownByService, version, binaryPayloads));
 				} else {
 					invocationResponse.setThrownExceptionType(exceptionThrownByService.getClass().getName());
 				}
 				logger.info(String.format("Service invocation ended with exception. request=%s correlationId=%s", request, invocationResponse.getCorrelationId()), exceptionThrownByService);
-				return invocationResponse;
 			}
+			if (binaryPayloads) {
+				invocationResponse.setHeader(AstrixServiceInvocationRequestHeaders.BINARY_PAYLOADS, "true");
+			}
+			return invocationResponse;
 		}
 
-		private AstrixServiceInvocationResponse invokeService(AstrixServiceInvocationRequest request, int version) throws IllegalAccessException,
-				InvocationTargetException {
-			Object[] arguments = unmarshal(request.getArguments(), serviceMethod.getGenericParameterTypes(), version);
-			Object result = serviceMethod.invoke(service, arguments);
+		private boolean acceptsCompressedPayloads(AstrixServiceInvocationRequest request) {
+			return compressionThreshold.get() >= 0 
+					&& CompressedPayloads.DEFLATE.equals(request.getHeader(AstrixServiceInvocationRequestHeaders.COMPRESSED_PAYLOADS));
+		}
+
+		private AstrixServiceInvocationResponse invokeService(AstrixServiceInvocationRequest request, int version, boolean binaryPayloads, boolean compressedPayloads) throws InvocationTargetException {
+			Object[] arguments = unmarshal(request.getArguments(), parameterTypes, version);
+			checkArguments(arguments);
+			Object result;
+			try {
+				result = (Object) serviceMethodHandle.invokeExact(arguments);
+			} catch (Throwable e) {
+				// Exception thrown by service, wrapped the same way as by Method.invoke
+				throw new InvocationTargetException(e);
+			}
 			AstrixServiceInvocationResponse invocationResponse = new AstrixServiceInvocationResponse();
-			if (!serviceMethod.getReturnType().equals(Void.TYPE)) {
-				invocationResponse.setResponseBody(objectSerializer.serialize(result, version));
+			if (serviceMethod.getReturnType().equals(Void.TYPE)) {
+				return invocationResponse;
 			}
+			if (binaryPayloads && !compressedPayloads) {
+				// Serialized by the transport, straight into its buffer
+				invocationResponse.setResponseBody(new StreamedPayload(objectSerializer, result, version, serializationMetrics));
+				return invocationResponse;
+			}
+			long start = serializationMetrics.start();
+			Object responseBody = serialize(result, version, binaryPayloads);
+			serializationMetrics.serialized(start, responseBody);
+			if (compressedPayloads && responseBody instanceof byte[] && ((byte[]) responseBody).length >= compressionThreshold.get()) {
+				responseBody = compress((byte[]) responseBody);
+				invocationResponse.setHeader(AstrixServiceInvocationRequestHeaders.COMPRESSED_PAYLOADS, CompressedPayloads.DEFLATE);
+			}
+			invocationResponse.setResponseBody(responseBody);
 			return invocationResponse;
 		}
+		
+		/*
+		 * Rejects the arguments that Method.invoke rejects, which would otherwise surface as an exception 
+		 * thrown by the service when converted by serviceMethodHandle
+		 */
+		private void checkArguments(Object[] arguments) {
+			if (arguments.length != argumentTypes.length) {
+				throw new IllegalArgumentException("wrong number of arguments");
+			}
+			for (int i = 0; i < arguments.length; i++) {
+				if (arguments[i] == null ? serviceMethod.getParameterTypes()[i].isPrimitive() : !argumentTypes[i].isInstance(arguments[i])) {
+					throw new IllegalArgumentException("argument type mismatch");
+				}
+			}
+		}
+		
+		private byte[] compress(byte[] responseBody) {
+			long start = serializationMetrics.start();
+			byte[] result = CompressedPayloads.compress(responseBody);
+			serializationMetrics.compressed(start, responseBody.length, result.length);
+			return result;
+		}
+		
+		private Object serialize(Object element, int version, boolean binaryPayloads) {
+			if (binaryPayloads) {
+				return BinaryPayloads.serialize(objectSerializer, element, version);
+			}
+			return objectSerializer.serialize(element, version);
+		}
 
 		private Object[] unmarshal(Object[] elements, Type[] types, int version) {
+			long start = serializationMetrics.start();
 			Object[] result = new Object[elements.length];
 			for (int i = 0; i < result.length; i++) {
-				result[i] = objectSerializer.deserialize(elements[i], types[i], version);
+				result[i] = BinaryPayloads.deserialize(objectSerializer, elements[i], types[i], version);
 			}
+			serializationMetrics.deserialized(start, elements);
 			return result;
 		}
 
@@ -153,6 +288,11 @@ class AstrixServiceActivatorImpl implements AstrixServiceActivator {
 	class PublishedService<T> {
 
 		private final Map<String, PublishedServiceMethod<T>> methodBySignature = new HashMap<>();
+		private final Map<String, PublishedServiceMethod<T>> methodById = new HashMap<>();
+		/*
+		 * Service method ids are only acknowledged to clients if they are unique within this service 
+		 */
+		private final boolean serviceMethodIds;
 		/*
 		 * Overloaded service methods share the same Metrics
 		 */
@@ -160,39 +300,90 @@ class AstrixServiceActivatorImpl implements AstrixServiceActivator {
 		private final AstrixObjectSerializer objectSerializer;
 		private Class<?> providedApi;
 		private ServiceInvocationMonitor serviceMonitor;
+		/*
+		 * The api version of the most recent request, along with its parsed value
+		 */
+		private volatile ApiVersion lastApiVersion;
 
 		public PublishedService(T service, AstrixObjectSerializer serializer, Class<?> providedApi) {
 			this.objectSerializer = serializer;
 			this.providedApi = providedApi;
 			// Monitor for service-level metrics (aggregated stats for all methods)
-			this.serviceMonitor = new ServiceInvocationMonitor(metrics.createTimer());
+			this.serviceMonitor = new ServiceInvocationMonitor();
 			mbeanExporter.registerMBean(this.serviceMonitor, "ExportedServices", providedApi.getName());
+			if (objectSerializer.version() != NoVersioningSupport.NO_VERSIONING) {
+				mbeanExporter.registerMBean(new MessageMigrationMonitor(objectSerializer), "ExportedServices", providedApi.getName() + "#migrations");
+			}
 			for (Method m : providedApi.getMethods()) {
 				ServiceInvocationMonitors serviceInvocationMonitors = serviceInvocationMonitorsByMethodName.computeIfAbsent(m.getName(), this::createServiceInvocationMonitors);
-				methodBySignature.put(ReflectionUtil.methodSignatureWithoutReturnType(m), new PublishedServiceMethod<>(serviceInvocationMonitors, m, objectSerializer, service));
+				SerializationMetrics serializationMetrics = serializationMetricsFactory.getMetrics(providedApi.getName(), m.getName());
+				String signature = ReflectionUtil.methodSignatureWithoutReturnType(m);
+				PublishedServiceMethod<T> publishedServiceMethod = new PublishedServiceMethod<>(serviceInvocationMonitors, m, objectSerializer, serializationMetrics, compressionThreshold, service);
+				methodBySignature.put(signature, publishedServiceMethod);
+				methodById.put(ServiceMethodIds.methodId(signature), publishedServiceMethod);
+			}
+			this.serviceMethodIds = methodById.size() == methodBySignature.size();
+			if (!this.serviceMethodIds) {
+				logger.warn("Ambiguous service method ids, clients will identify methods using the full method signature. service={}", providedApi.getName());
 			}
 		}
 
 		private ServiceInvocationMonitors createServiceInvocationMonitors(String methodName) {
-			Timer methodTimer = metrics.createTimer();
 			// Monitor for method level metrics
-			ServiceInvocationMonitor methodMonitor = new ServiceInvocationMonitor(methodTimer);
+			ServiceInvocationMonitor methodMonitor = new ServiceInvocationMonitor();
 			mbeanExporter.registerMBean(methodMonitor, "ExportedServices", providedApi.getName() + "#" + methodName);
 			ServiceInvocationMonitors result = new ServiceInvocationMonitors(exportedServiceMetricsEnabled, methodMonitor, serviceMonitor, allServicesAggregated);
 			return result;
 		}
 		
 		private AstrixServiceInvocationResponse invoke(AstrixServiceInvocationRequest request, int version, String serviceApi) {
-			String serviceMethodSignature = request.getHeader("serviceMethodSignature");
+			String serviceMethodId = request.getHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_ID);
+			if (serviceMethodId == null || !serviceMethodIds) {
+				// Old client
+				return getServiceMethodBySignature(request, serviceApi).timeInvocation(request, version);
+			}
+			PublishedServiceMethod<T> serviceMethod = methodById.get(serviceMethodId);
+			String serviceMethodSignature = request.getHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_SIGNATURE);
+			if (serviceMethod == null || (serviceMethodSignature != null && !serviceMethod.signature.equals(serviceMethodSignature))) {
+				// Unknown id, or the id of another method in this service. Don't acknowledge ids to the client
+				return getServiceMethodBySignature(request, serviceApi).timeInvocation(request, version);
+			}
+			AstrixServiceInvocationResponse response = serviceMethod.timeInvocation(request, version);
+			response.setHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_IDS, "true");
+			return response;
+		}
+		
+		private int parseApiVersion(String apiVersionHeader) {
+			ApiVersion apiVersion = this.lastApiVersion;
+			if (apiVersion == null || !apiVersion.header.equals(apiVersionHeader)) {
+				apiVersion = new ApiVersion(apiVersionHeader, Integer.parseInt(apiVersionHeader));
+				this.lastApiVersion = apiVersion;
+			}
+			return apiVersion.version;
+		}
+		
+		private PublishedServiceMethod<T> getServiceMethodBySignature(AstrixServiceInvocationRequest request, String serviceApi) {
+			String serviceMethodSignature = request.getHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_SIGNATURE);
 			PublishedServiceMethod<T> serviceMethod = methodBySignature.get(serviceMethodSignature);
 			if (serviceMethod == null) {
-				throw new MissingServiceMethodException(String.format("Missing service method: service=%s method=%s", serviceApi, serviceMethodSignature));
+				throw new MissingServiceMethodException(String.format("Missing service method: service=%s method=%s methodId=%s", 
+						serviceApi, serviceMethodSignature, request.getHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_ID)));
 			}
-			return serviceMethod.timeInvocation(request, version);
+			return serviceMethod;
 		}
 		
 	}
 	
+	private static final class ApiVersion {
+		private final String header;
+		private final int version;
+		
+		ApiVersion(String header, int version) {
+			this.header = header;
+			this.version = version;
+		}
+	}
+	
 	@Override
 	public void register(Object provider, AstrixObjectSerializer objectSerializer, Class<?> publishedApi) {
 		if (!publishedApi.isAssignableFrom(provider.getClass())) {
@@ -200,6 +391,12 @@ class AstrixServiceActivatorImpl implements AstrixServiceActivator {
 		}
 		PublishedService<?> publishedService = new PublishedService<>(provider, objectSerializer, publishedApi);
 		this.serviceByType.put(publishedApi.getName(), publishedService);
+		this.lastInvokedService = null;
+	}
+	
+	@Override
+	public boolean isRegistered(String serviceApi) {
+		return this.serviceByType.containsKey(serviceApi);
 	}
 	
 	/**
@@ -208,9 +405,8 @@ class AstrixServiceActivatorImpl implements AstrixServiceActivator {
 	 */
 	@Override
 	public AstrixServiceInvocationResponse invokeService(final AstrixServiceInvocationRequest request) {
-		final int version = Integer.parseInt(request.getHeader("apiVersion"));
-		final String serviceApi = request.getHeader("serviceApi");
-		final PublishedService<?> publishedService = this.serviceByType.get(serviceApi);
+		final String serviceApi = request.getHeader(AstrixServiceInvocationRequestHeaders.SERVICE_API);
+		final PublishedService<?> publishedService = getPublishedService(serviceApi);
 		if (publishedService == null) {
 			/*
 			 * Service not available. This might happen in rare conditions when a processing unit
@@ -223,7 +419,28 @@ class AstrixServiceActivatorImpl implements AstrixServiceActivator {
 			logger.info(String.format("Service not available. request=%s correlationId=%s", request, invocationResponse.getCorrelationId()));
 			return invocationResponse;
 		}
-		return publishedService.invoke(request, version, serviceApi);
+		int version = publishedService.parseApiVersion(request.getHeader(AstrixServiceInvocationRequestHeaders.API_VERSION));
+		AstrixServiceInvocationResponse response = publishedService.invoke(request, version, serviceApi);
+		if (request.getHeader(AstrixServiceInvocationRequestHeaders.ENVELOPE_FORMATS) != null) {
+			response.setHeader(AstrixServiceInvocationRequestHeaders.ENVELOPE_FORMATS, RemotingEnvelopeCodecs.ACCEPTED_FORMATS);
+		}
+		return response;
+	}
+	
+	private PublishedService<?> getPublishedService(String serviceApi) {
+		PublishedService<?> lastInvoked = this.lastInvokedService;
+		if (lastInvoked != null && lastInvoked.providedApi.getName().equals(serviceApi)) {
+			return lastInvoked;
+		}
+		PublishedService<?> result = this.serviceByType.get(serviceApi);
+		if (result != null) {
+			this.lastInvokedService = result;
+			if (this.serviceByType.get(serviceApi) != result) {
+				// Replaced by a concurrent registration
+				this.lastInvokedService = null;
+			}
+		}
+		return result;
 	}
 
 	private static Throwable resolveException(Exception e) {
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.server;
+
+import java.util.Map;
+
+import com.avanza.astrix.versioning.core.AstrixObjectSerializer;
+
+/**
+ * Exposes the number of messages migrated by the serializer of an exported service, 
+ * by the version the messages were migrated from/to. <p>
+ */
+public class MessageMigrationMonitor implements MessageMigrationMonitorMBean {
+	
+	private final AstrixObjectSerializer objectSerializer;
+
+	public MessageMigrationMonitor(AstrixObjectSerializer objectSerializer) {
+		this.objectSerializer = objectSerializer;
+	}
+
+	@Override
+	public long getMigratedMessageCount() {
+		long result = 0;
+		for (Long count : objectSerializer.getMigratedMessageCountByVersion().values()) {
+			result += count;
+		}
+		return result;
+	}
+
+	@Override
+	public Map<Integer, Long> getMigratedMessageCountByVersion() {
+		return objectSerializer.getMigratedMessageCountByVersion();
+	}
+
+}
@@ -16,84 +16,113 @@
 package com.avanza.astrix.remoting.server;
 
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
-import com.avanza.astrix.context.metrics.Timer;
-import com.avanza.astrix.core.function.Command;
-import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
+import com.avanza.astrix.context.metrics.IntervalHistogram;
 
+/**
+ * Invocation statistics for an exported service method, an exported service or
+ * all services exported by an application. <p>
+ * 
+ * Recording an invocation is lock-free. Latency percentiles, min, max, mean and 
+ * rate are reported for the last one to two minutes, see {@link IntervalHistogram}. 
+ * 
+ * @author Elias Lindholm (elilin)
+ *
+ */
 public class ServiceInvocationMonitor implements ServiceInvocationMonitorMBean {
 	
-	private Timer timer;
-	private AtomicLong errorCount = new AtomicLong();
+	private static final TimeUnit DURATION_UNIT = TimeUnit.MILLISECONDS;
+	private static final double NANOS_PER_DURATION_UNIT = DURATION_UNIT.toNanos(1);
 	
-	public ServiceInvocationMonitor(Timer timer) {
-		this.timer = timer;
-	}
-	
-	public Command<AstrixServiceInvocationResponse> monitor(Command<AstrixServiceInvocationResponse> execution) {
-		return () -> {
-			AstrixServiceInvocationResponse result = timer.timeExecution(execution).call();
-			if (result.getThrownExceptionType() != null) {
-				errorCount.incrementAndGet();
-			}
-			return result;
-		};
-	}
+	private final LongAdder invocationCount = new LongAdder();
+	private final LongAdder errorCount = new LongAdder();
+	private final IntervalHistogram latencies = new IntervalHistogram();
 	
-	public ServiceInvocationMonitor(Timer timer, AtomicLong errorCount) {
-		this.timer = timer;
-		this.errorCount = errorCount;
+	/**
+	 * @param endNanos - the time when the invocation ended, as returned by {@link System#nanoTime()}
+	 * @param durationNanos
+	 * @param error - whether the invocation ended with an exception
+	 */
+	void record(long endNanos, long durationNanos, boolean error) {
+		invocationCount.increment();
+		if (error) {
+			errorCount.increment();
+		}
+		latencies.record(endNanos, durationNanos);
 	}
 
 	@Override
 	public long getInvocationCount() {
-		return timer.getCount();
+		return invocationCount.sum();
 	}
 
 	@Override
 	public long getErrorCount() {
-		return errorCount.get();
+		return errorCount.sum();
 	}
 
 	@Override
 	public double get50thPercentile() {
-		return timer.get50thPercentile();
+		return toDurationUnit(snapshot().getValueAtQuantile(0.5));
 	}
 
 	@Override
 	public double get99thPercentile() {
-		return timer.get99thPercentile();
+		return toDurationUnit(snapshot().getValueAtQuantile(0.99));
+	}
+
+	@Override
+	public double get90thPercentile() {
+		return toDurationUnit(snapshot().getValueAtQuantile(0.9));
+	}
+	
+	@Override
+	public double get999thPercentile() {
+		return toDurationUnit(snapshot().getValueAtQuantile(0.999));
+	}
+	
+	@Override
+	public double get9999thPercentile() {
+		return toDurationUnit(snapshot().getValueAtQuantile(0.9999));
 	}
 
 	@Override
 	public double getMax() {
-		return timer.getMax();
+		return toDurationUnit(snapshot().getMax());
 	}
 
 	@Override
 	public double getMean() {
-		return timer.getMean();
+		return toDurationUnit(snapshot().getMean());
 	}
 
 	@Override
 	public double getMin() {
-		return timer.getMin();
+		return toDurationUnit(snapshot().getMin());
 	}
 
 	@Override
 	public double getOneMinuteRate() {
-		return timer.getOneMinuteRate();
+		return snapshot().getRate();
 	}
 
 	@Override
 	public TimeUnit getRateUnit() {
-		return timer.getRateUnit();
+		return TimeUnit.SECONDS;
 	}
 
 	@Override
 	public TimeUnit getDurationUnit() {
-		return timer.getDurationUnit();
+		return DURATION_UNIT;
+	}
+	
+	private IntervalHistogram.Snapshot snapshot() {
+		return latencies.getSnapshot(System.nanoTime());
+	}
+	
+	private static double toDurationUnit(double nanos) {
+		return nanos / NANOS_PER_DURATION_UNIT;
 	}
 
 }
@@ -27,6 +27,12 @@ public interface ServiceInvocationMonitorMBean {
 	
 	double get99thPercentile();
 	
+	double get90thPercentile();
+	
+	double get999thPercentile();
+	
+	double get9999thPercentile();
+	
 	double getMax();
 	
 	double getMean();
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.client;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.avanza.astrix.core.remoting.RoutingKey;
+
+public class ArgumentPartitionerTest {
+	
+	private static final int PARTITION_COUNT = 3;
+	
+	@Test
+	public void longArrayElementsAreRoutedAsTheirBoxedRoutingKey() throws Exception {
+		long[] keys = new long[] { 1L, -5L, Long.MAX_VALUE, Long.MIN_VALUE, 1L << 40, 7L };
+		Object[] partitions = ArgumentPartitioner.array(long.class, PartitionedRouter.identity()).partition(keys, PARTITION_COUNT);
+		
+		for (long key : keys) {
+			long[] partition = (long[]) partitions[partitionOf(key)];
+			assertEquals(1, Arrays.stream(partition).filter(k -> k == key).count());
+		}
+		assertEquals(keys.length, Arrays.stream(partitions).mapToInt(p -> p == null ? 0 : ((long[]) p).length).sum());
+	}
+	
+	@Test
+	public void intArrayElementsAreRoutedAsTheirBoxedRoutingKey() throws Exception {
+		int[] keys = new int[] { 0, 1, 2, 3, -4, Integer.MIN_VALUE };
+		Object[] partitions = ArgumentPartitioner.array(int.class, PartitionedRouter.identity()).partition(keys, PARTITION_COUNT);
+		
+		for (int key : keys) {
+			int[] partition = (int[]) partitions[partitionOf(key)];
+			assertEquals(1, Arrays.stream(partition).filter(k -> k == key).count());
+		}
+	}
+	
+	@Test
+	public void objectArrayIsPartitionedIntoArraysOfElementType() throws Exception {
+		String[] keys = new String[] { "a", "b", "c", "d" };
+		Object[] partitions = ArgumentPartitioner.array(String.class, PartitionedRouter.identity()).partition(keys, PARTITION_COUNT);
+		
+		for (String key : keys) {
+			String[] partition = (String[]) partitions[partitionOf(key)];
+			assertEquals(1, Arrays.stream(partition).filter(key::equals).count());
+		}
+	}
+	
+	@Test
+	public void collectionIsPartitionedUsingCollectionFactory() throws Exception {
+		Object[] partitions = ArgumentPartitioner.collection(HashSet.class, PartitionedRouter.identity()).partition(Arrays.asList(0, 3, 6), PARTITION_COUNT);
+		
+		assertEquals(HashSet.class, partitions[0].getClass());
+		assertEquals(new HashSet<>(Arrays.asList(0, 3, 6)), (Set<?>) partitions[0]);
+		assertNull(partitions[1]);
+		assertNull(partitions[2]);
+	}
+	
+	@Test
+	public void emptyArgumentResultsInNoPartitions() throws Exception {
+		assertArrayEquals(new Object[PARTITION_COUNT], ArgumentPartitioner.array(long.class, PartitionedRouter.identity()).partition(new long[0], PARTITION_COUNT));
+	}
+	
+	private static int partitionOf(Object key) {
+		return RoutingKey.create(key).hashCode() % PARTITION_COUNT;
+	}
+
+}
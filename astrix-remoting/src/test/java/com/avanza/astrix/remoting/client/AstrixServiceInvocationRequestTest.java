@@ -0,0 +1,42 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class AstrixServiceInvocationRequestTest {
+	
+	@Test
+	public void headersReturnedByGetHeadersAreModifiableWithoutAffectingSharedHeaders() throws Exception {
+		Map<String, String> sharedHeaders = Collections.unmodifiableMap(new HashMap<>(Collections.singletonMap("foo", "bar")));
+		AstrixServiceInvocationRequest request = new AstrixServiceInvocationRequest(sharedHeaders);
+		
+		request.getHeaders().put("baz", "qux");
+		
+		assertEquals("qux", request.getHeader("baz"));
+		assertEquals("bar", request.getHeader("foo"));
+		assertNull(sharedHeaders.get("baz"));
+		assertEquals(2, request.getReadOnlyHeaders().size());
+	}
+
+}
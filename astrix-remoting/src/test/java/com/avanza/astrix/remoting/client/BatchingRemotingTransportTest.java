@@ -0,0 +1,168 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.client;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.avanza.astrix.core.ServiceUnavailableException;
+import com.avanza.astrix.core.remoting.RoutingKey;
+
+import rx.Observable;
+
+public class BatchingRemotingTransportTest {
+	
+	private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+	private final RecordingTransport target = new RecordingTransport(2);
+	
+	@After
+	public void after() {
+		scheduler.shutdownNow();
+	}
+	
+	@Test
+	public void coalescesRequestsToSamePartitionIntoSingleBatch() throws Exception {
+		BatchingRemotingTransport transport = new BatchingRemotingTransport(target, scheduler, TimeUnit.SECONDS.toMicros(10), 3);
+		
+		List<Observable<AstrixServiceInvocationResponse>> responses = new ArrayList<>();
+		for (String arg : new String[] { "a", "b", "c" }) {
+			Observable<AstrixServiceInvocationResponse> response = transport.submitRoutedRequest(request(arg), RoutingKey.create(2)).cache();
+			response.subscribe();
+			responses.add(response);
+		}
+		
+		assertEquals(1, target.batches.size());
+		assertEquals(3, target.batches.get(0).size());
+		assertEquals("a", responses.get(0).toBlocking().first().getResponseBody());
+		assertEquals("b", responses.get(1).toBlocking().first().getResponseBody());
+		assertEquals("c", responses.get(2).toBlocking().first().getResponseBody());
+	}
+	
+	@Test
+	public void flushesPendingRequestsWhenWindowExpires() throws Exception {
+		BatchingRemotingTransport transport = new BatchingRemotingTransport(target, scheduler, 1000, 32);
+		
+		Observable<AstrixServiceInvocationResponse> first = transport.submitRoutedRequest(request("a"), RoutingKey.create(0));
+		Observable<AstrixServiceInvocationResponse> second = transport.submitRoutedRequest(request("b"), RoutingKey.create(1));
+		
+		assertEquals("a", first.toBlocking().first().getResponseBody());
+		assertEquals("b", second.toBlocking().first().getResponseBody());
+		assertEquals("Requests to different partitions should not be batched", 0, target.batches.size());
+		assertEquals(2, target.singleRequests.size());
+	}
+	
+	@Test
+	public void batchFailureIsPropagatedToAllSubscribers() throws Exception {
+		target.failBatches = true;
+		BatchingRemotingTransport transport = new BatchingRemotingTransport(target, scheduler, TimeUnit.SECONDS.toMicros(10), 2);
+		
+		Observable<AstrixServiceInvocationResponse> first = transport.submitRoutedRequest(request("a"), RoutingKey.create(0)).cache();
+		first.subscribe(r -> { }, e -> { });
+		Observable<AstrixServiceInvocationResponse> second = transport.submitRoutedRequest(request("b"), RoutingKey.create(0)).cache();
+		second.subscribe(r -> { }, e -> { });
+		
+		assertEquals(IllegalStateException.class, first.materialize().toBlocking().first().getThrowable().getClass());
+		assertEquals(IllegalStateException.class, second.materialize().toBlocking().first().getThrowable().getClass());
+	}
+	
+	@Test
+	public void failsAllSubscribersWhenBatchResponseIsMissingResponses() throws Exception {
+		target.dropLastBatchResponse = true;
+		BatchingRemotingTransport transport = new BatchingRemotingTransport(target, scheduler, TimeUnit.SECONDS.toMicros(10), 2);
+		
+		Observable<AstrixServiceInvocationResponse> first = transport.submitRoutedRequest(request("a"), RoutingKey.create(0)).cache();
+		first.subscribe(r -> { }, e -> { });
+		Observable<AstrixServiceInvocationResponse> second = transport.submitRoutedRequest(request("b"), RoutingKey.create(0)).cache();
+		second.subscribe(r -> { }, e -> { });
+		
+		assertEquals(ServiceUnavailableException.class, first.materialize().toBlocking().first().getThrowable().getClass());
+		assertEquals(ServiceUnavailableException.class, second.materialize().toBlocking().first().getThrowable().getClass());
+	}
+	
+	private static AstrixServiceInvocationRequest request(String arg) {
+		AstrixServiceInvocationRequest request = new AstrixServiceInvocationRequest();
+		request.setArguments(new Object[] { arg });
+		return request;
+	}
+	
+	private static AstrixServiceInvocationResponse echo(AstrixServiceInvocationRequest request) {
+		AstrixServiceInvocationResponse response = new AstrixServiceInvocationResponse();
+		response.setResponseBody(request.getArguments()[0]);
+		return response;
+	}
+	
+	private static class RecordingTransport implements RemotingTransportSpi {
+		
+		private final List<List<AstrixServiceInvocationRequest>> batches = new CopyOnWriteArrayList<>();
+		private final List<AstrixServiceInvocationRequest> singleRequests = new CopyOnWriteArrayList<>();
+		private final int partitionCount;
+		private volatile boolean failBatches = false;
+		private volatile boolean dropLastBatchResponse = false;
+		
+		public RecordingTransport(int partitionCount) {
+			this.partitionCount = partitionCount;
+		}
+
+		@Override
+		public Observable<AstrixServiceInvocationResponse> submitRoutedRequest(AstrixServiceInvocationRequest request, RoutingKey routingKey) {
+			singleRequests.add(request);
+			return Observable.just(echo(request));
+		}
+		
+		@Override
+		public Observable<List<AstrixServiceInvocationResponse>> submitRoutedBatch(List<AstrixServiceInvocationRequest> requests, RoutingKey routingKey) {
+			batches.add(requests);
+			if (failBatches) {
+				return Observable.error(new IllegalStateException("Batch failed"));
+			}
+			List<AstrixServiceInvocationResponse> responses = new ArrayList<>();
+			for (AstrixServiceInvocationRequest request : requests) {
+				responses.add(echo(request));
+			}
+			if (dropLastBatchResponse) {
+				responses.remove(responses.size() - 1);
+			}
+			return Observable.just(responses);
+		}
+
+		@Override
+		public Observable<List<AstrixServiceInvocationResponse>> submitRoutedRequests(Collection<RoutedServiceInvocationRequest> requests) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Observable<List<AstrixServiceInvocationResponse>> submitBroadcastRequest(AstrixServiceInvocationRequest request) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public int partitionCount() {
+			return partitionCount;
+		}
+		
+	}
+
+}
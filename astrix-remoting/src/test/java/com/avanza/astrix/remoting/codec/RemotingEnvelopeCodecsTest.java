@@ -0,0 +1,203 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.remoting.codec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.avanza.astrix.config.DynamicBooleanProperty;
+import com.avanza.astrix.context.metrics.Metrics;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequestHeaders;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
+import com.avanza.astrix.remoting.client.SerializationMetrics;
+import com.avanza.astrix.remoting.client.StreamedPayload;
+import com.avanza.astrix.versioning.core.AstrixObjectSerializer.NoVersioningSupport;
+
+public class RemotingEnvelopeCodecsTest {
+	
+	@Test
+	public void binaryFormat_RequestRoundTrip() throws Exception {
+		AstrixServiceInvocationRequest request = createRequest();
+		
+		byte[] encoded = RemotingEnvelopeCodecs.encodeRequest(RemotingEnvelopeCodecs.BINARY, request);
+		AstrixServiceInvocationRequest decoded = RemotingEnvelopeCodecs.decodeRequest(encoded);
+		
+		assertEquals(request.getHeaders(), decoded.getHeaders());
+		assertEquals(4, decoded.getArguments().length);
+		assertEquals("{\"foo\":\"åäö\"}", decoded.getArguments()[0]);
+		assertArrayEquals(new byte[] {1, 2, 3}, (byte[]) decoded.getArguments()[1]);
+		assertNull(decoded.getArguments()[2]);
+		assertEquals(Arrays.asList("a", "b"), decoded.getArguments()[3]);
+	}
+	
+	@Test
+	public void binaryFormat_RequestWithoutArguments() throws Exception {
+		AstrixServiceInvocationRequest request = new AstrixServiceInvocationRequest();
+		
+		AstrixServiceInvocationRequest decoded = RemotingEnvelopeCodecs.decodeRequest(RemotingEnvelopeCodecs.encodeRequest(RemotingEnvelopeCodecs.BINARY, request));
+		
+		assertNull(decoded.getArguments());
+		assertTrue(decoded.getHeaders().isEmpty());
+	}
+	
+	@Test
+	public void binaryFormat_ResponseRoundTrip() throws Exception {
+		AstrixServiceInvocationResponse response = new AstrixServiceInvocationResponse();
+		response.setResponseBody("\"hello\"");
+		response.setThrownExceptionType("java.lang.IllegalStateException");
+		response.setExceptionMsg("failure");
+		response.setCorrelationId("correlation-id");
+		response.setServiceUnavailable(true);
+		response.setHeader("custom-header", "custom-value");
+		
+		byte[] encoded = RemotingEnvelopeCodecs.encodeResponse(RemotingEnvelopeCodecs.BINARY, response);
+		AstrixServiceInvocationResponse decoded = RemotingEnvelopeCodecs.decodeResponse(encoded);
+		
+		assertEquals("\"hello\"", decoded.getResponseBody());
+		assertNull(decoded.getException());
+		assertEquals("java.lang.IllegalStateException", decoded.getThrownExceptionType());
+		assertEquals("failure", decoded.getExceptionMsg());
+		assertEquals("correlation-id", decoded.getCorrelationId());
+		assertTrue(decoded.isServiceUnavailable());
+		assertEquals("custom-value", decoded.getHeader("custom-header"));
+	}
+	
+	@Test
+	public void binaryFormatIsSmallerThanJavaSerialization() throws Exception {
+		AstrixServiceInvocationRequest request = createRequest();
+		
+		byte[] binary = RemotingEnvelopeCodecs.encodeRequest(RemotingEnvelopeCodecs.BINARY, request);
+		byte[] java = RemotingEnvelopeCodecs.encodeRequest(RemotingEnvelopeCodecs.JAVA_SERIALIZATION, request);
+		
+		assertTrue("binary: " + binary.length + ", java: " + java.length, binary.length < java.length);
+	}
+	
+	@Test
+	public void javaSerializationFormat_RoundTrip() throws Exception {
+		AstrixServiceInvocationRequest request = createRequest();
+		
+		byte[] encoded = RemotingEnvelopeCodecs.encodeRequest(RemotingEnvelopeCodecs.JAVA_SERIALIZATION, request);
+		AstrixServiceInvocationRequest decoded = RemotingEnvelopeCodecs.decodeRequest(encoded);
+		
+		assertSame(RemotingEnvelopeCodecs.JAVA_SERIALIZATION, RemotingEnvelopeCodecs.formatOf(encoded));
+		assertEquals(request.getHeaders(), decoded.getHeaders());
+		assertEquals("{\"foo\":\"åäö\"}", decoded.getArguments()[0]);
+	}
+	
+	@Test
+	public void formatIsIdentifiedByLeadingFormatId() throws Exception {
+		byte[] encoded = RemotingEnvelopeCodecs.encodeRequest(RemotingEnvelopeCodecs.BINARY, createRequest());
+		
+		assertSame(RemotingEnvelopeCodecs.BINARY, RemotingEnvelopeCodecs.formatOf(encoded));
+		assertSame(RemotingEnvelopeCodecs.BINARY, RemotingEnvelopeCodecs.forName("binary"));
+		assertSame(RemotingEnvelopeCodecs.JAVA_SERIALIZATION, RemotingEnvelopeCodecs.forName("java"));
+	}
+	
+	@Test
+	public void binaryFormat_NonAsciiStrings() throws Exception {
+		String body = "{\"name\":\"\u00e5\u00e4\u00f6 \u20ac \ud83d\ude00\"}";
+		AstrixServiceInvocationRequest request = new AstrixServiceInvocationRequest();
+		request.setArguments(new Object[] { body });
+		
+		byte[] encoded = RemotingEnvelopeCodecs.encodeRequest(RemotingEnvelopeCodecs.BINARY, request);
+		
+		assertEquals(body, RemotingEnvelopeCodecs.decodeRequest(encoded).getArguments()[0]);
+	}
+	
+	@Test
+	public void utf8EncodedLength() throws Exception {
+		for (String value : Arrays.asList("", "ascii", "\u00e5\u00e4\u00f6", "\u20ac", "\ud83d\ude00", "unpaired \ud83d surrogate")) {
+			assertEquals(value, value.getBytes(StandardCharsets.UTF_8).length, Utf8.encodedLength(value));
+		}
+	}
+	
+	@Test
+	public void javaSerializationFormat_IsCompatibleWithPlainJavaSerialization() throws Exception {
+		AstrixServiceInvocationRequest request = createRequest();
+		ByteArrayOutputStream legacyRequest = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(legacyRequest)) {
+			out.writeObject(request);
+		}
+		
+		AstrixServiceInvocationRequest decoded = RemotingEnvelopeCodecs.decodeRequest(legacyRequest.toByteArray());
+		assertEquals(request.getHeaders(), decoded.getHeaders());
+		assertEquals("{\"foo\":\"åäö\"}", decoded.getArguments()[0]);
+		
+		AstrixServiceInvocationResponse response = new AstrixServiceInvocationResponse();
+		response.setResponseBody("\"hello\"");
+		byte[] encoded = RemotingEnvelopeCodecs.encodeResponse(RemotingEnvelopeCodecs.JAVA_SERIALIZATION, response);
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(encoded))) {
+			assertEquals("\"hello\"", ((AstrixServiceInvocationResponse) in.readObject()).getResponseBody());
+		}
+	}
+	
+	@Test(expected = RuntimeException.class)
+	public void binaryFormat_CorruptLengthIsRejected() throws Exception {
+		AstrixServiceInvocationRequest request = new AstrixServiceInvocationRequest();
+		request.setArguments(new Object[] { new byte[] {1, 2, 3} });
+		byte[] encoded = RemotingEnvelopeCodecs.encodeRequest(RemotingEnvelopeCodecs.BINARY, request);
+		
+		// [format id][header count][argument count + 1][tag][length][bytes], replace length with Integer.MAX_VALUE
+		byte[] corrupt = new byte[encoded.length + 4];
+		System.arraycopy(encoded, 0, corrupt, 0, 4);
+		System.arraycopy(new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07}, 0, corrupt, 4, 5);
+		System.arraycopy(encoded, 5, corrupt, 9, 3);
+		
+		RemotingEnvelopeCodecs.decodeRequest(corrupt);
+	}
+	
+	@Test
+	public void streamedResponseBodyIsDecodedAsBytes() throws Exception {
+		SerializationMetrics serializationMetrics = new SerializationMetrics(new Metrics.NoMetrics(), new DynamicBooleanProperty(true));
+		for (RemotingEnvelopeCodec codec : Arrays.asList(RemotingEnvelopeCodecs.BINARY, RemotingEnvelopeCodecs.JAVA_SERIALIZATION)) {
+			AstrixServiceInvocationResponse response = new AstrixServiceInvocationResponse();
+			response.setResponseBody(new StreamedPayload(new NoVersioningSupport(), "{\"greeting\":\"hej å\"}", 1, serializationMetrics));
+			
+			AstrixServiceInvocationResponse decoded = RemotingEnvelopeCodecs.decodeResponse(RemotingEnvelopeCodecs.encodeResponse(codec, response));
+			
+			assertArrayEquals(codec.name(), "{\"greeting\":\"hej å\"}".getBytes(StandardCharsets.UTF_8), (byte[]) decoded.getResponseBody());
+		}
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void unknownFormatName_throwsIllegalArgumentException() throws Exception {
+		RemotingEnvelopeCodecs.forName("xml");
+	}
+
+	private AstrixServiceInvocationRequest createRequest() {
+		AstrixServiceInvocationRequest request = new AstrixServiceInvocationRequest();
+		request.setHeader(AstrixServiceInvocationRequestHeaders.API_VERSION, "2");
+		request.setHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_SIGNATURE, "hello(java.lang.String)");
+		request.setHeader(AstrixServiceInvocationRequestHeaders.SERVICE_API, "com.avanza.PingService");
+		request.setHeader("custom-header", "custom-value");
+		request.setArguments(new Object[] {"{\"foo\":\"åäö\"}", new byte[] {1, 2, 3}, null, Arrays.asList("a", "b")});
+		return request;
+	}
+
+}
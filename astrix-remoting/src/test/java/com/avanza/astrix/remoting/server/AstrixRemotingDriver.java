@@ -21,8 +21,11 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.stream.IntStream;
@@ -33,8 +36,12 @@ import com.avanza.astrix.beans.core.ReactiveTypeConverter;
 import com.avanza.astrix.beans.core.ReactiveTypeConverterImpl;
 import com.avanza.astrix.beans.core.ReactiveTypeHandlerPlugin;
 import com.avanza.astrix.config.DynamicBooleanProperty;
+import com.avanza.astrix.config.DynamicIntProperty;
 import com.avanza.astrix.context.JavaSerializationSerializer;
 import com.avanza.astrix.context.mbeans.MBeanExporter;
+import com.avanza.astrix.context.metrics.Histogram;
+import com.avanza.astrix.context.metrics.HistogramSnapshot;
+import com.avanza.astrix.context.metrics.HistogramSpi;
 import com.avanza.astrix.context.metrics.Metrics;
 import com.avanza.astrix.context.metrics.Timer;
 import com.avanza.astrix.context.metrics.TimerSnaphot;
@@ -45,11 +52,13 @@ import com.avanza.astrix.core.remoting.Router;
 import com.avanza.astrix.core.remoting.RoutingKey;
 import com.avanza.astrix.core.remoting.RoutingStrategy;
 import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequestHeaders;
 import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
 import com.avanza.astrix.remoting.client.RemotingProxy;
 import com.avanza.astrix.remoting.client.RemotingTransport;
 import com.avanza.astrix.remoting.client.RemotingTransportSpi;
 import com.avanza.astrix.remoting.client.RoutedServiceInvocationRequest;
+import com.avanza.astrix.remoting.client.SerializationMetricsFactory;
 import com.avanza.astrix.versioning.core.AstrixObjectSerializer;
 
 import rx.Observable;
@@ -64,6 +73,10 @@ public class AstrixRemotingDriver {
 		public Timer createTimer() {
 			return new Timer(new FakeTimer());
 		}
+		@Override
+		public Histogram createHistogram() {
+			return new Histogram(new FakeHistogram());
+		}
 	};
 	private MBeanExporter exporter = new MBeanExporter() {
 		@Override
@@ -73,8 +86,12 @@ public class AstrixRemotingDriver {
 	};
 	private ReactiveTypeConverter reactiveTypeConverter = new ReactiveTypeConverterImpl(Collections.<ReactiveTypeHandlerPlugin<?>>emptyList());
 	private DynamicBooleanProperty exportedServiceMetricsEnabled = new DynamicBooleanProperty(true);
+	private DynamicIntProperty compressionThreshold = new DynamicIntProperty(-1);
+	private final SerializationMetricsFactory serializationMetricsFactory = new SerializationMetricsFactory(metrics, exporter, SerializationMetricsFactory.SERVICE_BEAN_FOLDER, new DynamicBooleanProperty(true));
 	
 	private AstrixServiceActivatorImpl[] partitions;
+	private final List<AstrixServiceInvocationRequest> receivedRequests = new CopyOnWriteArrayList<>();
+	private final Set<Integer> partitionsIgnoringServiceMethodIds = ConcurrentHashMap.newKeySet();
 	
 	public AstrixRemotingDriver() {
 		this(1);
@@ -82,7 +99,7 @@ public class AstrixRemotingDriver {
 	
 	public AstrixRemotingDriver(int partitionCount) {
 		this.partitions = new AstrixServiceActivatorImpl[partitionCount];
-		IntStream.range(0, partitionCount).forEach(index -> partitions[index] = new AstrixServiceActivatorImpl(exportedServiceMetricsEnabled, metrics, exporter));
+		IntStream.range(0, partitionCount).forEach(index -> partitions[index] = new AstrixServiceActivatorImpl(exportedServiceMetricsEnabled, compressionThreshold, metrics, exporter));
 	}
 	
 	public <T> T hasExportedMbeanOfType(Class<T> expectedType, MBeanKey key) {
@@ -100,15 +117,19 @@ public class AstrixRemotingDriver {
 	}
 
 	public <T> T createRemotingProxy(Class<T> proxyApi, Class<?> targetApi) {
-		return RemotingProxy.create(proxyApi, targetApi, directTransport(), objectSerializer, new NoRoutingStrategy(), reactiveTypeConverter);
+		return RemotingProxy.create(proxyApi, targetApi, directTransport(), objectSerializer, new NoRoutingStrategy(), reactiveTypeConverter, serializationMetricsFactory);
 	}
 	
 	public <T> T createRemotingProxy(Class<T> proxyApi, Class<?> targetApi,	AstrixObjectSerializer objectSerializerOverride) {
-		return RemotingProxy.create(proxyApi, targetApi, directTransport(), objectSerializerOverride, new NoRoutingStrategy(), reactiveTypeConverter);
+		return RemotingProxy.create(proxyApi, targetApi, directTransport(), objectSerializerOverride, new NoRoutingStrategy(), reactiveTypeConverter, serializationMetricsFactory);
 	}
 	
 	public <T> T createRemotingProxy(Class<T> proxyApi, Class<?> targetApi,	RoutingStrategy routingStrategyOverride) {
-		return RemotingProxy.create(proxyApi, targetApi, directTransport(), objectSerializer, routingStrategyOverride, reactiveTypeConverter);
+		return RemotingProxy.create(proxyApi, targetApi, directTransport(), objectSerializer, routingStrategyOverride, reactiveTypeConverter, serializationMetricsFactory);
+	}
+	
+	public <T> T createRemotingProxy(Class<T> proxyApi, Class<?> targetApi,	AstrixObjectSerializer objectSerializerOverride, RoutingStrategy routingStrategyOverride) {
+		return RemotingProxy.create(proxyApi, targetApi, directTransport(), objectSerializerOverride, routingStrategyOverride, reactiveTypeConverter, serializationMetricsFactory);
 	}
 	
 	/**
@@ -118,27 +139,48 @@ public class AstrixRemotingDriver {
 		this.partitions[0].register(provider, objectSerializer, publishedApi);
 	}
 	
+	public <T> void registerServer(Class<T> publishedApi, Object provider, AstrixObjectSerializer objectSerializerOverride) {
+		this.partitions[0].register(provider, objectSerializerOverride, publishedApi);
+	}
+	
 	public <T> void registerServerPartition(int paritionIndex, Class<T> publishedApi, T provider) {
 		this.partitions[paritionIndex].register(provider, objectSerializer, publishedApi);
 	}
 	
+	public <T> void registerServerPartition(int paritionIndex, Class<T> publishedApi, T provider, AstrixObjectSerializer objectSerializerOverride) {
+		this.partitions[paritionIndex].register(provider, objectSerializerOverride, publishedApi);
+	}
+	
+	/**
+	 * Simulates a server in the given partition running a version that predates service method ids and
+	 * envelope formats, i.e. that ignores the ids and identifies the invoked method by its signature, and
+	 * that ignores the question for its envelope formats.
+	 */
+	public void simulateOldServer(int partitionIndex) {
+		this.partitionsIgnoringServiceMethodIds.add(partitionIndex);
+	}
 	
 	private RemotingTransport directTransport() {
-		return RemotingTransport.create(new PartitionedDirectTransport(Arrays.asList(this.partitions)));
+		return RemotingTransport.create(new PartitionedDirectTransport(Arrays.asList(this.partitions), receivedRequests, partitionsIgnoringServiceMethodIds));
 	}
 	
 	
 	private static class PartitionedDirectTransport implements RemotingTransportSpi {
 
 		private List<AstrixServiceActivatorImpl> partitions;
+		private List<AstrixServiceInvocationRequest> receivedRequests;
+		private Set<Integer> partitionsIgnoringServiceMethodIds;
 		
-		public PartitionedDirectTransport(List<AstrixServiceActivatorImpl> partitions) {
+		public PartitionedDirectTransport(List<AstrixServiceActivatorImpl> partitions, List<AstrixServiceInvocationRequest> receivedRequests, Set<Integer> partitionsIgnoringServiceMethodIds) {
 			this.partitions = partitions;
+			this.receivedRequests = receivedRequests;
+			this.partitionsIgnoringServiceMethodIds = partitionsIgnoringServiceMethodIds;
 		}
 
 		@Override
 		public Observable<AstrixServiceInvocationResponse> submitRoutedRequest(AstrixServiceInvocationRequest request, RoutingKey routingKey){
-			final AstrixServiceInvocationResponse response = getActivator(routingKey).invokeService(request);
+			receivedRequests.add(request);
+			final AstrixServiceInvocationResponse response = invokeService(routingKey.hashCode() % partitions.size(), request);
 			return Observable.create(new Observable.OnSubscribe<AstrixServiceInvocationResponse>() {
 				@Override
 				public void call(Subscriber<? super AstrixServiceInvocationResponse> t1) {
@@ -148,15 +190,23 @@ public class AstrixRemotingDriver {
 			});
 		}
 
-		private AstrixServiceActivatorImpl getActivator(RoutingKey routingKey) {
-			return partitions.get(routingKey.hashCode() % partitions.size());
+		private AstrixServiceInvocationResponse invokeService(int partitionIndex, AstrixServiceInvocationRequest request) {
+			if (partitionsIgnoringServiceMethodIds.contains(partitionIndex)) {
+				AstrixServiceInvocationRequest requestWithoutId = new AstrixServiceInvocationRequest();
+				requestWithoutId.setAllHeaders(request.getReadOnlyHeaders());
+				requestWithoutId.getHeaders().remove(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_ID);
+				requestWithoutId.getHeaders().remove(AstrixServiceInvocationRequestHeaders.ENVELOPE_FORMATS);
+				requestWithoutId.setArguments(request.getArguments());
+				return partitions.get(partitionIndex).invokeService(requestWithoutId);
+			}
+			return partitions.get(partitionIndex).invokeService(request);
 		}
 
 		@Override
 		public Observable<List<AstrixServiceInvocationResponse>> submitBroadcastRequest(AstrixServiceInvocationRequest request) {
 			final List<AstrixServiceInvocationResponse> responses = new ArrayList<>();
-			for (AstrixServiceActivatorImpl partition : partitions) {
-				responses.add(partition.invokeService(request));
+			for (int partitionIndex = 0; partitionIndex < partitions.size(); partitionIndex++) {
+				responses.add(invokeService(partitionIndex, request));
 			}
 			return Observable.create(new Observable.OnSubscribe<AstrixServiceInvocationResponse>() {
 				@Override
@@ -223,15 +273,45 @@ public class AstrixRemotingDriver {
 			};
 		}
 
+		@Override
+		public void update(long duration, TimeUnit unit) {
+		}
+
 		@Override
 		public TimerSnaphot getSnapshot() {
 			return new TimerSnaphot.Builder().count(invocationCount.get()).build();
 		}
 		
 	}
+	
+	private static class FakeHistogram implements HistogramSpi {
+		private final List<Long> values = new CopyOnWriteArrayList<>();
+		@Override
+		public void update(long value) {
+			values.add(value);
+		}
+		
+		@Override
+		public HistogramSnapshot getSnapshot() {
+			return HistogramSnapshot.builder()
+									.count(values.size())
+									.max(values.stream().mapToLong(Long::longValue).max().orElse(0))
+									.min(values.stream().mapToLong(Long::longValue).min().orElse(0))
+									.mean(values.stream().mapToLong(Long::longValue).average().orElse(0))
+									.build();
+		}
+	}
 
 	public void setExportedServiceMetricsEnabled(boolean enabled) {
 		this.exportedServiceMetricsEnabled.set(enabled);
 	}
+	
+	public AstrixServiceInvocationRequest getLastRoutedRequest() {
+		return receivedRequests.get(receivedRequests.size() - 1);
+	}
+	
+	public void setCompressionThreshold(int compressionThresholdBytes) {
+		this.compressionThreshold.set(compressionThresholdBytes);
+	}
 
 }
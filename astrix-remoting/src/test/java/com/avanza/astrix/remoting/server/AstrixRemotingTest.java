@@ -19,39 +19,65 @@ import static org.hamcrest.CoreMatchers.startsWith;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import com.avanza.astrix.config.DynamicBooleanProperty;
+import com.avanza.astrix.config.DynamicIntProperty;
+import com.avanza.astrix.context.mbeans.MBeanExporter;
+import com.avanza.astrix.context.metrics.Metrics;
 import com.avanza.astrix.core.AstrixBroadcast;
 import com.avanza.astrix.core.AstrixPartitionedRouting;
 import com.avanza.astrix.core.AstrixRemoteResult;
 import com.avanza.astrix.core.AstrixRoutingStrategy;
+import com.avanza.astrix.core.DefaultAstrixRemoteResultReducer;
+import com.avanza.astrix.core.IncrementalRemoteResultReducer;
 import com.avanza.astrix.core.RemoteResultReducer;
 import com.avanza.astrix.core.RemoteServiceInvocationException;
 import com.avanza.astrix.core.ServiceInvocationException;
 import com.avanza.astrix.core.ServiceUnavailableException;
 import com.avanza.astrix.core.remoting.Router;
 import com.avanza.astrix.core.remoting.RoutingKey;
+import com.avanza.astrix.context.JavaSerializationSerializer;
 import com.avanza.astrix.core.remoting.RoutingStrategy;
+import com.avanza.astrix.core.util.ReflectionUtil;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequest;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationRequestHeaders;
+import com.avanza.astrix.remoting.client.AstrixServiceInvocationResponse;
 import com.avanza.astrix.remoting.client.IncompatibleRemoteResultReducerException;
+import com.avanza.astrix.remoting.client.MissingServiceMethodException;
+import com.avanza.astrix.remoting.client.ServiceMethodIds;
+import com.avanza.astrix.remoting.client.StreamedPayload;
+import com.avanza.astrix.remoting.codec.RemotingEnvelopeCodecs;
 import com.avanza.astrix.versioning.core.AstrixObjectSerializer;
 
 import rx.Observable;
@@ -182,6 +208,47 @@ public class AstrixRemotingTest {
 		assertEquals(1 + 4 + 9 + 16 + 25, squareSum);
 	}
 	
+	@Test
+	public void partitionedRequest_IncrementalReducer() throws Exception {
+		AstrixRemotingDriver remotingDriver = new AstrixRemotingDriver(3);
+		for (int partition = 0; partition < 3; partition++) {
+			remotingDriver.registerServerPartition(partition, IncrementallyReducedCalculatorService.class, nums -> {
+				int squareSum = 0;
+				for (int num : nums) {
+					squareSum += num * num;
+				}
+				return squareSum;
+			});
+		}
+
+		IncrementallyReducedCalculatorService calculatorService = remotingDriver.createRemotingProxy(IncrementallyReducedCalculatorService.class);
+		assertEquals(Integer.valueOf(1 + 4 + 9 + 16 + 25), calculatorService.squareSum(Arrays.asList(1, 2, 3, 4, 5)));
+		assertEquals(Integer.valueOf(0), calculatorService.squareSum(Collections.<Integer>emptyList()));
+	}
+	
+	@Test
+	public void broadcastRequest_SubclassOfBundledReducerOverridingReduce() throws Exception {
+		AstrixRemotingDriver remotingDriver = new AstrixRemotingDriver(2);
+		DistinctPingService impl = msg -> Arrays.asList(msg);
+		remotingDriver.registerServerPartition(0, DistinctPingService.class, impl);
+		remotingDriver.registerServerPartition(1, DistinctPingService.class, impl);
+		
+		DistinctPingService broadcastService = remotingDriver.createRemotingProxy(DistinctPingService.class);
+		assertEquals(Arrays.asList("foo"), broadcastService.ping("foo"));
+		assertEquals(Arrays.asList("bar"), broadcastService.ping("bar"));
+	}
+	
+	@Test
+	public void partitionedRequest_SubclassOfBundledReducerOverridingReduce() throws Exception {
+		AstrixRemotingDriver remotingDriver = new AstrixRemotingDriver(2);
+		DistinctPartitionedPingService impl = nums -> Arrays.asList(0);
+		remotingDriver.registerServerPartition(0, DistinctPartitionedPingService.class, impl);
+		remotingDriver.registerServerPartition(1, DistinctPartitionedPingService.class, impl);
+		
+		DistinctPartitionedPingService partitionedService = remotingDriver.createRemotingProxy(DistinctPartitionedPingService.class);
+		assertEquals(Arrays.asList(0), partitionedService.ping(Arrays.asList(1, 2)));
+	}
+	
 	@Test
 	public void customRoutingRequest() throws Exception {
 		AstrixRemotingDriver remotingDriver = new AstrixRemotingDriver(2);
@@ -526,6 +593,235 @@ public class AstrixRemotingTest {
 		message.toBlocking().first();
 	}
 	
+	@Test
+	public void usesBinaryPayloadsWhenSupportedByBothClientAndServer() throws Exception {
+		AstrixRemotingDriver remotingDriver = new AstrixRemotingDriver();
+		StreamingSerializer serverSerializer = new StreamingSerializer();
+		StreamingSerializer clientSerializer = new StreamingSerializer();
+		remotingDriver.registerServer(TestService.class, (TestService) message -> new HelloResponse("reply-" + message.getMesssage()), serverSerializer);
+		TestService testService = remotingDriver.createRemotingProxy(TestService.class, TestService.class, clientSerializer);
+		
+		assertEquals("reply-kalle", testService.hello(new HelloRequest("kalle")).getGreeting());
+		assertEquals("Response should be sent in byte form", 1, serverSerializer.streamedWrites.get());
+		assertEquals("First request is sent before server acceptance is known", 0, clientSerializer.streamedWrites.get());
+		
+		assertEquals("reply-pelle", testService.hello(new HelloRequest("pelle")).getGreeting());
+		assertEquals("Arguments should be sent in byte form once the server has acknowledged it", 1, clientSerializer.streamedWrites.get());
+		assertEquals(2, serverSerializer.streamedWrites.get());
+	}
+	
+	@Test
+	public void sendsArgumentsInByteFormOnlyToServersThatHaveAcknowledgedIt() throws Exception {
+		AstrixRemotingDriver remotingDriver = new AstrixRemotingDriver(2);
+		TestService impl = message -> new HelloResponse("reply-" + message.getMesssage());
+		remotingDriver.registerServerPartition(0, TestService.class, impl, new StreamingSerializer());
+		remotingDriver.registerServerPartition(1, TestService.class, impl, new StreamingSerializer(false)); // String form only
+		StreamingSerializer clientSerializer = new StreamingSerializer();
+		RoutingStrategy routeOnMessageLength = method -> args -> RoutingKey.create(((HelloRequest) args[0]).getMesssage().length());
+		TestService testService = remotingDriver.createRemotingProxy(TestService.class, TestService.class, clientSerializer, routeOnMessageLength);
+		
+		assertEquals("reply-ab", testService.hello(new HelloRequest("ab")).getGreeting());
+		assertEquals("reply-a", testService.hello(new HelloRequest("a")).getGreeting());
+		assertEquals(0, clientSerializer.streamedWrites.get());
+		
+		assertEquals("reply-cd", testService.hello(new HelloRequest("cd")).getGreeting());
+		assertTrue(remotingDriver.getLastRoutedRequest().getArguments()[0] instanceof byte[]);
+		assertEquals("reply-b", testService.hello(new HelloRequest("b")).getGreeting());
+		assertTrue(remotingDriver.getLastRoutedRequest().getArguments()[0] instanceof String);
+		assertEquals(1, clientSerializer.streamedWrites.get());
+	}
+	
+	@Test
+	public void reportsResponseBodyThatFailsToSerializeWhenWrittenByTransportAsServiceException() throws Exception {
+		AstrixServiceActivatorImpl serviceActivator = new AstrixServiceActivatorImpl(new DynamicBooleanProperty(true), new DynamicIntProperty(-1), new Metrics.NoMetrics(), new MBeanExporter.NoExporter());
+		StreamingSerializer objectSerializer = new StreamingSerializer();
+		serviceActivator.register((TestService) message -> new HelloResponse("reply-" + message.getMesssage()) {
+			@SuppressWarnings("unused")
+			private final Object notSerializable = new Object();
+		}, objectSerializer, TestService.class);
+		
+		AstrixServiceInvocationRequest request = new AstrixServiceInvocationRequest();
+		request.setHeader(AstrixServiceInvocationRequestHeaders.API_VERSION, "1");
+		request.setHeader(AstrixServiceInvocationRequestHeaders.SERVICE_API, TestService.class.getName());
+		request.setHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_SIGNATURE, ReflectionUtil.methodSignatureWithoutReturnType(TestService.class.getMethod("hello", HelloRequest.class)));
+		request.setHeader(AstrixServiceInvocationRequestHeaders.BINARY_PAYLOADS, "true");
+		request.setArguments(new Object[] { objectSerializer.serialize(new HelloRequest("kalle"), 1) });
+		AstrixServiceInvocationResponse response = serviceActivator.invokeService(request);
+		assertTrue(response.getResponseBody() instanceof StreamedPayload);
+		
+		AstrixServiceInvocationResponse decoded = RemotingEnvelopeCodecs.decodeResponse(RemotingEnvelopeCodecs.encodeResponse(RemotingEnvelopeCodecs.BINARY, response));
+		assertTrue(decoded.hasThrownException());
+		assertNotNull(decoded.getThrownExceptionType());
+	}
+	
+	@Test
+	public void sendsArgumentsAcceptedByAllServersWhenOnlySomeServersAcceptBinaryPayloads() throws Exception {
+		AstrixRemotingDriver remotingDriver = new AstrixRemotingDriver(2);
+		PingService impl = msg -> Arrays.asList("reply-" + msg);
+		remotingDriver.registerServerPartition(0, PingService.class, impl, new StreamingSerializer());
+		remotingDriver.registerServerPartition(1, PingService.class, impl, new StreamingSerializer(false)); // Old server, String form only
+		PingService pingService = remotingDriver.createRemotingProxy(PingService.class, PingService.class, new StreamingSerializer());
+		
+		assertEquals(Arrays.asList("reply-kalle", "reply-kalle"), pingService.ping("kalle"));
+		assertEquals(Arrays.asList("reply-pelle", "reply-pelle"), pingService.ping("pelle"));
+	}
+	
+	@Test
+	public void doesNotSendBinaryArgumentsToServerThatDoesNotAcceptIt() throws Exception {
+		AstrixRemotingDriver remotingDriver = new AstrixRemotingDriver();
+		StreamingSerializer clientSerializer = new StreamingSerializer();
+		remotingDriver.registerServer(TestService.class, (TestService) message -> new HelloResponse("reply-" + message.getMesssage()), new StreamingSerializer(false));
+		TestService testService = remotingDriver.createRemotingProxy(TestService.class, TestService.class, clientSerializer);
+		
+		assertEquals("reply-kalle", testService.hello(new HelloRequest("kalle")).getGreeting());
+		assertEquals("reply-pelle", testService.hello(new HelloRequest("pelle")).getGreeting());
+		assertEquals(0, clientSerializer.streamedWrites.get());
+	}
+	
+	@Test
+	public void leavesOutMethodSignatureOnceServerAcknowledgesServiceMethodIds() throws Exception {
+		AstrixRemotingDriver remotingDriver = new AstrixRemotingDriver();
+		remotingDriver.registerServer(TestService.class, (TestService) message -> new HelloResponse("reply-" + message.getMesssage()));
+		TestService testService = remotingDriver.createRemotingProxy(TestService.class);
+		
+		assertEquals("reply-kalle", testService.hello(new HelloRequest("kalle")).getGreeting());
+		AstrixServiceInvocationRequest firstRequest = remotingDriver.getLastRoutedRequest();
+		assertNotNull(firstRequest.getHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_SIGNATURE));
+		assertNotNull(firstRequest.getHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_ID));
+		
+		assertEquals("reply-pelle", testService.hello(new HelloRequest("pelle")).getGreeting());
+		AstrixServiceInvocationRequest secondRequest = remotingDriver.getLastRoutedRequest();
+		assertNull(secondRequest.getHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_SIGNATURE));
+		assertEquals(firstRequest.getHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_ID), secondRequest.getHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_ID));
+	}
+	
+	@Test
+	public void dispatchesRequestsWithoutServiceMethodIdUsingMethodSignature() throws Exception {
+		AstrixServiceActivatorImpl serviceActivator = new AstrixServiceActivatorImpl(new DynamicBooleanProperty(true), new DynamicIntProperty(-1), new Metrics.NoMetrics(), new MBeanExporter.NoExporter());
+		JavaSerializationSerializer objectSerializer = new JavaSerializationSerializer(1);
+		serviceActivator.register((TestService) message -> new HelloResponse("reply-" + message.getMesssage()), objectSerializer, TestService.class);
+		
+		AstrixServiceInvocationRequest request = new AstrixServiceInvocationRequest();
+		request.setHeader(AstrixServiceInvocationRequestHeaders.API_VERSION, "1");
+		request.setHeader(AstrixServiceInvocationRequestHeaders.SERVICE_API, TestService.class.getName());
+		request.setHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_SIGNATURE, ReflectionUtil.methodSignatureWithoutReturnType(TestService.class.getMethod("hello", HelloRequest.class)));
+		request.setArguments(new Object[] { objectSerializer.serialize(new HelloRequest("kalle"), 1) });
+		AstrixServiceInvocationResponse response = serviceActivator.invokeService(request);
+		
+		HelloResponse result = objectSerializer.deserialize(response.getResponseBody(), HelloResponse.class, 1);
+		assertEquals("reply-kalle", result.getGreeting());
+		assertNull("Service method ids should only be acknowledged to clients that sends them", response.getHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_IDS));
+	}
+	
+	@Test
+	public void sendsMethodSignatureToServersThatHaveNotAcknowledgedServiceMethodIds() throws Exception {
+		AstrixRemotingDriver remotingDriver = new AstrixRemotingDriver(2);
+		TestService impl = message -> new HelloResponse("reply-" + message.getMesssage());
+		remotingDriver.registerServerPartition(0, TestService.class, impl);
+		remotingDriver.registerServerPartition(1, TestService.class, impl);
+		remotingDriver.simulateOldServer(1);
+		RoutingStrategy routeOnMessageLength = method -> args -> RoutingKey.create(((HelloRequest) args[0]).getMesssage().length());
+		TestService testService = remotingDriver.createRemotingProxy(TestService.class, TestService.class, routeOnMessageLength);
+		
+		assertEquals("reply-ab", testService.hello(new HelloRequest("ab")).getGreeting());
+		assertEquals("reply-cd", testService.hello(new HelloRequest("cd")).getGreeting());
+		assertNull(remotingDriver.getLastRoutedRequest().getHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_SIGNATURE));
+		
+		assertEquals("reply-a", testService.hello(new HelloRequest("a")).getGreeting());
+		assertEquals("reply-b", testService.hello(new HelloRequest("b")).getGreeting());
+		assertNotNull(remotingDriver.getLastRoutedRequest().getHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_SIGNATURE));
+	}
+	
+	@Test
+	public void sendsRequestsUsingJavaSerializationToServersThatHaveNotAcknowledgedEnvelopeFormats() throws Exception {
+		AstrixRemotingDriver remotingDriver = new AstrixRemotingDriver(2);
+		TestService impl = message -> new HelloResponse("reply-" + message.getMesssage());
+		remotingDriver.registerServerPartition(0, TestService.class, impl);
+		remotingDriver.registerServerPartition(1, TestService.class, impl);
+		remotingDriver.simulateOldServer(1);
+		RoutingStrategy routeOnMessageLength = method -> args -> RoutingKey.create(((HelloRequest) args[0]).getMesssage().length());
+		TestService testService = remotingDriver.createRemotingProxy(TestService.class, TestService.class, routeOnMessageLength);
+		
+		assertEquals("reply-ab", testService.hello(new HelloRequest("ab")).getGreeting());
+		AstrixServiceInvocationRequest firstRequest = remotingDriver.getLastRoutedRequest();
+		assertEquals("true", firstRequest.getHeader(AstrixServiceInvocationRequestHeaders.ENVELOPE_FORMATS));
+		assertSame(RemotingEnvelopeCodecs.JAVA_SERIALIZATION, RemotingEnvelopeCodecs.codecFor(RemotingEnvelopeCodecs.BINARY, firstRequest));
+		
+		assertEquals("reply-cd", testService.hello(new HelloRequest("cd")).getGreeting());
+		AstrixServiceInvocationRequest secondRequest = remotingDriver.getLastRoutedRequest();
+		assertNull(secondRequest.getHeader(AstrixServiceInvocationRequestHeaders.ENVELOPE_FORMATS));
+		assertSame(RemotingEnvelopeCodecs.BINARY, RemotingEnvelopeCodecs.codecFor(RemotingEnvelopeCodecs.BINARY, secondRequest));
+		
+		assertEquals("reply-a", testService.hello(new HelloRequest("a")).getGreeting());
+		assertEquals("reply-b", testService.hello(new HelloRequest("b")).getGreeting());
+		assertSame("Old servers only accept java serialized requests", 
+				RemotingEnvelopeCodecs.JAVA_SERIALIZATION, RemotingEnvelopeCodecs.codecFor(RemotingEnvelopeCodecs.BINARY, remotingDriver.getLastRoutedRequest()));
+	}
+	
+	@Test
+	public void dispatchesRequestsUsingMethodSignatureWhenServiceMethodIdIdentifiesAnotherMethod() throws Exception {
+		AstrixServiceActivatorImpl serviceActivator = new AstrixServiceActivatorImpl(new DynamicBooleanProperty(true), new DynamicIntProperty(-1), new Metrics.NoMetrics(), new MBeanExporter.NoExporter());
+		JavaSerializationSerializer objectSerializer = new JavaSerializationSerializer(1);
+		serviceActivator.register(new GreetingService() {
+			@Override
+			public String hello(String name) {
+				return "hello-" + name;
+			}
+			@Override
+			public String goodbye(String name) {
+				return "goodbye-" + name;
+			}
+		}, objectSerializer, GreetingService.class);
+		
+		AstrixServiceInvocationRequest request = new AstrixServiceInvocationRequest();
+		request.setHeader(AstrixServiceInvocationRequestHeaders.API_VERSION, "1");
+		request.setHeader(AstrixServiceInvocationRequestHeaders.SERVICE_API, GreetingService.class.getName());
+		request.setHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_SIGNATURE, ReflectionUtil.methodSignatureWithoutReturnType(GreetingService.class.getMethod("goodbye", String.class)));
+		request.setHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_ID, ServiceMethodIds.methodId(ReflectionUtil.methodSignatureWithoutReturnType(GreetingService.class.getMethod("hello", String.class))));
+		request.setArguments(new Object[] { objectSerializer.serialize("kalle", 1) });
+		AstrixServiceInvocationResponse response = serviceActivator.invokeService(request);
+		
+		assertEquals("goodbye-kalle", objectSerializer.deserialize(response.getResponseBody(), String.class, 1));
+		assertNull("Service method ids should not be acknowledged when the id identifies another method", response.getHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_IDS));
+	}
+	
+	@Test
+	public void doesNotDispatchServiceMethodIdOfMissingMethodToMethodWithCollidingSignatureHashCode() throws Exception {
+		assertEquals("Aa()".hashCode(), "BB()".hashCode());
+		AstrixServiceActivatorImpl serviceActivator = new AstrixServiceActivatorImpl(new DynamicBooleanProperty(true), new DynamicIntProperty(-1), new Metrics.NoMetrics(), new MBeanExporter.NoExporter());
+		JavaSerializationSerializer objectSerializer = new JavaSerializationSerializer(1);
+		serviceActivator.register((CollidingHashCodeService) () -> "Aa", objectSerializer, CollidingHashCodeService.class);
+		
+		// Client that has received an acknowledgement invokes a method missing in the server's version of the service
+		AstrixServiceInvocationRequest request = new AstrixServiceInvocationRequest();
+		request.setHeader(AstrixServiceInvocationRequestHeaders.API_VERSION, "1");
+		request.setHeader(AstrixServiceInvocationRequestHeaders.SERVICE_API, CollidingHashCodeService.class.getName());
+		request.setHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_ID, ServiceMethodIds.methodId("BB()"));
+		request.setArguments(new Object[0]);
+		try {
+			serviceActivator.invokeService(request);
+			fail("Expected MissingServiceMethodException");
+		} catch (MissingServiceMethodException e) {
+			// expected
+		}
+	}
+	
+	@Test
+	public void reportsArgumentsOfWrongTypeAsIllegalArgumentException() throws Exception {
+		AstrixServiceActivatorImpl serviceActivator = new AstrixServiceActivatorImpl(new DynamicBooleanProperty(true), new DynamicIntProperty(-1), new Metrics.NoMetrics(), new MBeanExporter.NoExporter());
+		JavaSerializationSerializer objectSerializer = new JavaSerializationSerializer(1);
+		serviceActivator.register((TestService) message -> new HelloResponse("reply-" + message.getMesssage()), objectSerializer, TestService.class);
+		
+		AstrixServiceInvocationRequest request = new AstrixServiceInvocationRequest();
+		request.setHeader(AstrixServiceInvocationRequestHeaders.API_VERSION, "1");
+		request.setHeader(AstrixServiceInvocationRequestHeaders.SERVICE_API, TestService.class.getName());
+		request.setHeader(AstrixServiceInvocationRequestHeaders.SERVICE_METHOD_SIGNATURE, ReflectionUtil.methodSignatureWithoutReturnType(TestService.class.getMethod("hello", HelloRequest.class)));
+		request.setArguments(new Object[] { objectSerializer.serialize("kalle", 1) });
+		AstrixServiceInvocationResponse response = serviceActivator.invokeService(request);
+		
+		assertEquals(IllegalArgumentException.class.getName(), response.getThrownExceptionType());
+	}
+	
 	@Test
 	public void supportServicesThatAcceptAndReturnGenericTypes() throws Exception {
 		AstrixRemotingDriver remotingDriver = new AstrixRemotingDriver();
@@ -838,10 +1134,23 @@ public class AstrixRemotingTest {
 		List<String> ping(String msg);
 	}
 	
+	interface DistinctPingService {
+		@AstrixBroadcast(reducer = DistinctListReducer.class)
+		List<String> ping(String msg);
+	}
+	
+	interface DistinctPartitionedPingService {
+		List<Integer> ping(@AstrixPartitionedRouting(reducer = DistinctListReducer.class) List<Integer> nums);
+	}
+	
 	interface CalculatorListService {
 		Integer squareSum(@AstrixPartitionedRouting(reducer = SummingReducer.class) Collection<Integer> nums);
 	}
 	
+	interface IncrementallyReducedCalculatorService {
+		Integer squareSum(@AstrixPartitionedRouting(reducer = IncrementalSummingReducer.class) Collection<Integer> nums);
+	}
+	
 	interface CalculatorArrayPojoService {
 		Integer squareSum(@AstrixPartitionedRouting(routingMethod="getNum", reducer = SummingReducer.class) NumPojo... nums);
 	}
@@ -1001,6 +1310,29 @@ public class AstrixRemotingTest {
 		
 	}
 	
+	public static class DistinctListReducer<T> extends DefaultAstrixRemoteResultReducer<T> {
+		@Override
+		public List<T> reduce(List<AstrixRemoteResult<List<T>>> results) {
+			return new ArrayList<>(new LinkedHashSet<>(super.reduce(results)));
+		}
+	}
+	
+	public static class IncrementalSummingReducer implements IncrementalRemoteResultReducer<Integer> {
+		
+		private int sum = 0;
+		
+		@Override
+		public void accumulate(AstrixRemoteResult<Integer> partialResult) {
+			sum += partialResult.getResult();
+		}
+		
+		@Override
+		public Integer finish() {
+			return sum;
+		}
+		
+	}
+	
 	interface BroadcastingGenericReturnTypeServiceAsync {
 		@AstrixBroadcast
 		Future<List<HelloResponse>> hello(List<HelloRequest> greeting);
@@ -1011,6 +1343,75 @@ public class AstrixRemotingTest {
 		HelloResponse hello(HelloRequest message);
 	}
 	
+	public interface CollidingHashCodeService {
+		String Aa();
+	}
+	
+	interface GreetingService {
+		String hello(String name);
+		String goodbye(String name);
+	}
+	
+	/**
+	 * Java serialization, where the String form is Base64 encoded and the byte form is the raw bytes. Like the 
+	 * serializers that predates the byte form, the String form is the only form accepted by deserialize(Object).
+	 */
+	static class StreamingSerializer implements AstrixObjectSerializer {
+		
+		private final JavaSerializationSerializer serializer = new JavaSerializationSerializer(1);
+		private final AtomicInteger streamedWrites = new AtomicInteger();
+		private final boolean supportsStreaming;
+		
+		public StreamingSerializer() {
+			this(true);
+		}
+		
+		public StreamingSerializer(boolean supportsStreaming) {
+			this.supportsStreaming = supportsStreaming;
+		}
+		
+		@Override
+		public <T> T deserialize(Object element, Type type, int version) {
+			return serializer.deserialize(Base64.getDecoder().decode((String) element), type, version);
+		}
+		
+		@Override
+		public Object serialize(Object element, int version) {
+			return Base64.getEncoder().encodeToString((byte[]) serializer.serialize(element, version));
+		}
+		
+		@Override
+		public void serialize(Object element, int version, OutputStream out) {
+			streamedWrites.incrementAndGet();
+			try {
+				out.write((byte[]) serializer.serialize(element, version));
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		
+		@Override
+		public <T> T deserialize(InputStream in, Type type, int version) {
+			try {
+				byte[] data = new byte[in.available()];
+				in.read(data);
+				return serializer.deserialize(data, type, version);
+			} catch (IOException e) {
+				throw new RuntimeException(e);
+			}
+		}
+		
+		@Override
+		public boolean supportsStreaming() {
+			return supportsStreaming;
+		}
+		
+		@Override
+		public int version() {
+			return 1;
+		}
+	}
+	
 	interface TwoArgumentTest {
 		String hello(HelloRequest message, String greeting);
 	}
@@ -15,10 +15,14 @@
  */
 package com.avanza.astrix.remoting.server;
 
+import static org.hamcrest.Matchers.greaterThan;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
 
 import org.junit.Test;
 
+import com.avanza.astrix.remoting.client.SerializationMetricsMBean;
+
 public class ServiceActivatorMetricsTest {
 	
 	@Test
@@ -121,6 +125,61 @@ public class ServiceActivatorMetricsTest {
 		assertEquals(2, pingMonitor.getInvocationCount());
 	}
 	
+	@Test
+	public void exportsSerializationMetricsForEachServiceMethodOnServerAndClient() throws Exception {
+		AstrixRemotingDriver remotingDriver = new AstrixRemotingDriver();
+		remotingDriver.registerServer(Ping.class, new Ping() {
+			@Override
+			public String ping(String msg) {
+				return msg;
+			}
+		});
+		
+		Ping ping = remotingDriver.createRemotingProxy(Ping.class);
+		
+		SerializationMetricsMBean serverMetrics = remotingDriver.hasExportedMbeanOfType(SerializationMetricsMBean.class, new MBeanKey("ExportedServices", Ping.class.getName() + "#ping#serialization"));
+		SerializationMetricsMBean clientMetrics = remotingDriver.hasExportedMbeanOfType(SerializationMetricsMBean.class, new MBeanKey("ServiceBeanSerializationMetrics", Ping.class.getName() + "#ping#serialization"));
+		
+		ping.ping("msg");
+		
+		assertEquals(1, clientMetrics.getSerializationCount());
+		assertEquals(1, clientMetrics.getDeserializationCount());
+		assertEquals(1, serverMetrics.getSerializationCount());
+		assertEquals(1, serverMetrics.getDeserializationCount());
+		assertThat(clientMetrics.getSerializedSizeMax(), greaterThan(0D));
+		assertEquals(clientMetrics.getSerializedSizeMax(), serverMetrics.getDeserializedSizeMax(), 0.01D);
+		assertEquals(serverMetrics.getSerializedSizeMax(), clientMetrics.getDeserializedSizeMax(), 0.01D);
+	}
+	
+	@Test
+	public void compressesResponseBodiesLargerThanCompressionThreshold() throws Exception {
+		AstrixRemotingDriver remotingDriver = new AstrixRemotingDriver();
+		remotingDriver.registerServer(Ping.class, new Ping() {
+			@Override
+			public String ping(String msg) {
+				StringBuilder result = new StringBuilder();
+				for (int i = 0; i < 1000; i++) {
+					result.append(msg);
+				}
+				return result.toString();
+			}
+		});
+		Ping ping = remotingDriver.createRemotingProxy(Ping.class);
+		SerializationMetricsMBean serverMetrics = remotingDriver.hasExportedMbeanOfType(SerializationMetricsMBean.class, new MBeanKey("ExportedServices", Ping.class.getName() + "#ping#serialization"));
+		
+		assertEquals(3000, ping.ping("foo").length());
+		assertEquals("Compression is disabled by default", 0, serverMetrics.getCompressionCount());
+
+		remotingDriver.setCompressionThreshold(100);
+		assertEquals(3000, ping.ping("foo").length());
+		assertEquals(1, serverMetrics.getCompressionCount());
+		assertThat(serverMetrics.getCompressionRatioMean(), greaterThan(0D));
+		assertThat(100D, greaterThan(serverMetrics.getCompressionRatioMean()));
+		
+		ping.ping("");
+		assertEquals("Response bodies smaller than the threshold are not compressed", 1, serverMetrics.getCompressionCount());
+	}
+	
 	@Test
 	public void itIsPossibleToGloballyDisableAllExportedServiceMetrics() throws Exception {
 		AstrixRemotingDriver remotingDriver = new AstrixRemotingDriver();
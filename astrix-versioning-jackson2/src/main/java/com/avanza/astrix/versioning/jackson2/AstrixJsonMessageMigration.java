@@ -0,0 +1,48 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.versioning.jackson2;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Jackson 2 counterpart of {@link com.avanza.astrix.versioning.jackson1.AstrixJsonMessageMigration}.
+ * 
+ * @param <T>
+ */
+public interface AstrixJsonMessageMigration<T> {
+	
+	/**
+	 * The java type representing the given json message.
+	 * 
+	 * @return
+	 */
+	Class<T> getJavaType();
+	
+	/**
+	 * Upgrades a given json message to the next version. <p>
+	 * @param json
+	 */
+	void upgrade(ObjectNode json);
+	
+	/**
+	 * Downgrades a given json-message to this version (fromVersion()), from 
+	 * the next version. <p>	
+	 * 
+	 * @param json
+	 */
+	void downgrade(ObjectNode json);
+
+}
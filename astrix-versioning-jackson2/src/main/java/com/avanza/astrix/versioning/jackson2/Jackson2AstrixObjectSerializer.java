@@ -0,0 +1,110 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.versioning.jackson2;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.Map;
+
+import com.avanza.astrix.versioning.core.AstrixObjectSerializer;
+import com.avanza.astrix.versioning.core.AstrixObjectSerializerConfigurer;
+import com.avanza.astrix.versioning.core.ObjectSerializerDefinition;
+import com.avanza.astrix.versioning.jackson2.VersionedJsonObjectMapper.VersionedObjectMapperBuilder;
+
+final class Jackson2AstrixObjectSerializer implements AstrixObjectSerializer {
+
+	private final VersionedJsonObjectMapper objectMapper;
+	private final int version;
+
+	public Jackson2AstrixObjectSerializer(ObjectSerializerDefinition serializerDefinition) {
+		Class<? extends AstrixObjectSerializerConfigurer> serializerBuilder = serializerDefinition.getObjectSerializerConfigurerClass();
+		this.version = serializerDefinition.version();
+		try {
+			this.objectMapper = buildObjectMapper(Jackson2ObjectSerializerConfigurer.class.cast(serializerBuilder.newInstance()));
+		} catch (Exception e) {
+			throw new RuntimeException("Failed to init JsonObjectMapper", e);
+		}
+	}
+	
+	private VersionedJsonObjectMapper buildObjectMapper(Jackson2ObjectSerializerConfigurer serializerBuilder) {
+		VersionedObjectMapperBuilder objectMapperBuilder = new VersionedObjectMapperBuilder(serializerBuilder.apiMigrations());
+		serializerBuilder.configure(objectMapperBuilder);
+		return objectMapperBuilder.build();
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <T> T deserialize(Object element, Type type, int fromVersion) {
+		if (fromVersion == NoVersioningSupport.NO_VERSIONING) {
+			return (T) element;
+		}
+		try {
+			if (element instanceof byte[]) {
+				return objectMapper.deserialize((byte[]) element, type, fromVersion);
+			}
+			return objectMapper.deserialize((String) element, type, fromVersion);
+		} catch (Exception e) {
+			throw new RuntimeException("Failed to deserialize: " + element + " into type: " + type, e);
+		}
+	}
+
+	@Override
+	public Object serialize(Object element, int version) {
+		if (version == NoVersioningSupport.NO_VERSIONING) {
+			return element;
+		}
+		try {
+			return objectMapper.serialize(element, version);
+		} catch (Exception e) {
+			throw new RuntimeException("Failed to serialize: " + element + ".", e);
+		}
+	}
+	
+	@Override
+	public void serialize(Object element, int version, OutputStream out) {
+		try {
+			objectMapper.serialize(element, version, out);
+		} catch (Exception e) {
+			throw new RuntimeException("Failed to serialize: " + element + ".", e);
+		}
+	}
+	
+	@Override
+	public <T> T deserialize(InputStream in, Type type, int version) {
+		try {
+			return objectMapper.deserialize(in, type, version);
+		} catch (Exception e) {
+			throw new RuntimeException("Failed to deserialize json into type: " + type, e);
+		}
+	}
+	
+	@Override
+	public Map<Integer, Long> getMigratedMessageCountByVersion() {
+		return objectMapper.getMigratedMessageCountByVersion();
+	}
+	
+	@Override
+	public boolean supportsStreaming() {
+		return version != NoVersioningSupport.NO_VERSIONING;
+	}
+
+	@Override
+	public int version() {
+		return version;
+	}
+
+}
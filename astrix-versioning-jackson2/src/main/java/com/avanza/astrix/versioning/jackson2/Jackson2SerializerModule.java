@@ -0,0 +1,37 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.versioning.jackson2;
+
+import org.kohsuke.MetaInfServices;
+
+import com.avanza.astrix.context.AstrixContextPlugin;
+import com.avanza.astrix.modules.ModuleContext;
+import com.avanza.astrix.versioning.core.ObjectSerializerFactoryPlugin;
+/**
+ * Makes the Jackson 2 based serializer available to all apis using a {@link Jackson2ObjectSerializerConfigurer}
+ * when this module is on the classpath.
+ */
+@MetaInfServices(AstrixContextPlugin.class)
+public class Jackson2SerializerModule implements AstrixContextPlugin {
+
+	@Override
+	public void prepare(ModuleContext moduleContext) {
+		moduleContext.bind(ObjectSerializerFactoryPlugin.class, Jackson2SerializerPlugin.class);
+		
+		moduleContext.export(ObjectSerializerFactoryPlugin.class);
+	}
+
+}
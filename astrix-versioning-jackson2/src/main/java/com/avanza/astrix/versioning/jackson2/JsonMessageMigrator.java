@@ -0,0 +1,166 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.versioning.jackson2;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+/**
+ * A message migrator is responsible for migration a message on an old version
+ * to the current version, and also responsible for migration messages on the
+ * current version to an older version. <p>
+ * 
+ * The migrations applying to each version are resolved up front, see {@link MigrationChain}, and 
+ * the migrator keeps track of the number of messages migrated for each version. A chain is only created for
+ * each distinct migration version, and messages on versions in between are counted on the next migration version, 
+ * i.e messages on versions older than the oldest migration are counted on the oldest migration version. <p>
+ */
+final class JsonMessageMigrator<T> {
+	
+	private final Class<T> type;
+	private final int[] migrationVersions;
+	/*
+	 * Index i holds the chain for the versions after migrationVersions[i - 1] up to, and including, migrationVersions[i]
+	 */
+	private final List<MigrationChain<T>> chainByMigrationVersion = new ArrayList<>();
+	
+	private JsonMessageMigrator(Class<T> type, List<JsonMessageMigrationWithVersion<T>> migrations) {
+		this.type = type;
+		List<JsonMessageMigrationWithVersion<T>> migrationsInOrder = new ArrayList<>(migrations);
+		Collections.sort(migrationsInOrder, Comparator.comparingInt(JsonMessageMigrationWithVersion::getVersion));
+		this.migrationVersions = migrationsInOrder.stream().mapToInt(JsonMessageMigrationWithVersion::getVersion).distinct().toArray();
+		for (int version : migrationVersions) {
+			List<AstrixJsonMessageMigration<T>> chain = new ArrayList<>();
+			for (JsonMessageMigrationWithVersion<T> migration : migrationsInOrder) {
+				if (migration.getVersion() >= version) {
+					chain.add(migration.migration);
+				}
+			}
+			chainByMigrationVersion.add(new MigrationChain<>(version, chain));
+		}
+	}
+	
+	/**
+	 * Returns the distinct versions, in ascending order, that at least one migration is registered from.
+	 */
+	int[] getMigrationVersions() {
+		return migrationVersions.clone();
+	}
+	
+	/**
+	 * Returns true if a message on the given version has to be migrated, i.e if there 
+	 * is at least one migration registered from the given version or later. 
+	 */
+	boolean requiresMigration(int version) {
+		return migrationVersions.length > 0 && version <= migrationVersions[migrationVersions.length - 1];
+	}
+	
+	/**
+	 * Returns the migrations applying to messages on a given version, or null if
+	 * no migration applies to the given version.
+	 */
+	MigrationChain<T> getMigrationChain(int version) {
+		int index = Arrays.binarySearch(migrationVersions, version);
+		if (index < 0) {
+			// Versions between two migration versions share the chain of the next migration version
+			index = -(index + 1);
+		}
+		return index < chainByMigrationVersion.size() ? chainByMigrationVersion.get(index) : null;
+	}
+	
+	Map<Integer, Long> getMigratedMessageCountByVersion() {
+		Map<Integer, Long> result = new LinkedHashMap<>();
+		for (MigrationChain<T> chain : chainByMigrationVersion) {
+			result.put(chain.version, chain.migratedMessageCount.sum());
+		}
+		return result;
+	}
+
+	Class<T> getJavaType() {
+		return type;
+	}
+	
+	/**
+	 * The migrations, in order, that applies to messages on a given version.
+	 */
+	static final class MigrationChain<T> {
+		
+		private final int version;
+		private final AstrixJsonMessageMigration<T>[] migrationsInOrder;
+		private final LongAdder migratedMessageCount = new LongAdder();
+		
+		@SuppressWarnings("unchecked")
+		MigrationChain(int version, List<AstrixJsonMessageMigration<T>> migrationsInOrder) {
+			this.version = version;
+			this.migrationsInOrder = migrationsInOrder.toArray(new AstrixJsonMessageMigration[migrationsInOrder.size()]);
+		}
+		
+		void upgrade(ObjectNode json) {
+			for (AstrixJsonMessageMigration<T> migration : migrationsInOrder) {
+				migration.upgrade(json);
+			}
+			migratedMessageCount.increment();
+		}
+		
+		void downgrade(ObjectNode json) {
+			for (int i = migrationsInOrder.length - 1; i >= 0; i--) {
+				migrationsInOrder[i].downgrade(json);
+			}
+			migratedMessageCount.increment();
+		}
+	}
+	
+	private static class JsonMessageMigrationWithVersion<T> {
+		private final int version;
+		private final AstrixJsonMessageMigration<T> migration;
+
+		public JsonMessageMigrationWithVersion(int version, AstrixJsonMessageMigration<T> migration) {
+			this.version = version;
+			this.migration = migration;
+		}
+		
+		public int getVersion() {
+			return version;
+		}
+	}
+	
+	static class Builder<T> {
+		private final Class<T> javaType;
+		private final List<JsonMessageMigrationWithVersion<T>> migrations = new ArrayList<>();
+
+		public Builder(Class<T> javaType) {
+			this.javaType = javaType;
+		}
+		
+		public Builder<T> addMigration(AstrixJsonMessageMigration<T> migration, int fromVersion) {
+			migrations.add(new JsonMessageMigrationWithVersion<>(fromVersion, migration));
+			return this;
+		}
+		
+		public JsonMessageMigrator<T> build() {
+			return new JsonMessageMigrator<>(javaType, migrations);
+		}
+		
+	}
+	
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.versioning.jackson2;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.avanza.astrix.versioning.jackson2.JsonMessageMigrator.MigrationChain;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+/**
+ * Json object mapper that migrates messages between the current version and older versions, 
+ * using the same strategy as the Jackson 1 based {@link com.avanza.astrix.versioning.jackson1.VersionedJsonObjectMapper}: <p>
+ * 
+ * Each version has its own {@link ObjectMapper} with migrating serializers and deserializers registered 
+ * for each type that has at least one migration applying to that version. Types without such a migration
+ * are handled by the regular serializers, hence a message on the current version is never migrated. <p>
+ */
+final class VersionedJsonObjectMapper {
+	
+	/*
+	 * Index i holds the mapper for migrationVersions[i], the last index holds the mapper for
+	 * versions newer than the newest migration.
+	 */
+	private final VersionedMapper[] mapperByMigrationVersion;
+	private final int[] migrationVersions;
+	private final List<JsonMessageMigrator<?>> migrators;
+	
+	private VersionedJsonObjectMapper(VersionedMapper[] mapperByMigrationVersion, int[] migrationVersions, List<JsonMessageMigrator<?>> migrators) {
+		this.mapperByMigrationVersion = mapperByMigrationVersion;
+		this.migrationVersions = migrationVersions;
+		this.migrators = migrators;
+	}
+	
+	Map<Integer, Long> getMigratedMessageCountByVersion() {
+		Map<Integer, Long> result = new TreeMap<>();
+		for (JsonMessageMigrator<?> migrator : migrators) {
+			migrator.getMigratedMessageCountByVersion().forEach((version, count) -> result.merge(version, count, Long::sum));
+		}
+		return result;
+	}
+
+	String serialize(Object object, int toVersion) throws IOException {
+		return mapperFor(toVersion).writer.writeValueAsString(object);
+	}
+	
+	void serialize(Object object, int toVersion, OutputStream out) throws IOException {
+		mapperFor(toVersion).writer.writeValue(out, object);
+	}
+
+	<T> T deserialize(String json, Type target, int fromVersion) throws IOException {
+		return mapperFor(fromVersion).reader(target).readValue(json);
+	}
+	
+	<T> T deserialize(byte[] json, Type target, int fromVersion) throws IOException {
+		return mapperFor(fromVersion).reader(target).readValue(json);
+	}
+	
+	<T> T deserialize(InputStream json, Type target, int fromVersion) throws IOException {
+		return mapperFor(fromVersion).reader(target).readValue(json);
+	}
+	
+	private VersionedMapper mapperFor(int version) {
+		/*
+		 * The migrations applying to a given version are the ones registered from that version or
+		 * later. Hence all versions up to, and including, a given migration version share the mapper
+		 * of that migration version, and versions newer than the newest migration share the last mapper.
+		 */
+		int index = Arrays.binarySearch(migrationVersions, version);
+		return mapperByMigrationVersion[index >= 0 ? index : -(index + 1)];
+	}
+	
+	/**
+	 * The {@link ObjectMapper} used for a given version, along with its writer and the readers for each
+	 * target type used so far.
+	 */
+	private static final class VersionedMapper {
+		
+		private final ObjectMapper mapper;
+		private final ObjectWriter writer;
+		private final ConcurrentMap<Type, ObjectReader> readerByType = new ConcurrentHashMap<>();
+		
+		VersionedMapper(ObjectMapper mapper) {
+			this.mapper = mapper;
+			this.writer = mapper.writer();
+		}
+		
+		ObjectReader reader(Type type) {
+			ObjectReader result = readerByType.get(type);
+			if (result != null) {
+				return result;
+			}
+			return readerByType.computeIfAbsent(type, t -> mapper.readerFor(mapper.getTypeFactory().constructType(t)));
+		}
+	}
+	
+	private static final class MigratingJsonSerializer<T> extends JsonSerializer<T> {
+		
+		private final ObjectMapper rawMapper;
+		private final MigrationChain<T> migrationChain;
+		
+		MigratingJsonSerializer(ObjectMapper rawMapper, JsonMessageMigrator<T> migrator, int version) {
+			this.rawMapper = rawMapper;
+			this.migrationChain = migrator.getMigrationChain(version);
+		}
+
+		@Override
+		public void serialize(T value, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+			ObjectNode objectNode = rawMapper.valueToTree(value);
+			migrationChain.downgrade(objectNode);
+			jgen.writeTree(objectNode);
+		}
+	}
+	
+	private static final class MigratingJsonDeserializer<T> extends JsonDeserializer<T> {
+		
+		private final ObjectReader rawReader;
+		private final MigrationChain<T> migrationChain;
+		
+		MigratingJsonDeserializer(ObjectMapper rawMapper, JsonMessageMigrator<T> migrator, int version) {
+			this.rawReader = rawMapper.readerFor(migrator.getJavaType());
+			this.migrationChain = migrator.getMigrationChain(version);
+		}
+		
+		@Override
+		public T deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
+			ObjectNode objectNode = (ObjectNode) ctxt.readTree(jp);
+			migrationChain.upgrade(objectNode);
+			return rawReader.readValue(objectNode);
+		}
+	}
+	
+	static final class VersionedObjectMapperBuilder implements JacksonObjectMapperBuilder {
+		
+		private final Map<Class<?>, JsonSerializer<?>> serializers = new LinkedHashMap<>();
+		private final Map<Class<?>, JsonDeserializer<?>> deserializers = new LinkedHashMap<>();
+		private final List<JsonMessageMigrator<?>> migrators = new ArrayList<>();
+		
+		VersionedObjectMapperBuilder(List<? extends AstrixJsonApiMigration> migrations) {
+			Map<Class<?>, JsonMessageMigrator.Builder<?>> migratorBuilderByType = new HashMap<>();
+			for (AstrixJsonApiMigration apiMigration : migrations) {
+				for (AstrixJsonMessageMigration<?> messageMigration : apiMigration.getMigrations()) {
+					addMigration(migratorBuilderByType, apiMigration.fromVersion(), messageMigration);
+				}
+			}
+			for (JsonMessageMigrator.Builder<?> migratorBuilder : migratorBuilderByType.values()) {
+				this.migrators.add(migratorBuilder.build());
+			}
+		}
+		
+		@SuppressWarnings("unchecked")
+		private static <T> void addMigration(Map<Class<?>, JsonMessageMigrator.Builder<?>> migratorBuilderByType, int fromVersion, AstrixJsonMessageMigration<T> messageMigration) {
+			JsonMessageMigrator.Builder<T> builder = (JsonMessageMigrator.Builder<T>) 
+					migratorBuilderByType.computeIfAbsent(messageMigration.getJavaType(), JsonMessageMigrator.Builder::new);
+			builder.addMigration(messageMigration, fromVersion);
+		}
+
+		@Override
+		public <T> void addSerializer(Class<T> type, JsonSerializer<T> serializer) {
+			this.serializers.put(type, serializer);
+		}
+
+		@Override
+		public <T> void addDeserializer(Class<T> type, JsonDeserializer<T> deserializer) {
+			this.deserializers.put(type, deserializer);
+		}
+		
+		VersionedJsonObjectMapper build() {
+			ObjectMapper rawMapper = new ObjectMapper();
+			rawMapper.registerModule(createModule("Astrix-rawModule", new HashMap<>()));
+			int[] migrationVersions = migrationVersions();
+			VersionedMapper[] mapperByMigrationVersion = new VersionedMapper[migrationVersions.length + 1];
+			for (int index = 0; index < migrationVersions.length; index++) {
+				mapperByMigrationVersion[index] = new VersionedMapper(buildMigratingMapper(rawMapper, migrationVersions[index]));
+			}
+			int newerThanAllMigrations = migrationVersions.length == 0 ? 0 : migrationVersions[migrationVersions.length - 1] + 1;
+			mapperByMigrationVersion[migrationVersions.length] = new VersionedMapper(buildMigratingMapper(rawMapper, newerThanAllMigrations));
+			return new VersionedJsonObjectMapper(mapperByMigrationVersion, migrationVersions, new ArrayList<>(this.migrators));
+		}
+		
+		private int[] migrationVersions() {
+			TreeSet<Integer> result = new TreeSet<>();
+			for (JsonMessageMigrator<?> migrator : this.migrators) {
+				for (int version : migrator.getMigrationVersions()) {
+					result.add(version);
+				}
+			}
+			return result.stream().mapToInt(Integer::intValue).toArray();
+		}
+		
+		private ObjectMapper buildMigratingMapper(ObjectMapper rawMapper, int version) {
+			Map<Class<?>, JsonMessageMigrator<?>> migratorByType = new HashMap<>();
+			for (JsonMessageMigrator<?> migrator : this.migrators) {
+				if (migrator.requiresMigration(version)) {
+					migratorByType.put(migrator.getJavaType(), migrator);
+				}
+			}
+			SimpleModule module = createModule("Astrix-migratingModule-v" + version, migratorByType);
+			for (JsonMessageMigrator<?> migrator : migratorByType.values()) {
+				registerMigrator(rawMapper, version, module, migrator);
+			}
+			ObjectMapper result = new ObjectMapper();
+			result.registerModule(module);
+			// Streams are owned by the caller
+			result.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+			result.configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
+			return result;
+		}
+		
+		/*
+		 * Custom serializers/deserializers for types that are migrated are used by the rawMapper, 
+		 * which the migrating serializer/deserializer delegates to.
+		 */
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		private SimpleModule createModule(String name, Map<Class<?>, JsonMessageMigrator<?>> migratorByType) {
+			SimpleModule module = new SimpleModule(name);
+			for (Map.Entry<Class<?>, JsonSerializer<?>> serializer : this.serializers.entrySet()) {
+				if (!migratorByType.containsKey(serializer.getKey())) {
+					module.addSerializer((Class) serializer.getKey(), (JsonSerializer) serializer.getValue());
+				}
+			}
+			for (Map.Entry<Class<?>, JsonDeserializer<?>> deserializer : this.deserializers.entrySet()) {
+				if (!migratorByType.containsKey(deserializer.getKey())) {
+					module.addDeserializer((Class) deserializer.getKey(), (JsonDeserializer) deserializer.getValue());
+				}
+			}
+			return module;
+		}
+
+		private static <T> void registerMigrator(ObjectMapper rawMapper, int version, SimpleModule module, JsonMessageMigrator<T> migrator) {
+			module.addSerializer(migrator.getJavaType(), new MigratingJsonSerializer<>(rawMapper, migrator, version));
+			module.addDeserializer(migrator.getJavaType(), new MigratingJsonDeserializer<>(rawMapper, migrator, version));
+		}
+		
+	}
+
+}
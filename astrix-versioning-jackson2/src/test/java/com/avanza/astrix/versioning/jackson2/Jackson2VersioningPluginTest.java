@@ -0,0 +1,241 @@
+/*
+ * Copyright 2014 Avanza Bank AB
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.avanza.astrix.versioning.jackson2;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.avanza.astrix.context.AstrixApplicationContext;
+import com.avanza.astrix.context.TestAstrixConfigurer;
+import com.avanza.astrix.versioning.core.AstrixObjectSerializer;
+import com.avanza.astrix.versioning.core.ObjectSerializerDefinition;
+import com.avanza.astrix.versioning.core.ObjectSerializerFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.reflect.TypeToken;
+
+public class Jackson2VersioningPluginTest {
+	
+	private final AstrixObjectSerializer serializer = new Jackson2SerializerPlugin().create(ObjectSerializerDefinition.versionedService(2, TestObjectMapperConfigurer.class));
+	
+	@Test
+	public void serializesV2Objects() throws Exception {
+		Object serialized = serializer.serialize(new TestPojoV2("foo", "bar"), 2);
+		TestPojoV2 deserializedPojo = serializer.deserialize(serialized, TestPojoV2.class, 2);
+		assertEquals("foo", deserializedPojo.getFoo());
+		assertEquals("bar", deserializedPojo.getBar());
+	}
+	
+	@Test
+	public void deserializesFromV1ObjectsByUpgrading() throws Exception {
+		Object serializedV1 = serializer.serialize(new TestPojoV1("foo"), 1);
+		TestPojoV2 deserializedPojo = serializer.deserialize(serializedV1, TestPojoV2.class, 1);
+		assertEquals("foo", deserializedPojo.getFoo());
+		assertEquals("defaultBar", deserializedPojo.getBar());
+	}
+	
+	@Test
+	public void serializesToV1ObjectsByDowngrading() throws Exception {
+		Object serializedV1 = serializer.serialize(new TestPojoV2("foo", "bar"), 1); // bar will be removed during serialization
+		TestPojoV2 deserializedPojo = serializer.deserialize(serializedV1, TestPojoV2.class, 2);
+		assertEquals("foo", deserializedPojo.getFoo());
+		assertEquals(null, deserializedPojo.getBar());
+	}
+	
+	@Test
+	public void migratesElementsOfGenericTypes() throws Exception {
+		List<TestPojoV2> pojos = new ArrayList<>(Arrays.asList(new TestPojoV2("f1", "b1"), new TestPojoV2("f2", "b2")));
+		Object serializedV1 = serializer.serialize(pojos, 1);
+		
+		List<TestPojoV2> deserializedPojos = serializer.deserialize(serializedV1, new TypeToken<List<TestPojoV2>>() {}.getType(), 1);
+		assertEquals(2, deserializedPojos.size());
+		assertEquals("f2", deserializedPojos.get(1).getFoo());
+		assertEquals("defaultBar", deserializedPojos.get(1).getBar());
+	}
+	
+	@Test
+	public void serializesToUtf8Bytes() throws Exception {
+		assertTrue(serializer.supportsStreaming());
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		serializer.serialize(new TestPojoV2("föö", "bar"), 1, out);
+		
+		TestPojoV2 deserializedPojo = serializer.deserialize(new ByteArrayInputStream(out.toByteArray()), TestPojoV2.class, 1);
+		assertEquals("föö", deserializedPojo.getFoo());
+		assertEquals("defaultBar", deserializedPojo.getBar());
+	}
+	
+	@Test
+	public void usesCustomSerializersForMigratedTypes() throws Exception {
+		AstrixObjectSerializer serializer = new Jackson2SerializerPlugin().create(ObjectSerializerDefinition.versionedService(2, CustomSerializerConfigurer.class));
+		
+		Object serializedV1 = serializer.serialize(new TestPojoV2("foo", "bar"), 1);
+		assertEquals("{\"foo\":\"FOO\"}", serializedV1);
+		TestPojoV2 deserializedPojo = serializer.deserialize(serializedV1, TestPojoV2.class, 1);
+		assertEquals("foo", deserializedPojo.getFoo());
+		assertEquals("defaultBar", deserializedPojo.getBar());
+	}
+	
+	@Test
+	public void isRegisteredAsPluginAndReadsJsonWrittenByJackson1Serializer() throws Exception {
+		AstrixApplicationContext context = (AstrixApplicationContext) new TestAstrixConfigurer().configure();
+		try {
+			ObjectSerializerFactory serializerFactory = context.getInstance(ObjectSerializerFactory.class);
+			AstrixObjectSerializer jackson1Serializer = serializerFactory.create(ObjectSerializerDefinition.versionedService(2, Jackson1TestObjectMapperConfigurer.class));
+			AstrixObjectSerializer jackson2Serializer = serializerFactory.create(ObjectSerializerDefinition.versionedService(2, TestObjectMapperConfigurer.class));
+			assertEquals(Jackson2AstrixObjectSerializer.class, jackson2Serializer.getClass());
+			
+			TestPojoV2 deserializedPojo = jackson2Serializer.deserialize(jackson1Serializer.serialize(new TestPojoV2("foo", "bar"), 2), TestPojoV2.class, 2);
+			assertEquals("foo", deserializedPojo.getFoo());
+			assertEquals("bar", deserializedPojo.getBar());
+		} finally {
+			context.destroy();
+		}
+	}
+	
+	public static class TestObjectMapperConfigurer implements Jackson2ObjectSerializerConfigurer {
+
+		@Override
+		public List<? extends AstrixJsonApiMigration> apiMigrations() {
+			return Arrays.asList(new TestPojoV1ToV2Migration());
+		}
+
+		@Override
+		public void configure(JacksonObjectMapperBuilder objectMapperBuilder) {
+		}
+	}
+	
+	public static class CustomSerializerConfigurer extends TestObjectMapperConfigurer {
+		
+		@Override
+		public void configure(JacksonObjectMapperBuilder objectMapperBuilder) {
+			objectMapperBuilder.addSerializer(TestPojoV2.class, new JsonSerializer<TestPojoV2>() {
+				@Override
+				public void serialize(TestPojoV2 value, JsonGenerator gen, SerializerProvider serializers) throws java.io.IOException {
+					gen.writeStartObject();
+					gen.writeStringField("foo", value.getFoo().toUpperCase());
+					gen.writeStringField("bar", value.getBar());
+					gen.writeEndObject();
+				}
+			});
+			objectMapperBuilder.addDeserializer(TestPojoV2.class, new JsonDeserializer<TestPojoV2>() {
+				@Override
+				public TestPojoV2 deserialize(JsonParser p, DeserializationContext ctxt) throws java.io.IOException {
+					ObjectNode json = p.readValueAs(ObjectNode.class);
+					return new TestPojoV2(json.get("foo").asText().toLowerCase(), json.get("bar").asText());
+				}
+			});
+		}
+	}
+	
+	public static class Jackson1TestObjectMapperConfigurer implements com.avanza.astrix.versioning.jackson1.Jackson1ObjectSerializerConfigurer {
+		@Override
+		public List<? extends com.avanza.astrix.versioning.jackson1.AstrixJsonApiMigration> apiMigrations() {
+			return new ArrayList<>();
+		}
+		@Override
+		public void configure(com.avanza.astrix.versioning.jackson1.JacksonObjectMapperBuilder objectMapperBuilder) {
+		}
+	}
+	
+	public static class TestPojoV1ToV2Migration implements AstrixJsonApiMigration {
+		@Override
+		public AstrixJsonMessageMigration<?>[] getMigrations() {
+			return new AstrixJsonMessageMigration<?>[] {
+				new AstrixJsonMessageMigration<TestPojoV2>() {
+					@Override
+					public Class<TestPojoV2> getJavaType() {
+						return TestPojoV2.class;
+					}
+					@Override
+					public void upgrade(ObjectNode json) {
+						json.put("bar", "defaultBar");
+					}
+					@Override
+					public void downgrade(ObjectNode json) {
+						json.remove("bar");
+					}
+				}
+			};
+		}
+		@Override
+		public int fromVersion() {
+			return 1;
+		}
+	}
+
+	public static class TestPojoV1 {
+		private String foo;
+		
+		public TestPojoV1() {
+		}
+		
+		public TestPojoV1(String foo) {
+			this.foo = foo;
+		}
+
+		public String getFoo() {
+			return foo;
+		}
+		
+		public void setFoo(String foo) {
+			this.foo = foo;
+		}
+	}
+	
+	public static class TestPojoV2 {
+		private String foo;
+		private String bar;
+		
+		public TestPojoV2() {
+		}
+		
+		public TestPojoV2(String foo, String bar) {
+			this.foo = foo;
+			this.bar = bar;
+		}
+		
+		public String getFoo() {
+			return foo;
+		}
+		
+		public void setFoo(String foo) {
+			this.foo = foo;
+		}
+		
+		public String getBar() {
+			return bar;
+		}
+		
+		public void setBar(String bar) {
+			this.bar = bar;
+		}
+	}
+
+}
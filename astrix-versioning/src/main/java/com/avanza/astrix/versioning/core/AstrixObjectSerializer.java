@@ -15,7 +15,14 @@
  */
 package com.avanza.astrix.versioning.core;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
 
 public interface AstrixObjectSerializer {
 	
@@ -39,6 +46,71 @@ public interface AstrixObjectSerializer {
 	 */
 	Object serialize(Object element, int version);
 	
+	/**
+	 * Serializes a given object to the byte oriented serialized form of a given version,
+	 * writing the result to the given stream. The stream is not closed. <p>
+	 * 
+	 * The default implementation writes the UTF-8 encoded result of {@link #serialize(Object, int)},
+	 * which requires that the serialized form is a String. Serializers with a text based format
+	 * should override this method to avoid creating the intermediate String. <p>
+	 * 
+	 * @param element
+	 * @param version - the version of the serialized data format to serialize the object to.
+	 * @param out
+	 */
+	default void serialize(Object element, int version, OutputStream out) {
+		try {
+			out.write(((String) serialize(element, version)).getBytes(StandardCharsets.UTF_8));
+		} catch (IOException e) {
+			throw new RuntimeException("Serialization failed", e);
+		}
+	}
+	
+	/**
+	 * Deserializes an object written by {@link #serialize(Object, int, OutputStream)}. The stream is not closed. <p>
+	 * 
+	 * The default implementation decodes the stream as UTF-8 and delegates to {@link #deserialize(Object, Type, int)}. <p>
+	 * 
+	 * @param in
+	 * @param type
+	 * @param version - the version of the serialized form of the object
+	 * @return
+	 */
+	default <T> T deserialize(InputStream in, Type type, int version) {
+		try {
+			ByteArrayOutputStream data = new ByteArrayOutputStream();
+			byte[] buffer = new byte[4096];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				data.write(buffer, 0, read);
+			}
+			return deserialize(new String(data.toByteArray(), StandardCharsets.UTF_8), type, version);
+		} catch (IOException e) {
+			throw new RuntimeException("Deserialization failed", e);
+		}
+	}
+	
+	/**
+	 * Whether the byte oriented methods, {@link #serialize(Object, int, OutputStream)} and
+	 * {@link #deserialize(InputStream, Type, int)}, are supported by this serializer.
+	 * 
+	 * @return
+	 */
+	default boolean supportsStreaming() {
+		return false;
+	}
+	
+	/**
+	 * Returns the number of messages migrated from, or to, each older version since this serializer 
+	 * was created, which tells whether clients on a given version are still around. Serializers that
+	 * do not migrate messages returns an empty map. <p>
+	 * 
+	 * @return
+	 */
+	default Map<Integer, Long> getMigratedMessageCountByVersion() {
+		return Collections.emptyMap();
+	}
+	
 	int version();
 
 	public static class NoVersioningSupport implements AstrixObjectSerializer {
@@ -15,7 +15,10 @@
  */
 package com.avanza.astrix.versioning.jackson1;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Type;
+import java.util.Map;
 
 import com.avanza.astrix.versioning.core.AstrixObjectSerializer;
 import com.avanza.astrix.versioning.core.AstrixObjectSerializerConfigurer;
@@ -59,6 +62,26 @@ class Jackson1AstrixObjectSerializer implements AstrixObjectSerializer {
 		return objectMapper.serialize(element, version);
 	}
 
+	@Override
+	public void serialize(Object element, int version, OutputStream out) {
+		objectMapper.serialize(element, version, out);
+	}
+	
+	@Override
+	public <T> T deserialize(InputStream in, Type type, int version) {
+		return objectMapper.deserialize(in, type, version);
+	}
+	
+	@Override
+	public Map<Integer, Long> getMigratedMessageCountByVersion() {
+		return objectMapper.getMigratedMessageCountByVersion();
+	}
+	
+	@Override
+	public boolean supportsStreaming() {
+		return version != NoVersioningSupport.NO_VERSIONING;
+	}
+
 	@Override
 	public int version() {
 		return version;
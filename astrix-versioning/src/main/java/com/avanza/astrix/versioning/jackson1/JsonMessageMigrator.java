@@ -16,8 +16,12 @@
 package com.avanza.astrix.versioning.jackson1;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.codehaus.jackson.node.ObjectNode;
 /**
@@ -25,47 +29,138 @@ import org.codehaus.jackson.node.ObjectNode;
  * to the current version, and also responsible for migration messages on the
  * current version to an older version. <p>
  * 
+ * The migrations applying to each version are resolved up front, see {@link MigrationChain}, and 
+ * the migrator keeps track of the number of messages migrated for each version. A chain is only created for
+ * each distinct migration version, and messages on versions in between are counted on the next migration version, 
+ * i.e messages on versions older than the oldest migration are counted on the oldest migration version. <p>
+ * 
  * @author Elias Lindholm (elilin)
  *
  */
 class JsonMessageMigrator<T> {
 	
-	private Class<T> type;
-	private List<JsonMessageMigrationWithVersion<T>> migrationsInOrder;
-	private List<JsonMessageMigrationWithVersion<T>> migrationsInReverseOrder;
+	private final Class<T> type;
+	private final int[] migrationVersions;
+	/*
+	 * Index i holds the chain for the versions after migrationVersions[i - 1] up to, and including, migrationVersions[i]
+	 */
+	private final List<MigrationChain<T>> chainByMigrationVersion = new ArrayList<>();
 	
 	public JsonMessageMigrator(Class<T> type,
 							   List<JsonMessageMigrationWithVersion<T>> migrations) {
 		this.type = type;
-		this.migrationsInOrder = new ArrayList<>(migrations);
-		Collections.sort(this.migrationsInOrder);
-		this.migrationsInReverseOrder = new ArrayList<>(migrationsInOrder);
-		Collections.reverse(this.migrationsInReverseOrder);
-		
+		List<JsonMessageMigrationWithVersion<T>> migrationsInOrder = new ArrayList<>(migrations);
+		Collections.sort(migrationsInOrder);
+		this.migrationVersions = migrationsInOrder.stream().mapToInt(JsonMessageMigrationWithVersion::getVersion).distinct().toArray();
+		for (int version : migrationVersions) {
+			List<AstrixJsonMessageMigration<T>> chain = new ArrayList<>();
+			for (JsonMessageMigrationWithVersion<T> migration : migrationsInOrder) {
+				if (migration.getVersion() >= version) {
+					chain.add(migration.migration);
+				}
+			}
+			chainByMigrationVersion.add(new MigrationChain<>(version, chain));
+		}
+	}
+	
+	/**
+	 * Returns true if a message on the given version has to be migrated, i.e if there 
+	 * is at least one migration registered from the given version or later. 
+	 * 
+	 * @param version
+	 * @return
+	 */
+	public boolean requiresMigration(int version) {
+		return migrationVersions.length > 0 && version <= migrationVersions[migrationVersions.length - 1];
+	}
+	
+	/**
+	 * Returns the distinct versions, in ascending order, that at least one migration is registered from.
+	 * 
+	 * @return
+	 */
+	public int[] getMigrationVersions() {
+		return migrationVersions.clone();
+	}
+	
+	/**
+	 * Returns the migrations applying to messages on a given version, or null if
+	 * no migration applies to the given version.
+	 * 
+	 * @param version
+	 * @return
+	 */
+	public MigrationChain<T> getMigrationChain(int version) {
+		int index = Arrays.binarySearch(migrationVersions, version);
+		if (index < 0) {
+			// Versions between two migration versions share the chain of the next migration version
+			index = -(index + 1);
+		}
+		return index < chainByMigrationVersion.size() ? chainByMigrationVersion.get(index) : null;
 	}
 
 	public void upgrade(ObjectNode json, int fromVersion) {
-		for (JsonMessageMigrationWithVersion<T> migration : migrationsInOrder) {
-			if (migration.getVersion() < fromVersion) {
-				continue;
-			}
-			migration.upgrade(json);
+		MigrationChain<T> chain = getMigrationChain(fromVersion);
+		if (chain != null) {
+			chain.upgrade(json);
 		}
 	}
 	
 	public void downgrade(ObjectNode json, int toVersion) {
-		for (JsonMessageMigrationWithVersion<T> migration : migrationsInReverseOrder) {
-			if (!(migration.getVersion() >= toVersion)) {
-				return;
-			}
-			migration.downgrade(json);
+		MigrationChain<T> chain = getMigrationChain(toVersion);
+		if (chain != null) {
+			chain.downgrade(json);
 		}
 	}
+	
+	/**
+	 * Returns the number of messages upgraded from, or downgraded to, each version that
+	 * any migration applies to.
+	 * 
+	 * @return
+	 */
+	public Map<Integer, Long> getMigratedMessageCountByVersion() {
+		Map<Integer, Long> result = new LinkedHashMap<>();
+		for (MigrationChain<T> chain : chainByMigrationVersion) {
+			result.put(chain.version, chain.migratedMessageCount.sum());
+		}
+		return result;
+	}
 
 	public Class<T> getJavaType() {
 		return type;
 	}
 	
+	/**
+	 * The migrations, in order, that applies to messages on a given version.
+	 */
+	static final class MigrationChain<T> {
+		
+		private final int version;
+		private final AstrixJsonMessageMigration<T>[] migrationsInOrder;
+		private final LongAdder migratedMessageCount = new LongAdder();
+		
+		@SuppressWarnings("unchecked")
+		MigrationChain(int version, List<AstrixJsonMessageMigration<T>> migrationsInOrder) {
+			this.version = version;
+			this.migrationsInOrder = migrationsInOrder.toArray(new AstrixJsonMessageMigration[migrationsInOrder.size()]);
+		}
+		
+		void upgrade(ObjectNode json) {
+			for (AstrixJsonMessageMigration<T> migration : migrationsInOrder) {
+				migration.upgrade(json);
+			}
+			migratedMessageCount.increment();
+		}
+		
+		void downgrade(ObjectNode json) {
+			for (int i = migrationsInOrder.length - 1; i >= 0; i--) {
+				migrationsInOrder[i].downgrade(json);
+			}
+			migratedMessageCount.increment();
+		}
+	}
+	
 	static class JsonMessageMigrationWithVersion<T> implements Comparable<JsonMessageMigrationWithVersion<T>> {
 		private int version;
 		private AstrixJsonMessageMigration<T> migration;
@@ -79,14 +174,6 @@ class JsonMessageMigrator<T> {
 		public int getVersion() {
 			return version;
 		}
-		
-		void downgrade(ObjectNode json) {
-			this.migration.downgrade(json);
-		}
-		
-		void upgrade(ObjectNode json) {
-			this.migration.upgrade(json);
-		}
 
 		@Override
 		public int compareTo(JsonMessageMigrationWithVersion<T> other) {
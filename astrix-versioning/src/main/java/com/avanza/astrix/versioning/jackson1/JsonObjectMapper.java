@@ -15,7 +15,11 @@
  */
 package com.avanza.astrix.versioning.jackson1;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.Map;
 /**
  * 
  * @author Elias Lindholm (elilin)
@@ -53,6 +57,35 @@ public class JsonObjectMapper {
 		}
 	}
 	
+	/**
+	 * Serializes the given object as UTF-8 encoded json to the given stream, without closing it.
+	 */
+	public void serialize(Object object, int toVersion, OutputStream out) {
+		try {
+			impl.serialize(object, toVersion, out);
+		} catch (Exception e) {
+			throw new RuntimeException("Failed to serialize: " + object + ".", e);
+		}
+	}
+	
+	/**
+	 * Deserializes UTF-8 encoded json from the given stream, without closing it.
+	 */
+	public <T> T deserialize(InputStream json, Type target, int fromVersion) {
+		try {
+			return impl.deserialize(json, target, fromVersion);
+		} catch (Exception e) {
+			throw new RuntimeException("Failed to deserialize json into type: " + target, e);
+		}
+	}
+	
+	/**
+	 * Returns the number of messages migrated for each version, see {@link com.avanza.astrix.versioning.core.AstrixObjectSerializer#getMigratedMessageCountByVersion()}.
+	 */
+	public Map<Integer, Long> getMigratedMessageCountByVersion() {
+		return impl.getMigratedMessageCountByVersion();
+	}
+	
 	public static JsonObjectMapper create(Impl impl) {
 		return new JsonObjectMapper(impl);
 	}
@@ -61,6 +94,11 @@ public class JsonObjectMapper {
 	public interface Impl {
 		String serialize(Object object, int toVersion) throws Exception;
 		<T> T deserialize(String json, Type target, int fromVersion) throws Exception;
+		void serialize(Object object, int toVersion, OutputStream out) throws Exception;
+		<T> T deserialize(InputStream json, Type target, int fromVersion) throws Exception;
+		default Map<Integer, Long> getMigratedMessageCountByVersion() {
+			return Collections.emptyMap();
+		}
 	}
 	
 }
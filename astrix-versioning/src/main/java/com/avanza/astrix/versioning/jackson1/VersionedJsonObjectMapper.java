@@ -16,14 +16,21 @@
 package com.avanza.astrix.versioning.jackson1;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
+import org.codehaus.jackson.JsonEncoding;
 import org.codehaus.jackson.JsonGenerator;
 import org.codehaus.jackson.JsonParser;
 import org.codehaus.jackson.JsonProcessingException;
@@ -32,46 +39,119 @@ import org.codehaus.jackson.map.DeserializationContext;
 import org.codehaus.jackson.map.JsonDeserializer;
 import org.codehaus.jackson.map.JsonSerializer;
 import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.ObjectReader;
+import org.codehaus.jackson.map.ObjectWriter;
 import org.codehaus.jackson.map.SerializerProvider;
 import org.codehaus.jackson.map.module.SimpleModule;
 import org.codehaus.jackson.node.ObjectNode;
-import org.codehaus.jackson.type.JavaType;
 
 import com.avanza.astrix.versioning.jackson1.JsonMessageMigrator.Builder;
-
+import com.avanza.astrix.versioning.jackson1.JsonMessageMigrator.MigrationChain;
+/**
+ * Json object mapper that migrates messages between the current version and older versions. <p>
+ * 
+ * Each version has its own {@link ObjectMapper}, see {@link VersionedMapper}, with migrating serializers
+ * and deserializers registered for each type that has at least one migration applying to that version.
+ * Types without such a migration are handled by the regular serializers, hence a message on the current
+ * version is never migrated. Since the version is bound into the mapper there is no need to pass it
+ * along on the current thread, and a mapper might be used from any thread. <p>
+ * 
+ * @author Elias Lindholm (elilin)
+ *
+ */
 public class VersionedJsonObjectMapper implements JsonObjectMapper.Impl {
 	
-	private ObjectMapper migratingMapper;
-	private ThreadLocal<Integer> versionHolder;
+	/*
+	 * Index i holds the mapper for migrationVersions[i], the last index holds the mapper for
+	 * versions newer than the newest migration.
+	 */
+	private final VersionedMapper[] mapperByMigrationVersion;
+	private final int[] migrationVersions;
+	private final Collection<JsonMessageMigrator<?>> migrators;
 	
-	public VersionedJsonObjectMapper(ThreadLocal<Integer> versionHolder,
-								 ObjectMapper migratingMapper) {
-				this.versionHolder = versionHolder;
-				this.migratingMapper = migratingMapper;
+	private VersionedJsonObjectMapper(VersionedMapper[] mapperByMigrationVersion, int[] migrationVersions, Collection<JsonMessageMigrator<?>> migrators) {
+		this.mapperByMigrationVersion = mapperByMigrationVersion;
+		this.migrationVersions = migrationVersions;
+		this.migrators = migrators;
+	}
+	
+	@Override
+	public Map<Integer, Long> getMigratedMessageCountByVersion() {
+		Map<Integer, Long> result = new TreeMap<>();
+		for (JsonMessageMigrator<?> migrator : migrators) {
+			migrator.getMigratedMessageCountByVersion().forEach((version, count) -> result.merge(version, count, Long::sum));
+		}
+		return result;
 	}
 
 	@Override
 	public String serialize(Object object, int toVersion) throws Exception {
-		versionHolder.set(toVersion);
+		return mapperFor(toVersion).writer.writeValueAsString(object);
+	}
+
+	@Override
+	public <T> T deserialize(String json, Type target, int fromVersion) throws Exception {
+		return mapperFor(fromVersion).reader(target).readValue(json);
+	}
+	
+	@Override
+	public void serialize(Object object, int toVersion, OutputStream out) throws Exception {
+		VersionedMapper mapper = mapperFor(toVersion);
+		// Generate UTF-8 directly into the target stream, without going through a char[] and String
+		JsonGenerator generator = mapper.mapper.getJsonFactory().createJsonGenerator(out, JsonEncoding.UTF8);
+		generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
 		try {
-			return migratingMapper.writeValueAsString(object);
+			mapper.writer.writeValue(generator, object);
 		} finally {
-			versionHolder.remove();
+			generator.close();
 		}
 	}
 
 	@Override
-	public <T> T deserialize(String json, Type target, int fromVersion) throws Exception {
-		versionHolder.set(fromVersion);
+	public <T> T deserialize(InputStream json, Type target, int fromVersion) throws Exception {
+		VersionedMapper mapper = mapperFor(fromVersion);
+		JsonParser parser = mapper.mapper.getJsonFactory().createJsonParser(json);
+		parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
 		try {
-			JavaType javaType = migratingMapper.getTypeFactory().constructType(target);
-			return migratingMapper.readValue(json, javaType);
+			return mapper.reader(target).readValue(parser);
 		} finally {
-			versionHolder.remove();
+			parser.close();
 		}
 	}
 	
-	// TODO: document whats going on in this class (the migrating object mapper)
+	private VersionedMapper mapperFor(int version) {
+		/*
+		 * The migrations applying to a given version are the ones registered from that version or
+		 * later. Hence all versions up to, and including, a given migration version share the mapper
+		 * of that migration version, and versions newer than the newest migration share the last mapper.
+		 */
+		int index = Arrays.binarySearch(migrationVersions, version);
+		return mapperByMigrationVersion[index >= 0 ? index : -(index + 1)];
+	}
+	
+	/**
+	 * The {@link ObjectMapper} used for a given version, along with its writer and the readers for each
+	 * target type used so far.
+	 */
+	static class VersionedMapper {
+		
+		private final ObjectMapper mapper;
+		private final ObjectWriter writer;
+		private final ConcurrentMap<Type, ObjectReader> readerByType = new ConcurrentHashMap<>();
+		
+		VersionedMapper(ObjectMapper mapper) {
+			this.mapper = mapper;
+			this.writer = mapper.writer();
+		}
+		
+		ObjectReader reader(Type type) {
+			ObjectReader result = readerByType.get(type);
+			if (result != null) {
+				return result;
+			}
+			return readerByType.computeIfAbsent(type, t -> mapper.reader(mapper.getTypeFactory().constructType(t)));
+		}
+	}
 	
 	static class JsonSerializerHolder<T> {
 		
@@ -107,20 +187,20 @@ public class VersionedJsonObjectMapper implements JsonObjectMapper.Impl {
 
 	static class MigratingJsonSerializer<T> extends JsonSerializer<T> {
 		
-		private ObjectMapper rawMapper;
-		private JsonMessageMigrator<T> migrator;
-		private ThreadLocal<Integer> versionHolder;
+		private final ObjectMapper rawMapper;
+		private final JsonMessageMigrator<T> migrator;
+		private final MigrationChain<T> migrationChain;
 		
 		public MigratingJsonSerializer(ObjectMapper rawMapper,
 				JsonMessageMigrator<T> migrator,
-				ThreadLocal<Integer> versionHolder) {
+				int version) {
 			this.rawMapper = rawMapper;
 			this.migrator = migrator;
-			this.versionHolder = versionHolder;
+			this.migrationChain = migrator.getMigrationChain(version);
 		}
 
-		public static <T> MigratingJsonSerializer<T> create(ObjectMapper rawMapper, JsonMessageMigrator<T> migrator, ThreadLocal<Integer> versionHolder) {
-			return new MigratingJsonSerializer<>(rawMapper, migrator, versionHolder);
+		public static <T> MigratingJsonSerializer<T> create(ObjectMapper rawMapper, JsonMessageMigrator<T> migrator, int version) {
+			return new MigratingJsonSerializer<>(rawMapper, migrator, version);
 		}
 		
 		@Override
@@ -128,43 +208,35 @@ public class VersionedJsonObjectMapper implements JsonObjectMapper.Impl {
 				SerializerProvider provider) throws IOException,
 				JsonProcessingException {
 			ObjectNode objectNode = rawMapper.convertValue(value, ObjectNode.class);
-			migrator.downgrade(objectNode, getVersion());
+			migrationChain.downgrade(objectNode);
 			jgen.writeObject(objectNode);					
 		}
-		
-		int getVersion() {
-			return versionHolder.get();
-		}
 	}
 	
 	static class MigratingJsonDeserializer<T> extends JsonDeserializer<T> {
 		
-		private ObjectMapper rawMapper;
-		private JsonMessageMigrator<T> migrator;
-		private ThreadLocal<Integer> versionHolder;
+		private final ObjectMapper rawMapper;
+		private final JsonMessageMigrator<T> migrator;
+		private final MigrationChain<T> migrationChain;
 		
 		public MigratingJsonDeserializer(ObjectMapper rawMapper,
 				JsonMessageMigrator<T> migrator,
-				ThreadLocal<Integer> versionHolder) {
+				int version) {
 			this.rawMapper = rawMapper;
 			this.migrator = migrator;
-			this.versionHolder = versionHolder;
+			this.migrationChain = migrator.getMigrationChain(version);
 		}
 
-		public static <T> MigratingJsonDeserializer<T> create(ObjectMapper rawMapper, JsonMessageMigrator<T> migrator, ThreadLocal<Integer> versionHolder) {
-			return new MigratingJsonDeserializer<>(rawMapper, migrator, versionHolder);
+		public static <T> MigratingJsonDeserializer<T> create(ObjectMapper rawMapper, JsonMessageMigrator<T> migrator, int version) {
+			return new MigratingJsonDeserializer<>(rawMapper, migrator, version);
 		}
 		
 		@Override
 		public T deserialize(JsonParser jp, DeserializationContext ctxt)
 				throws IOException, JsonProcessingException {
 			ObjectNode objectNode = jp.readValueAs(ObjectNode.class);
-			migrator.upgrade(objectNode, getVersion());
-			return rawMapper.convertValue(objectNode, migrator.getJavaType());					
-		}
-		
-		int getVersion() {
-			return versionHolder.get();
+			migrationChain.upgrade(objectNode);
+			return rawMapper.readValue(objectNode, migrator.getJavaType());					
 		}
 	}
 	
@@ -222,25 +294,44 @@ public class VersionedJsonObjectMapper implements JsonObjectMapper.Impl {
 		}
 		
 		public VersionedJsonObjectMapper build() {
-			ThreadLocal<Integer> versionHolder = new ThreadLocal<>();
 			ObjectMapper rawMapper = buildRaw();
-			ObjectMapper migratingMapper = buildMigratingMapper(rawMapper, versionHolder);
-			return new VersionedJsonObjectMapper(versionHolder, migratingMapper);
+			int[] migrationVersions = migrationVersions(this.migratorsByType.values());
+			VersionedMapper[] mapperByMigrationVersion = new VersionedMapper[migrationVersions.length + 1];
+			for (int index = 0; index < migrationVersions.length; index++) {
+				mapperByMigrationVersion[index] = new VersionedMapper(buildMigratingMapper(rawMapper, migrationVersions[index]));
+			}
+			int newerThanAllMigrations = migrationVersions.length == 0 ? 0 : migrationVersions[migrationVersions.length - 1] + 1;
+			mapperByMigrationVersion[migrationVersions.length] = new VersionedMapper(buildMigratingMapper(rawMapper, newerThanAllMigrations));
+			return new VersionedJsonObjectMapper(mapperByMigrationVersion, migrationVersions, this.migratorsByType.values());
+		}
+		
+		private static int[] migrationVersions(Collection<JsonMessageMigrator<?>> migrators) {
+			TreeSet<Integer> result = new TreeSet<>();
+			for (JsonMessageMigrator<?> migrator : migrators) {
+				for (int version : migrator.getMigrationVersions()) {
+					result.add(version);
+				}
+			}
+			return result.stream().mapToInt(Integer::intValue).toArray();
 		}
 		
-		private ObjectMapper buildMigratingMapper(ObjectMapper rawMapper, ThreadLocal<Integer> versionHolder) {
-			SimpleModule module = new SimpleModule("Astrix-migratingModule", new Version(1,0,0, ""));
+		private ObjectMapper buildMigratingMapper(ObjectMapper rawMapper, int version) {
+			SimpleModule module = new SimpleModule("Astrix-migratingModule-v" + version, new Version(1,0,0, ""));
+			Map<Class<?>, JsonMessageMigrator<?>> migratingTypes = new HashMap<>();
 			for (JsonMessageMigrator<?> migrator : this.migratorsByType.values()) {
-				registerSerializerAndDeserializer(rawMapper, versionHolder, module, migrator);
+				if (migrator.requiresMigration(version)) {
+					registerSerializerAndDeserializer(rawMapper, version, module, migrator);
+					migratingTypes.put(migrator.getJavaType(), migrator);
+				}
 			}
 			// register custom serializers/deserializers for all custom types without migrator since those won't be intercepted by migratingObjectMapper
 			for (JsonDeserializerHolder<?> deserializer : this.deserializers) {
-				if (!this.migratorsByType.containsKey(deserializer.type)) {
+				if (!migratingTypes.containsKey(deserializer.type)) {
 					deserializer.register(module);
 				}
 			}
 			for (JsonSerializerHolder<?> serializer : this.serializers) {
-				if (!this.migratorsByType.containsKey(serializer.type)) {
+				if (!migratingTypes.containsKey(serializer.type)) {
 					serializer.register(module);
 				}
 			}
@@ -251,11 +342,11 @@ public class VersionedJsonObjectMapper implements JsonObjectMapper.Impl {
 		}
 
 		private <T> void registerSerializerAndDeserializer(ObjectMapper rawMapper,
-														   ThreadLocal<Integer> versionHolder, 
+														   int version, 
 														   SimpleModule module,
 														   JsonMessageMigrator<T> migrator) {
-			module.addSerializer(migrator.getJavaType(), MigratingJsonSerializer.create(rawMapper, migrator, versionHolder));
-			module.addDeserializer(migrator.getJavaType(), MigratingJsonDeserializer.create(rawMapper, migrator, versionHolder));
+			module.addSerializer(migrator.getJavaType(), MigratingJsonSerializer.create(rawMapper, migrator, version));
+			module.addDeserializer(migrator.getJavaType(), MigratingJsonDeserializer.create(rawMapper, migrator, version));
 		}
 
 		private ObjectMapper buildRaw() {
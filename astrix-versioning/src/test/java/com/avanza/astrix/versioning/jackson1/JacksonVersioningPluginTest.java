@@ -16,7 +16,11 @@
 package com.avanza.astrix.versioning.jackson1;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 
@@ -63,6 +67,20 @@ public class JacksonVersioningPluginTest {
 		assertEquals(null, deserializedPojo.getBar()); // bar is stripped during downgrade
 	}
 	
+	@Test
+	public void serializesToUtf8Bytes() throws Exception {
+		AstrixObjectSerializer astrixObjectSerializer = new Jackson1SerializerPlugin().create(ObjectSerializerDefinition.versionedService(2, TestObjectMapperConfigurer.class));
+		assertTrue(astrixObjectSerializer.supportsStreaming());
+		
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		astrixObjectSerializer.serialize(new TestPojoV2("f\u00f6\u00f6", "bar"), 1, out); // bar will be removed during serialization
+		assertEquals(astrixObjectSerializer.serialize(new TestPojoV2("f\u00f6\u00f6", "bar"), 1), new String(out.toByteArray(), StandardCharsets.UTF_8));
+		
+		TestPojoV2 deserializedPojo = astrixObjectSerializer.deserialize(new ByteArrayInputStream(out.toByteArray()), TestPojoV2.class, 1);
+		assertEquals("f\u00f6\u00f6", deserializedPojo.getFoo());
+		assertEquals("defaultBar", deserializedPojo.getBar());
+	}
+	
 	public static class FakeDescriptor {
 	}
 	
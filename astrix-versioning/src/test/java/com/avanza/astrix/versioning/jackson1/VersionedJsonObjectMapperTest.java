@@ -16,11 +16,15 @@
 package com.avanza.astrix.versioning.jackson1;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.codehaus.jackson.node.ObjectNode;
 import org.junit.Test;
@@ -48,6 +52,51 @@ public class VersionedJsonObjectMapperTest {
 		assertEquals("kalle", foo.getFoo());
 	}
 	
+	@Test
+	public void appliesAllMigrationsToVersionsOlderThanOldestMigrationAndNoneToNewerVersions() throws Exception {
+		this.apiMigrations.add(new TestPojoV1ToV2Migration());
+		VersionedObjectMapperBuilder objectMapperBuilder = new VersionedObjectMapperBuilder(apiMigrations);
+		VersionedJsonObjectMapper objectMapper = objectMapperBuilder.build();
+		
+		TestPojoV2 testPojo = new TestPojoV2();
+		testPojo.setBar("b1");
+		testPojo.setFoo("f1");
+		
+		TestPojoV2 fromV0 = objectMapper.deserialize(objectMapper.serialize(testPojo, 0), TestPojoV2.class, 0);
+		assertEquals("f1", fromV0.getFoo());
+		assertEquals("defaultBar", fromV0.getBar());
+		
+		TestPojoV2 fromV5 = objectMapper.deserialize(objectMapper.serialize(testPojo, 5), TestPojoV2.class, 5);
+		assertEquals("f1", fromV5.getFoo());
+		assertEquals("b1", fromV5.getBar());
+	}
+	
+	@Test
+	public void serializesUsingDifferentVersionsConcurrently() throws Exception {
+		this.apiMigrations.add(new TestPojoV1ToV2Migration());
+		VersionedObjectMapperBuilder objectMapperBuilder = new VersionedObjectMapperBuilder(apiMigrations);
+		VersionedJsonObjectMapper objectMapper = objectMapperBuilder.build();
+		
+		TestPojoV2 testPojo = new TestPojoV2();
+		testPojo.setBar("b1");
+		testPojo.setFoo("f1");
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<TestPojoV2>> v1Results = new ArrayList<>();
+			List<Future<TestPojoV2>> v2Results = new ArrayList<>();
+			for (int i = 0; i < 100; i++) {
+				v1Results.add(executor.submit(() -> objectMapper.deserialize(objectMapper.serialize(testPojo, 1), TestPojoV2.class, 1)));
+				v2Results.add(executor.submit(() -> objectMapper.deserialize(objectMapper.serialize(testPojo, 2), TestPojoV2.class, 2)));
+			}
+			for (int i = 0; i < 100; i++) {
+				assertEquals("defaultBar", v1Results.get(i).get().getBar());
+				assertEquals("b1", v2Results.get(i).get().getBar());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+	
 	@Test
 	public void upgradesOldDocuments() throws Exception {
 		this.apiMigrations.add(new TestPojoV1ToV2Migration());
@@ -118,6 +167,89 @@ public class VersionedJsonObjectMapperTest {
 		assertEquals("defaultBar", deserializedPojos.get(0).getBar());
 	}
 	
+	@Test
+	@SuppressWarnings("serial")
+	public void doesNotMigrateDocumentsOnCurrentVersion() throws Exception {
+		apiMigrations.add(new TestPojoV1ToV2Migration());
+		VersionedObjectMapperBuilder objectMapperBuilder = new VersionedObjectMapperBuilder(apiMigrations);
+		VersionedJsonObjectMapper objectMapper = objectMapperBuilder.build();
+		
+		List<TestPojoV2> testPojos = new ArrayList<>();
+		for (String foo : new String[] { "p1", "p2" }) {
+			TestPojoV2 testPojo = new TestPojoV2();
+			testPojo.setFoo(foo);
+			testPojo.setBar("bar-" + foo);
+			testPojos.add(testPojo);
+		}
+		String jsonPojo = objectMapper.serialize(testPojos, 2);
+		
+		TypeToken<List<TestPojoV2>> genericListType = new TypeToken<List<TestPojoV2>>() {};
+		List<TestPojoV2> deserializedPojos = objectMapper.deserialize(jsonPojo, genericListType.getType(), 2);
+		assertEquals(2, deserializedPojos.size());
+		assertEquals("p1", deserializedPojos.get(0).getFoo());
+		assertEquals("bar-p1", deserializedPojos.get(0).getBar());
+		assertEquals("p2", deserializedPojos.get(1).getFoo());
+		assertEquals("bar-p2", deserializedPojos.get(1).getBar());
+	}
+	
+	@Test
+	public void countsMigratedMessagesByVersion() throws Exception {
+		apiMigrations.add(new TestPojoV1ToV2Migration());
+		VersionedObjectMapperBuilder objectMapperBuilder = new VersionedObjectMapperBuilder(apiMigrations);
+		VersionedJsonObjectMapper objectMapper = objectMapperBuilder.build();
+		
+		TestPojoV2 testPojo = new TestPojoV2();
+		testPojo.setFoo("f1");
+		String pojoJsonV1 = objectMapper.serialize(testPojo, 1);
+		objectMapper.deserialize(pojoJsonV1, TestPojoV2.class, 1);
+		// Versions older than the oldest migration are counted on the oldest migration version
+		objectMapper.deserialize(pojoJsonV1, TestPojoV2.class, 0);
+		objectMapper.serialize(testPojo, 2);
+		
+		assertEquals(Long.valueOf(3), objectMapper.getMigratedMessageCountByVersion().get(1));
+		assertEquals(1, objectMapper.getMigratedMessageCountByVersion().size());
+	}
+	
+	@Test
+	public void migratesMessagesOnVersionsBetweenSparseMigrationVersions() throws Exception {
+		apiMigrations.add(fromVersion(1_000_000, new TestPojoV1ToV2Migration()));
+		VersionedObjectMapperBuilder objectMapperBuilder = new VersionedObjectMapperBuilder(apiMigrations);
+		VersionedJsonObjectMapper objectMapper = objectMapperBuilder.build();
+		
+		TestPojoV2 migrated = objectMapper.deserialize("{\"foo\":\"f1\"}", TestPojoV2.class, 500_000);
+		TestPojoV2 current = objectMapper.deserialize("{\"foo\":\"f1\"}", TestPojoV2.class, 1_000_001);
+		
+		assertEquals("defaultBar", migrated.getBar());
+		assertNull(current.getBar());
+	}
+	
+	@Test
+	public void countsMigratedMessagesOnVersionsBetweenMigrationVersionsOnNextMigrationVersion() throws Exception {
+		apiMigrations.add(new TestPojoV1ToV2Migration());
+		apiMigrations.add(fromVersion(1_000_000, new TestPojoV1ToV2Migration()));
+		VersionedObjectMapperBuilder objectMapperBuilder = new VersionedObjectMapperBuilder(apiMigrations);
+		VersionedJsonObjectMapper objectMapper = objectMapperBuilder.build();
+		
+		objectMapper.deserialize("{\"foo\":\"f1\"}", TestPojoV2.class, 500_000);
+		
+		assertEquals(Long.valueOf(0), objectMapper.getMigratedMessageCountByVersion().get(1));
+		assertEquals(Long.valueOf(1), objectMapper.getMigratedMessageCountByVersion().get(1_000_000));
+		assertEquals(2, objectMapper.getMigratedMessageCountByVersion().size());
+	}
+	
+	private static AstrixJsonApiMigration fromVersion(int version, AstrixJsonApiMigration migration) {
+		return new AstrixJsonApiMigration() {
+			@Override
+			public AstrixJsonMessageMigration<?>[] getMigrations() {
+				return migration.getMigrations();
+			}
+			@Override
+			public int fromVersion() {
+				return version;
+			}
+		};
+	}
+	
 	private final class TestPojoV1ToV2Migration implements AstrixJsonApiMigration {
 		@Override
 		public AstrixJsonMessageMigration<?>[] getMigrations() {